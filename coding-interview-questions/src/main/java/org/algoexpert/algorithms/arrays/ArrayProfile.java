@@ -0,0 +1,113 @@
+package org.algoexpert.algorithms.arrays;
+
+import lombok.Value;
+
+import java.nio.IntBuffer;
+
+/**
+ * Profile of an integer array, used to choose the {@link SumStrategy} of the algorithms searching it.
+ * <p>
+ * The profile is computed in a single sequential pass over the array, which records its minimum and maximum values
+ * and whether it is sorted in ascending order. The pass costs a fraction of the hashing or sorting it can avoid.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Value
+public class ArrayProfile {
+
+    /**
+     * Largest value range, in bits, that a bitset is allocated for.
+     */
+    public static final long MAX_BITSET_RANGE = 1L << 30;
+    /**
+     * Number of bitset bits per element below which a bitset is chosen over hashing or sorting.
+     */
+    private static final long BITSET_BITS_PER_ELEMENT = 8;
+
+    int length;
+    int min;
+    int max;
+    boolean sorted;
+
+    /**
+     * Profiles the elements of a buffer, from its current position to its limit.
+     *
+     * @param array the buffer holding the array
+     * @return the profile of the array
+     */
+    public static ArrayProfile of(IntBuffer array) {
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        boolean sorted = true;
+        int previous = Integer.MIN_VALUE;
+        for (int i = array.position(), limit = array.limit(); i < limit; i++) {
+            int element = array.get(i);
+            sorted &= previous <= element;
+            previous = element;
+            min = Math.min(min, element);
+            max = Math.max(max, element);
+        }
+
+        return new ArrayProfile(array.remaining(), min, max, sorted);
+    }
+
+    /**
+     * Returns the number of distinct values between the minimum and maximum values, inclusive.
+     *
+     * @return the value range of the array, or 0 if the array is empty
+     */
+    public long range() {
+        return length == 0 ? 0 : (long) max - min + 1;
+    }
+
+    /**
+     * Returns the number of bytes of a bitset over the value range of the array.
+     *
+     * @return the size in bytes of a bitset with one bit per value of the range, rounded up to whole longs
+     */
+    public long bitsetBytes() {
+        return ((range() + Long.SIZE - 1) >>> 6) * Long.BYTES;
+    }
+
+    /**
+     * Checks whether the value range of the array fits in a bitset within the provided memory budget.
+     *
+     * @param memoryBudget the number of bytes the bitset may take
+     * @return true if a bitset can be allocated for the value range, false otherwise
+     */
+    public boolean fitsBitset(long memoryBudget) {
+        return range() <= MAX_BITSET_RANGE && bitsetBytes() <= memoryBudget;
+    }
+
+    /**
+     * Checks, before a bitset strategy is forced, that a bitset can be allocated for the value range of the array.
+     *
+     * @param memoryBudget the number of bytes the bitset may take
+     * @throws IllegalArgumentException if the value range exceeds {@link #MAX_BITSET_RANGE}, or if the bitset exceeds
+     * the memory budget
+     */
+    public void checkBitset(long memoryBudget) {
+
+        if (range() > MAX_BITSET_RANGE) {
+            throw new IllegalArgumentException("Value range too large for strategy " + SumStrategy.BITSET);
+        }
+        if (bitsetBytes() > memoryBudget) {
+            throw new IllegalArgumentException("A bitset over the value range of " + range() + " values needs " +
+                    bitsetBytes() + " bytes, more than the memory budget of " + memoryBudget + " bytes");
+        }
+    }
+
+    /**
+     * Checks whether the value range of the array is small enough, relative to its length, for a bitset to be cheaper
+     * than hashing or sorting, and fits in a bitset within the provided memory budget.
+     *
+     * @param memoryBudget the number of bytes the bitset may take
+     * @return true if a bitset is the cheapest representation of the array, false otherwise
+     */
+    public boolean prefersBitset(long memoryBudget) {
+        return fitsBitset(memoryBudget) && range() <= BITSET_BITS_PER_ELEMENT * length;
+    }
+}
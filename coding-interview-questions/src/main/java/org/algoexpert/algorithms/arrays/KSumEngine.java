@@ -0,0 +1,493 @@
+package org.algoexpert.algorithms.arrays;
+
+import org.algoexpert.collections.IntArrayList;
+import org.algoexpert.collections.IntIntHashMap;
+import org.algoexpert.execution.CancellationToken;
+import org.algoexpert.utils.IntRadixSort;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Engine finding every tuple of {@code k} numbers from an array that sums up to a target sum, generalizing "Two Number
+ * Sum", "Three Number Sum" and "Four Number Sum" to any {@code k}.
+ * <p>
+ * The array is sorted into a scratch buffer first, and every tuple is reported in ascending order, each distinct tuple
+ * of values once however often its values are repeated in the array. For an array of distinct integers, the tuples
+ * are exactly the combinations of {@code k} positions whose elements sum up to the target sum. Sums are computed with
+ * long arithmetic, so they never overflow, and tuples are passed to a {@link TupleSink} as soon as they are found, so
+ * the memory used does not grow with their number.
+ * </p>
+ * <p>
+ * Two plans are available, as described by {@link KSumPlan}. The recursive plan fixes the smallest number of the tuple
+ * and reduces the problem to a {@code (k - 1)}-sum over the rest of the array, down to a two-pointer sweep, and prunes
+ * every number whose smallest or largest reachable sum misses the target. The meet-in-the-middle plan indexes the
+ * combinations of the first half of the tuple in a hash table keyed by their sum, and looks up the complement of
+ * every combination of the second half, which trades memory for a much lower exponent once {@code k} reaches four. The
+ * plan is chosen from the estimated work of each plan and from the memory the index would need in the worst case.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public class KSumEngine {
+
+    /**
+     * Largest number of numbers in a tuple, which bounds the depth of the recursion.
+     */
+    public static final int MAX_K = 1 << 10;
+    private static final long BYTES_PER_INDEXED_COMBINATION = 48;
+    private static final double MAX_INDEXED_INTS = Integer.MAX_VALUE - 8;
+    private static final int CHECKPOINT_MASK = (1 << 16) - 1;
+
+    /**
+     * This method finds every tuple of {@code k} numbers from the array that sums up to the target sum, with the plan
+     * chosen for the array, and passes each tuple to the provided sink as soon as it is found.
+     * <p> The meet-in-the-middle plan may use up to a quarter of the maximum heap.
+     *
+     * @param array the input array of integers, which is left untouched
+     * @param k the number of numbers in each tuple
+     * @param targetSum the target sum to find in the array
+     * @param sink the sink receiving each tuple, in ascending order, that sums up to the target sum
+     * @return the plan used
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@link #MAX_K}
+     */
+    public KSumPlan kSum(int[] array, int k, long targetSum, TupleSink sink) {
+        return kSum(IntBuffer.wrap(array), k, targetSum, Runtime.getRuntime().maxMemory() / 4, KSumPlan.AUTO, sink);
+    }
+
+    /**
+     * This method finds every tuple of {@code k} numbers from the buffer, from its current position to its limit, that
+     * sums up to the target sum, with the requested plan, and passes each tuple to the provided sink as soon as it is
+     * found.
+     * <p> Tuples are reported in lexicographic order by the recursive plan, and in an order that depends on the sums
+     * of their halves by the meet-in-the-middle plan. If the target sum is below the sum of the {@code k} smallest
+     * numbers or above the sum of the {@code k} largest, no tuple is searched for at all.
+     *
+     * @param array the buffer holding the input array of integers, which is left untouched
+     * @param k the number of numbers in each tuple
+     * @param targetSum the target sum to find in the array
+     * @param memoryBudget the heap, in bytes, that the meet-in-the-middle index may use
+     * @param plan the requested plan, or null or {@link KSumPlan#AUTO} to choose one for the array
+     * @param sink the sink receiving each tuple, in ascending order, that sums up to the target sum
+     * @return the plan used
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@link #MAX_K}, or if the requested plan is
+     * not applicable to the array
+     */
+    public KSumPlan kSum(IntBuffer array, int k, long targetSum, long memoryBudget, KSumPlan plan, TupleSink sink) {
+
+        checkK(k);
+
+        CancellationToken token = CancellationToken.current();
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(array)) {
+            int[] values = sorted.array();
+            int n = sorted.length();
+            KSumPlan chosenPlan = choosePlan(n, k, isDistinct(values, n), memoryBudget, plan);
+            if (k > n) {
+                return chosenPlan;
+            }
+
+            long[] prefixSums = new long[n + 1];
+            for (int i = 0; i < n; i++) {
+                prefixSums[i + 1] = prefixSums[i] + values[i];
+            }
+            if (targetSum < prefixSums[k] || targetSum > prefixSums[n] - prefixSums[n - k]) {
+                return chosenPlan;
+            }
+
+            int[] tuple = new int[k];
+            if (chosenPlan == KSumPlan.MEET_IN_THE_MIDDLE) {
+                meetInTheMiddle(values, n, targetSum, tuple, sink, token);
+            } else {
+                reduce(values, n, prefixSums, 0, k, targetSum, tuple, sink, token);
+            }
+
+            return chosenPlan;
+        }
+    }
+
+    /**
+     * Checks, before any tuple is searched for, that {@code k} is valid and that the requested plan is applicable to
+     * the array, so that callers streaming the tuples can reject an invalid request before writing anything.
+     *
+     * @param array the buffer holding the input array of integers, which is left untouched
+     * @param k the number of numbers in each tuple
+     * @param memoryBudget the heap, in bytes, that the meet-in-the-middle index may use
+     * @param plan the requested plan, or null or {@link KSumPlan#AUTO} to choose one for the array
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@link #MAX_K}, or if the requested plan is
+     * not applicable to the array
+     */
+    public static void checkApplicable(IntBuffer array, int k, long memoryBudget, KSumPlan plan) {
+
+        checkK(k);
+        if (plan == KSumPlan.MEET_IN_THE_MIDDLE) {
+            try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(array)) {
+                choosePlan(sorted.length(), k, isDistinct(sorted.array(), sorted.length()), memoryBudget, plan);
+            }
+        }
+    }
+
+    /**
+     * Chooses the plan for an array, unless the caller forces one.
+     * <p> The meet-in-the-middle plan is chosen when it is applicable, when its index fits in the memory budget in the
+     * worst case, where every combination has a distinct sum, and when the combinations it enumerates are fewer than
+     * the {@code (k - 1)}-combinations the recursive plan may enumerate in the worst case. Otherwise the recursive plan
+     * is chosen, since it needs no memory beyond the sorted array.
+     *
+     * @param length the length of the array
+     * @param k the number of numbers in each tuple
+     * @param distinct whether the values of the array are distinct
+     * @param memoryBudget the heap, in bytes, that the meet-in-the-middle index may use
+     * @param requested the requested plan, or null or {@link KSumPlan#AUTO} to choose one
+     * @return the plan to use
+     * @throws IllegalArgumentException if the requested plan is not applicable to the array
+     */
+    public static KSumPlan choosePlan(int length, int k, boolean distinct, long memoryBudget, KSumPlan requested) {
+
+        int leftSize = k / 2;
+        int rightSize = k - leftSize;
+        boolean applicable = distinct && k >= 4;
+        double indexed = combinations(length - rightSize, leftSize);
+        boolean fits = indexed * leftSize <= MAX_INDEXED_INTS &&
+                indexed * (BYTES_PER_INDEXED_COMBINATION + (long) Integer.BYTES * leftSize) <= memoryBudget;
+
+        if (requested == null || requested == KSumPlan.AUTO) {
+            double meetInTheMiddleCost = 2 * indexed + combinations(length - leftSize, rightSize);
+            return applicable && fits && meetInTheMiddleCost < combinations(length, k - 1) ?
+                    KSumPlan.MEET_IN_THE_MIDDLE : KSumPlan.RECURSIVE;
+        }
+        if (requested == KSumPlan.MEET_IN_THE_MIDDLE && !applicable) {
+            throw new IllegalArgumentException(
+                    "Meet in the middle only applies to arrays of distinct values and k of at least 4");
+        }
+        if (requested == KSumPlan.MEET_IN_THE_MIDDLE && !fits) {
+            throw new IllegalArgumentException("Meet in the middle would exceed the memory budget of " + memoryBudget +
+                    " bytes");
+        }
+
+        return requested;
+    }
+
+    /**
+     * Reports the tuples of the sorted array, from the provided index, that complete the numbers already fixed in the
+     * tuple, by fixing its next number and recursing on the rest of the array.
+     *
+     * @param values the sorted array
+     * @param n the length of the array
+     * @param prefixSums the sums of the first {@code i} numbers of the array, for every {@code i} up to {@code n}
+     * @param start the first index of the rest of the array
+     * @param k the number of numbers left to fix
+     * @param targetSum the sum of the numbers left to fix
+     * @param tuple the tuple being built, whose first {@code tuple.length - k} numbers are fixed
+     * @param sink the sink receiving each tuple
+     * @param token the cancellation token of the calling execution, or null
+     */
+    private static void reduce(int[] values, int n, long[] prefixSums, int start, int k, long targetSum, int[] tuple,
+                               TupleSink sink, CancellationToken token) {
+
+        int depth = tuple.length - k;
+        if (k == 1) {
+            if (targetSum >= Integer.MIN_VALUE && targetSum <= Integer.MAX_VALUE &&
+                    Arrays.binarySearch(values, start, n, (int) targetSum) >= 0) {
+                tuple[depth] = (int) targetSum;
+                sink.accept(tuple);
+            }
+            return;
+        }
+        if (k == 2) {
+            sweep(values, start, n - 1, targetSum, tuple, sink);
+            return;
+        }
+
+        for (int i = start; i <= n - k; i++) {
+            if (i > start && values[i] == values[i - 1]) {
+                continue;
+            }
+            // The k numbers from i are the smallest tuple starting with the i-th number, and the k - 1 last numbers
+            // complete it into the largest one.
+            if (prefixSums[i + k] - prefixSums[i] > targetSum) {
+                break;
+            }
+            if (values[i] + prefixSums[n] - prefixSums[n - k + 1] < targetSum) {
+                continue;
+            }
+            CancellationToken.checkpoint(token);
+            tuple[depth] = values[i];
+            reduce(values, n, prefixSums, i + 1, k - 1, targetSum - values[i], tuple, sink, token);
+        }
+    }
+
+    /**
+     * Reports the pairs of a range of the sorted array that sum up to the target sum, as the last two numbers of the
+     * tuple, moving two pointers towards each other.
+     *
+     * @param values the sorted array
+     * @param left the first index of the range
+     * @param right the last index of the range, inclusive
+     * @param targetSum the sum of the pair
+     * @param tuple the tuple being built, whose numbers before the last two are fixed
+     * @param sink the sink receiving each tuple
+     */
+    private static void sweep(int[] values, int left, int right, long targetSum, int[] tuple, TupleSink sink) {
+
+        int depth = tuple.length - 2;
+        while (left < right) {
+            long currentSum = (long) values[left] + values[right];
+            if (currentSum == targetSum) {
+                int leftValue = values[left];
+                int rightValue = values[right];
+                tuple[depth] = leftValue;
+                tuple[depth + 1] = rightValue;
+                sink.accept(tuple);
+                while (left < right && values[left] == leftValue) {
+                    left++;
+                }
+                while (right > left && values[right] == rightValue) {
+                    right--;
+                }
+            } else if (currentSum < targetSum) {
+                left++;
+            } else {
+                right--;
+            }
+        }
+    }
+
+    /**
+     * Reports the tuples of the sorted array of distinct values by joining the combinations of its first and second
+     * halves on their sums.
+     * <p> The combinations of the first {@code k / 2} indices of a tuple are indexed by {@link CombinationIndex},
+     * ordered by their last index within each sum. Every combination of the remaining indices is then looked up by the
+     * complement of its sum, and matched with the indexed combinations whose last index is before its first one, so
+     * every combination of {@code k} indices is found exactly once.
+     *
+     * @param values the sorted array
+     * @param n the length of the array
+     * @param targetSum the target sum
+     * @param tuple the tuple to fill, of length {@code k}
+     * @param sink the sink receiving each tuple
+     * @param token the cancellation token of the calling execution, or null
+     */
+    private static void meetInTheMiddle(int[] values, int n, long targetSum, int[] tuple, TupleSink sink,
+                                        CancellationToken token) {
+
+        int leftSize = tuple.length / 2;
+        int rightSize = tuple.length - leftSize;
+        CombinationIndex index = CombinationIndex.build(values, n - rightSize, leftSize, token);
+        int[] combinations = index.combinations;
+
+        int[] right = firstCombination(rightSize, leftSize);
+        long visited = 0;
+        do {
+            if ((++visited & CHECKPOINT_MASK) == 0) {
+                CancellationToken.checkpoint(token);
+            }
+            long complement = targetSum - sumOf(values, right);
+            int group = index.groupsBySum.get((int) complement) - 1;
+            if (group < 0) {
+                continue;
+            }
+            for (int position = index.offsets[group], end = index.offsets[group + 1]; position < end; position++) {
+                int first = position * leftSize;
+                if (combinations[first + leftSize - 1] >= right[0]) {
+                    break;
+                }
+                long leftSum = 0;
+                for (int m = 0; m < leftSize; m++) {
+                    leftSum += tuple[m] = values[combinations[first + m]];
+                }
+                if (leftSum != complement) {
+                    continue;
+                }
+                for (int m = 0; m < rightSize; m++) {
+                    tuple[leftSize + m] = values[right[m]];
+                }
+                sink.accept(tuple);
+            }
+        } while (nextCombination(right, leftSize, n));
+    }
+
+    /**
+     * The combinations of a fixed number of indices below a limit, grouped by the sum of their numbers truncated to an
+     * int, in compressed sparse rows as in {@link PairSumIndex}. The combinations of a group are in colexicographic
+     * order, so ordered by their last index.
+     */
+    private static final class CombinationIndex {
+
+        private final IntIntHashMap groupsBySum;
+        private final int[] offsets;
+        private final int[] combinations;
+
+        /**
+         * Constructs an index from its layout.
+         *
+         * @param groupsBySum the group of each truncated sum, plus one
+         * @param offsets the offset of the first combination of each group, followed by the number of combinations
+         * @param combinations the indices of the combinations, flattened and grouped by sum
+         */
+        private CombinationIndex(IntIntHashMap groupsBySum, int[] offsets, int[] combinations) {
+            this.groupsBySum = groupsBySum;
+            this.offsets = offsets;
+            this.combinations = combinations;
+        }
+
+        /**
+         * Indexes the combinations of indices below a limit, enumerating them twice: once to count the combinations
+         * of each sum and once to store them at the offsets derived from the counts.
+         *
+         * @param values the sorted array
+         * @param limit the index before which every index of a combination is
+         * @param size the number of indices of each combination
+         * @param token the cancellation token of the calling execution, or null
+         * @return the index
+         */
+        private static CombinationIndex build(int[] values, int limit, int size, CancellationToken token) {
+
+            IntIntHashMap groupsBySum = new IntIntHashMap();
+            IntArrayList counts = new IntArrayList();
+            int[] combination = firstCombination(size, 0);
+            long visited = 0;
+            do {
+                if ((++visited & CHECKPOINT_MASK) == 0) {
+                    CancellationToken.checkpoint(token);
+                }
+                int sum = (int) sumOf(values, combination);
+                int group = groupsBySum.get(sum) - 1;
+                if (group < 0) {
+                    group = counts.size();
+                    counts.add(0);
+                    groupsBySum.put(sum, group + 1);
+                }
+                counts.addTo(group, 1);
+            } while (nextCombination(combination, 0, limit));
+
+            int groupCount = counts.size();
+            int[] offsets = new int[groupCount + 1];
+            int[] cursors = new int[groupCount];
+            for (int group = 0; group < groupCount; group++) {
+                cursors[group] = offsets[group];
+                offsets[group + 1] = offsets[group] + counts.get(group);
+            }
+
+            int[] combinations = new int[(int) visited * size];
+            combination = firstCombination(size, 0);
+            do {
+                int group = groupsBySum.get((int) sumOf(values, combination)) - 1;
+                System.arraycopy(combination, 0, combinations, cursors[group]++ * size, size);
+            } while (nextCombination(combination, 0, limit));
+
+            return new CombinationIndex(groupsBySum, offsets, combinations);
+        }
+    }
+
+    /**
+     * Returns the first combination, in colexicographic order, of indices from the provided one.
+     *
+     * @param size the number of indices of the combination
+     * @param low the smallest index
+     * @return the indices {@code low} to {@code low + size - 1}
+     */
+    private static int[] firstCombination(int size, int low) {
+
+        int[] combination = new int[size];
+        for (int m = 0; m < size; m++) {
+            combination[m] = low + m;
+        }
+
+        return combination;
+    }
+
+    /**
+     * Advances a combination of ascending indices to the next one in colexicographic order, where combinations are
+     * ordered by their last index, then by their previous ones.
+     *
+     * @param combination the combination, advanced in place
+     * @param low the smallest index
+     * @param limit the index before which every index is
+     * @return true if the combination was advanced, false if it was the last one
+     */
+    private static boolean nextCombination(int[] combination, int low, int limit) {
+
+        for (int j = 0; j < combination.length; j++) {
+            int bound = j + 1 < combination.length ? combination[j + 1] : limit;
+            if (combination[j] + 1 < bound) {
+                combination[j]++;
+                for (int m = 0; m < j; m++) {
+                    combination[m] = low + m;
+                }
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the sum of the numbers at the indices of a combination.
+     *
+     * @param values the array
+     * @param combination the indices
+     * @return the sum of their numbers
+     */
+    private static long sumOf(int[] values, int[] combination) {
+
+        long sum = 0;
+        for (int index : combination) {
+            sum += values[index];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Checks that a number of numbers in each tuple is supported.
+     *
+     * @param k the number of numbers in each tuple
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@link #MAX_K}
+     */
+    private static void checkK(int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K + ": " + k);
+        }
+    }
+
+    /**
+     * Checks whether the values of a sorted array are distinct.
+     *
+     * @param values the sorted array
+     * @param n the length of the array
+     * @return true if no value is repeated, false otherwise
+     */
+    private static boolean isDistinct(int[] values, int n) {
+
+        for (int i = 1; i < n; i++) {
+            if (values[i] == values[i - 1]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of combinations of {@code r} elements out of {@code n}, as a floating-point estimate that
+     * saturates to infinity rather than overflowing.
+     *
+     * @param n the number of elements
+     * @param r the number of elements of each combination
+     * @return the number of combinations, or 0 if there is none
+     */
+    private static double combinations(int n, int r) {
+
+        if (r < 0 || r > n) {
+            return 0;
+        }
+
+        double count = 1;
+        for (int i = 1, smaller = Math.min(r, n - r); i <= smaller; i++) {
+            count = count * (n - smaller + i) / i;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,33 @@
+package org.algoexpert.algorithms.arrays;
+
+/**
+ * Enum of the plans available to {@link KSumEngine} for finding the tuples of {@code k} numbers summing up to a target
+ * sum.
+ * <p>
+ * By default, the engine chooses the plan from the length of the array, the size of the tuples, whether the values
+ * are distinct and the memory budget. Callers can force a plan applicable to their input, for instance to compare the
+ * plans on the same input.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public enum KSumPlan {
+
+    /**
+     * Chooses the plan from the input and the memory budget.
+     */
+    AUTO,
+    /**
+     * Fixes the smallest number of the tuple and recurses on the rest of the sorted array, down to a two-pointer sweep
+     * for the last two numbers. Takes {@code O(n^(k-1))} time in the worst case and {@code O(n)} memory.
+     */
+    RECURSIVE,
+    /**
+     * Indexes the combinations of {@code k / 2} numbers by their sum in a hash table, then looks up the complement of
+     * every combination of the remaining {@code k - k / 2} numbers. Takes {@code O(n^(k - k/2))} time, plus the time to
+     * report the tuples, and memory proportional to the number of combinations indexed. Only applicable to arrays of
+     * distinct values and tuples of at least four numbers.
+     */
+    MEET_IN_THE_MIDDLE
+}
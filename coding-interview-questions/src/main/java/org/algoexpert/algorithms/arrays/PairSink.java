@@ -0,0 +1,23 @@
+package org.algoexpert.algorithms.arrays;
+
+/**
+ * Functional interface for receiving the pairs found by an algorithm one at a time.
+ * <p>
+ * Receiving the pairs through a sink lets a caller consume them as they are found, for instance by writing them to a
+ * response, instead of materializing all of them in memory first.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@FunctionalInterface
+public interface PairSink {
+
+    /**
+     * Receives a pair.
+     *
+     * @param first the first number of the pair
+     * @param second the second number of the pair
+     */
+    void accept(int first, int second);
+}
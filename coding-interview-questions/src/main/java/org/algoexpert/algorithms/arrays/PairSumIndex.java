@@ -0,0 +1,445 @@
+package org.algoexpert.algorithms.arrays;
+
+import org.algoexpert.collections.IntArrayList;
+import org.algoexpert.collections.IntIntHashMap;
+import org.algoexpert.execution.CancellationToken;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Compact index of the pairs of elements of an array, grouped by their sum.
+ * <p>
+ * The index is laid out in compressed sparse rows: every pair is a single int packing the indices of its two
+ * elements, 16 bits each, and the pairs with the same sum are stored contiguously in one flat array, the group of
+ * each sum being delimited by an array of offsets. A primitive hash map gives the group of a sum. A pair therefore
+ * costs 4 bytes, plus a few bytes per distinct sum, where a hash map of boxed pairs costs several dozen.
+ * </p>
+ * <p>
+ * The pairs of a group are ordered by the index of their second element, then of their first, which is the order in
+ * which an algorithm scanning the array from left to right would discover them, so such an algorithm can consult the
+ * pairs discovered so far by stopping at the first pair whose second index is too large.
+ * </p>
+ * <p>
+ * Groups are keyed by the sum truncated to an int. Pair sums span 33 bits, so a group may hold pairs whose sums differ
+ * by a multiple of 2<sup>32</sup>, and callers must check the exact sum of the pairs they read.
+ * </p>
+ * <p>
+ * An index built in parallel is split into partitions by a hash of the sum, each with its own hash map and its own
+ * contiguous range of pairs, so that every partition is grouped by a single thread without any synchronization. The
+ * groups of all partitions share one array of offsets, and the index is read exactly as an unpartitioned one. An
+ * index is immutable once built and may be read by any number of threads.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class PairSumIndex {
+
+    /**
+     * Largest length of an array whose pairs can be indexed, bounded by the 16 bits each index is packed into.
+     */
+    public static final int MAX_LENGTH = 1 << 16;
+    /**
+     * Bytes of heap used per indexed pair when every pair has a distinct sum, which is the worst case, whether the
+     * index is built sequentially or in parallel.
+     */
+    public static final long MAX_BYTES_PER_PAIR = 56;
+    private static final long MAX_PAIRS = Integer.MAX_VALUE - 8;
+    private static final long PARALLEL_THRESHOLD = 1 << 20;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int CHECKPOINT_MASK = (1 << 16) - 1;
+
+    private final IntIntHashMap[] groupsBySum;
+    private final int[] groupBases;
+    private final int partitionShift;
+    private final int[] offsets;
+    private final int[] pairs;
+
+    /**
+     * Constructs an index from its layout.
+     *
+     * @param groupsBySum the group of each truncated sum within its partition, plus one, for every partition
+     * @param groupBases the group of the first sum of every partition
+     * @param offsets the offset of the first pair of each group, followed by the number of pairs
+     * @param pairs the packed pairs, grouped by sum
+     */
+    private PairSumIndex(IntIntHashMap[] groupsBySum, int[] groupBases, int[] offsets, int[] pairs) {
+        int partitionBits = Integer.numberOfTrailingZeros(groupsBySum.length);
+        this.groupsBySum = groupsBySum;
+        this.groupBases = groupBases;
+        this.partitionShift = partitionBits == 0 ? 0 : Integer.SIZE - partitionBits;
+        this.offsets = offsets;
+        this.pairs = pairs;
+    }
+
+    /**
+     * Indexes the pairs of elements of a buffer, from its current position, whose second element is before the
+     * provided index.
+     * <p>
+     * The pairs are enumerated twice, once to count the pairs of each sum and once to store them at the offsets
+     * derived from the counts, so no pair is ever moved once stored.
+     * </p>
+     *
+     * @param array the buffer holding the array, whose position is left unchanged
+     * @param secondLimit the index, relative to the position, before which the second element of every pair is
+     * @param token the cancellation token of the calling execution, or null
+     * @return the index
+     * @throws IllegalArgumentException if the array is too long to be indexed
+     */
+    public static PairSumIndex build(IntBuffer array, int secondLimit, CancellationToken token) {
+
+        int limit = checkedLimit(array, secondLimit);
+        long pairCount = pairCount(limit);
+
+        int offset = array.position();
+        IntIntHashMap groupsBySum = new IntIntHashMap();
+        IntArrayList counts = new IntArrayList();
+        for (int second = 1; second < limit; second++) {
+            CancellationToken.checkpoint(token);
+            int secondValue = array.get(offset + second);
+            for (int first = 0; first < second; first++) {
+                int sum = array.get(offset + first) + secondValue;
+                int group = groupsBySum.get(sum) - 1;
+                if (group < 0) {
+                    group = counts.size();
+                    counts.add(0);
+                    groupsBySum.addTo(sum, group + 1);
+                }
+                counts.addTo(group, 1);
+            }
+        }
+
+        int groupCount = counts.size();
+        int[] offsets = new int[groupCount + 1];
+        int[] cursors = new int[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            cursors[group] = offsets[group];
+            offsets[group + 1] = offsets[group] + counts.get(group);
+        }
+
+        int[] pairs = new int[(int) pairCount];
+        for (int second = 1; second < limit; second++) {
+            CancellationToken.checkpoint(token);
+            int secondValue = array.get(offset + second);
+            for (int first = 0; first < second; first++) {
+                int group = groupsBySum.get(array.get(offset + first) + secondValue) - 1;
+                pairs[cursors[group]++] = pack(first, second);
+            }
+        }
+
+        return new PairSumIndex(new IntIntHashMap[] {groupsBySum}, new int[1], offsets, pairs);
+    }
+
+    /**
+     * Indexes the pairs of elements of a buffer exactly as {@link #build(IntBuffer, int, CancellationToken)}, but
+     * splits the work across a fork-join pool.
+     * <p>
+     * The pairs are split into partitions by a hash of their sum, several per thread so that skewed partitions even
+     * out. The range of second indices is first cut into chunks holding the same number of pairs, and the pairs of
+     * every chunk are counted per partition in parallel. The pairs are then scattered in parallel into a staging
+     * array, each partition contiguous and each chunk at the offset given by the counts, which keeps the pairs of a
+     * partition in the order of the sequential build. Finally, the partitions are grouped by sum in parallel, each
+     * into its own hash map and its own range of the pairs. The staging array costs 4 more bytes per pair while the
+     * index is built, which {@link #MAX_BYTES_PER_PAIR} accounts for. Indices too small to benefit from parallelism
+     * are built sequentially.
+     * </p>
+     *
+     * @param array the buffer holding the array, whose position is left unchanged
+     * @param secondLimit the index, relative to the position, before which the second element of every pair is
+     * @param pool the fork-join pool to split the work across
+     * @param token the cancellation token of the calling execution, or null
+     * @return the index
+     * @throws IllegalArgumentException if the array is too long to be indexed
+     */
+    public static PairSumIndex buildParallel(IntBuffer array, int secondLimit, ForkJoinPool pool,
+                                             CancellationToken token) {
+
+        int limit = checkedLimit(array, secondLimit);
+        long pairCount = pairCount(limit);
+        int parallelism = pool.getParallelism();
+        if (parallelism <= 1 || pairCount < PARALLEL_THRESHOLD) {
+            return build(array, secondLimit, token);
+        }
+
+        int offset = array.position();
+        int partitionCount = Integer.highestOneBit(parallelism * PARTITIONS_PER_THREAD - 1) << 1;
+        int partitionShift = Integer.SIZE - Integer.numberOfTrailingZeros(partitionCount);
+        int chunkCount = parallelism * PARTITIONS_PER_THREAD;
+        int[] chunkStarts = new int[chunkCount + 1];
+        for (int chunk = 1; chunk <= chunkCount; chunk++) {
+            chunkStarts[chunk] = secondBefore(pairCount * chunk / chunkCount, limit);
+        }
+
+        // A parallel stream runs on the pool of the task it is started from, so each phase is submitted to the pool
+        int[][] cursors = new int[chunkCount][partitionCount];
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int[] counts = cursors[chunk];
+            for (int second = chunkStarts[chunk]; second < chunkStarts[chunk + 1]; second++) {
+                CancellationToken.checkpoint(token);
+                int secondValue = array.get(offset + second);
+                for (int first = 0; first < second; first++) {
+                    counts[partitionOf(array.get(offset + first) + secondValue, partitionShift)]++;
+                }
+            }
+        })).join();
+
+        // The counts of each chunk are turned into the cursor where its next pair of each partition is staged
+        int[] partitionStarts = new int[partitionCount + 1];
+        for (int partition = 0, position = 0; partition < partitionCount; partition++) {
+            partitionStarts[partition] = position;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int count = cursors[chunk][partition];
+                cursors[chunk][partition] = position;
+                position += count;
+            }
+            partitionStarts[partition + 1] = position;
+        }
+
+        int[] staged = new int[(int) pairCount];
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int[] chunkCursors = cursors[chunk];
+            for (int second = chunkStarts[chunk]; second < chunkStarts[chunk + 1]; second++) {
+                CancellationToken.checkpoint(token);
+                int secondValue = array.get(offset + second);
+                for (int first = 0; first < second; first++) {
+                    int partition = partitionOf(array.get(offset + first) + secondValue, partitionShift);
+                    staged[chunkCursors[partition]++] = pack(first, second);
+                }
+            }
+        })).join();
+
+        IntIntHashMap[] groupsBySum = new IntIntHashMap[partitionCount];
+        int[][] partitionOffsets = new int[partitionCount][];
+        int[] pairs = new int[(int) pairCount];
+        pool.submit(() -> IntStream.range(0, partitionCount).parallel().forEach(partition -> {
+            int start = partitionStarts[partition];
+            int end = partitionStarts[partition + 1];
+            IntIntHashMap partitionGroups = new IntIntHashMap();
+            IntArrayList counts = new IntArrayList();
+            for (int position = start; position < end; position++) {
+                if ((position & CHECKPOINT_MASK) == 0) {
+                    CancellationToken.checkpoint(token);
+                }
+                int sum = sumOf(array, offset, staged[position]);
+                int group = partitionGroups.get(sum) - 1;
+                if (group < 0) {
+                    group = counts.size();
+                    counts.add(0);
+                    partitionGroups.put(sum, group + 1);
+                }
+                counts.addTo(group, 1);
+            }
+
+            int groupCount = counts.size();
+            int[] groupOffsets = new int[groupCount + 1];
+            int[] groupCursors = new int[groupCount];
+            groupOffsets[0] = start;
+            for (int group = 0; group < groupCount; group++) {
+                groupCursors[group] = groupOffsets[group];
+                groupOffsets[group + 1] = groupOffsets[group] + counts.get(group);
+            }
+            for (int position = start; position < end; position++) {
+                int group = partitionGroups.get(sumOf(array, offset, staged[position])) - 1;
+                pairs[groupCursors[group]++] = staged[position];
+            }
+
+            groupsBySum[partition] = partitionGroups;
+            partitionOffsets[partition] = groupOffsets;
+        })).join();
+
+        int[] groupBases = new int[partitionCount];
+        int groupCount = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            groupBases[partition] = groupCount;
+            groupCount += partitionOffsets[partition].length - 1;
+        }
+        int[] offsets = new int[groupCount + 1];
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int[] groupOffsets = partitionOffsets[partition];
+            System.arraycopy(groupOffsets, 0, offsets, groupBases[partition], groupOffsets.length - 1);
+        }
+        offsets[groupCount] = (int) pairCount;
+
+        return new PairSumIndex(groupsBySum, groupBases, offsets, pairs);
+    }
+
+    /**
+     * Checks whether the pairs of an array can be indexed, whatever the heap available.
+     *
+     * @param secondLimit the index before which the second element of every pair is
+     * @return true if the pairs fit in an index, false otherwise
+     */
+    public static boolean fits(int secondLimit) {
+        return secondLimit <= MAX_LENGTH && pairCount(secondLimit) <= MAX_PAIRS;
+    }
+
+    /**
+     * Returns the number of pairs whose second element is before the provided index.
+     *
+     * @param secondLimit the index before which the second element of every pair is
+     * @return the number of pairs
+     */
+    public static long pairCount(int secondLimit) {
+        return secondLimit < 2 ? 0 : (long) secondLimit * (secondLimit - 1) / 2;
+    }
+
+    /**
+     * Returns the group of the pairs whose sum, truncated to an int, is the same as the provided one.
+     *
+     * @param sum the sum
+     * @return the group, or -1 if no pair has that sum
+     */
+    public int groupOf(long sum) {
+
+        int partition = partitionShift == 0 ? 0 : partitionOf((int) sum, partitionShift);
+        int group = groupsBySum[partition].get((int) sum) - 1;
+
+        return group < 0 ? -1 : groupBases[partition] + group;
+    }
+
+    /**
+     * Returns the position of the first pair of a group.
+     *
+     * @param group the group
+     * @return the position of its first pair
+     */
+    public int groupStart(int group) {
+        return offsets[group];
+    }
+
+    /**
+     * Returns the position after the last pair of a group.
+     *
+     * @param group the group
+     * @return the position after its last pair
+     */
+    public int groupEnd(int group) {
+        return offsets[group + 1];
+    }
+
+    /**
+     * Returns the packed pair at a position.
+     *
+     * @param position the position of the pair
+     * @return the packed pair, to be unpacked with {@link #first(int)} and {@link #second(int)}
+     */
+    public int pairAt(int position) {
+        return pairs[position];
+    }
+
+    /**
+     * Returns the number of pairs in the index.
+     *
+     * @return the number of pairs
+     */
+    public int size() {
+        return pairs.length;
+    }
+
+    /**
+     * Returns the index of the first element of a packed pair.
+     *
+     * @param pair the packed pair
+     * @return the index of its first element
+     */
+    public static int first(int pair) {
+        return pair & 0xFFFF;
+    }
+
+    /**
+     * Returns the index of the second element of a packed pair.
+     *
+     * @param pair the packed pair
+     * @return the index of its second element
+     */
+    public static int second(int pair) {
+        return pair >>> 16;
+    }
+
+    /**
+     * Checks that the pairs of a buffer can be indexed.
+     *
+     * @param array the buffer holding the array
+     * @param secondLimit the index, relative to the position, before which the second element of every pair is
+     * @return the index before which the second element of every pair is, within the buffer
+     * @throws IllegalArgumentException if the array is too long to be indexed
+     */
+    private static int checkedLimit(IntBuffer array, int secondLimit) {
+
+        int limit = Math.max(0, Math.min(secondLimit, array.remaining()));
+        if (!fits(limit)) {
+            throw new IllegalArgumentException("Array too large for a pair-sum index: " + limit + " elements");
+        }
+
+        return limit;
+    }
+
+    /**
+     * Returns the smallest second index such that at least the provided number of pairs have a smaller second index.
+     *
+     * @param pairs the number of pairs
+     * @param limit the index before which the second element of every pair is
+     * @return the second index, at most the limit
+     */
+    private static int secondBefore(long pairs, int limit) {
+
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (pairCount(middle) < pairs) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns the partition of a truncated sum.
+     * <p>
+     * The hash maps of the partitions index their slots by the top bits of the sum multiplied by the golden ratio, so
+     * the partition is taken from a different mix of the sum; taking it from the same bits would crowd every sum of a
+     * partition into a fraction of the slots of its map.
+     * </p>
+     *
+     * @param sum the truncated sum
+     * @param partitionShift the number of bits to drop from the hash, 32 minus the number of partition bits
+     * @return the partition
+     */
+    private static int partitionOf(int sum, int partitionShift) {
+
+        int hash = sum * 0x7FEB352D;
+        hash ^= hash >>> 15;
+        hash *= 0x846CA68B;
+
+        return hash >>> partitionShift;
+    }
+
+    /**
+     * Returns the sum, truncated to an int, of the elements of a packed pair.
+     *
+     * @param array the buffer holding the array
+     * @param offset the position of the first element of the array in the buffer
+     * @param pair the packed pair
+     * @return the truncated sum of its elements
+     */
+    private static int sumOf(IntBuffer array, int offset, int pair) {
+        return array.get(offset + first(pair)) + array.get(offset + second(pair));
+    }
+
+    /**
+     * Packs the indices of the elements of a pair into a single int.
+     *
+     * @param first the index of the first element
+     * @param second the index of the second element
+     * @return the packed pair
+     */
+    private static int pack(int first, int second) {
+        return second << 16 | first;
+    }
+}
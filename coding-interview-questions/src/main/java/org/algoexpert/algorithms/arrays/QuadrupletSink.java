@@ -0,0 +1,25 @@
+package org.algoexpert.algorithms.arrays;
+
+/**
+ * Functional interface for receiving the quadruplets found by an algorithm one at a time.
+ * <p>
+ * Receiving the quadruplets through a sink lets a caller consume them as they are found, for instance by writing them
+ * to a response, instead of materializing all of them in memory first.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@FunctionalInterface
+public interface QuadrupletSink {
+
+    /**
+     * Receives a quadruplet.
+     *
+     * @param first the first number of the quadruplet
+     * @param second the second number of the quadruplet
+     * @param third the third number of the quadruplet
+     * @param fourth the fourth number of the quadruplet
+     */
+    void accept(int first, int second, int third, int fourth);
+}
@@ -0,0 +1,199 @@
+package org.algoexpert.algorithms.arrays;
+
+import org.algoexpert.execution.CancellationToken;
+import org.algoexpert.utils.TemporaryFiles;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * The pairs of elements of an array, partitioned by the hash of their sum into buckets spilled to a memory-mapped
+ * temporary file.
+ * <p>
+ * Every pair is stored once, as the indices of its two elements, in a bucket chosen by hashing the smaller of its sum
+ * {@code s} and the complement {@code target - s} of that sum. A sum and its complement therefore always share their
+ * bucket, so an algorithm matching pairs against their complements only ever needs one bucket at a time. The key is
+ * mixed by a Fibonacci multiply before being reduced to a bucket, as {@code IntHashSet} does for its slots, so
+ * clustered or arithmetic inputs, whose sums share their low bits, still spread evenly across the buckets. The pairs of
+ * a bucket are stored contiguously, in the order in which the array is scanned.
+ * </p>
+ * <p>
+ * The pairs are enumerated twice: once to count the pairs of each bucket, which sizes the file and gives the offset of
+ * every bucket, and once to write the pairs at those offsets. The file is mapped in segments of 1 GiB, since a single
+ * mapping cannot exceed 2 GiB, and is opened through {@link TemporaryFiles}, so it is deleted once it is no longer
+ * mapped; its pages live in the page cache rather than on the heap, and are released once the pairs are unreachable.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class SpilledPairSums {
+
+    private static final int PAIRS_PER_SEGMENT_SHIFT = 27;
+    private static final int PAIRS_PER_SEGMENT = 1 << PAIRS_PER_SEGMENT_SHIFT;
+    private static final int PAIR_BYTES = 2 * Integer.BYTES;
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final IntBuffer[] segments;
+    private final long[] bucketOffsets;
+
+    /**
+     * Constructs the spilled pairs from their layout.
+     *
+     * @param segments the mapped segments of the file, each holding the indices of up to 2<sup>27</sup> pairs
+     * @param bucketOffsets the position of the first pair of each bucket, followed by the number of pairs
+     */
+    private SpilledPairSums(IntBuffer[] segments, long[] bucketOffsets) {
+        this.segments = segments;
+        this.bucketOffsets = bucketOffsets;
+    }
+
+    /**
+     * Partitions the pairs of elements of a buffer, from its current position to its limit, into buckets spilled to a
+     * temporary file.
+     *
+     * @param array the buffer holding the array, whose position is left unchanged
+     * @param targetSum the target sum that the pairs are matched against
+     * @param bucketCount the number of buckets
+     * @param directory the directory to create the temporary file in
+     * @param token the cancellation token of the calling execution, or null
+     * @return the spilled pairs
+     * @throws IOException if the temporary file cannot be created or mapped
+     */
+    public static SpilledPairSums spill(IntBuffer array, int targetSum, int bucketCount, Path directory,
+                                        CancellationToken token) throws IOException {
+
+        int offset = array.position();
+        int n = array.remaining();
+
+        long[] bucketOffsets = new long[bucketCount + 1];
+        for (int second = 1; second < n; second++) {
+            CancellationToken.checkpoint(token);
+            int secondValue = array.get(offset + second);
+            for (int first = 0; first < second; first++) {
+                bucketOffsets[bucketOf((long) array.get(offset + first) + secondValue, targetSum, bucketCount) + 1]++;
+            }
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketOffsets[bucket + 1] += bucketOffsets[bucket];
+        }
+
+        IntBuffer[] segments = map(bucketOffsets[bucketCount], directory);
+        long[] cursors = new long[bucketCount];
+        System.arraycopy(bucketOffsets, 0, cursors, 0, bucketCount);
+        for (int second = 1; second < n; second++) {
+            CancellationToken.checkpoint(token);
+            int secondValue = array.get(offset + second);
+            for (int first = 0; first < second; first++) {
+                long sum = (long) array.get(offset + first) + secondValue;
+                long position = cursors[bucketOf(sum, targetSum, bucketCount)]++;
+                IntBuffer segment = segments[(int) (position >>> PAIRS_PER_SEGMENT_SHIFT)];
+                int index = indexInSegment(position);
+                segment.put(index, first);
+                segment.put(index + 1, second);
+            }
+        }
+
+        return new SpilledPairSums(segments, bucketOffsets);
+    }
+
+    /**
+     * Returns the bucket of a sum, which is also the bucket of its complement to the target sum.
+     *
+     * @param sum the sum
+     * @param targetSum the target sum
+     * @param bucketCount the number of buckets
+     * @return the bucket, from 0 to {@code bucketCount - 1}
+     */
+    static int bucketOf(long sum, int targetSum, int bucketCount) {
+
+        long hash = Math.min(sum, targetSum - sum) * FIBONACCI_MULTIPLIER;
+        // The high 32 bits of the mixed key are the best mixed, and are scaled down to the number of buckets
+        return (int) (((hash >>> 32) * bucketCount) >>> 32);
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the number of buckets
+     */
+    public int bucketCount() {
+        return bucketOffsets.length - 1;
+    }
+
+    /**
+     * Returns the position of the first pair of a bucket.
+     *
+     * @param bucket the bucket
+     * @return the position of its first pair
+     */
+    public long bucketStart(int bucket) {
+        return bucketOffsets[bucket];
+    }
+
+    /**
+     * Returns the position after the last pair of a bucket.
+     *
+     * @param bucket the bucket
+     * @return the position after its last pair
+     */
+    public long bucketEnd(int bucket) {
+        return bucketOffsets[bucket + 1];
+    }
+
+    /**
+     * Returns the index of the first element of the pair at a position.
+     *
+     * @param position the position of the pair
+     * @return the index of its first element
+     */
+    public int first(long position) {
+        return segments[(int) (position >>> PAIRS_PER_SEGMENT_SHIFT)].get(indexInSegment(position));
+    }
+
+    /**
+     * Returns the index of the second element of the pair at a position.
+     *
+     * @param position the position of the pair
+     * @return the index of its second element
+     */
+    public int second(long position) {
+        return segments[(int) (position >>> PAIRS_PER_SEGMENT_SHIFT)].get(indexInSegment(position) + 1);
+    }
+
+    /**
+     * Returns the index, within its segment, of the first int of the pair at a position.
+     *
+     * @param position the position of the pair
+     * @return the index of its first int in its segment
+     */
+    private static int indexInSegment(long position) {
+        return ((int) position & (PAIRS_PER_SEGMENT - 1)) << 1;
+    }
+
+    /**
+     * Creates a temporary file large enough for the provided number of pairs and maps it in segments.
+     *
+     * @param pairCount the number of pairs
+     * @param directory the directory to create the temporary file in
+     * @return the mapped segments
+     * @throws IOException if the temporary file cannot be created or mapped
+     */
+    private static IntBuffer[] map(long pairCount, Path directory) throws IOException {
+
+        IntBuffer[] segments = new IntBuffer[(int) ((pairCount + PAIRS_PER_SEGMENT - 1) >>> PAIRS_PER_SEGMENT_SHIFT)];
+        try (FileChannel channel = TemporaryFiles.open(directory, "algoexpert-pairs-")) {
+            for (int segment = 0; segment < segments.length; segment++) {
+                long firstPair = (long) segment << PAIRS_PER_SEGMENT_SHIFT;
+                long segmentPairs = Math.min(PAIRS_PER_SEGMENT, pairCount - firstPair);
+                segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, firstPair * PAIR_BYTES,
+                        segmentPairs * PAIR_BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        }
+
+        return segments;
+    }
+}
@@ -0,0 +1,37 @@
+package org.algoexpert.algorithms.arrays;
+
+/**
+ * Enum of the strategies available to the algorithms searching an array for numbers summing up to a target sum.
+ * <p>
+ * By default, the algorithms choose the strategy from the {@link ArrayProfile} of their input: a presorted input is
+ * swept with two pointers without sorting or allocating anything, and an input whose values span a small range is
+ * handled with a bitset over that range instead of a hash table or a sort. Callers can force any strategy
+ * applicable to an algorithm and its input, for instance to compare the strategies on the same input.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public enum SumStrategy {
+
+    /**
+     * Chooses the strategy from the profile of the input.
+     */
+    AUTO,
+    /**
+     * Tracks the elements seen so far in a hash set. Only applicable to "Two Number Sum".
+     */
+    HASHING,
+    /**
+     * Sorts a copy of the input, unless it is already sorted, and sweeps it with two pointers. "Three Number Sum" radix
+     * sorts the copy, and "Two Number Sum" sorts it with {@link java.util.Arrays#sort(int[])}.
+     */
+    TWO_POINTER,
+    /**
+     * Tracks the elements in a bitset spanning the range of the values: as the set of the elements seen so far for
+     * "Two Number Sum", and as a counting sort before a two-pointer sweep for "Three Number Sum". Only applicable to
+     * inputs whose value range fits in {@link ArrayProfile#MAX_BITSET_RANGE} bits, and whose bitset fits in the memory
+     * budget of the algorithms.
+     */
+    BITSET
+}
@@ -0,0 +1,23 @@
+package org.algoexpert.algorithms.arrays;
+
+/**
+ * Functional interface for receiving the tuples of numbers found by an algorithm one at a time.
+ * <p>
+ * Receiving the tuples through a sink lets a caller consume them as they are found, for instance by writing them to a
+ * response, instead of materializing all of them in memory first. The array holding a tuple is reused for the next
+ * one, so a sink keeping a tuple must copy it.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@FunctionalInterface
+public interface TupleSink {
+
+    /**
+     * Receives a tuple.
+     *
+     * @param tuple the numbers of the tuple, valid only until this method returns
+     */
+    void accept(int[] tuple);
+}
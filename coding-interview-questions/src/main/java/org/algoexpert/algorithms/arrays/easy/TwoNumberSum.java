@@ -1,10 +1,19 @@
 package org.algoexpert.algorithms.arrays.easy;
 
+import org.algoexpert.algorithms.arrays.ArrayProfile;
 import org.algoexpert.algorithms.arrays.ArraysAlgorithms;
+import org.algoexpert.algorithms.arrays.PairSink;
+import org.algoexpert.algorithms.arrays.SumStrategy;
+import org.algoexpert.collections.IntHashSet;
+import org.algoexpert.collections.IntIntHashMap;
+import org.algoexpert.execution.CancellationToken;
 
-import java.util.HashMap;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * <p> Write a function that takes in a non-empty array of distinct integers and an integer representing a target sum.
@@ -29,6 +38,9 @@ import java.util.Map;
 
 public class TwoNumberSum implements ArraysAlgorithms {
 
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHECKPOINT_MASK = (1 << 16) - 1;
+
     /**
      * This method takes a non-empty array of distinct integers and an integer representing a target sum.
      * It returns an array containing any two numbers from the input array that sum up to the target sum.
@@ -38,6 +50,10 @@ public class TwoNumberSum implements ArraysAlgorithms {
      * For each element, it calculates the potential match that would sum up to the target sum.
      * If the potential match is found in the hashtable, it returns the pair of numbers.
      * Otherwise, it adds the current element to the hashtable.
+     * <p>
+     * The hashtable is an {@link IntHashSet}, which stores the elements unboxed in a single open-addressing table, so
+     * the scan allocates nothing per element. Differences are computed in long arithmetic, so pairs whose int sum
+     * would overflow never match.
      *
      * @param array the input array of distinct integers
      * @param targetSum the target sum to find in the array
@@ -45,21 +61,397 @@ public class TwoNumberSum implements ArraysAlgorithms {
      */
     @Override
     public int[] twoNumberSum(int[] array, int targetSum) {
+        return twoNumberSum(IntBuffer.wrap(array), targetSum);
+    }
+
+    /**
+     * This method finds a pair of numbers that sum up to the target sum exactly as {@link #twoNumberSum(int[], int)},
+     * but reads the elements from an {@link IntBuffer}, from its current position to its limit.
+     * <p>
+     * The elements are read with absolute gets and the position of the buffer is left unchanged, so the buffer may be a
+     * view over a memory-mapped file that is never copied into a heap array.
+     *
+     * @param array the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @return an array containing two integers that sum up to the target sum, or an empty array if no such pair exists
+     */
+    public int[] twoNumberSum(IntBuffer array, int targetSum) {
+
+        IntHashSet arrayElementsAsDifference = new IntHashSet(array.remaining());
+
+        for(int i = array.position(), limit = array.limit(); i < limit; i++) {
+            int element = array.get(i);
+            long difference = (long) targetSum - element;
+            if(difference == (int) difference && arrayElementsAsDifference.contains((int) difference)) {
+                return new int[] {(int) difference, element};
+            } else {
+                arrayElementsAsDifference.add(element);
+            }
+        }
+
+        return new int[0];
+    }
+
+    /**
+     * Chooses the strategy for finding a pair of numbers in an array with the provided profile.
+     * <p> A presorted array is swept with two pointers, which allocates nothing. Otherwise, an array whose values span
+     * a small range relative to its length is scanned with a bitset over that range, and any other array with a hash
+     * set.
+     *
+     * @param profile the profile of the array
+     * @param requested the strategy requested by the caller, or null or {@link SumStrategy#AUTO} to choose one
+     * @param memoryBudget the number of bytes a bitset over the value range of the array may take
+     * @return the strategy to use
+     * @throws IllegalArgumentException if the bitset strategy is requested for an array whose value range is too large,
+     * or whose bitset exceeds the memory budget
+     */
+    public static SumStrategy chooseStrategy(ArrayProfile profile, SumStrategy requested, long memoryBudget) {
+
+        if (requested == SumStrategy.BITSET) {
+            profile.checkBitset(memoryBudget);
+        }
+        if (requested != null && requested != SumStrategy.AUTO) {
+            return requested;
+        }
+
+        if (profile.isSorted()) {
+            return SumStrategy.TWO_POINTER;
+        }
+        return profile.prefersBitset(memoryBudget) ? SumStrategy.BITSET : SumStrategy.HASHING;
+    }
+
+    /**
+     * This method finds a pair of numbers that sum up to the target sum as {@link #twoNumberSum(IntBuffer, int)}, but
+     * with the provided strategy.
+     * <p> With {@link SumStrategy#HASHING}, the method behaves exactly as {@link #twoNumberSum(IntBuffer, int)}. With
+     * {@link SumStrategy#BITSET}, the elements seen so far are tracked in a bitset over the value range of the array
+     * instead, which finds the same pair. With {@link SumStrategy#TWO_POINTER}, the array is swept from both ends,
+     * after sorting a copy of it unless it is already sorted.
+     *
+     * @param array the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param strategy the strategy to use, as chosen by {@link #chooseStrategy(ArrayProfile, SumStrategy, long)}
+     * @param profile the profile of the array
+     * @return an array containing two integers that sum up to the target sum, or an empty array if no such pair exists
+     */
+    public int[] twoNumberSum(IntBuffer array, int targetSum, SumStrategy strategy, ArrayProfile profile) {
 
-        Map<Integer, Boolean> arrayElementsAsDifference = new HashMap<>();
+        return switch (strategy) {
+            case TWO_POINTER -> twoPointerTwoNumberSum(array, targetSum, profile.isSorted());
+            case BITSET -> bitsetTwoNumberSum(array, targetSum, profile);
+            default -> twoNumberSum(array, targetSum);
+        };
+    }
+
+    /**
+     * Finds a pair of numbers that sum up to the target sum by sweeping the sorted array from both ends.
+     * <p> The sum of the two elements under the pointers is compared to the target sum, and the pointer whose move
+     * brings the sum closer to it is moved inwards, until the pointers meet.
+     *
+     * @param array the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param sorted whether the array is already sorted; if not, a sorted copy of it is swept instead
+     * @return an array containing two integers that sum up to the target sum, or an empty array if no such pair exists
+     */
+    private static int[] twoPointerTwoNumberSum(IntBuffer array, int targetSum, boolean sorted) {
+
+        if (!sorted) {
+            int[] copy = new int[array.remaining()];
+            array.get(array.position(), copy);
+            Arrays.sort(copy);
+            array = IntBuffer.wrap(copy);
+        }
 
-        for(int element : array) {
-            int difference = targetSum - element;
-            if(arrayElementsAsDifference.containsKey(difference)) {
-                return new int[] {difference, element};
+        int left = array.position();
+        int right = array.limit() - 1;
+        while (left < right) {
+            long currentSum = (long) array.get(left) + array.get(right);
+            if (currentSum == targetSum) {
+                return new int[] {array.get(left), array.get(right)};
+            } else if (currentSum < targetSum) {
+                left++;
             } else {
-                arrayElementsAsDifference.put(element, true);
+                right--;
+            }
+        }
+
+        return new int[0];
+    }
+
+    /**
+     * Finds a pair of numbers that sum up to the target sum by tracking the elements seen so far in a bitset over the
+     * value range of the array.
+     *
+     * @param array the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param profile the profile of the array, whose value range fits in a bitset
+     * @return an array containing two integers that sum up to the target sum, or an empty array if no such pair exists
+     */
+    private static int[] bitsetTwoNumberSum(IntBuffer array, int targetSum, ArrayProfile profile) {
+
+        int min = profile.getMin();
+        int max = profile.getMax();
+        long[] seen = new long[(int) ((profile.range() + 63) >>> 6)];
+
+        for (int i = array.position(), limit = array.limit(); i < limit; i++) {
+            int element = array.get(i);
+            long difference = (long) targetSum - element;
+            if (difference >= min && difference <= max) {
+                int bit = (int) (difference - min);
+                if ((seen[bit >>> 6] & (1L << bit)) != 0) {
+                    return new int[] {(int) difference, element};
+                }
             }
+            int bit = element - min;
+            seen[bit >>> 6] |= 1L << bit;
         }
 
         return new int[0];
     }
 
+    /**
+     * This method passes every pair of numbers from the buffer that sums up to the target sum to the provided sink, as
+     * soon as it is found, reading the elements from its current position to its limit.
+     * <p> Unlike {@link #twoNumberSum(IntBuffer, int)}, the elements need not be distinct: every pair of positions
+     * whose elements sum up to the target sum is reported, with the element at the earlier position first. The method
+     * counts the occurrences of each element seen so far in an {@link IntIntHashMap}, and for each element reports one
+     * pair per earlier occurrence of its complement. The pairs are never collected, so apart from the counts the
+     * memory used does not grow with the number of pairs, which can be quadratic in the length of the array.
+     * <p> Sums are computed in long arithmetic, so pairs whose int sum would overflow never match.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @param sink the sink receiving each pair that sums up to the target sum
+     */
+    public void allPairs(IntBuffer array, int targetSum, PairSink sink) {
+        allPairs(array, targetSum, sink, CancellationToken.current());
+    }
+
+    /**
+     * This method passes every pair of numbers that sums up to the target sum to the provided sink exactly as
+     * {@link #allPairs(IntBuffer, int, PairSink)}, but splits the work across a fork-join pool.
+     * <p> The value space is split into partitions such that every element and its complement fall into the same
+     * partition, and the elements are scattered into their partitions in a first parallel pass. The partitions are
+     * then searched for pairs independently and in parallel. Within a partition, pairs are reported in the same order
+     * as the sequential method reports them, but pairs from different partitions are interleaved, and the sink is
+     * called concurrently from several threads, so it must be thread-safe. Arrays too small to benefit from
+     * partitioning are processed sequentially.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @param sink the thread-safe sink receiving each pair that sums up to the target sum
+     * @param pool the fork-join pool to split the work across, whose parallelism is the number of partitions to split
+     *             the value space into
+     */
+    public void allPairsParallel(IntBuffer array, int targetSum, PairSink sink, ForkJoinPool pool) {
+
+        CancellationToken token = CancellationToken.current();
+        int parallelism = pool.getParallelism();
+        if (parallelism <= 1 || array.remaining() < PARALLEL_THRESHOLD) {
+            allPairs(array, targetSum, sink, token);
+            return;
+        }
+
+        ValuePartitions partitions = partitionByValue(array, targetSum, parallelism, pool, token);
+        pool.submit(() -> IntStream.range(0, parallelism).parallel().forEach(partition ->
+                allPairs(partitions.partition(partition), targetSum, sink, token))).join();
+    }
+
+    /**
+     * This method counts the pairs of numbers from the buffer that sum up to the target sum, reading the elements from
+     * its current position to its limit.
+     * <p> The pairs counted are exactly those reported by {@link #allPairs(IntBuffer, int, PairSink)}, but the count
+     * is computed from the frequency of each distinct element alone: every distinct element {@code x} smaller than its
+     * complement {@code y} contributes {@code frequency(x) * frequency(y)} pairs, and an element equal to its
+     * complement contributes {@code frequency(x) * (frequency(x) - 1) / 2} pairs. The count therefore takes linear time
+     * however many pairs there are.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @return the number of pairs of positions whose elements sum up to the target sum
+     */
+    public long countPairs(IntBuffer array, int targetSum) {
+        return countPairs(array, targetSum, CancellationToken.current());
+    }
+
+    /**
+     * This method counts the pairs of numbers that sum up to the target sum exactly as
+     * {@link #countPairs(IntBuffer, int)}, but splits the work across a fork-join pool.
+     * <p> The elements are scattered into partitions of the value space as in
+     * {@link #allPairsParallel(IntBuffer, int, PairSink, ForkJoinPool)}, the pairs of each partition are counted
+     * independently and in parallel, and the counts of the partitions are summed. Arrays too small to benefit from
+     * partitioning are processed sequentially.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @param pool the fork-join pool to split the work across, whose parallelism is the number of partitions to split
+     *             the value space into
+     * @return the number of pairs of positions whose elements sum up to the target sum
+     */
+    public long countPairsParallel(IntBuffer array, int targetSum, ForkJoinPool pool) {
+
+        CancellationToken token = CancellationToken.current();
+        int parallelism = pool.getParallelism();
+        if (parallelism <= 1 || array.remaining() < PARALLEL_THRESHOLD) {
+            return countPairs(array, targetSum, token);
+        }
+
+        ValuePartitions partitions = partitionByValue(array, targetSum, parallelism, pool, token);
+        return pool.submit(() -> IntStream.range(0, parallelism).parallel()
+                .mapToLong(partition -> countPairs(partitions.partition(partition), targetSum, token))
+                .sum()).join();
+    }
+
+    /**
+     * Reports every pair of numbers from the buffer that sums up to the target sum, checking the provided token for
+     * cancellation.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @param sink the sink receiving each pair that sums up to the target sum
+     * @param token the cancellation token of the execution, or null
+     */
+    private static void allPairs(IntBuffer array, int targetSum, PairSink sink, CancellationToken token) {
+
+        IntIntHashMap occurrences = new IntIntHashMap();
+
+        for (int i = array.position(), limit = array.limit(); i < limit; i++) {
+            if ((i & CHECKPOINT_MASK) == 0) {
+                CancellationToken.checkpoint(token);
+            }
+            int element = array.get(i);
+            long complement = (long) targetSum - element;
+            if (complement >= Integer.MIN_VALUE && complement <= Integer.MAX_VALUE) {
+                for (int count = occurrences.get((int) complement); count > 0; count--) {
+                    sink.accept((int) complement, element);
+                }
+            }
+            occurrences.addTo(element, 1);
+        }
+    }
+
+    /**
+     * Counts the pairs of numbers from the buffer that sum up to the target sum, checking the provided token for
+     * cancellation.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum to find in the array
+     * @param token the cancellation token of the execution, or null
+     * @return the number of pairs of positions whose elements sum up to the target sum
+     */
+    private static long countPairs(IntBuffer array, int targetSum, CancellationToken token) {
+
+        IntIntHashMap frequencies = new IntIntHashMap();
+        for (int i = array.position(), limit = array.limit(); i < limit; i++) {
+            if ((i & CHECKPOINT_MASK) == 0) {
+                CancellationToken.checkpoint(token);
+            }
+            frequencies.addTo(array.get(i), 1);
+        }
+
+        long[] pairCount = new long[1];
+        frequencies.forEach((element, frequency) -> {
+            long complement = (long) targetSum - element;
+            if (element < complement && complement <= Integer.MAX_VALUE) {
+                pairCount[0] += (long) frequency * frequencies.get((int) complement);
+            } else if (element == complement) {
+                pairCount[0] += (long) frequency * (frequency - 1) / 2;
+            }
+        });
+
+        return pairCount[0];
+    }
+
+    /**
+     * Scatters the elements of the buffer into partitions of the value space, such that every element and its
+     * complement with respect to the target sum fall into the same partition.
+     * <p> The buffer is split into one chunk per partition. A first parallel pass on the pool counts how many elements
+     * of each chunk fall into each partition, which gives every chunk a disjoint range of each partition to write to,
+     * and a second parallel pass copies the elements into those ranges. Elements keep their relative order within a
+     * partition.
+     *
+     * @param array the buffer holding the input array of integers
+     * @param targetSum the target sum
+     * @param partitionCount the number of partitions
+     * @param pool the fork-join pool to run the passes on
+     * @param token the cancellation token of the execution, or null
+     * @return the partitions of the elements
+     */
+    private static ValuePartitions partitionByValue(IntBuffer array, int targetSum, int partitionCount,
+                                                    ForkJoinPool pool, CancellationToken token) {
+
+        int offset = array.position();
+        int n = array.remaining();
+        int chunkSize = (n + partitionCount - 1) / partitionCount;
+
+        int[][] histograms = new int[partitionCount][partitionCount];
+        pool.submit(() -> IntStream.range(0, partitionCount).parallel().forEach(chunk -> {
+            CancellationToken.checkpoint(token);
+            int[] histogram = histograms[chunk];
+            for (int i = chunk * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++) {
+                histogram[partitionOf(array.get(offset + i), targetSum, partitionCount)]++;
+            }
+        })).join();
+
+        int[] starts = new int[partitionCount + 1];
+        int[][] cursors = new int[partitionCount][partitionCount];
+        int start = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            starts[partition] = start;
+            for (int chunk = 0; chunk < partitionCount; chunk++) {
+                cursors[chunk][partition] = start;
+                start += histograms[chunk][partition];
+            }
+        }
+        starts[partitionCount] = start;
+
+        int[] elements = new int[n];
+        pool.submit(() -> IntStream.range(0, partitionCount).parallel().forEach(chunk -> {
+            CancellationToken.checkpoint(token);
+            int[] cursor = cursors[chunk];
+            for (int i = chunk * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++) {
+                int element = array.get(offset + i);
+                elements[cursor[partitionOf(element, targetSum, partitionCount)]++] = element;
+            }
+        })).join();
+
+        return new ValuePartitions(elements, starts);
+    }
+
+    /**
+     * Returns the partition of the value space an element falls into.
+     * <p> The partition is derived from the smaller of the element and its complement, so both always fall into the
+     * same partition, and is spread across the partitions by Fibonacci hashing.
+     *
+     * @param element the element
+     * @param targetSum the target sum
+     * @param partitionCount the number of partitions
+     * @return the partition of the element
+     */
+    private static int partitionOf(int element, int targetSum, int partitionCount) {
+        long key = Math.min(element, (long) targetSum - element);
+        return (int) (((key * 0x9E3779B97F4A7C15L) >>> 32) % partitionCount);
+    }
+
+    /**
+     * The elements of an array scattered into contiguous partitions of the value space.
+     *
+     * @param elements the elements, grouped by partition
+     * @param starts the index of the first element of each partition, followed by the number of elements
+     */
+    private record ValuePartitions(int[] elements, int[] starts) {
+
+        /**
+         * Returns a buffer over the elements of a partition.
+         *
+         * @param partition the partition
+         * @return a buffer whose position and limit delimit the elements of the partition
+         */
+        private IntBuffer partition(int partition) {
+            return IntBuffer.wrap(elements, starts[partition], starts[partition + 1] - starts[partition]);
+        }
+    }
+
     /**
      * This method throws an {@link UnsupportedOperationException} indicating that the implementation for this algorithm
      * is not provided in this class.
@@ -1,8 +1,19 @@
 package org.algoexpert.algorithms.arrays.hard;
 
 import org.algoexpert.algorithms.arrays.ArraysAlgorithms;
+import org.algoexpert.algorithms.arrays.PairSumIndex;
+import org.algoexpert.algorithms.arrays.QuadrupletSink;
+import org.algoexpert.algorithms.arrays.SpilledPairSums;
+import org.algoexpert.collections.IntArrayList;
+import org.algoexpert.collections.IntIntHashMap;
+import org.algoexpert.execution.CancellationToken;
 
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Write a function that takes in a non-empty array of distinct integers and an integer representing a target sum. The
@@ -26,6 +37,16 @@ import java.util.*;
 
 public class FourNumberSum implements ArraysAlgorithms {
 
+    /**
+     * Bytes of heap used per pair of a chunk joined by the external mode when every pair has a distinct sum.
+     */
+    private static final long EXTERNAL_BYTES_PER_PAIR = 48;
+    private static final int MAX_CHUNK_PAIRS = 1 << 28;
+    private static final int MAX_BUCKETS = 1 << 16;
+    private static final long CHECKPOINT_MASK = (1 << 16) - 1;
+    private static final long LEAF_PROBE_COST = 1L << 20;
+    private static final int BATCH_QUADRUPLETS = 1 << 10;
+
     /**
      * This method takes a non-empty array of distinct integers and an integer representing a target sum. It returns a
      * list of integer arrays, where each array contains four numbers from the input array that sum up to the target
@@ -46,34 +67,454 @@ public class FourNumberSum implements ArraysAlgorithms {
     @Override
     public List<Integer[]> fourNumberSum(int[] array, int targetSum) {
 
-        Map<Integer, List<Integer[]>> allPairSums = new HashMap<>();
         List<Integer[]> quadruplets = new ArrayList<>();
 
-        int n = array.length;
-        for (int i = 1; i < n; i++) {
+        fourNumberSum(array, targetSum, (first, second, third, fourth) ->
+                quadruplets.add(new Integer[]{first, second, third, fourth}));
+
+        return quadruplets;
+    }
+
+    /**
+     * This method takes a non-empty array of distinct integers and an integer representing a target sum, and passes
+     * every quadruplet of numbers from the input array that sums up to the target sum to the provided sink, as soon as
+     * it is found.
+     * <p> The quadruplets are found exactly as in {@link #fourNumberSum(int[], int)}, but are never collected in a
+     * list, so the memory used by the method does not grow with the number of quadruplets.
+     *
+     * @param array the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param sink the sink receiving each quadruplet that sums up to the target sum
+     */
+    public void fourNumberSum(int[] array, int targetSum, QuadrupletSink sink) {
+        fourNumberSum(IntBuffer.wrap(array), targetSum, sink);
+    }
+
+    /**
+     * This method passes every quadruplet of numbers that sums up to the target sum to the provided sink exactly as
+     * {@link #fourNumberSum(int[], int, QuadrupletSink)}, but reads the elements from an {@link IntBuffer}, from its
+     * current position to its limit.
+     * <p> The elements are read with absolute gets and the position of the buffer is left unchanged, so the buffer may
+     * be a view over a memory-mapped file that is never copied into a heap array.
+     * <p> Rather than a hashtable of boxed pairs, the pairs are held by a {@link PairSumIndex}, which packs each pair
+     * into a single int and stores the pairs with the same sum contiguously. The index is built upfront, and the pairs
+     * it holds are ordered as the hashtable would have discovered them, so a lookup for the outer index {@code i}
+     * stops at the first pair whose second index is not before {@code i}. The quadruplets found, and the order in which
+     * they are found, are the same as with the hashtable. Sums are computed with long arithmetic, so they never
+     * overflow.
+     *
+     * @param buffer the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param sink the sink receiving each quadruplet that sums up to the target sum
+     * @throws IllegalArgumentException if the array is too long for its pairs to be indexed in memory
+     */
+    public void fourNumberSum(IntBuffer buffer, int targetSum, QuadrupletSink sink) {
+
+        int offset = buffer.position();
+        int n = buffer.remaining();
+        // A pair is only ever looked up with a pair of larger indices, so the last two elements never start a pair.
+        PairSumIndex allPairSums = PairSumIndex.build(buffer, n - 2, CancellationToken.current());
+
+        for (int i = 1; i < n - 1; i++) {
+            CancellationToken.checkpoint();
+            int ith = buffer.get(offset + i);
             for (int j = i + 1; j < n; j++) {
-                int currentSum = array[i] + array[j];
-                int difference = targetSum - currentSum;
-                if (allPairSums.containsKey(difference)) {
-                    for (Integer[] pair : allPairSums.get(difference)) {
-                       quadruplets.add(new Integer[]{pair[0], pair[1], array[i], array[j]});
+                int jth = buffer.get(offset + j);
+                long difference = (long) targetSum - ith - jth;
+                int group = allPairSums.groupOf(difference);
+                if (group < 0) {
+                    continue;
+                }
+                for (int position = allPairSums.groupStart(group), end = allPairSums.groupEnd(group);
+                     position < end; position++) {
+                    int pair = allPairSums.pairAt(position);
+                    if (PairSumIndex.second(pair) >= i) {
+                        break;
+                    }
+                    int first = buffer.get(offset + PairSumIndex.first(pair));
+                    int second = buffer.get(offset + PairSumIndex.second(pair));
+                    if ((long) first + second == difference) {
+                        sink.accept(first, second, ith, jth);
                     }
                 }
             }
-            for (int j = 0; j < i; j++) {
-                int currentSum = array[i] + array[j];
-                if (allPairSums.containsKey(currentSum)) {
-                    allPairSums.get(currentSum).add(new Integer[]{array[j], array[i]});
+        }
+    }
+
+    /**
+     * This method passes every quadruplet of numbers that sums up to the target sum to the provided sink exactly as
+     * {@link #fourNumberSum(IntBuffer, int, QuadrupletSink)}, but splits the work across the provided fork-join pool.
+     * <p> The pairs are indexed on the same pool by
+     * {@link PairSumIndex#buildParallel(IntBuffer, int, ForkJoinPool, CancellationToken)}, which partitions them by a
+     * hash of their sum and groups each partition on its own thread. The index is then probed by
+     * fork-join tasks, each owning a range of the outer index {@code i}: a lookup only ever reads the partition of the
+     * complement sum, so the tasks share the index without synchronization. The outer index {@code i} looks up
+     * {@code n - 1 - i} complements, so each range is split where the cumulative number of lookups reaches half of its
+     * total, until a range is cheap enough to be probed by a single task.
+     * <p> A task only matches pairs whose second index is before its outer index {@code i}, which finds every
+     * quadruplet of indices exactly once, as the sequential mode does. Each task collects its quadruplets into a flat
+     * {@link IntArrayList} and passes them to the sink in batches, holding the lock of the sink, so the sink is called
+     * by a single thread at a time and the memory used does not grow with the number of quadruplets. The quadruplets
+     * found are the same as in the sequential mode, but batches from different tasks may interleave in any order. A
+     * pool with a parallelism of 1 runs the sequential mode.
+     *
+     * @param buffer the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param pool the fork-join pool to probe the index on
+     * @param sink the sink receiving each quadruplet that sums up to the target sum, from one thread at a time
+     * @throws IllegalArgumentException if the array is too long for its pairs to be indexed in memory
+     */
+    public void fourNumberSumParallel(IntBuffer buffer, int targetSum, ForkJoinPool pool, QuadrupletSink sink) {
+
+        if (pool.getParallelism() <= 1) {
+            fourNumberSum(buffer, targetSum, sink);
+            return;
+        }
+
+        CancellationToken token = CancellationToken.current();
+        int n = buffer.remaining();
+        PairSumIndex allPairSums = PairSumIndex.buildParallel(buffer, n - 2, pool, token);
+        ProbeTask task = new ProbeTask(buffer, targetSum, allPairSums, sink, 1, Math.max(1, n - 1), token);
+        if (task.isLeaf()) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * This method passes every quadruplet of numbers that sums up to the target sum to the provided sink, holding the
+     * pairs in memory as {@link #fourNumberSumParallel(IntBuffer, int, ForkJoinPool, QuadrupletSink)} does when
+     * their index fits in the provided memory budget, and spilling them to disk as
+     * {@link #fourNumberSumExternal(IntBuffer, int, long, Path, QuadrupletSink)} does otherwise.
+     * <p> Whether the index fits is decided from its size in the worst case, when every pair has a distinct sum.
+     *
+     * @param buffer the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param memoryBudget the heap, in bytes, that the pairs may use
+     * @param spillDirectory the directory to spill the pairs to, if needed
+     * @param pool the fork-join pool to probe the pairs held in memory on
+     * @param sink the sink receiving each quadruplet that sums up to the target sum, from one thread at a time
+     * @throws IOException if the pairs cannot be spilled to disk
+     */
+    public void fourNumberSum(IntBuffer buffer, int targetSum, long memoryBudget, Path spillDirectory,
+                              ForkJoinPool pool, QuadrupletSink sink) throws IOException {
+
+        int secondLimit = buffer.remaining() - 2;
+        if (PairSumIndex.fits(secondLimit) &&
+                PairSumIndex.pairCount(secondLimit) <= memoryBudget / PairSumIndex.MAX_BYTES_PER_PAIR) {
+            fourNumberSumParallel(buffer, targetSum, pool, sink);
+        } else {
+            fourNumberSumExternal(buffer, targetSum, memoryBudget, spillDirectory, sink);
+        }
+    }
+
+    /**
+     * This method passes every quadruplet of numbers that sums up to the target sum to the provided sink, like
+     * {@link #fourNumberSum(IntBuffer, int, QuadrupletSink)}, but spills the pairs to disk so that arrays whose pairs
+     * exceed the heap can be processed within a fixed memory budget.
+     * <p> Every pair of indices {@code (j, i)} with {@code j < i} is written once to a {@link SpilledPairSums}, in a
+     * bucket that its sum shares with the complement of that sum, with enough buckets for an average bucket to fit in
+     * the memory budget. The complements of the pairs of a bucket are therefore all in the same bucket, so each bucket
+     * is joined with itself, independently of the others: its pairs are loaded into memory grouped by sum, one chunk
+     * within the memory budget at a time, and every pair of the bucket is streamed from disk against each chunk. A
+     * match is a quadruplet when the second index of the pair of the chunk is before the first index of the streamed
+     * pair, which finds every quadruplet of indices exactly once, as the in-memory mode does. Quadruplets are passed to
+     * the sink as soon as they are found, in an order that depends on the buckets rather than on the indices.
+     *
+     * @param buffer the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param memoryBudget the heap, in bytes, that a chunk of pairs may use
+     * @param spillDirectory the directory to spill the pairs to
+     * @param sink the sink receiving each quadruplet that sums up to the target sum
+     * @throws IOException if the pairs cannot be spilled to disk
+     */
+    public void fourNumberSumExternal(IntBuffer buffer, int targetSum, long memoryBudget, Path spillDirectory,
+                                      QuadrupletSink sink) throws IOException {
+
+        CancellationToken token = CancellationToken.current();
+        int n = buffer.remaining();
+        long pairCount = (long) n * (n - 1) / 2;
+        int chunkCapacity = (int) Math.max(1, Math.min(MAX_CHUNK_PAIRS, memoryBudget / EXTERNAL_BYTES_PER_PAIR));
+        int bucketCount = (int) Math.max(1, Math.min(MAX_BUCKETS, (pairCount + chunkCapacity - 1) / chunkCapacity));
+
+        SpilledPairSums pairs = SpilledPairSums.spill(buffer, targetSum, bucketCount, spillDirectory, token);
+        Chunk chunk = new Chunk((int) Math.min(chunkCapacity, pairCount));
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            for (long chunkStart = pairs.bucketStart(bucket); chunkStart < pairs.bucketEnd(bucket);
+                 chunkStart += chunkCapacity) {
+                CancellationToken.checkpoint(token);
+                int chunkLength = (int) Math.min(chunkCapacity, pairs.bucketEnd(bucket) - chunkStart);
+                joinChunk(buffer, targetSum, pairs, chunk, chunkStart, chunkLength, bucket, sink, token);
+            }
+        }
+    }
+
+    /**
+     * Loads a chunk of the pairs of a bucket into memory, grouped by sum, and matches every pair of the bucket against
+     * it.
+     *
+     * @param buffer the buffer holding the input array
+     * @param targetSum the target sum to find in the array
+     * @param pairs the spilled pairs
+     * @param chunk the chunk to load the pairs into
+     * @param chunkStart the position of the first pair of the chunk
+     * @param chunkLength the number of pairs of the chunk
+     * @param bucket the bucket of the chunk, which holds the complements of its pairs
+     * @param sink the sink receiving each quadruplet that sums up to the target sum
+     * @param token the cancellation token of the calling execution, or null
+     */
+    private static void joinChunk(IntBuffer buffer, int targetSum, SpilledPairSums pairs, Chunk chunk,
+                                  long chunkStart, int chunkLength, int bucket, QuadrupletSink sink,
+                                  CancellationToken token) {
+
+        int offset = buffer.position();
+        chunk.load(buffer, pairs, chunkStart, chunkLength);
+
+        for (long position = pairs.bucketStart(bucket); position < pairs.bucketEnd(bucket); position++) {
+            if ((position & CHECKPOINT_MASK) == 0) {
+                CancellationToken.checkpoint(token);
+            }
+            int first = pairs.first(position);
+            int second = pairs.second(position);
+            int firstValue = buffer.get(offset + first);
+            int secondValue = buffer.get(offset + second);
+            long difference = (long) targetSum - firstValue - secondValue;
+            int group = chunk.groupsBySum.get((int) difference) - 1;
+            if (group < 0) {
+                continue;
+            }
+            for (int k = chunk.offsets[group], end = chunk.offsets[group + 1]; k < end; k++) {
+                int matchFirst = chunk.firsts[k];
+                int matchSecond = chunk.seconds[k];
+                int matchFirstValue = buffer.get(offset + matchFirst);
+                int matchSecondValue = buffer.get(offset + matchSecond);
+                if ((long) matchFirstValue + matchSecondValue != difference) {
+                    continue;
+                }
+                // The pair of the chunk comes first, so a quadruplet matched the other way round is not found twice
+                if (matchSecond < first) {
+                    sink.accept(matchFirstValue, matchSecondValue, firstValue, secondValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * A chunk of spilled pairs loaded into memory, with the pairs of the same truncated sum stored contiguously. The
+     * arrays are allocated once for the largest chunk and reused by every chunk.
+     */
+    private static final class Chunk {
+
+        private final int[] groupOfPair;
+        private final int[] firsts;
+        private final int[] seconds;
+        private final IntArrayList cursors = new IntArrayList();
+        private IntIntHashMap groupsBySum;
+        private int[] offsets;
+
+        /**
+         * Constructs a chunk holding up to the provided number of pairs.
+         *
+         * @param capacity the largest number of pairs of a chunk
+         */
+        private Chunk(int capacity) {
+            this.groupOfPair = new int[capacity];
+            this.firsts = new int[capacity];
+            this.seconds = new int[capacity];
+        }
+
+        /**
+         * Loads spilled pairs into the chunk, replacing the pairs it held.
+         *
+         * @param buffer the buffer holding the input array
+         * @param pairs the spilled pairs
+         * @param start the position of the first pair to load
+         * @param length the number of pairs to load
+         */
+        private void load(IntBuffer buffer, SpilledPairSums pairs, long start, int length) {
+
+            int offset = buffer.position();
+            groupsBySum = new IntIntHashMap();
+            cursors.clear();
+            for (int k = 0; k < length; k++) {
+                int sum = buffer.get(offset + pairs.first(start + k)) + buffer.get(offset + pairs.second(start + k));
+                int group = groupsBySum.get(sum) - 1;
+                if (group < 0) {
+                    group = cursors.size();
+                    cursors.add(0);
+                    groupsBySum.put(sum, group + 1);
+                }
+                cursors.addTo(group, 1);
+                groupOfPair[k] = group;
+            }
+
+            // The number of pairs of each group is turned into the cursor where its next pair is stored
+            int groupCount = cursors.size();
+            offsets = new int[groupCount + 1];
+            for (int group = 0; group < groupCount; group++) {
+                offsets[group + 1] = offsets[group] + cursors.get(group);
+                cursors.addTo(group, offsets[group] - cursors.get(group));
+            }
+            for (int k = 0; k < length; k++) {
+                int slot = cursors.addTo(groupOfPair[k], 1) - 1;
+                firsts[slot] = pairs.first(start + k);
+                seconds[slot] = pairs.second(start + k);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task probing the pair-sum index for a range of the outer index, and passing the quadruplets found to
+     * the sink in batches.
+     */
+    private static final class ProbeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final IntBuffer buffer;
+        private final int targetSum;
+        private final PairSumIndex allPairSums;
+        private final QuadrupletSink sink;
+        private final int from;
+        private final int to;
+        private final CancellationToken token;
+
+        /**
+         * Constructs a task probing a range of the outer index.
+         *
+         * @param buffer the buffer holding the input array
+         * @param targetSum the target sum to find in the array
+         * @param allPairSums the index of the pairs of the array
+         * @param sink the sink receiving each quadruplet, whose lock is held while it is called
+         * @param from the first outer index of the range, inclusive
+         * @param to the last outer index of the range, exclusive
+         * @param token the cancellation token of the calling execution, or null
+         */
+        private ProbeTask(IntBuffer buffer, int targetSum, PairSumIndex allPairSums, QuadrupletSink sink, int from,
+                          int to, CancellationToken token) {
+            this.buffer = buffer;
+            this.targetSum = targetSum;
+            this.allPairSums = allPairSums;
+            this.sink = sink;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+        }
+
+        /**
+         * Checks whether the range is cheap enough to be probed without splitting it.
+         *
+         * @return true if the range is probed by this task alone, false otherwise
+         */
+        private boolean isLeaf() {
+            return to - from < 2 || cost(to) - cost(from) <= LEAF_PROBE_COST;
+        }
+
+        /**
+         * Probes the range, or splits it at its cost midpoint and probes both halves in parallel.
+         */
+        @Override
+        protected void compute() {
+
+            if (isLeaf()) {
+                probeRange();
+                return;
+            }
+
+            int split = costMidpoint();
+            invokeAll(new ProbeTask(buffer, targetSum, allPairSums, sink, from, split, token),
+                    new ProbeTask(buffer, targetSum, allPairSums, sink, split, to, token));
+        }
+
+        /**
+         * Returns the total number of lookups of the outer indices before the provided one.
+         *
+         * @param index the outer index
+         * @return the cumulative cost of the outer indices {@code [0, index)}
+         */
+        private long cost(int index) {
+            long n = buffer.remaining();
+            return index * (n - 1) - (long) index * (index - 1) / 2;
+        }
+
+        /**
+         * Finds the outer index splitting the range into two parts of roughly equal cost.
+         *
+         * @return the first outer index of the second part, strictly inside the range
+         */
+        private int costMidpoint() {
+
+            long halfCost = cost(from) + (cost(to) - cost(from)) / 2;
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cost(middle) < halfCost) {
+                    low = middle + 1;
                 } else {
-                    Integer[] pair = new Integer[]{array[j], array[i]};
-                    allPairSums.put(currentSum, new ArrayList<>(){{
-                        add(pair);
-                    }});
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * Probes the index for every outer index of the range, as the sequential mode does.
+         */
+        private void probeRange() {
+
+            int offset = buffer.position();
+            int n = buffer.remaining();
+            IntArrayList quadruplets = new IntArrayList();
+            for (int i = from; i < to; i++) {
+                CancellationToken.checkpoint(token);
+                int ith = buffer.get(offset + i);
+                for (int j = i + 1; j < n; j++) {
+                    int jth = buffer.get(offset + j);
+                    long difference = (long) targetSum - ith - jth;
+                    int group = allPairSums.groupOf(difference);
+                    if (group < 0) {
+                        continue;
+                    }
+                    for (int position = allPairSums.groupStart(group), end = allPairSums.groupEnd(group);
+                         position < end; position++) {
+                        int pair = allPairSums.pairAt(position);
+                        if (PairSumIndex.second(pair) >= i) {
+                            break;
+                        }
+                        int first = buffer.get(offset + PairSumIndex.first(pair));
+                        int second = buffer.get(offset + PairSumIndex.second(pair));
+                        if ((long) first + second == difference) {
+                            quadruplets.add(first, second, ith, jth);
+                        }
+                    }
+                    if (quadruplets.size() >= BATCH_QUADRUPLETS * 4) {
+                        flush(quadruplets);
+                    }
                 }
             }
+            flush(quadruplets);
         }
 
-        return quadruplets;
+        /**
+         * Passes a batch of quadruplets to the sink while holding its lock, and empties the batch.
+         *
+         * @param quadruplets the quadruplets, flattened into consecutive groups of four integers
+         */
+        private void flush(IntArrayList quadruplets) {
+
+            if (quadruplets.isEmpty()) {
+                return;
+            }
+            synchronized (sink) {
+                for (int k = 0; k < quadruplets.size(); k += 4) {
+                    sink.accept(quadruplets.get(k), quadruplets.get(k + 1), quadruplets.get(k + 2),
+                            quadruplets.get(k + 3));
+                }
+            }
+            quadruplets.clear();
+        }
     }
 
     /**
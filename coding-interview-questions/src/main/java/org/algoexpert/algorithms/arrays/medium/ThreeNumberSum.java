@@ -1,11 +1,19 @@
 package org.algoexpert.algorithms.arrays.medium;
 
+import org.algoexpert.algorithms.arrays.ArrayProfile;
 import org.algoexpert.algorithms.arrays.ArraysAlgorithms;
+import org.algoexpert.algorithms.arrays.SumStrategy;
+import org.algoexpert.collections.IntArrayList;
+import org.algoexpert.execution.CancellationToken;
+import org.algoexpert.utils.IntRadixSort;
 
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Write a function that takes in a non-empty array of distinct integers and an integer representing a target sum. The
@@ -29,14 +37,23 @@ import java.util.Map;
 
 public class ThreeNumberSum implements ArraysAlgorithms {
 
+    /**
+     * The number of inner pointer steps below which a range of the outer index is swept by a single task.
+     */
+    private static final long LEAF_SWEEP_COST = 1L << 18;
+
     /**
      * This method takes a non-empty array of distinct integers and an integer representing a target sum. It returns a
      * list of integer arrays, where each array contains three numbers from the input array that sum up to the target
      * sum. If no such triplet exists, it returns an empty list.
      * <p>
-     * The method sorts the input array and then uses a three-pointer approach to find all unique triplets that sum up
-     * to the target sum. It iterates through the array, and for each element, it uses two pointers (left and right) to
-     * find pairs that, together with the current element, sum up to the target sum.
+     * The method sorts a copy of the input array and then uses a three-pointer approach to find all unique triplets
+     * that sum up to the target sum. It iterates through the array, and for each element, it uses two pointers (left
+     * and right) to find pairs that, together with the current element, sum up to the target sum.
+     * </p>
+     * <p>
+     * The copy is sorted with {@link IntRadixSort} into pooled scratch buffers, so the input array is left untouched
+     * and no array is allocated per call once an array of the same length has been sorted.
      * </p>
      *
      * @param array the input array of distinct integers
@@ -47,17 +64,193 @@ public class ThreeNumberSum implements ArraysAlgorithms {
     @Override
     public List<Integer[]> threeNumberSum(int[] array, int targetSum) {
 
-        List<Integer[]> result = new ArrayList<>();
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(IntBuffer.wrap(array))) {
+            return sweep(sorted.array(), sorted.length(), targetSum);
+        }
+    }
+
+    /**
+     * Chooses the strategy for finding triplets in an array with the provided profile.
+     * <p>
+     * A presorted array is swept with two pointers straight away. Otherwise, an array whose values span a small range
+     * relative to its length is sorted with a bitset over that range, and any other array with a radix sort, both in
+     * linear time.
+     * </p>
+     *
+     * @param profile the profile of the array
+     * @param requested the strategy requested by the caller, or null or {@link SumStrategy#AUTO} to choose one
+     * @param memoryBudget the number of bytes a bitset over the value range of the array may take
+     * @return the strategy to use
+     * @throws IllegalArgumentException if hashing is requested, or if the bitset strategy is requested for an array
+     * whose value range is too large, or whose bitset exceeds the memory budget
+     */
+    public static SumStrategy chooseStrategy(ArrayProfile profile, SumStrategy requested, long memoryBudget) {
+
+        if (requested == SumStrategy.HASHING) {
+            throw new IllegalArgumentException("Strategy " + SumStrategy.HASHING + " is not applicable to this " +
+                    "algorithm");
+        }
+        if (requested == SumStrategy.BITSET) {
+            profile.checkBitset(memoryBudget);
+        }
+        if (requested != null && requested != SumStrategy.AUTO) {
+            return requested;
+        }
+
+        return !profile.isSorted() && profile.prefersBitset(memoryBudget) ? SumStrategy.BITSET : SumStrategy.TWO_POINTER;
+    }
+
+    /**
+     * This method finds all triplets that sum up to the target sum as {@link #threeNumberSum(int[], int)}, reading
+     * the elements of a buffer from its current position to its limit, but sorts them with the provided strategy.
+     * <p>
+     * With {@link SumStrategy#TWO_POINTER}, the elements are radix sorted unless they are already sorted. With
+     * {@link SumStrategy#BITSET}, the elements are set in a bitset over the value range of the array and read back in
+     * ascending order, which sorts distinct elements in time linear in the length and the value range of the array.
+     * Should the array contain duplicates after all, it is radix sorted instead, so the triplets found never depend on
+     * the strategy. Either way, the elements are sorted into pooled scratch buffers, and the buffer is left untouched.
+     * </p>
+     *
+     * @param array the buffer holding the input array of distinct integers
+     * @param targetSum the target sum to find in the array
+     * @param strategy the strategy to use, as chosen by {@link #chooseStrategy(ArrayProfile, SumStrategy, long)}
+     * @param profile the profile of the array
+     * @return a list of integer arrays, where each array contains three integers that sum up to the target sum,
+     * or an empty list if no such triplet exists
+     */
+    public List<Integer[]> threeNumberSum(IntBuffer array, int targetSum, SumStrategy strategy,
+                                          ArrayProfile profile) {
 
-        Arrays.sort(array);
+        try (IntRadixSort.Scratch sorted = sortedCopy(array, strategy, profile, null)) {
+            return sweep(sorted.array(), sorted.length(), targetSum);
+        }
+    }
+
+    /**
+     * This method finds all distinct triplets of values that sum up to the target sum, sweeping ranges of the outer
+     * index in parallel on the provided fork-join pool. The elements of the buffer are sorted with the provided
+     * strategy as by {@link #threeNumberSum(IntBuffer, int, SumStrategy, ArrayProfile)}, and a radix sort splits its
+     * passes across the same pool.
+     * <p>
+     * The inner two-pointer sweep for an outer index {@code i} takes up to {@code n - 1 - i} steps, so splitting the
+     * outer index range into halves of equal length would leave most of the work to the first half. Instead, each
+     * range is split where the cumulative cost of its indices reaches half of its total cost, until a range is cheap
+     * enough to be swept by a single task. Each task collects its triplets into a flat {@link IntArrayList}, three
+     * ints per triplet, and the lists of adjacent ranges are concatenated in index order, so the triplets are
+     * returned in the same ascending order as the sequential sweep, without boxing a single number.
+     * </p>
+     * <p>
+     * Values repeated in the array are collapsed: an outer index holding the same value as its predecessor is
+     * skipped, and after a match both pointers move past the values they hold, so each distinct triplet of values is
+     * returned once however often its values are repeated. For an array of distinct integers, the triplets are the
+     * same as those of the sequential sweep. Sums are computed with long arithmetic, so they never overflow.
+     * </p>
+     *
+     * @param array the buffer holding the input array of integers, which is left untouched
+     * @param targetSum the target sum to find in the array
+     * @param strategy the strategy to sort the array with, as chosen by
+     * {@link #chooseStrategy(ArrayProfile, SumStrategy, long)}
+     * @param profile the profile of the array
+     * @param pool the fork-join pool to sweep the array on
+     * @return the distinct triplets, flattened into consecutive groups of three ascending integers, or an empty array
+     * if no such triplet exists
+     */
+    public int[] threeNumberSumParallel(IntBuffer array, int targetSum, SumStrategy strategy, ArrayProfile profile,
+                                        ForkJoinPool pool) {
+
+        try (IntRadixSort.Scratch sorted = sortedCopy(array, strategy, profile, pool)) {
+            SweepTask task = new SweepTask(sorted.array(), sorted.length(), targetSum, 0,
+                    Math.max(0, sorted.length() - 2), CancellationToken.current());
+            return (task.isLeaf() ? task.invoke() : pool.invoke(task)).toArray();
+        }
+    }
+
+    /**
+     * Sorts the elements of a buffer into scratch buffers with the provided strategy.
+     *
+     * @param array the buffer holding the elements to sort, which is left untouched
+     * @param strategy the strategy to sort the elements with
+     * @param profile the profile of the elements
+     * @param pool the fork-join pool to split the passes of a radix sort across, or null to sort on the calling thread
+     * @return the scratch holding the sorted elements, to be closed once they are no longer needed
+     */
+    private static IntRadixSort.Scratch sortedCopy(IntBuffer array, SumStrategy strategy, ArrayProfile profile,
+                                                   ForkJoinPool pool) {
+
+        if (strategy == SumStrategy.BITSET) {
+            IntRadixSort.Scratch sorted = bitsetSortedCopy(array, profile);
+            if (sorted != null) {
+                return sorted;
+            }
+        } else if (profile.isSorted()) {
+            IntRadixSort.Scratch sorted = IntRadixSort.acquire(array.remaining());
+            array.get(array.position(), sorted.array(), 0, sorted.length());
+            return sorted;
+        }
+
+        return pool == null ? IntRadixSort.sortedCopy(array) : IntRadixSort.sortedCopyParallel(array, pool);
+    }
+
+    /**
+     * Sorts distinct integers into scratch buffers by setting each of them in a bitset over the value range of the
+     * array and reading the set bits back in ascending order.
+     * <p>
+     * The bitset is laid over the spare buffer of the scratch whenever it fits, which it always does for arrays whose
+     * value range is small enough for the bitset to be preferred, so no array is allocated for it.
+     * </p>
+     *
+     * @param array the buffer holding the elements to sort, which is left untouched
+     * @param profile the profile of the elements, whose value range fits in a bitset
+     * @return the scratch holding the sorted elements, or null if the elements contain duplicates
+     */
+    private static IntRadixSort.Scratch bitsetSortedCopy(IntBuffer array, ArrayProfile profile) {
+
+        int min = profile.getMin();
+        int wordCount = (int) ((profile.range() + 31) >>> 5);
+        IntRadixSort.Scratch sorted = IntRadixSort.acquire(array.remaining());
+        int[] bits = wordCount <= sorted.spare().length ? sorted.spare() : new int[wordCount];
+        Arrays.fill(bits, 0, wordCount, 0);
+        for (int i = array.position(), limit = array.limit(); i < limit; i++) {
+            int bit = array.get(i) - min;
+            int mask = 1 << bit;
+            if ((bits[bit >>> 5] & mask) != 0) {
+                sorted.close();
+                return null;
+            }
+            bits[bit >>> 5] |= mask;
+        }
+
+        int[] elements = sorted.array();
+        int idx = 0;
+        for (int word = 0; word < wordCount; word++) {
+            for (int remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                elements[idx++] = min + (word << 5) + Integer.numberOfTrailingZeros(remaining);
+            }
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Finds all triplets that sum up to the target sum in a sorted array, using a three-pointer approach.
+     *
+     * @param array the buffer whose first elements are the sorted input array of distinct integers
+     * @param n the length of the input array
+     * @param targetSum the target sum to find in the array
+     * @return a list of integer arrays, where each array contains three integers that sum up to the target sum,
+     * or an empty list if no such triplet exists
+     */
+    private static List<Integer[]> sweep(int[] array, int n, int targetSum) {
+
+        List<Integer[]> result = new ArrayList<>();
 
-        int n = array.length;
         for(int current = 0; current < n - 2; current++) {
+            CancellationToken.checkpoint();
             int left = current + 1;
             int right = n - 1;
 
             while(left < right) {
-                int currentSum = array[current] + array[left] + array[right];
+                long currentSum = (long) array[current] + array[left] + array[right];
                 if(currentSum == targetSum) {
                     result.add(new Integer[] {array[current], array[left], array[right]});
                     left++;
@@ -73,6 +266,143 @@ public class ThreeNumberSum implements ArraysAlgorithms {
         return result;
     }
 
+    /**
+     * Fork-join task sweeping a range of the outer index of a sorted array, and collecting the distinct triplets
+     * found into a flat list.
+     */
+    private static final class SweepTask extends RecursiveTask<IntArrayList> {
+
+        private static final long serialVersionUID = 1L;
+        private final int[] array;
+        private final int length;
+        private final int targetSum;
+        private final int from;
+        private final int to;
+        private final CancellationToken token;
+
+        /**
+         * Constructs a task sweeping a range of the outer index.
+         *
+         * @param array the buffer whose first elements are the sorted input array
+         * @param length the length of the input array
+         * @param targetSum the target sum to find in the array
+         * @param from the first outer index of the range, inclusive
+         * @param to the last outer index of the range, exclusive
+         * @param token the cancellation token of the calling job, or null if it is not cancellable
+         */
+        private SweepTask(int[] array, int length, int targetSum, int from, int to, CancellationToken token) {
+            this.array = array;
+            this.length = length;
+            this.targetSum = targetSum;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+        }
+
+        /**
+         * Checks whether the range is cheap enough to be swept without splitting it.
+         *
+         * @return true if the range is swept by this task alone, false otherwise
+         */
+        private boolean isLeaf() {
+            return to - from < 2 || cost(to) - cost(from) <= LEAF_SWEEP_COST;
+        }
+
+        /**
+         * Sweeps the range, or splits it at its cost midpoint and sweeps both halves in parallel.
+         *
+         * @return the triplets found in the range, flattened in ascending order
+         */
+        @Override
+        protected IntArrayList compute() {
+
+            if (isLeaf()) {
+                return sweepRange();
+            }
+
+            int split = costMidpoint();
+            SweepTask head = new SweepTask(array, length, targetSum, from, split, token);
+            SweepTask tail = new SweepTask(array, length, targetSum, split, to, token);
+            head.fork();
+            IntArrayList tailTriplets = tail.compute();
+            IntArrayList triplets = head.join();
+            triplets.addAll(tailTriplets);
+
+            return triplets;
+        }
+
+        /**
+         * Returns the total number of inner pointer steps of the outer indices before the provided one.
+         *
+         * @param index the outer index
+         * @return the cumulative cost of the outer indices {@code [0, index)}
+         */
+        private long cost(int index) {
+            long n = length;
+            return index * (n - 1) - (long) index * (index - 1) / 2;
+        }
+
+        /**
+         * Finds the outer index splitting the range into two parts of roughly equal cost.
+         *
+         * @return the first outer index of the second part, strictly inside the range
+         */
+        private int costMidpoint() {
+
+            long halfCost = cost(from) + (cost(to) - cost(from)) / 2;
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cost(middle) < halfCost) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * Sweeps the range with two pointers, skipping repeated values.
+         *
+         * @return the triplets found in the range, flattened in ascending order
+         */
+        private IntArrayList sweepRange() {
+
+            IntArrayList triplets = new IntArrayList();
+            int n = length;
+            for (int current = from; current < to; current++) {
+                CancellationToken.checkpoint(token);
+                if (current > 0 && array[current] == array[current - 1]) {
+                    continue;
+                }
+                int left = current + 1;
+                int right = n - 1;
+
+                while (left < right) {
+                    long currentSum = (long) array[current] + array[left] + array[right];
+                    if (currentSum == targetSum) {
+                        triplets.add(array[current], array[left], array[right]);
+                        do {
+                            left++;
+                        } while (left < right && array[left] == array[left - 1]);
+                        do {
+                            right--;
+                        } while (left < right && array[right] == array[right + 1]);
+                    } else if (currentSum < targetSum) {
+                        left++;
+                    } else {
+                        right--;
+                    }
+                }
+            }
+
+            return triplets;
+        }
+    }
+
     /**
      * This method throws an {@link UnsupportedOperationException} indicating that the implementation for this algorithm
      * is not provided in this class.
@@ -0,0 +1,223 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar view of the blocks of a street for the "Apartment Hunting" algorithm.
+ * <p>
+ * The availability of each requirement is stored as its own bitset, one bit per block packed into an array of longs,
+ * rather than as a map of names per block. A street of {@code n} blocks and {@code r} requirements therefore takes
+ * {@code n * r / 8} bytes, and the blocks holding a requirement are enumerated a word at a time with
+ * {@link Long#numberOfTrailingZeros(long)}, without looking up a single name or boxing a single flag.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class ApartmentBlocks {
+
+    private final int blockCount;
+    private final long[][] columns;
+
+    /**
+     * Constructs a view from its columns.
+     *
+     * @param blockCount the number of blocks
+     * @param columns the bitset of the blocks holding each requirement
+     */
+    private ApartmentBlocks(int blockCount, long[][] columns) {
+        this.blockCount = blockCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Creates a columnar view of blocks given as maps from the name of a requirement to its availability.
+     *
+     * @param blocks a list of maps, where each map represents a block and contains the availability of required
+     *               facilities
+     * @param reqs an array of required facilities
+     * @return the columnar view of the blocks
+     * @throws NullPointerException if a block does not state the availability of a requirement
+     */
+    public static ApartmentBlocks of(List<Map<String, Boolean>> blocks, String[] reqs) {
+
+        int n = blocks.size();
+        long[][] columns = new long[reqs.length][wordCount(n)];
+        int i = 0;
+        for (Map<String, Boolean> block : blocks) {
+            for (int req = 0; req < reqs.length; req++) {
+                if (block.get(reqs[req])) {
+                    columns[req][i >>> 6] |= 1L << i;
+                }
+            }
+            i++;
+        }
+
+        return new ApartmentBlocks(n, columns);
+    }
+
+    /**
+     * Creates a columnar view of blocks from the bitsets of their requirements, which are used without being copied.
+     * Bit {@code i % 64} of word {@code i / 64} of a column is set if block {@code i} holds the requirement.
+     *
+     * @param blockCount the number of blocks
+     * @param columns the bitset of the blocks holding each requirement
+     * @return the columnar view of the blocks
+     * @throws IllegalArgumentException if a column is too short for the number of blocks
+     */
+    public static ApartmentBlocks ofColumns(int blockCount, long[]... columns) {
+
+        for (long[] column : columns) {
+            if (column.length < wordCount(blockCount)) {
+                throw new IllegalArgumentException("Every column must hold a bit for each of the " + blockCount +
+                        " blocks");
+            }
+        }
+
+        return new ApartmentBlocks(blockCount, columns);
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the number of requirements.
+     *
+     * @return the number of requirements
+     */
+    public int requirementCount() {
+        return columns.length;
+    }
+
+    /**
+     * Checks whether a block holds a requirement.
+     *
+     * @param req the index of the requirement
+     * @param block the index of the block
+     * @return true if the block holds the requirement, false otherwise
+     */
+    public boolean has(int req, int block) {
+        return (columns[req][block >>> 6] & 1L << block) != 0;
+    }
+
+    /**
+     * Counts the blocks holding a requirement.
+     *
+     * @param req the index of the requirement
+     * @return the number of blocks holding the requirement
+     */
+    public int countBlocksWith(int req) {
+        return countBlocksWith(req, 0, blockCount);
+    }
+
+    /**
+     * Counts the blocks of a range holding a requirement.
+     *
+     * @param req the index of the requirement
+     * @param from the first block of the range, inclusive
+     * @param to the last block of the range, exclusive, at most the number of blocks
+     * @return the number of blocks of the range holding the requirement
+     */
+    public int countBlocksWith(int req, int from, int to) {
+
+        if (from >= to) {
+            return 0;
+        }
+
+        long[] column = columns[req];
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        // Bits outside the range are masked off the words at its ends, whatever their value
+        if (firstWord == lastWord) {
+            return Long.bitCount(column[firstWord] & -1L << from & -1L >>> -to);
+        }
+        int count = Long.bitCount(column[firstWord] & -1L << from);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(column[word]);
+        }
+
+        return count + Long.bitCount(column[lastWord] & -1L >>> -to);
+    }
+
+    /**
+     * Returns the bitset of the blocks holding a requirement, which must not be modified.
+     *
+     * @param req the index of the requirement
+     * @return the bitset, of at least one bit per block
+     */
+    long[] column(int req) {
+        return columns[req];
+    }
+
+    /**
+     * Finds the last block, before the provided one, that holds a requirement.
+     *
+     * @param req the index of the requirement
+     * @param to the index of the block after the last one to consider
+     * @return the index of the block, or -1 if no block before the provided one holds the requirement
+     */
+    public int previousBlockWith(int req, int to) {
+
+        if (to <= 0) {
+            return -1;
+        }
+
+        long[] column = columns[req];
+        int last = Math.min(to, blockCount) - 1;
+        int word = last >>> 6;
+        long bits = column[word] & -1L >>> 63 - (last & 63);
+        while (bits == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            bits = column[word];
+        }
+
+        return word << 6 | 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Finds the first block, from the provided one, that holds a requirement.
+     *
+     * @param req the index of the requirement
+     * @param from the index of the first block to consider
+     * @return the index of the block, or -1 if no block from the provided one holds the requirement
+     */
+    public int nextBlockWith(int req, int from) {
+
+        if (from >= blockCount) {
+            return -1;
+        }
+
+        long[] column = columns[req];
+        int words = wordCount(blockCount);
+        int word = from >>> 6;
+        long bits = column[word] & -1L << from;
+        while (bits == 0) {
+            if (++word == words) {
+                return -1;
+            }
+            bits = column[word];
+        }
+        int block = word << 6 | Long.numberOfTrailingZeros(bits);
+
+        return block < blockCount ? block : -1;
+    }
+
+    /**
+     * Returns the number of longs holding a bit for each of the provided number of blocks.
+     *
+     * @param blockCount the number of blocks
+     * @return the number of longs
+     */
+    private static int wordCount(int blockCount) {
+        return (int) ((blockCount + 63L) >>> 6);
+    }
+}
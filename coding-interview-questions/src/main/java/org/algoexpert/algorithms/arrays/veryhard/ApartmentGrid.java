@@ -0,0 +1,190 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+/**
+ * City grid of blocks for the grid variant of the "Apartment Hunting" algorithm.
+ * <p>
+ * The blocks are the cells of a grid of {@code rows * columns} cells, cell {@code row * columns + column} being at the
+ * provided row and column, and the cells holding each requirement are stored as the columns of an
+ * {@link ApartmentBlocks} view over the cells. Each requirement is weighted, its distances being multiplied by its
+ * weight. Distances are either Manhattan distances, every cell being walked through, or distances over a road graph,
+ * where only the road cells are walked through, from a road cell to any of its four neighbours that is a road too.
+ * Cells off the roads hold no block, and the facilities they hold are out of reach.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class ApartmentGrid {
+
+    private final int rows;
+    private final int columns;
+    private final ApartmentBlocks cells;
+    private final int[] weights;
+    private final long[] roads;
+
+    /**
+     * Constructs a grid from its cells.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param cells the columnar view of the requirements held by each cell
+     * @param weights the weight of each requirement
+     * @param roads the bitset of the road cells, or null if every cell is walked through
+     */
+    private ApartmentGrid(int rows, int columns, ApartmentBlocks cells, int[] weights, long[] roads) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = cells;
+        this.weights = weights;
+        this.roads = roads;
+    }
+
+    /**
+     * Creates a grid whose distances are Manhattan distances.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param cells the columnar view of the requirements held by each cell, of {@code rows * columns} blocks
+     * @param weights the positive weight of each requirement, which is used without being copied
+     * @return the grid
+     * @throws IllegalArgumentException if the grid has a negative number of rows or columns, if its cells do not match
+     * its size, or if a weight is missing or is not positive
+     */
+    public static ApartmentGrid manhattan(int rows, int columns, ApartmentBlocks cells, int[] weights) {
+        return overRoads(rows, columns, cells, weights, null);
+    }
+
+    /**
+     * Creates a grid whose distances are measured over the road cells.
+     * <p>
+     * Bit {@code i % 64} of word {@code i / 64} of the roads is set if cell {@code i} is a road.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param cells the columnar view of the requirements held by each cell, of {@code rows * columns} blocks
+     * @param weights the positive weight of each requirement, which is used without being copied
+     * @param roads the bitset of the road cells, which is used without being copied, or null if every cell is walked
+     *              through
+     * @return the grid
+     * @throws IllegalArgumentException if the grid has a negative number of rows or columns, if its cells or its roads
+     * do not match its size, or if a weight is missing or is not positive
+     */
+    public static ApartmentGrid overRoads(int rows, int columns, ApartmentBlocks cells, int[] weights, long[] roads) {
+
+        if (rows < 0 || columns < 0 || (long) rows * columns != cells.blockCount()) {
+            throw new IllegalArgumentException("A grid of " + rows + " rows and " + columns + " columns must have " +
+                    "one block per cell");
+        }
+        if (weights.length != cells.requirementCount()) {
+            throw new IllegalArgumentException("Every requirement must have a weight");
+        }
+        for (int weight : weights) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Every weight must be positive: " + weight);
+            }
+        }
+        if (roads != null && roads.length < wordCount(cells.blockCount())) {
+            throw new IllegalArgumentException("The roads must hold a bit for each of the " + cells.blockCount() +
+                    " cells");
+        }
+
+        return new ApartmentGrid(rows, columns, cells, weights, roads);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of cells.
+     *
+     * @return the number of cells
+     */
+    public int cellCount() {
+        return cells.blockCount();
+    }
+
+    /**
+     * Returns the number of requirements.
+     *
+     * @return the number of requirements
+     */
+    public int requirementCount() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the weight of a requirement.
+     *
+     * @param req the index of the requirement
+     * @return the weight of the requirement
+     */
+    public int weight(int req) {
+        return weights[req];
+    }
+
+    /**
+     * Returns the columnar view of the requirements held by each cell.
+     *
+     * @return the view, with a block per cell
+     */
+    public ApartmentBlocks cells() {
+        return cells;
+    }
+
+    /**
+     * Checks whether a cell is a road, every cell being one when distances are Manhattan distances.
+     *
+     * @param cell the index of the cell
+     * @return true if the cell is walked through, false otherwise
+     */
+    public boolean isRoad(int cell) {
+        return roads == null || (roads[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * Creates a bitset of the cells that are not walked through: the cells off the roads, and the bits past the last
+     * cell.
+     *
+     * @return a new bitset, of one bit per cell rounded up to a whole number of longs
+     */
+    long[] offRoadCells() {
+
+        int cellCount = cells.blockCount();
+        long[] offRoad = new long[wordCount(cellCount)];
+        if (roads != null) {
+            for (int word = 0; word < offRoad.length; word++) {
+                offRoad[word] = ~roads[word];
+            }
+        }
+        if ((cellCount & 63) != 0) {
+            offRoad[offRoad.length - 1] |= -1L << cellCount;
+        }
+
+        return offRoad;
+    }
+
+    /**
+     * Returns the number of longs holding the provided number of bits.
+     *
+     * @param bitCount the number of bits
+     * @return the number of longs
+     */
+    static int wordCount(int bitCount) {
+        return (int) ((bitCount + 63L) >>> 6);
+    }
+}
@@ -1,11 +1,14 @@
 package org.algoexpert.algorithms.arrays.veryhard;
 
 import org.algoexpert.algorithms.arrays.ArraysAlgorithms;
+import org.algoexpert.execution.CancellationToken;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * You're looking to move into a new apartment on a specific street, and you're given a list of contiguous blocks on
@@ -62,15 +65,31 @@ import java.util.Map;
 
 public class ApartmentHunting implements ArraysAlgorithms {
 
+    /**
+     * Average number of blocks per block holding a requirement below which the requirement is swept block by block
+     * rather than gap by gap.
+     */
+    private static final int DENSE_GAP = 8;
+
+    /**
+     * Number of ranges of blocks per thread of the pool, so that a thread that is done early can take over the ranges
+     * of a slower one.
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /**
+     * Smallest number of blocks of a range swept by a task of its own.
+     */
+    private static final int MIN_RANGE_BLOCKS = 1 << 16;
+
     /**
      * Finds the best block to live in based on the minimum distance to all required facilities.
      * <p> This method takes a list of blocks, where each block is represented as a map of facility availability, and an
-     * array of required facilities. It calculates the minimum distance from each block to the closest block with each
-     * required facility and returns the index of the block that has the smallest maximum distance to any required
-     * facility.
-     * <p> The method iterates through each required facility and calculates the minimum distance for each block to the
-     * closest block with that facility, both from the left and the right. These distances are stored in a list and used
-     * to find the block with the smallest maximum distance to any required facility.
+     * array of required facilities. It returns the index of the block that has the smallest maximum distance to any
+     * required facility.
+     * <p> The availability of every facility is first copied into an {@link ApartmentBlocks} column, so the map of
+     * each block is read once per facility and the distances are computed as by
+     * {@link #apartmentHunting(ApartmentBlocks)}.
      *
      * @param blocks a list of maps, where each map represents a block and contains the availability of required
      *               facilities
@@ -79,63 +98,226 @@ public class ApartmentHunting implements ArraysAlgorithms {
      */
     @Override
     public int apartmentHunting(List<Map<String, Boolean>> blocks, String[] reqs) {
+        return apartmentHunting(ApartmentBlocks.of(blocks, reqs));
+    }
 
-        int n = blocks.size();
-        List<Integer[]> minDistancesForEachReq = new ArrayList<>();
+    /**
+     * Finds the best block to live in based on the minimum distance to all required facilities, reading the
+     * availability of the facilities from columns of bits.
+     * <p> The distances of every facility are folded into a single array holding, for each block, the maximum distance
+     * to any facility seen so far, so the memory used is at most two ints per block however many facilities there
+     * are. When several blocks are most optimal, the one with the lowest index is returned.
+     *
+     * @param blocks the columnar view of the blocks
+     * @return the index of the block that has the smallest maximum distance to any required facility, or -1 if there
+     * is no block
+     */
+    public int apartmentHunting(ApartmentBlocks blocks) {
 
-        for (String req : reqs) {
-            Integer[] minDistances = new Integer[n];
-            int closestReqIdx = Integer.MAX_VALUE;
+        return getBlockIndexWithMinDistanceToAllReq(getMaxDistanceForEachBlock(blocks));
+    }
 
-            // Calculate the minimum distance for each block to the closest block on the left with the requirement
-            for (int i = 0; i < n; i++) {
-                Map<String, Boolean> block = blocks.get(i);
-                if (block.get(req)) {
-                    closestReqIdx = i;
-                }
-                minDistances[i] = distanceBetween(i, closestReqIdx);
+    /**
+     * Finds the best block to live in based on the minimum distance to all required facilities, sweeping the blocks
+     * in parallel on the provided pool.
+     * <p> The street is cut into a few ranges of blocks per thread, and the work is done in two parallel phases. The
+     * bitset of each requirement is first swept concurrently with those of the other requirements, to find, for every
+     * range, the blocks holding the requirement at its ends and closest to it on either side. Every range is then
+     * swept concurrently with the others: the distances of all the requirements are folded into the maximum distances
+     * of its blocks, which no other task writes, and the best block of the range is found. The best blocks of the
+     * ranges are reduced, the lower index winning a tie, so the result is the one of
+     * {@link #apartmentHunting(ApartmentBlocks)}, down to the lowest index winning a tie.
+     * <p> Streets too short to be cut into several ranges, and pools of a single thread, are swept on the calling
+     * thread.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param pool the pool sweeping the blocks
+     * @return the index of the block that has the smallest maximum distance to any required facility, or -1 if there
+     * is no block
+     */
+    public int apartmentHunting(ApartmentBlocks blocks, ForkJoinPool pool) {
+
+        TopBlocks topBlocks = getTopBlocks(blocks, 1, pool);
+
+        return topBlocks.size() == 0 ? -1 : topBlocks.block(0);
+    }
+
+    /**
+     * Ranks the blocks by their maximum distance to any required facility, keeping the best ones.
+     * <p> The blocks are offered to a bounded heap of {@code k} blocks as their maximum distances are scanned, so the
+     * blocks are ranked in {@code O(n log k)} time and {@code O(k)} memory on top of the maximum distances, without
+     * sorting them. The distance of each ranked block to each facility is then found from the closest blocks holding
+     * the facility on either side. The first ranked block is the one returned by
+     * {@link #apartmentHunting(ApartmentBlocks)}: a facility that no block holds puts block {@code i} at
+     * {@code Integer.MAX_VALUE - i}, and its distance to the facility is reported as -1.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param k the number of blocks to rank
+     * @return the best {@code k} blocks, best first, with their maximum distances and their distances to each
+     * facility
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    public RankedBlocks rankBlocks(ApartmentBlocks blocks, int k) {
+        return rankBlocks(blocks, getTopBlocks(blocks, checkRankCount(k, blocks.blockCount())));
+    }
+
+    /**
+     * Ranks the blocks by their maximum distance to any required facility, keeping the best ones, sweeping the blocks
+     * in parallel on the provided pool.
+     * <p> Each range of blocks swept by {@link #apartmentHunting(ApartmentBlocks, ForkJoinPool)} is offered to a
+     * bounded heap of its own as soon as its maximum distances are computed, and the heaps of the ranges are merged
+     * as the tasks are joined, so the blocks are ranked as by {@link #rankBlocks(ApartmentBlocks, int)}.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param k the number of blocks to rank
+     * @param pool the pool sweeping the blocks
+     * @return the best {@code k} blocks, best first, with their maximum distances and their distances to each
+     * facility
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    public RankedBlocks rankBlocks(ApartmentBlocks blocks, int k, ForkJoinPool pool) {
+        return rankBlocks(blocks, getTopBlocks(blocks, checkRankCount(k, blocks.blockCount()), pool));
+    }
+
+    /**
+     * Checks the number of blocks to rank.
+     *
+     * @param k the number of blocks to rank
+     * @param n the number of blocks
+     * @return the number of blocks the heap must keep, at most the number of blocks
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    private static int checkRankCount(int k, int n) {
+
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of blocks to rank must be positive: " + k);
+        }
+
+        return Math.min(k, n);
+    }
+
+    /**
+     * Finds the best blocks on the calling thread.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param rankCount the number of blocks to keep
+     * @return the heap of the best blocks
+     */
+    private static TopBlocks getTopBlocks(ApartmentBlocks blocks, int rankCount) {
+
+        int[] maxDistanceForEachBlock = getMaxDistanceForEachBlock(blocks);
+        TopBlocks topBlocks = new TopBlocks(rankCount);
+        offerBlocks(maxDistanceForEachBlock, 0, maxDistanceForEachBlock.length, topBlocks);
+
+        return topBlocks;
+    }
+
+    /**
+     * Finds the best blocks on the provided pool, as described in
+     * {@link #apartmentHunting(ApartmentBlocks, ForkJoinPool)}.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param rankCount the number of blocks to keep
+     * @param pool the pool sweeping the blocks
+     * @return the heap of the best blocks
+     */
+    private static TopBlocks getTopBlocks(ApartmentBlocks blocks, int rankCount, ForkJoinPool pool) {
+
+        int n = blocks.blockCount();
+        int rangeCount = (int) Math.min((long) pool.getParallelism() * RANGES_PER_THREAD, n / MIN_RANGE_BLOCKS);
+        if (pool.getParallelism() <= 1 || rangeCount <= 1) {
+            return getTopBlocks(blocks, rankCount);
+        }
+
+        int[] bounds = new int[rangeCount + 1];
+        for (int range = 0; range <= rangeCount; range++) {
+            bounds[range] = (int) ((long) n * range / rangeCount);
+        }
+        CancellationToken token = CancellationToken.current();
+        RangeHolders[] holders = new RangeHolders[blocks.requirementCount()];
+        pool.invoke(new HoldersTask(blocks, bounds, holders, 0, holders.length, token));
+
+        return pool.invoke(new SweepTask(blocks, bounds, holders, new int[n], rankCount, 0, rangeCount, token));
+    }
+
+    /**
+     * Offers the blocks of a range to a heap of the best blocks, except those at {@code Integer.MAX_VALUE}.
+     *
+     * @param maxDistanceForEachBlock the maximum distance of each block to the closest block with any requirement
+     * @param from the first block of the range, inclusive
+     * @param to the last block of the range, exclusive
+     * @param topBlocks the heap of the best blocks
+     */
+    private static void offerBlocks(int[] maxDistanceForEachBlock, int from, int to, TopBlocks topBlocks) {
+        for (int i = from; i < to; i++) {
+            if (maxDistanceForEachBlock[i] != Integer.MAX_VALUE) {
+                topBlocks.offer(i, maxDistanceForEachBlock[i]);
             }
+        }
+    }
+
+    /**
+     * Sorts the best blocks and looks up their distances to each requirement.
+     * <p>
+     * The blocks are visited by increasing index, so the closest blocks holding a requirement are found by resuming
+     * the scan of its bitset where the previous block left it, reading each word of the bitset at most twice for all
+     * the blocks rather than up to the whole bitset for each of them.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param topBlocks the heap of the best blocks
+     * @return the ranked blocks, with their maximum distances and their distances to each requirement
+     */
+    private static RankedBlocks rankBlocks(ApartmentBlocks blocks, TopBlocks topBlocks) {
+
+        topBlocks.sort();
+        int size = topBlocks.size();
+        int[] rankedBlocks = new int[size];
+        long[] scores = new long[size];
+        // Each block is packed above its rank, so sorting the packed longs sorts the ranks by block
+        long[] ranksByBlock = new long[size];
+        for (int i = 0; i < size; i++) {
+            rankedBlocks[i] = topBlocks.block(i);
+            scores[i] = topBlocks.score(i);
+            ranksByBlock[i] = (long) rankedBlocks[i] << 32 | i;
+        }
+        Arrays.sort(ranksByBlock);
 
-            // Calculate the minimum distance for each block to the closest block on the right with the requirement
-            for (int i = n - 1; i >= 0; i--) {
-                Map<String, Boolean> block = blocks.get(i);
-                if (block.get(req)) {
-                    closestReqIdx = i;
+        int[][] distances = new int[size][blocks.requirementCount()];
+        for (int req = 0; req < blocks.requirementCount(); req++) {
+            CancellationToken.checkpoint();
+            int previous = -1;
+            int next = blocks.nextBlockWith(req, 0);
+            for (long rankByBlock : ranksByBlock) {
+                int block = (int) (rankByBlock >>> 32);
+                if (next >= 0 && next <= block) {
+                    previous = blocks.previousBlockWith(req, block + 1);
+                    next = blocks.nextBlockWith(req, block + 1);
                 }
-                minDistances[i] = Math.min(minDistances[i], distanceBetween(i, closestReqIdx));
+                distances[(int) rankByBlock][req] = previous < 0 ? (next < 0 ? -1 : next - block)
+                        : next < 0 ? block - previous : Math.min(block - previous, next - block);
             }
-
-            // Add the minimum distances for the current requirement to the list
-            minDistancesForEachReq.add(minDistances);
         }
 
-        return getBlockIndexWithMinDistanceToAllReq(n, minDistancesForEachReq);
+        return new RankedBlocks(rankedBlocks, scores, distances);
     }
 
     /**
      * Finds the index of the block that has the smallest maximum distance to any required facility.
-     * <p> This method takes the number of blocks and a list of minimum distances for each requirement. It calculates
-     * the maximum distance for each block to the closest block with any requirement and then finds the block with the
-     * smallest maximum distance.
-     * <p> The method iterates through the map of maximum distances for each block and updates the index of the block
-     * with the smallest maximum distance.
+     * <p> The method iterates through the maximum distances of the blocks and updates the index of the block with the
+     * smallest maximum distance, so the lowest index wins a tie.
      *
-     * @param n the number of blocks
-     * @param minDistancesForEachReq a list of integer arrays, where each array contains the minimum distances for each
-     *                               requirement for each block
+     * @param maxDistanceForEachBlock the maximum distance of each block to the closest block with any requirement
      * @return the index of the block that has the smallest maximum distance to any required facility
      */
-    private static int getBlockIndexWithMinDistanceToAllReq(int n, List<Integer[]> minDistancesForEachReq) {
-
-        Map<Integer, Integer> maxDistanceForEachBlock = getMaxDistanceForEachBlock(n, minDistancesForEachReq);
+    private static int getBlockIndexWithMinDistanceToAllReq(int[] maxDistanceForEachBlock) {
 
         int blockIndexWithMinDistanceToAllReq = -1;
         int minMaxDistance = Integer.MAX_VALUE;
         // Find the block with the minimum maximum distance to the closest block with any requirement
-        for (Map.Entry<Integer, Integer> entry : maxDistanceForEachBlock.entrySet()) {
-            if(entry.getValue() < minMaxDistance) {
-                minMaxDistance = entry.getValue();
-                blockIndexWithMinDistanceToAllReq = entry.getKey();
+        for (int i = 0; i < maxDistanceForEachBlock.length; i++) {
+            if(maxDistanceForEachBlock[i] < minMaxDistance) {
+                minMaxDistance = maxDistanceForEachBlock[i];
+                blockIndexWithMinDistanceToAllReq = i;
             }
         }
         return blockIndexWithMinDistanceToAllReq;
@@ -144,45 +326,371 @@ public class ApartmentHunting implements ArraysAlgorithms {
     /**
      * Calculates the maximum distance for each block to the closest block with any requirement.
      * <p>
-     * This method takes the number of blocks and a list of minimum distances for each requirement. It iterates through
-     * each block and calculates the maximum distance to the closest block with any requirement. The result is stored in
-     * a map where the key is the block index, and the value is the maximum distance for that block.
+     * The distances of each requirement are folded into the maximum distances as they are computed, so no array of
+     * distances is kept per requirement, as described in
+     * {@link #foldDistances(ApartmentBlocks, int, RangeHolders, int, int[], int[])}.
      *
-     * @param n the number of blocks
-     * @param minDistancesForEachReq a list of integer arrays, where each array contains the minimum distances for each
-     *                               requirement for each block
-     * @return a map where the key is the block index and the value is the maximum distance to the closest block with
-     *         any requirement
-     */
-    private static Map<Integer, Integer> getMaxDistanceForEachBlock(int n, List<Integer[]> minDistancesForEachReq) {
-
-        Map<Integer, Integer> maxDistanceForEachBlock = new HashMap<>();
-        // Calculate the maximum distance for each block to the closest block with any requirement
-        for (int i = 0; i < n; i++) {
-            int maxDistanceOfAllReq = Integer.MIN_VALUE;
-            for (Integer[] minDistances : minDistancesForEachReq) {
-                if(minDistances[i] > maxDistanceOfAllReq) {
-                    maxDistanceOfAllReq = minDistances[i];
-                }
+     * @param blocks the columnar view of the blocks
+     * @return an array where the element at each block index is the maximum distance to the closest block with any
+     *         requirement, or 0 if there is no requirement
+     */
+    static int[] getMaxDistanceForEachBlock(ApartmentBlocks blocks) {
+
+        int n = blocks.blockCount();
+        int[] bounds = {0, n};
+        int[] maxDistanceForEachBlock = new int[n];
+        int[] rightDistances = null;
+        for (int req = 0; req < blocks.requirementCount(); req++) {
+            CancellationToken.checkpoint();
+            RangeHolders holders = new RangeHolders(blocks, req, bounds);
+            if (rightDistances == null && holders.isDense(0)) {
+                rightDistances = new int[n];
             }
-            maxDistanceForEachBlock.put(i, maxDistanceOfAllReq);
+            foldDistances(blocks, req, holders, 0, maxDistanceForEachBlock, rightDistances);
         }
         return maxDistanceForEachBlock;
     }
 
     /**
-     * Calculates the absolute distance between two integers.
+     * Raises the maximum distance of every block of a range to its distance to the closest block with a requirement.
      * <p>
-     * This method takes two integer parameters and returns the absolute value of their difference. It uses the
-     * {@link Math#abs(int)} method to ensure the result is non-negative.
-     * </p>
+     * A requirement held by few blocks of the range is swept gap by gap with
+     * {@link #foldSparseDistances(ApartmentBlocks, int, RangeHolders, int, int, int, int[])}, which skips whole words
+     * of absent bits. A requirement held by many blocks leaves gaps too short for that to pay off, and is swept block
+     * by block with {@link #foldDenseDistances(ApartmentBlocks, int, RangeHolders, int, int, int, int[], int[])},
+     * which needs a second array of one int per block of the range, shared by every such requirement.
      *
-     * @param a the first integer
-     * @param b the second integer
-     * @return the absolute distance between the two integers
+     * @param blocks the columnar view of the blocks
+     * @param req the index of the requirement
+     * @param holders the blocks holding the requirement around and within each range
+     * @param range the index of the range
+     * @param maxDistanceForEachBlock the maximum distance of each block so far, updated in place
+     * @param rightDistances a scratch array of one int per block of the range, or null if the requirement is sparse
      */
-    private static int distanceBetween(int a, int b) {
-        return Math.abs(a - b);
+    private static void foldDistances(ApartmentBlocks blocks, int req, RangeHolders holders, int range,
+                                      int[] maxDistanceForEachBlock, int[] rightDistances) {
+
+        int from = holders.bounds[range];
+        int to = holders.bounds[range + 1];
+        if (holders.isDense(range)) {
+            foldDenseDistances(blocks, req, holders, range, from, to, maxDistanceForEachBlock, rightDistances);
+        } else {
+            foldSparseDistances(blocks, req, holders, range, from, to, maxDistanceForEachBlock);
+        }
+    }
+
+    /**
+     * Raises the maximum distance of every block of a range to its distance to the closest block with a requirement,
+     * gap by gap.
+     * <p>
+     * The blocks holding the requirement are enumerated from its bitset, and the blocks between two consecutive ones
+     * are closer to the first up to their midpoint and to the second after it, so the requirement is swept in a
+     * single pass, without a separate pass from each side. The blocks holding it on either side of the range bound
+     * the gaps at its ends, so the bitset is never read outside the range.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param req the index of the requirement
+     * @param holders the blocks holding the requirement around and within each range
+     * @param range the index of the range
+     * @param from the first block of the range, inclusive
+     * @param to the last block of the range, exclusive
+     * @param maxDistanceForEachBlock the maximum distance of each block so far, updated in place
+     */
+    private static void foldSparseDistances(ApartmentBlocks blocks, int req, RangeHolders holders, int range, int from,
+                                            int to, int[] maxDistanceForEachBlock) {
+
+        int last = holders.lasts[range];
+        if (last < 0) {
+            foldGapDistances(from, to, holders.previous[range], holders.next[range], maxDistanceForEachBlock);
+            return;
+        }
+
+        int next = holders.firsts[range];
+        foldGapDistances(from, next, holders.previous[range], next, maxDistanceForEachBlock);
+        while (next != last) {
+            int previous = next;
+            next = blocks.nextBlockWith(req, previous + 1);
+            foldGapDistances(previous + 1, next, previous, next, maxDistanceForEachBlock);
+        }
+        foldGapDistances(last + 1, to, last, holders.next[range], maxDistanceForEachBlock);
+    }
+
+    /**
+     * Raises the maximum distance of every block of a range to its distance to the closest block with a requirement,
+     * block by block.
+     * <p>
+     * Between the first and the last block of the range with the requirement, the distance to the closest block on
+     * the right is computed from right to left into a scratch array, then the distance to the closest block on the
+     * left is computed from left to right and both are folded into the maximum distances. Each distance is reset to 0
+     * by masking rather than by branching on the bit of the block, since the bits of a dense requirement are too
+     * irregular for a branch to be predicted.
+     *
+     * @param blocks the columnar view of the blocks
+     * @param req the index of the requirement, held by at least one block of the range
+     * @param holders the blocks holding the requirement around and within each range
+     * @param range the index of the range
+     * @param from the first block of the range, inclusive
+     * @param to the last block of the range, exclusive
+     * @param maxDistanceForEachBlock the maximum distance of each block so far, updated in place
+     * @param rightDistances a scratch array of one int per block of the range
+     */
+    private static void foldDenseDistances(ApartmentBlocks blocks, int req, RangeHolders holders, int range, int from,
+                                           int to, int[] maxDistanceForEachBlock, int[] rightDistances) {
+
+        long[] column = blocks.column(req);
+        int first = holders.firsts[range];
+        int last = holders.lasts[range];
+
+        foldGapDistances(from, first, holders.previous[range], first, maxDistanceForEachBlock);
+        // The mask is 0 for a block holding the requirement, and -1 otherwise
+        int distance = 0;
+        for (int word = last >>> 6; word >= first >>> 6; word--) {
+            long bits = column[word];
+            for (int i = Math.min(last, word << 6 | 63), low = Math.max(first, word << 6); i >= low; i--) {
+                distance = (distance + 1) & ((int) (bits >>> i & 1) - 1);
+                rightDistances[i - from] = distance;
+            }
+        }
+        for (int word = first >>> 6; word <= last >>> 6; word++) {
+            long bits = column[word];
+            for (int i = Math.max(first, word << 6), high = Math.min(last, word << 6 | 63); i <= high; i++) {
+                distance = (distance + 1) & ((int) (bits >>> i & 1) - 1);
+                maxDistanceForEachBlock[i] = Math.max(maxDistanceForEachBlock[i],
+                        Math.min(distance, rightDistances[i - from]));
+            }
+        }
+        foldGapDistances(last + 1, to, last, holders.next[range], maxDistanceForEachBlock);
+    }
+
+    /**
+     * Raises the maximum distance of the blocks of a gap between two blocks holding a requirement, or of a part of it,
+     * to their distance to the closer of the two.
+     * <p>
+     * The blocks of a gap are closer to the block before it up to its midpoint, and to the block after it beyond. A
+     * block is at {@code Integer.MAX_VALUE - i} from a requirement that no block holds, as if it were at the largest
+     * index, so every block then ties with the same requirement and the farthest block is the best one.
+     *
+     * @param from the first block to raise, inclusive
+     * @param to the last block to raise, exclusive
+     * @param previous the block holding the requirement before the first one, or -1 if there is none
+     * @param next the block holding the requirement at or after the last one, or -1 if there is none
+     * @param maxDistanceForEachBlock the maximum distance of each block so far, updated in place
+     */
+    private static void foldGapDistances(int from, int to, int previous, int next, int[] maxDistanceForEachBlock) {
+
+        if (previous < 0 && next < 0) {
+            for (int i = from; i < to; i++) {
+                maxDistanceForEachBlock[i] = Math.max(maxDistanceForEachBlock[i], Integer.MAX_VALUE - i);
+            }
+            return;
+        }
+
+        int middle = previous < 0 ? from - 1 : next < 0 ? to - 1 : previous + (next - previous) / 2;
+        for (int i = from, high = Math.min(middle, to - 1); i <= high; i++) {
+            maxDistanceForEachBlock[i] = Math.max(maxDistanceForEachBlock[i], i - previous);
+        }
+        for (int i = Math.max(from, middle + 1); i < to; i++) {
+            maxDistanceForEachBlock[i] = Math.max(maxDistanceForEachBlock[i], next - i);
+        }
+    }
+
+    /**
+     * Blocks holding a requirement within and around each range of blocks of a street, found by sweeping the bitset
+     * of the requirement once.
+     */
+    private static final class RangeHolders {
+
+        private final int[] bounds;
+        private final int[] counts;
+        private final int[] firsts;
+        private final int[] lasts;
+        private final int[] previous;
+        private final int[] next;
+
+        /**
+         * Sweeps the bitset of a requirement.
+         *
+         * @param blocks the columnar view of the blocks
+         * @param req the index of the requirement
+         * @param bounds the first block of each range, followed by the number of blocks
+         */
+        private RangeHolders(ApartmentBlocks blocks, int req, int[] bounds) {
+
+            int rangeCount = bounds.length - 1;
+            this.bounds = bounds;
+            this.counts = new int[rangeCount];
+            this.firsts = new int[rangeCount];
+            this.lasts = new int[rangeCount];
+            this.previous = new int[rangeCount];
+            this.next = new int[rangeCount];
+            for (int range = 0; range < rangeCount; range++) {
+                counts[range] = blocks.countBlocksWith(req, bounds[range], bounds[range + 1]);
+                firsts[range] = counts[range] == 0 ? -1 : blocks.nextBlockWith(req, bounds[range]);
+                lasts[range] = counts[range] == 0 ? -1 : blocks.previousBlockWith(req, bounds[range + 1]);
+            }
+            for (int range = 0, holder = -1; range < rangeCount; range++) {
+                previous[range] = holder;
+                holder = lasts[range] < 0 ? holder : lasts[range];
+            }
+            for (int range = rangeCount - 1, holder = -1; range >= 0; range--) {
+                next[range] = holder;
+                holder = firsts[range] < 0 ? holder : firsts[range];
+            }
+        }
+
+        /**
+         * Checks whether the requirement is held by enough blocks of a range to be swept block by block.
+         *
+         * @param range the index of the range
+         * @return true if the range is swept block by block, false if it is swept gap by gap
+         */
+        private boolean isDense(int range) {
+            return counts[range] > (bounds[range + 1] - bounds[range]) / DENSE_GAP;
+        }
+    }
+
+    /**
+     * Fork-join task sweeping the bitsets of a range of requirements, each one on its own.
+     */
+    private static final class HoldersTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final ApartmentBlocks blocks;
+        private final int[] bounds;
+        private final RangeHolders[] holders;
+        private final int fromReq;
+        private final int toReq;
+        private final CancellationToken token;
+
+        /**
+         * Constructs a task sweeping a range of requirements.
+         *
+         * @param blocks the columnar view of the blocks
+         * @param bounds the first block of each range, followed by the number of blocks
+         * @param holders the blocks holding each requirement, filled in by the task
+         * @param fromReq the first requirement of the range, inclusive
+         * @param toReq the last requirement of the range, exclusive
+         * @param token the cancellation token of the calling execution, or null
+         */
+        private HoldersTask(ApartmentBlocks blocks, int[] bounds, RangeHolders[] holders, int fromReq, int toReq,
+                            CancellationToken token) {
+            this.blocks = blocks;
+            this.bounds = bounds;
+            this.holders = holders;
+            this.fromReq = fromReq;
+            this.toReq = toReq;
+            this.token = token;
+        }
+
+        /**
+         * Sweeps the bitset of the single requirement of the range, or splits the range in halves swept in parallel.
+         */
+        @Override
+        protected void compute() {
+
+            if (toReq - fromReq <= 1) {
+                for (int req = fromReq; req < toReq; req++) {
+                    CancellationToken.checkpoint(token);
+                    holders[req] = new RangeHolders(blocks, req, bounds);
+                }
+                return;
+            }
+
+            int split = (fromReq + toReq) >>> 1;
+            invokeAll(new HoldersTask(blocks, bounds, holders, fromReq, split, token),
+                    new HoldersTask(blocks, bounds, holders, split, toReq, token));
+        }
+    }
+
+    /**
+     * Fork-join task folding the distances of every requirement into the maximum distances of the blocks of a run of
+     * ranges, and finding their best blocks.
+     */
+    private static final class SweepTask extends RecursiveTask<TopBlocks> {
+
+        private static final long serialVersionUID = 1L;
+        private final ApartmentBlocks blocks;
+        private final int[] bounds;
+        private final RangeHolders[] holders;
+        private final int[] maxDistanceForEachBlock;
+        private final int rankCount;
+        private final int fromRange;
+        private final int toRange;
+        private final CancellationToken token;
+
+        /**
+         * Constructs a task sweeping a run of ranges.
+         *
+         * @param blocks the columnar view of the blocks
+         * @param bounds the first block of each range, followed by the number of blocks
+         * @param holders the blocks holding each requirement within and around each range
+         * @param maxDistanceForEachBlock the maximum distance of each block, filled in by the task for its ranges
+         * @param rankCount the number of best blocks to keep
+         * @param fromRange the first range of the run, inclusive
+         * @param toRange the last range of the run, exclusive
+         * @param token the cancellation token of the calling execution, or null
+         */
+        private SweepTask(ApartmentBlocks blocks, int[] bounds, RangeHolders[] holders, int[] maxDistanceForEachBlock,
+                          int rankCount, int fromRange, int toRange, CancellationToken token) {
+            this.blocks = blocks;
+            this.bounds = bounds;
+            this.holders = holders;
+            this.maxDistanceForEachBlock = maxDistanceForEachBlock;
+            this.rankCount = rankCount;
+            this.fromRange = fromRange;
+            this.toRange = toRange;
+            this.token = token;
+        }
+
+        /**
+         * Sweeps the single range of the run, or splits the run in halves swept in parallel and merges their best
+         * blocks.
+         *
+         * @return the heap of the best blocks of the run
+         */
+        @Override
+        protected TopBlocks compute() {
+
+            if (toRange - fromRange == 1) {
+                return sweepRange();
+            }
+
+            int split = (fromRange + toRange) >>> 1;
+            SweepTask left = new SweepTask(blocks, bounds, holders, maxDistanceForEachBlock, rankCount, fromRange,
+                    split, token);
+            SweepTask right = new SweepTask(blocks, bounds, holders, maxDistanceForEachBlock, rankCount, split,
+                    toRange, token);
+            invokeAll(left, right);
+            TopBlocks topBlocks = left.join();
+            topBlocks.offerAll(right.join());
+
+            return topBlocks;
+        }
+
+        /**
+         * Folds the distances of every requirement into the maximum distances of the blocks of the range, and offers
+         * them to a heap of its best blocks.
+         *
+         * @return the heap of the best blocks of the range
+         */
+        private TopBlocks sweepRange() {
+
+            int from = bounds[fromRange];
+            int to = bounds[fromRange + 1];
+            int[] rightDistances = null;
+            for (int req = 0; req < holders.length; req++) {
+                CancellationToken.checkpoint(token);
+                if (rightDistances == null && holders[req].isDense(fromRange)) {
+                    rightDistances = new int[to - from];
+                }
+                foldDistances(blocks, req, holders[req], fromRange, maxDistanceForEachBlock, rightDistances);
+            }
+
+            TopBlocks topBlocks = new TopBlocks(rankCount);
+            offerBlocks(maxDistanceForEachBlock, from, to, topBlocks);
+
+            return topBlocks;
+        }
     }
 
     /**
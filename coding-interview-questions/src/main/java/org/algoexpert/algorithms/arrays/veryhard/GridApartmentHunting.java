@@ -0,0 +1,275 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import org.algoexpert.execution.CancellationToken;
+
+/**
+ * City-grid variant of the "Apartment Hunting" algorithm, ranking the blocks of an {@link ApartmentGrid} by the
+ * largest of their weighted distances to the closest block holding each requirement.
+ * <p>
+ * The distances of each requirement are computed by a multi-source breadth-first search, seeded with every cell
+ * holding the requirement and expanding one distance at a time, so every cell is reached once, at its distance to the
+ * closest of them, in {@code O(cells)} time. Over a grid without roads, the distances found are Manhattan distances;
+ * over roads, they are the lengths of the shortest walks along the roads. Each cell is scored as it leaves the queue,
+ * its score being raised to its weighted distance, so no distance is stored and the scores are computed in the same
+ * pass as the distances. The blocks are then ranked in a single pass over the scores with a bounded heap.
+ * </p>
+ * <p>
+ * The working memory is a long score and an int of the queue per cell, along with two bitsets, whatever the number of
+ * requirements, so a grid of {@code 10^7} cells is ranked in about 130 MB. The grid itself adds a bitset of the cells
+ * holding each requirement and one of the roads. All of this memory is checked against a budget by
+ * {@link #checkApplicable(long, int, int, long)}, which callers building a grid from their input call before
+ * allocating its bitsets. The distances of each ranked block to each requirement are found back afterwards by a
+ * search from the block, bounded by its score, so only the cells closer to the block than its farthest requirement
+ * are visited.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public class GridApartmentHunting {
+
+    /**
+     * Bytes of working memory per cell: a long score, an int of the queue and the bits of the two working bitsets and
+     * of the roads, rounded up.
+     */
+    private static final long BYTES_PER_CELL = Long.BYTES + Integer.BYTES + 1;
+
+    /**
+     * Checks, before a grid is built, that {@code k} is valid and that ranking the blocks of the grid fits in the
+     * memory budget, counting the bitsets of the grid along with the working memory.
+     *
+     * @param cellCount the number of cells of the grid
+     * @param requirementCount the number of requirements
+     * @param k the number of blocks to rank
+     * @param memoryBudget the number of bytes the grid and the working memory may take
+     * @throws IllegalArgumentException if {@code k} is not positive, or if the memory required exceeds the budget
+     */
+    public static void checkApplicable(long cellCount, int requirementCount, int k, long memoryBudget) {
+
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of blocks to rank must be positive: " + k);
+        }
+        long rankCount = Math.min(k, cellCount);
+        long requiredBytes = cellCount * BYTES_PER_CELL + requirementCount * ((cellCount + 63) >>> 6) * Long.BYTES +
+                rankCount * ((long) Integer.BYTES * (requirementCount + 4) + Long.BYTES);
+        if (requiredBytes > memoryBudget) {
+            throw new IllegalArgumentException("Ranking a grid of " + cellCount + " cells needs " + requiredBytes +
+                    " bytes, more than the memory budget of " + memoryBudget + " bytes");
+        }
+    }
+
+    /**
+     * Ranks the blocks of a grid, keeping the best ones.
+     * <p>
+     * A block that cannot reach a requirement, which is the case of every block when no cell holds it, is not ranked,
+     * so fewer blocks than requested are returned when fewer blocks reach every requirement.
+     *
+     * @param grid the grid of blocks
+     * @param k the number of blocks to rank
+     * @param memoryBudget the number of bytes the grid and the working memory may take
+     * @return the best {@code k} blocks, best first, with their scores and distances
+     * @throws IllegalArgumentException if {@code k} is not positive, or if the grid and the working memory exceed the
+     * budget
+     */
+    public RankedBlocks rankBlocks(ApartmentGrid grid, int k, long memoryBudget) {
+
+        int cellCount = grid.cellCount();
+        checkApplicable(cellCount, grid.requirementCount(), k, memoryBudget);
+        int rankCount = Math.min(k, cellCount);
+
+        long[] offRoad = grid.offRoadCells();
+        int roadCount = 0;
+        for (long word : offRoad) {
+            roadCount += Long.bitCount(~word);
+        }
+        long[] scores = new long[cellCount];
+        int[] queue = new int[cellCount];
+        long[] visited = new long[offRoad.length];
+        excludeCells(offRoad, 0, scores);
+        for (int req = 0; req < grid.requirementCount(); req++) {
+            CancellationToken.checkpoint();
+            System.arraycopy(offRoad, 0, visited, 0, offRoad.length);
+            if (foldDistances(grid, req, scores, queue, visited) < roadCount) {
+                excludeCells(visited, -1L, scores);
+            }
+        }
+
+        TopBlocks topBlocks = new TopBlocks(rankCount);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (scores[cell] != Long.MAX_VALUE) {
+                topBlocks.offer(cell, scores[cell]);
+            }
+        }
+        topBlocks.sort();
+
+        return rank(grid, topBlocks, queue, offRoad);
+    }
+
+    /**
+     * Raises the score of every road cell to its weighted distance to the closest cell holding a requirement.
+     *
+     * @param grid the grid of blocks
+     * @param req the index of the requirement
+     * @param scores the score of each cell so far, updated in place
+     * @param queue a scratch array of one int per cell
+     * @param visited the bitset of the cells not to visit, updated in place with the cells visited
+     * @return the number of cells visited
+     */
+    private static int foldDistances(ApartmentGrid grid, int req, long[] scores, int[] queue, long[] visited) {
+
+        ApartmentBlocks cells = grid.cells();
+        int tail = 0;
+        for (int cell = cells.nextBlockWith(req, 0); cell >= 0; cell = cells.nextBlockWith(req, cell + 1)) {
+            tail = enqueue(cell, queue, tail, visited);
+        }
+
+        int columns = grid.columns();
+        int lastRow = scores.length - columns;
+        long weight = grid.weight(req);
+        int head = 0;
+        // Every cell of a level is at the same distance, one more than the cells of the level before
+        for (long weightedDistance = 0; head < tail; weightedDistance += weight) {
+            for (int levelEnd = tail; head < levelEnd; head++) {
+                int cell = queue[head];
+                scores[cell] = Math.max(scores[cell], weightedDistance);
+                int column = cell % columns;
+                if (column > 0) {
+                    tail = enqueue(cell - 1, queue, tail, visited);
+                }
+                if (column < columns - 1) {
+                    tail = enqueue(cell + 1, queue, tail, visited);
+                }
+                if (cell >= columns) {
+                    tail = enqueue(cell - columns, queue, tail, visited);
+                }
+                if (cell < lastRow) {
+                    tail = enqueue(cell + columns, queue, tail, visited);
+                }
+            }
+        }
+
+        return tail;
+    }
+
+    /**
+     * Looks up the distances of every ranked block to each requirement.
+     *
+     * @param grid the grid of blocks
+     * @param topBlocks the ranked blocks, sorted
+     * @param queue a scratch array of one int per cell
+     * @param offRoad the bitset of the cells not walked through
+     * @return the ranked blocks, with their scores and distances
+     */
+    private static RankedBlocks rank(ApartmentGrid grid, TopBlocks topBlocks, int[] queue, long[] offRoad) {
+
+        int size = topBlocks.size();
+        int[] blocks = new int[size];
+        long[] scores = new long[size];
+        int[][] distances = new int[size][grid.requirementCount()];
+        long[] visited = offRoad.clone();
+        for (int i = 0; i < size; i++) {
+            CancellationToken.checkpoint();
+            blocks[i] = topBlocks.block(i);
+            scores[i] = topBlocks.score(i);
+            for (int req = 0; req < grid.requirementCount(); req++) {
+                distances[i][req] = distanceToClosest(grid, req, blocks[i], scores[i] / grid.weight(req), queue,
+                        visited);
+            }
+        }
+
+        return new RankedBlocks(blocks, scores, distances);
+    }
+
+    /**
+     * Finds the distance of a cell to the closest cell holding a requirement, with a breadth-first search from the
+     * cell that gives up past a distance.
+     *
+     * @param grid the grid of blocks
+     * @param req the index of the requirement
+     * @param from the index of the cell, which is walked through
+     * @param maxDistance the largest distance to search up to
+     * @param queue a scratch array of one int per cell
+     * @param visited the bitset of the cells not to visit, left as it was found
+     * @return the distance of the cell to the requirement, or -1 if it is farther than the largest distance
+     */
+    private static int distanceToClosest(ApartmentGrid grid, int req, int from, long maxDistance, int[] queue,
+                                         long[] visited) {
+
+        ApartmentBlocks cells = grid.cells();
+        int columns = grid.columns();
+        int lastRow = grid.cellCount() - columns;
+        int distance = -1;
+        int tail = enqueue(from, queue, 0, visited);
+        int head = 0;
+        search:
+        for (int levelDistance = 0; head < tail && levelDistance <= maxDistance; levelDistance++) {
+            for (int levelEnd = tail; head < levelEnd; head++) {
+                int cell = queue[head];
+                if (cells.has(req, cell)) {
+                    distance = levelDistance;
+                    break search;
+                }
+                int column = cell % columns;
+                if (column > 0) {
+                    tail = enqueue(cell - 1, queue, tail, visited);
+                }
+                if (column < columns - 1) {
+                    tail = enqueue(cell + 1, queue, tail, visited);
+                }
+                if (cell >= columns) {
+                    tail = enqueue(cell - columns, queue, tail, visited);
+                }
+                if (cell < lastRow) {
+                    tail = enqueue(cell + columns, queue, tail, visited);
+                }
+            }
+        }
+        // Only the cells visited by this search are cleared, rather than the whole bitset
+        for (int i = 0; i < tail; i++) {
+            visited[queue[i] >>> 6] &= ~(1L << queue[i]);
+        }
+
+        return distance;
+    }
+
+    /**
+     * Appends a cell to the queue of a breadth-first search, unless it was already visited.
+     *
+     * @param cell the index of the cell
+     * @param queue the queue
+     * @param tail the number of cells in the queue
+     * @param visited the bitset of the cells not to visit, updated in place
+     * @return the number of cells in the queue after the cell was appended
+     */
+    private static int enqueue(int cell, int[] queue, int tail, long[] visited) {
+
+        long bit = 1L << cell;
+        if ((visited[cell >>> 6] & bit) != 0) {
+            return tail;
+        }
+        visited[cell >>> 6] |= bit;
+        queue[tail] = cell;
+
+        return tail + 1;
+    }
+
+    /**
+     * Excludes cells from the ranking by raising their score to {@code Long.MAX_VALUE}.
+     *
+     * @param bits a bitset of the cells
+     * @param flip 0 to exclude the cells whose bit is set, or -1 to exclude those whose bit is clear
+     * @param scores the score of each cell, updated in place
+     */
+    private static void excludeCells(long[] bits, long flip, long[] scores) {
+
+        for (int word = 0; word < bits.length; word++) {
+            for (long remaining = bits[word] ^ flip; remaining != 0; remaining &= remaining - 1) {
+                int cell = word << 6 | Long.numberOfTrailingZeros(remaining);
+                if (cell >= scores.length) {
+                    return;
+                }
+                scores[cell] = Long.MAX_VALUE;
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stateful variant of "Apartment Hunting" that keeps the best block up to date while the facilities of the blocks
+ * change, instead of recomputing every distance after each change.
+ * <p>
+ * The blocks holding each requirement are kept in a hierarchy of bitsets: level 0 holds a bit per block, and every
+ * level above holds a bit per word of the level below, set when that word is not empty. The closest block holding a
+ * requirement on either side of a block is therefore found by climbing and descending a few levels,
+ * {@code O(log_64 n)} word reads, rather than by scanning the street. The maximum distance of every block to its
+ * requirements is kept in an array, and a segment tree over the blocks keeps, for every range of blocks, the block
+ * with the smallest maximum distance, the lowest index winning a tie, so the best block is read from the root in
+ * constant time.
+ * </p>
+ * <p>
+ * Adding or removing a facility at a block only changes the distances of the blocks between the closest blocks
+ * holding the same facility on either side, its gap {@code g}. Removing a facility can only raise these distances, so
+ * each maximum distance is raised in constant time. Adding a facility can lower them, and the maximum distance of a
+ * block whose farthest requirement was the changed one is recomputed from the closest blocks holding every
+ * requirement. The maximum distances of the gap then refresh the segment tree in {@code O(g + log n)}. An update
+ * therefore takes {@code O(g * r * log_64 n + log n)} time in the worst case, and {@code O(log n)} only while the gaps
+ * stay bounded; adding the first or removing the last facility of a requirement changes the distance of every block.
+ * The class is not thread-safe.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public class IncrementalApartmentHunting {
+
+    private final int blockCount;
+    private final long[][][] holders;
+    private final int[] maxDistanceForEachBlock;
+    private final int leafOffset;
+    private final int[] bestBlocks;
+
+    /**
+     * Constructs the incremental state of the provided blocks, computing every distance once.
+     *
+     * @param blocks the columnar view of the blocks, which is copied
+     */
+    public IncrementalApartmentHunting(ApartmentBlocks blocks) {
+
+        this.blockCount = blocks.blockCount();
+        this.holders = new long[blocks.requirementCount()][][];
+        for (int req = 0; req < holders.length; req++) {
+            long[] column = Arrays.copyOf(blocks.column(req), wordCount(blockCount));
+            if ((blockCount & 63) != 0) {
+                column[column.length - 1] &= -1L >>> -blockCount;
+            }
+            holders[req] = summarize(column);
+        }
+        this.maxDistanceForEachBlock = ApartmentHunting.getMaxDistanceForEachBlock(blocks);
+
+        this.leafOffset = Integer.highestOneBit(Math.max(1, blockCount) * 2 - 1);
+        this.bestBlocks = new int[2 * leafOffset];
+        for (int i = 0; i < leafOffset; i++) {
+            bestBlocks[leafOffset + i] = i < blockCount ? i : -1;
+        }
+        for (int node = leafOffset - 1; node >= 1; node--) {
+            bestBlocks[node] = better(bestBlocks[2 * node], bestBlocks[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the block that has the smallest maximum distance to any required facility.
+     * <p>
+     * As in {@link ApartmentHunting#apartmentHunting(ApartmentBlocks)}, a block at {@code Integer.MAX_VALUE} from its
+     * requirements is never returned, which only happens for a street of a single block that lacks a requirement.
+     *
+     * @return the index of the most optimal block, the lowest one if there are several, or -1 if there is none
+     */
+    public int bestBlock() {
+
+        int best = blockCount == 0 ? -1 : bestBlocks[1];
+
+        return best < 0 || maxDistanceForEachBlock[best] == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    /**
+     * Returns the maximum distance of a block to the closest block with any requirement.
+     *
+     * @param block the index of the block
+     * @return its maximum distance, or 0 if there is no requirement
+     * @throws IndexOutOfBoundsException if the block is out of bounds
+     */
+    public int maxDistance(int block) {
+        return maxDistanceForEachBlock[Objects.checkIndex(block, blockCount)];
+    }
+
+    /**
+     * Adds or removes a facility at a block, and updates the best block.
+     * <p>
+     * The update costs time proportional to the number of blocks between the closest blocks holding the same facility
+     * on either side of the block. It is therefore only logarithmic while such blocks are close together: removing the
+     * last facility of a requirement raises the distance of every block, in {@code O(n)} time, and adding the first
+     * one recomputes the distance of every block to every requirement, in {@code O(n * r * log_64 n)} time.
+     * </p>
+     *
+     * @param req the index of the requirement
+     * @param block the index of the block
+     * @param available whether the block holds the facility after the update
+     * @throws IndexOutOfBoundsException if the requirement or the block is out of bounds
+     */
+    public void setAvailable(int req, int block, boolean available) {
+
+        long[][] levels = holders[Objects.checkIndex(req, holders.length)];
+        Objects.checkIndex(block, blockCount);
+        if (((levels[0][block >>> 6] & 1L << block) != 0) == available) {
+            return;
+        }
+
+        int previous = predecessor(levels, 0, block - 1);
+        int next = successor(levels, 0, block + 1);
+        int from = previous < 0 ? 0 : previous + 1;
+        int to = next < 0 ? blockCount - 1 : next - 1;
+        if (available) {
+            set(levels, block);
+            for (int i = from; i <= to; i++) {
+                int oldDistance = distanceBetween(i, previous, next);
+                int newDistance = distanceBetween(i, i < block ? previous : block, i > block ? next : block);
+                // A lower distance only lowers the maximum of a block whose farthest requirement was this one
+                if (newDistance < oldDistance && oldDistance == maxDistanceForEachBlock[i]) {
+                    maxDistanceForEachBlock[i] = computeMaxDistance(i);
+                }
+            }
+        } else {
+            clear(levels, block);
+            for (int i = from; i <= to; i++) {
+                maxDistanceForEachBlock[i] = Math.max(maxDistanceForEachBlock[i], distanceBetween(i, previous, next));
+            }
+        }
+        refresh(from, to);
+    }
+
+    /**
+     * Computes the maximum distance of a block to the closest block with each requirement.
+     *
+     * @param block the index of the block
+     * @return its maximum distance, or 0 if there is no requirement
+     */
+    private int computeMaxDistance(int block) {
+
+        int maxDistance = 0;
+        for (long[][] levels : holders) {
+            int distance = distanceBetween(block, predecessor(levels, 0, block), successor(levels, 0, block));
+            maxDistance = Math.max(maxDistance, distance);
+        }
+
+        return maxDistance;
+    }
+
+    /**
+     * Returns the distance of a block to the closer of two blocks holding a requirement.
+     * <p>
+     * A block is at {@code Integer.MAX_VALUE - i} from a requirement that no block holds, as in
+     * {@link ApartmentHunting#apartmentHunting(ApartmentBlocks)}.
+     *
+     * @param block the index of the block
+     * @param left the closest block holding the requirement at or before the block, or -1 if there is none
+     * @param right the closest block holding the requirement at or after the block, or -1 if there is none
+     * @return the distance of the block to the requirement
+     */
+    private static int distanceBetween(int block, int left, int right) {
+
+        if (left < 0) {
+            return right < 0 ? Integer.MAX_VALUE - block : right - block;
+        }
+
+        return right < 0 ? block - left : Math.min(block - left, right - block);
+    }
+
+    /**
+     * Recomputes the best block of every node of the segment tree covering a range of blocks.
+     *
+     * @param from the first block of the range
+     * @param to the last block of the range, inclusive
+     */
+    private void refresh(int from, int to) {
+
+        for (int low = (leafOffset + from) >>> 1, high = (leafOffset + to) >>> 1; low >= 1; low >>>= 1, high >>>= 1) {
+            for (int node = low; node <= high; node++) {
+                bestBlocks[node] = better(bestBlocks[2 * node], bestBlocks[2 * node + 1]);
+            }
+        }
+    }
+
+    /**
+     * Returns the better of two blocks, the first one winning a tie since it has the lower index.
+     *
+     * @param first the first block, or -1 if there is none
+     * @param second the second block, after the first one, or -1 if there is none
+     * @return the block with the smaller maximum distance
+     */
+    private int better(int first, int second) {
+
+        if (second < 0) {
+            return first;
+        }
+
+        return first < 0 || maxDistanceForEachBlock[second] < maxDistanceForEachBlock[first] ? second : first;
+    }
+
+    /**
+     * Builds the hierarchy of bitsets over a bitset, each level holding a bit per non-empty word of the level below,
+     * up to a level of a single word.
+     *
+     * @param bits the bitset of level 0
+     * @return the levels, from level 0 up
+     */
+    private static long[][] summarize(long[] bits) {
+
+        int levelCount = 1;
+        for (int length = bits.length; length > 1; length = wordCount(length)) {
+            levelCount++;
+        }
+
+        long[][] levels = new long[levelCount][];
+        levels[0] = bits;
+        for (int level = 1; level < levelCount; level++) {
+            long[] below = levels[level - 1];
+            long[] summary = new long[wordCount(below.length)];
+            for (int word = 0; word < below.length; word++) {
+                if (below[word] != 0) {
+                    summary[word >>> 6] |= 1L << word;
+                }
+            }
+            levels[level] = summary;
+        }
+
+        return levels;
+    }
+
+    /**
+     * Finds the first set bit of a level at or after an index.
+     *
+     * @param levels the hierarchy of bitsets
+     * @param level the level
+     * @param from the index of the first bit to consider
+     * @return the index of the set bit, or -1 if there is none
+     */
+    private static int successor(long[][] levels, int level, int from) {
+
+        int word = from >>> 6;
+        if (word >= levels[level].length) {
+            return -1;
+        }
+
+        long bits = levels[level][word] & -1L << from;
+        if (bits != 0) {
+            return word << 6 | Long.numberOfTrailingZeros(bits);
+        }
+        if (level + 1 == levels.length) {
+            return -1;
+        }
+        int nextWord = successor(levels, level + 1, word + 1);
+
+        return nextWord < 0 ? -1 : nextWord << 6 | Long.numberOfTrailingZeros(levels[level][nextWord]);
+    }
+
+    /**
+     * Finds the last set bit of a level at or before an index.
+     *
+     * @param levels the hierarchy of bitsets
+     * @param level the level
+     * @param to the index of the last bit to consider
+     * @return the index of the set bit, or -1 if there is none
+     */
+    private static int predecessor(long[][] levels, int level, int to) {
+
+        if (to < 0) {
+            return -1;
+        }
+
+        int word = to >>> 6;
+        long bits = levels[level][word] & -1L >>> 63 - (to & 63);
+        if (bits != 0) {
+            return word << 6 | 63 - Long.numberOfLeadingZeros(bits);
+        }
+        if (level + 1 == levels.length) {
+            return -1;
+        }
+        int previousWord = predecessor(levels, level + 1, word - 1);
+
+        return previousWord < 0 ? -1 : previousWord << 6 | 63 - Long.numberOfLeadingZeros(levels[level][previousWord]);
+    }
+
+    /**
+     * Sets a bit of level 0, and the bits of the levels above whose word was empty.
+     *
+     * @param levels the hierarchy of bitsets
+     * @param index the index of the bit
+     */
+    private static void set(long[][] levels, int index) {
+
+        for (long[] bits : levels) {
+            int word = index >>> 6;
+            boolean wasEmpty = bits[word] == 0;
+            bits[word] |= 1L << index;
+            if (!wasEmpty) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    /**
+     * Clears a bit of level 0, and the bits of the levels above whose word becomes empty.
+     *
+     * @param levels the hierarchy of bitsets
+     * @param index the index of the bit
+     */
+    private static void clear(long[][] levels, int index) {
+
+        for (long[] bits : levels) {
+            int word = index >>> 6;
+            bits[word] &= ~(1L << index);
+            if (bits[word] != 0) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    /**
+     * Returns the number of longs holding the provided number of bits.
+     *
+     * @param bitCount the number of bits
+     * @return the number of longs
+     */
+    private static int wordCount(int bitCount) {
+        return (int) ((bitCount + 63L) >>> 6);
+    }
+}
@@ -0,0 +1,22 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import lombok.Value;
+
+/**
+ * Most optimal blocks of an "Apartment Hunting" problem, best first.
+ * <p>
+ * The score of a block is the largest of its distances to the closest block holding each requirement, each weighted
+ * by its requirement, and a block ranks before another one if its score is smaller, or if both scores are equal and
+ * its index is lower. The distances of each block are kept unweighted, in the order of the requirements.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Value
+public class RankedBlocks {
+
+    int[] blocks;
+    long[] scores;
+    int[][] distances;
+}
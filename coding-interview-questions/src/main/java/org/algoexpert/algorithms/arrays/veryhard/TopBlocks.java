@@ -0,0 +1,160 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+/**
+ * Bounded heap keeping the best blocks offered to it, out of blocks scored by a long.
+ * <p>
+ * A block ranks before another one if its score is smaller, or if both scores are equal and its index is lower. The
+ * heap is a max-heap on that order, held in two parallel arrays, so its root is the block to evict when a better one
+ * is offered: keeping the best {@code k} of {@code n} blocks takes {@code O(n log k)} time and {@code O(k)} memory,
+ * without sorting the blocks or boxing a single score. Most blocks of a long street rank after the root, and are
+ * rejected after a single comparison.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+final class TopBlocks {
+
+    private final int[] blocks;
+    private final long[] scores;
+    private int size;
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param capacity the number of blocks to keep
+     */
+    TopBlocks(int capacity) {
+        this.blocks = new int[capacity];
+        this.scores = new long[capacity];
+    }
+
+    /**
+     * Returns the number of blocks kept.
+     *
+     * @return the number of blocks kept, at most the capacity of the heap
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Offers a block, kept if the heap is not full or if it ranks before the worst block kept, which is then evicted.
+     *
+     * @param block the index of the block
+     * @param score the score of the block
+     */
+    void offer(int block, long score) {
+
+        if (size < blocks.length) {
+            siftUp(size++, block, score);
+        } else if (size > 0 && ranksBefore(score, block, scores[0], blocks[0])) {
+            siftDown(0, size, block, score);
+        }
+    }
+
+    /**
+     * Offers every block kept by another heap.
+     *
+     * @param other the other heap
+     */
+    void offerAll(TopBlocks other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.blocks[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * Sorts the blocks kept, best first, after which no block can be offered.
+     */
+    void sort() {
+
+        for (int end = size - 1; end > 0; end--) {
+            int worstBlock = blocks[0];
+            long worstScore = scores[0];
+            siftDown(0, end, blocks[end], scores[end]);
+            blocks[end] = worstBlock;
+            scores[end] = worstScore;
+        }
+    }
+
+    /**
+     * Returns a block kept.
+     *
+     * @param i the rank of the block once sorted, or its position in the heap before
+     * @return the index of the block
+     */
+    int block(int i) {
+        return blocks[i];
+    }
+
+    /**
+     * Returns the score of a block kept.
+     *
+     * @param i the rank of the block once sorted, or its position in the heap before
+     * @return the score of the block
+     */
+    long score(int i) {
+        return scores[i];
+    }
+
+    /**
+     * Moves a block up from a position of the heap until its parent ranks after it.
+     *
+     * @param i the position the block is inserted at
+     * @param block the index of the block
+     * @param score the score of the block
+     */
+    private void siftUp(int i, int block, long score) {
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (ranksBefore(scores[parent], blocks[parent], score, block)) {
+                blocks[i] = blocks[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            } else {
+                break;
+            }
+        }
+        blocks[i] = block;
+        scores[i] = score;
+    }
+
+    /**
+     * Moves a block down from a position of the heap until both its children rank before it.
+     *
+     * @param i the position the block is inserted at
+     * @param end the number of positions of the heap
+     * @param block the index of the block
+     * @param score the score of the block
+     */
+    private void siftDown(int i, int end, int block, long score) {
+
+        for (int child = 2 * i + 1; child < end; i = child, child = 2 * i + 1) {
+            if (child + 1 < end && ranksBefore(scores[child], blocks[child], scores[child + 1], blocks[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(score, block, scores[child], blocks[child])) {
+                break;
+            }
+            blocks[i] = blocks[child];
+            scores[i] = scores[child];
+        }
+        blocks[i] = block;
+        scores[i] = score;
+    }
+
+    /**
+     * Checks whether a block ranks before another one.
+     *
+     * @param score the score of the block
+     * @param block the index of the block
+     * @param otherScore the score of the other block
+     * @param otherBlock the index of the other block
+     * @return true if the score of the block is smaller, or equal with a lower index, false otherwise
+     */
+    private static boolean ranksBefore(long score, int block, long otherScore, int otherBlock) {
+        return score < otherScore || score == otherScore && block < otherBlock;
+    }
+}
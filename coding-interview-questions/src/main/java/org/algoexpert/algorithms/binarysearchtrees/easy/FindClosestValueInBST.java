@@ -30,6 +30,9 @@ import java.util.List;
  * Average: O(log(n)) time | O(1) space - where n is the number of nodes in the BST || Worst: O(n) time | O(1) space -
  * where n is the number of nodes in the BST
  * </pre>
+ * <p> A tree that is searched many times can be frozen with {@link FrozenBST#freeze(BST)} into a balanced array
+ * layout, which is searched in {@code O(log(n))} time whatever its shape, with a cache miss every few levels rather
+ * than at every one.
  *
  * @author Jitesh Shaw
  */
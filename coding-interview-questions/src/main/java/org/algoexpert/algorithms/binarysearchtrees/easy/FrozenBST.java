@@ -0,0 +1,167 @@
+package org.algoexpert.algorithms.binarysearchtrees.easy;
+
+import org.algoexpert.collections.IntArrayList;
+import org.algoexpert.utils.IntRadixSort;
+
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Read-only Binary Search Tree (BST) frozen into a single array, for the "Find Closest Value In BST" algorithm.
+ * <p>
+ * The values of the tree are sorted and laid out in Eytzinger order: the array holds the nodes of a complete binary
+ * search tree level by level, the root at index 1 and the children of node {@code k} at indices {@code 2k} and
+ * {@code 2k + 1}. A search reads one int per level from a single contiguous array instead of following a pointer to a
+ * node allocated anywhere on the heap, the first levels share a few cache lines that stay hot across searches, and
+ * the tree is balanced whatever the order the values were inserted in, so every search takes {@code log2(n)} steps.
+ * </p>
+ * <p>
+ * The search does not branch on the values it reads: the index of the next node is computed from the sign of the
+ * difference between the value and the target, so no branch is mispredicted on the way down. The bits of the final
+ * index record every turn taken, from which the closest values below and above the target are recovered in constant
+ * time.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class FrozenBST {
+
+    /**
+     * Largest number of values of a frozen tree, so that the index of a node never overflows on the way down.
+     */
+    public static final int MAX_SIZE = (1 << 30) - 1;
+
+    private final int[] values;
+
+    /**
+     * Constructs a frozen tree from its values in Eytzinger order.
+     *
+     * @param values the values, from index 1
+     */
+    private FrozenBST(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Freezes a linked BST, which is left unchanged.
+     * <p>
+     * The values are collected in sorted order by an in-order traversal with an explicit stack, so a degenerate tree
+     * as deep as it has nodes does not overflow the call stack.
+     *
+     * @param tree the root node of the BST
+     * @return the frozen tree
+     * @throws IllegalArgumentException if the tree has no node or more than {@link #MAX_SIZE} nodes
+     */
+    public static FrozenBST freeze(FindClosestValueInBST.BST tree) {
+
+        IntArrayList sorted = new IntArrayList();
+        ArrayDeque<FindClosestValueInBST.BST> ancestors = new ArrayDeque<>();
+        for (FindClosestValueInBST.BST node = tree; node != null || !ancestors.isEmpty(); node = node.right) {
+            for (; node != null; node = node.left) {
+                ancestors.push(node);
+            }
+            node = ancestors.pop();
+            sorted.add(node.value);
+        }
+
+        return ofSorted(sorted.toArray(), sorted.size());
+    }
+
+    /**
+     * Freezes the BST that inserting the provided values in order would build, without building it.
+     *
+     * @param values the values of the BST, in any order, which are left unchanged
+     * @return the frozen tree
+     * @throws IllegalArgumentException if there is no value or more than {@link #MAX_SIZE} values
+     */
+    public static FrozenBST of(int[] values) {
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(IntBuffer.wrap(values))) {
+            return ofSorted(sorted.array(), sorted.length());
+        }
+    }
+
+    /**
+     * Lays sorted values out in Eytzinger order.
+     *
+     * @param sorted the values, sorted in ascending order
+     * @param size the number of values
+     * @return the frozen tree
+     * @throws IllegalArgumentException if there is no value or more than {@link #MAX_SIZE} values
+     */
+    private static FrozenBST ofSorted(int[] sorted, int size) {
+
+        if (size == 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("A frozen BST must have between 1 and " + MAX_SIZE + " nodes: " + size);
+        }
+
+        int[] values = new int[size + 1];
+        // The nodes of the complete tree are visited in order, so each one takes the next sorted value
+        int k = leftmost(1, size);
+        for (int i = 0; i < size; i++) {
+            values[k] = sorted[i];
+            if (2 * k + 1 <= size) {
+                k = leftmost(2 * k + 1, size);
+            } else {
+                // The next node is the parent of the last ancestor reached from its left, up past the right children
+                k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+            }
+        }
+
+        return new FrozenBST(values);
+    }
+
+    /**
+     * Finds the leftmost node of a subtree of a complete tree.
+     *
+     * @param k the index of the root of the subtree
+     * @param size the number of nodes of the tree
+     * @return the index of the node holding the smallest value of the subtree
+     */
+    private static int leftmost(int k, int size) {
+
+        while (2 * k <= size) {
+            k = 2 * k;
+        }
+
+        return k;
+    }
+
+    /**
+     * Returns the number of values of the tree.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return values.length - 1;
+    }
+
+    /**
+     * Finds the value of the tree that is closest to the provided target value.
+     *
+     * @param target the target value to find the closest value to
+     * @return the value of the tree that is closest to the target value, the smaller one if two values are as close
+     */
+    public int findClosestValue(int target) {
+
+        int[] values = this.values;
+        int n = values.length - 1;
+        int k = 1;
+        while (k <= n) {
+            // The sign bit of the difference is 1 if the value is smaller than the target, and the search goes right
+            k = 2 * k + (int) (((long) values[k] - target) >>> 63);
+        }
+        // The last left turn was at the smallest value not smaller than the target, the last right one at the largest
+        // value smaller than it
+        int above = k >>> Integer.numberOfTrailingZeros(~k) + 1;
+        int below = k >>> Integer.numberOfTrailingZeros(k) + 1;
+        if (above == 0) {
+            return values[below];
+        }
+        if (below == 0) {
+            return values[above];
+        }
+
+        return (long) values[above] - target < (long) target - values[below] ? values[above] : values[below];
+    }
+}
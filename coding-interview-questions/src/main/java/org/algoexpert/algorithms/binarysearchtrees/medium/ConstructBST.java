@@ -266,7 +266,7 @@ public class ConstructBST implements BinarySearchTreesAlgorithms {
                     } else {
                         bst = bst.insert(value);
                     }
-                    LOGGER.info("Value {} inserted. BST: {}", value, bst);
+                    LOGGER.debug("Value {} inserted. BST: {}", value, bst);
                     break;
                 case "contains":
                     if (bst != null) {
@@ -282,7 +282,7 @@ public class ConstructBST implements BinarySearchTreesAlgorithms {
                             LOGGER.info("BST has only one node. Cannot perform 'remove' operation.");
                         } else {
                             bst = bst.remove(value);
-                            LOGGER.info("Value {} removed. BST: {}", value, bst);
+                            LOGGER.debug("Value {} removed. BST: {}", value, bst);
                         }
                     } else {
                         LOGGER.info("BST is empty. Cannot perform 'remove' operation.");
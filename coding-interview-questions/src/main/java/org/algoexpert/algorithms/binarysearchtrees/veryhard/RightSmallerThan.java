@@ -4,8 +4,11 @@ import lombok.Data;
 import org.algoexpert.algorithms.binarysearchtrees.BinarySearchTreesAlgorithms;
 import org.algoexpert.algorithms.binarysearchtrees.easy.FindClosestValueInBST;
 import org.algoexpert.algorithms.binarysearchtrees.medium.ConstructBST;
+import org.algoexpert.execution.CancellationToken;
 
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -57,6 +60,7 @@ public class RightSmallerThan implements BinarySearchTreesAlgorithms {
         int lastIdx = array.size() - 1;
         SpecialBST specialBST = new SpecialBST(array.get(lastIdx), lastIdx, 0);
         for (int i = array.size() - 2; i >= 0; i--) {
+            CancellationToken.checkpoint();
             specialBST.insert(array.get(i), i);
         }
 
@@ -66,6 +70,38 @@ public class RightSmallerThan implements BinarySearchTreesAlgorithms {
         return rightSmallerCounts;
     }
 
+    /**
+     * Finds the number of elements to the right of each element in the array that are smaller than the element itself,
+     * reading the array from an {@link IntBuffer}, from its current position to its limit.
+     * <p>
+     * This method builds the same special BST as {@link #rightSmallerThan(List)}, but reads the elements with absolute
+     * gets, so the buffer may be a view over a memory-mapped file that is never copied into a list of boxed integers.
+     * </p>
+     *
+     * @param array the buffer holding the integers to process
+     * @return a list of integers where each integer is the count of smaller elements to the right for the corresponding
+     * element in the input array
+     */
+    public List<Integer> rightSmallerThan(IntBuffer array) {
+
+        int offset = array.position();
+        int n = array.remaining();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        SpecialBST specialBST = new SpecialBST(array.get(offset + n - 1), n - 1, 0);
+        for (int i = n - 2; i >= 0; i--) {
+            CancellationToken.checkpoint();
+            specialBST.insert(array.get(offset + i), i);
+        }
+
+        List<Integer> rightSmallerCounts = new ArrayList<>(Collections.nCopies(n, 0));
+        getRightSmallerCounts(specialBST, rightSmallerCounts);
+
+        return rightSmallerCounts;
+    }
+
     /**
      * Updates the list of right smaller counts for each element in the array.
      * <p>
@@ -0,0 +1,67 @@
+package org.algoexpert.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * An algorithm result held by the result cache in its serialized JSON form.
+ * <p>
+ * Results are cached already serialized, so a cache hit is written to the response verbatim instead of being
+ * serialized again, and the memory held by the cache is simply the length of the cached JSON.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class CachedResult extends JsonSerializable.Base {
+
+    private final String json;
+
+    /**
+     * Constructs a cached result.
+     *
+     * @param json the JSON representation of the result
+     */
+    public CachedResult(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Returns the length of the JSON representation of the result.
+     *
+     * @return the length of the JSON representation, in characters
+     */
+    public int length() {
+        return json.length();
+    }
+
+    /**
+     * Serializes the result by writing its JSON representation verbatim.
+     *
+     * @param generator the generator to write the result with
+     * @param serializers the provider of the serializers in use
+     * @throws IOException if an error occurs while writing the result
+     */
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeRawValue(json);
+    }
+
+    /**
+     * Serializes the result by writing its JSON representation verbatim; no type information is written.
+     *
+     * @param generator the generator to write the result with
+     * @param serializers the provider of the serializers in use
+     * @param typeSerializer the type serializer, which is ignored
+     * @throws IOException if an error occurs while writing the result
+     */
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,22 @@
+package org.algoexpert.cache;
+
+import lombok.Value;
+import org.algoexpert.utils.DataStructureCategories;
+
+/**
+ * Key of a cached algorithm result.
+ * <p>
+ * A result is identified by the algorithm that computed it and the 64-bit fingerprint of its input, so the input
+ * itself never has to be retained by the cache.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Value
+public class ResultCacheKey {
+
+    DataStructureCategories category;
+    String algorithmName;
+    long inputHash;
+}
@@ -0,0 +1,233 @@
+package org.algoexpert.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, size-aware cache with a segmented LRU eviction policy.
+ * <p>
+ * Every entry has a weight, and the total weight of the entries never exceeds the maximum weight of the cache. New
+ * entries are admitted to a probation segment, and are promoted to a protected segment, holding up to 80% of the
+ * maximum weight, on their first hit. Eviction always starts from the least recently used entry of the probation
+ * segment, and the least recently used entries of the protected segment are demoted to the probation segment when it
+ * grows too large. A burst of entries that are only ever seen once can therefore never flush out the entries that
+ * are requested repeatedly. Entries heavier than the maximum entry weight are never admitted.
+ * </p>
+ * <p>
+ * All operations run in constant time under the lock of the cache.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author Jitesh Shaw
+ */
+
+public final class SegmentedLruCache<K, V> {
+
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final long maxWeight;
+    private final long maxEntryWeight;
+    private final long maxProtectedWeight;
+    // Both segments iterate from their least to their most recently used entry
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>();
+    private long probationWeight;
+    private long protectedWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A cached value with its weight.
+     *
+     * @param <V> the type of the value
+     */
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long weight;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param value the cached value
+         * @param weight the weight of the value
+         */
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxWeight the maximum total weight of the entries
+     * @param maxEntryWeight the maximum weight of a single entry
+     */
+    public SegmentedLruCache(long maxWeight, long maxEntryWeight) {
+        this.maxWeight = maxWeight;
+        this.maxEntryWeight = Math.min(maxEntryWeight, maxWeight);
+        this.maxProtectedWeight = maxWeight / 100 * PROTECTED_PERCENTAGE;
+    }
+
+    /**
+     * Returns the value cached for a key, and marks it as the most recently used.
+     *
+     * @param key the key
+     * @return the cached value, or null if the key is not cached
+     */
+    public synchronized V get(K key) {
+
+        Entry<V> entry = protectedSegment.remove(key);
+        if (entry == null) {
+            entry = probation.remove(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            probationWeight -= entry.weight;
+            protectedWeight += entry.weight;
+            protectedSegment.put(key, entry);
+            demoteExcessProtectedEntries();
+        } else {
+            protectedSegment.put(key, entry);
+        }
+
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Caches a value for a key, evicting the least valuable entries to make room for it.
+     *
+     * @param key the key
+     * @param value the value
+     * @param weight the weight of the value
+     * @return true if the value was admitted, false if it is heavier than the maximum entry weight
+     */
+    public synchronized boolean put(K key, V value, long weight) {
+
+        if (weight > maxEntryWeight) {
+            return false;
+        }
+
+        remove(key);
+        probation.put(key, new Entry<>(value, weight));
+        probationWeight += weight;
+        evictExcessEntries();
+
+        return true;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of cached entries
+     */
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Returns the total weight of the cached entries.
+     *
+     * @return the total weight of the cached entries
+     */
+    public synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    /**
+     * Returns the maximum total weight of the entries.
+     *
+     * @return the maximum total weight of the entries
+     */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     *
+     * @return the number of hits
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found no cached value.
+     *
+     * @return the number of misses
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Removes the entry of a key from whichever segment holds it.
+     *
+     * @param key the key
+     */
+    private void remove(K key) {
+
+        Entry<V> entry = probation.remove(key);
+        if (entry != null) {
+            probationWeight -= entry.weight;
+            return;
+        }
+        entry = protectedSegment.remove(key);
+        if (entry != null) {
+            protectedWeight -= entry.weight;
+        }
+    }
+
+    /**
+     * Demotes the least recently used protected entries to the probation segment, until the protected segment fits
+     * in its share of the maximum weight.
+     */
+    private void demoteExcessProtectedEntries() {
+
+        Iterator<Map.Entry<K, Entry<V>>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedWeight > maxProtectedWeight && iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> demoted = iterator.next();
+            iterator.remove();
+            protectedWeight -= demoted.getValue().weight;
+            probationWeight += demoted.getValue().weight;
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries, first from the probation segment and then from the protected segment,
+     * until the total weight of the entries fits in the maximum weight.
+     */
+    private void evictExcessEntries() {
+
+        Iterator<Entry<V>> probationIterator = probation.values().iterator();
+        while (probationWeight + protectedWeight > maxWeight && probationIterator.hasNext()) {
+            probationWeight -= probationIterator.next().weight;
+            probationIterator.remove();
+            evictions++;
+        }
+
+        Iterator<Entry<V>> protectedIterator = protectedSegment.values().iterator();
+        while (probationWeight + protectedWeight > maxWeight && protectedIterator.hasNext()) {
+            protectedWeight -= protectedIterator.next().weight;
+            protectedIterator.remove();
+            evictions++;
+        }
+    }
+}
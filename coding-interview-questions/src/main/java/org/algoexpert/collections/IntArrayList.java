@@ -0,0 +1,186 @@
+package org.algoexpert.collections;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints backed by a single flat array.
+ * <p>
+ * Elements are appended unboxed, and the backing array grows by half of its length whenever it is full, so appending
+ * takes amortized constant time without allocating anything per element. Tuples of a fixed arity, such as triplets,
+ * are stored flat, one after the other, which avoids allocating an array per tuple. The list is not thread-safe.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class IntArrayList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] elements;
+    private int size;
+
+    /**
+     * Constructs an empty list with a small initial capacity.
+     */
+    public IntArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with the provided initial capacity.
+     *
+     * @param capacity the initial capacity
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public IntArrayList(int capacity) {
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.elements = new int[capacity];
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param element the element
+     */
+    public void add(int element) {
+        ensureCapacity(size + 1);
+        elements[size++] = element;
+    }
+
+    /**
+     * Appends three elements, such as the numbers of a triplet.
+     *
+     * @param first the first element
+     * @param second the second element
+     * @param third the third element
+     */
+    public void add(int first, int second, int third) {
+        ensureCapacity(size + 3);
+        elements[size++] = first;
+        elements[size++] = second;
+        elements[size++] = third;
+    }
+
+    /**
+     * Appends four elements, such as the numbers of a quadruplet.
+     *
+     * @param first the first element
+     * @param second the second element
+     * @param third the third element
+     * @param fourth the fourth element
+     */
+    public void add(int first, int second, int third, int fourth) {
+        ensureCapacity(size + 4);
+        elements[size++] = first;
+        elements[size++] = second;
+        elements[size++] = third;
+        elements[size++] = fourth;
+    }
+
+    /**
+     * Appends every element of another list.
+     *
+     * @param other the list whose elements to append
+     */
+    public void addAll(IntArrayList other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Returns an element.
+     *
+     * @param index the index of the element
+     * @return the element at the index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int get(int index) {
+        return elements[checkIndex(index)];
+    }
+
+    /**
+     * Adds a delta to an element.
+     *
+     * @param index the index of the element
+     * @param delta the delta to add
+     * @return the new value of the element
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int addTo(int index, int delta) {
+        return elements[checkIndex(index)] += delta;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list is empty.
+     *
+     * @return true if the list has no elements, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every element from the list, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the elements as an array.
+     *
+     * @return a new array holding exactly the elements of the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Checks that an index is within the bounds of the list.
+     *
+     * @param index the index
+     * @return the same index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    private int checkIndex(int index) {
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        return index;
+    }
+
+    /**
+     * Grows the backing array, if needed, to hold the provided number of elements.
+     *
+     * @param capacity the number of elements to hold
+     * @throws IllegalStateException if the list cannot grow any further
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("List too large");
+        }
+        if (capacity > elements.length) {
+            int grownCapacity = (int) Math.min(MAX_CAPACITY, elements.length + (elements.length >> 1) + 16L);
+            elements = Arrays.copyOf(elements, Math.max(capacity, grownCapacity));
+        }
+    }
+}
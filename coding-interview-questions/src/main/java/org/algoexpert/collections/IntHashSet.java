@@ -0,0 +1,184 @@
+package org.algoexpert.collections;
+
+import java.util.Arrays;
+
+/**
+ * Hash set of primitive ints with open addressing and linear probing.
+ * <p>
+ * The elements are stored directly in a single {@code int[]} table, so adding an element neither boxes it nor
+ * allocates an entry node, and a lookup probes consecutive slots of the same array instead of chasing pointers. The
+ * capacity of the table is a power of two, and the slot of an element is given by Fibonacci hashing, which spreads
+ * consecutive values across the table. The table is grown by doubling whenever it becomes half full, which keeps the
+ * expected probe sequences short.
+ * </p>
+ * <p>
+ * Empty slots hold {@code 0}, so the element {@code 0} itself is tracked by a separate flag rather than stored in the
+ * table. The set is not thread-safe.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class IntHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int FIBONACCI_MULTIPLIER = 0x9E3779B9;
+
+    private int[] table;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Constructs an empty set with a small initial capacity.
+     */
+    public IntHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs an empty set that holds the expected number of elements without growing.
+     *
+     * @param expectedSize the expected number of elements
+     * @throws IllegalArgumentException if the expected size is negative or too large for a single table
+     */
+    public IntHashSet(int expectedSize) {
+
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+        }
+
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    /**
+     * Adds an element to the set.
+     *
+     * @param element the element
+     * @return true if the element was added, false if it was already in the set
+     */
+    public boolean add(int element) {
+
+        if (element == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(element);
+        int current;
+        while ((current = table[slot]) != 0) {
+            if (current == element) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = element;
+        if (++size > table.length >>> 1) {
+            grow();
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether an element is in the set.
+     *
+     * @param element the element
+     * @return true if the element is in the set, false otherwise
+     */
+    public boolean contains(int element) {
+
+        if (element == 0) {
+            return containsZero;
+        }
+
+        int slot = slot(element);
+        int current;
+        while ((current = table[slot]) != 0) {
+            if (current == element) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return true if the set has no elements, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every element from the set, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Returns the slot where the probe sequence of an element starts.
+     *
+     * @param element the non-zero element
+     * @return the first slot to probe
+     */
+    private int slot(int element) {
+        return (element * FIBONACCI_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Allocates an empty table.
+     *
+     * @param capacity the capacity of the table, a power of two
+     */
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Doubles the capacity of the table and reinserts every element.
+     *
+     * @throws IllegalStateException if the table cannot grow any further
+     */
+    private void grow() {
+
+        if (table.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Set too large");
+        }
+
+        int[] oldTable = table;
+        allocate(oldTable.length << 1);
+        for (int element : oldTable) {
+            if (element != 0) {
+                int slot = slot(element);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = element;
+            }
+        }
+    }
+}
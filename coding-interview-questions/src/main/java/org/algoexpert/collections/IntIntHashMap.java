@@ -0,0 +1,264 @@
+package org.algoexpert.collections;
+
+/**
+ * Hash map from primitive int keys to primitive int values with open addressing and linear probing.
+ * <p>
+ * The map follows the same layout as {@link IntHashSet}: the keys are stored unboxed in a power-of-two table indexed
+ * by Fibonacci hashing, with the values in a parallel array, and the table is grown by doubling whenever it becomes
+ * half full. Absent keys map to {@code 0}, which makes the map a natural frequency counter through
+ * {@link #addTo(int, int)}.
+ * </p>
+ * <p>
+ * Empty slots hold the key {@code 0}, so the value of the key {@code 0} itself is tracked separately. The map is not
+ * thread-safe.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class IntIntHashMap {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int FIBONACCI_MULTIPLIER = 0x9E3779B9;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZeroKey;
+    private int zeroKeyValue;
+
+    /**
+     * Functional interface for receiving the entries of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Receives an entry of the map.
+         *
+         * @param key the key of the entry
+         * @param value the value of the entry
+         */
+        void accept(int key, int value);
+    }
+
+    /**
+     * Constructs an empty map with a small initial capacity.
+     */
+    public IntIntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs an empty map that holds the expected number of keys without growing.
+     *
+     * @param expectedSize the expected number of keys
+     * @throws IllegalArgumentException if the expected size is negative or too large for a single table
+     */
+    public IntIntHashMap(int expectedSize) {
+
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+        }
+
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value of the key, or 0 if the key is not in the map
+     */
+    public int get(int key) {
+
+        if (key == 0) {
+            return zeroKeyValue;
+        }
+
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Adds a delta to the value of a key, inserting the key with the delta as its value if it is not in the map.
+     *
+     * @param key the key
+     * @param delta the delta to add
+     * @return the new value of the key
+     */
+    public int addTo(int key, int delta) {
+
+        if (key == 0) {
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            return zeroKeyValue += delta;
+        }
+
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > keys.length >>> 1) {
+            grow();
+        }
+
+        return delta;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key, or 0 if the key was not in the map
+     */
+    public int put(int key, int value) {
+
+        if (key == 0) {
+            int previousValue = zeroKeyValue;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroKeyValue = value;
+            return previousValue;
+        }
+
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                int previousValue = values[slot];
+                values[slot] = value;
+                return previousValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length >>> 1) {
+            grow();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     *
+     * @param key the key
+     * @return true if the key is in the map, false otherwise
+     */
+    public boolean containsKey(int key) {
+
+        if (key == 0) {
+            return containsZeroKey;
+        }
+
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every entry of the map to a consumer, in no particular order.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(EntryConsumer consumer) {
+
+        if (containsZeroKey) {
+            consumer.accept(0, zeroKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot where the probe sequence of a key starts.
+     *
+     * @param key the non-zero key
+     * @return the first slot to probe
+     */
+    private int slot(int key) {
+        return (key * FIBONACCI_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Allocates empty tables.
+     *
+     * @param capacity the capacity of the tables, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Doubles the capacity of the tables and reinserts every entry.
+     *
+     * @throws IllegalStateException if the tables cannot grow any further
+     */
+    private void grow() {
+
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Map too large");
+        }
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            int key = oldKeys[oldSlot];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[oldSlot];
+            }
+        }
+    }
+}
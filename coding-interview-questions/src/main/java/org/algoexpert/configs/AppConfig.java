@@ -1,36 +1,39 @@
 package org.algoexpert.configs;
 
+import org.algoexpert.utils.IntTokenizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-
 /**
  * Configuration class for defining application beans.
  * <p>
  * This class is annotated with {@link Configuration}, indicating that it contains bean definitions for the Spring
- * container. It provides a method to create a {@link BufferedReader} bean that reads from the standard input stream.
+ * container. It provides a method to create an {@link IntTokenizer} bean that reads from the standard input stream,
+ * and enables the configuration properties of the application.
  * </p>
  *
  * @author Jitesh Shaw
  */
 
 @Configuration
+@EnableConfigurationProperties({BatchExecutionProperties.class, ExecutionProperties.class,
+        BinaryInputProperties.class, ResultCacheProperties.class, JobProperties.class, MetricsProperties.class,
+        MemoryProperties.class})
 public class AppConfig {
 
     /**
-     * Creates a {@link BufferedReader} bean that reads from the standard input stream.
+     * Creates an {@link IntTokenizer} bean that reads from the standard input stream.
      * <p>
      * This method is annotated with {@link Bean}, indicating that it returns a Spring bean to be managed by the Spring
-     * container. The {@link BufferedReader} is initialized with an {@link InputStreamReader} that reads from
-     * {@link System#in}, allowing for console input to be read.
+     * container. The {@link IntTokenizer} reads the bytes of {@link System#in} directly, allowing for console input to
+     * be parsed without creating a string per value.
      * </p>
      *
-     * @return a {@link BufferedReader} instance for reading from the standard input stream
+     * @return an {@link IntTokenizer} instance for reading from the standard input stream
      */
     @Bean
-    public BufferedReader bufferedReader() {
-        return new BufferedReader(new InputStreamReader(System.in));
+    public IntTokenizer intTokenizer() {
+        return new IntTokenizer(System.in);
     }
 }
@@ -0,0 +1,28 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the batch execution of algorithms.
+ * <p>
+ * The properties are bound from the {@code algoexpert.batch} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.batch")
+public class BatchExecutionProperties {
+
+    /**
+     * Maximum number of batch inputs being executed or waiting to be written at any time, per batch request.
+     */
+    private int maxInFlight = 256;
+    /**
+     * Largest result line held in the heap while it is computed; larger lines are spilled to a temporary file.
+     */
+    private DataSize inMemoryLineThreshold = DataSize.ofMegabytes(1);
+}
@@ -0,0 +1,28 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the binary integer array inputs of algorithms.
+ * <p>
+ * The properties are bound from the {@code algoexpert.binary-input} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.binary-input")
+public class BinaryInputProperties {
+
+    /**
+     * Directory that local input files must reside in, or null to disable local file inputs.
+     */
+    private String fileDirectory;
+    /**
+     * Largest binary request body read into the heap; larger bodies are spilled to a memory-mapped temporary file.
+     */
+    private DataSize inMemoryThreshold = DataSize.ofMegabytes(1);
+}
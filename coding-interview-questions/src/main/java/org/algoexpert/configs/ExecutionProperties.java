@@ -0,0 +1,87 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.algoexpert.utils.DataStructureCategories;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the execution of algorithms.
+ * <p>
+ * The properties are bound from the {@code algoexpert.execution} prefix of the application configuration. Every data
+ * structure category is executed behind its own bulkhead, sized by the entry of {@code bulkheads} for the category or
+ * by {@code default-bulkhead} when the category has no entry.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.execution")
+public class ExecutionProperties {
+
+    /**
+     * Threads on which the algorithms are executed.
+     */
+    private Mode mode = Mode.PLATFORM;
+    /**
+     * Bulkhead limits of the data structure categories without an entry in {@code bulkheads}.
+     */
+    private BulkheadProperties defaultBulkhead = new BulkheadProperties();
+    /**
+     * Bulkhead limits per data structure category.
+     */
+    private Map<DataStructureCategories, BulkheadProperties> bulkheads = new EnumMap<>(DataStructureCategories.class);
+    /**
+     * Time after which an algorithm streaming its output gives up if the response is not read.
+     */
+    private Duration streamedOutputStallTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Returns the bulkhead limits of a data structure category.
+     *
+     * @param category the data structure category
+     * @return the configured limits of the category, or the default limits if the category has none
+     */
+    public BulkheadProperties getBulkhead(DataStructureCategories category) {
+        return bulkheads.getOrDefault(category, defaultBulkhead);
+    }
+
+    /**
+     * Threads on which the algorithms are executed.
+     */
+    public enum Mode {
+        /**
+         * A fixed pool of platform threads per bulkhead.
+         */
+        PLATFORM,
+        /**
+         * A new virtual thread per execution, falling back to {@link #PLATFORM} on runtimes without virtual threads.
+         */
+        VIRTUAL
+    }
+
+    /**
+     * Limits of a single bulkhead.
+     */
+    @Data
+    public static class BulkheadProperties {
+
+        /**
+         * Maximum number of algorithms of the category executing at the same time.
+         */
+        private int maxConcurrent = 8;
+        /**
+         * Maximum number of algorithms of the category waiting to execute; further executions are rejected.
+         */
+        private int maxQueued = 64;
+        /**
+         * Number of threads the algorithms of the category split their work across, or 0 to use one per available
+         * processor.
+         */
+        private int computeParallelism = 0;
+    }
+}
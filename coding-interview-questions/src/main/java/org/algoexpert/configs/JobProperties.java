@@ -0,0 +1,37 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the asynchronous algorithm jobs.
+ * <p>
+ * The properties are bound from the {@code algoexpert.jobs} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.jobs")
+public class JobProperties {
+
+    /**
+     * Directory persisting the queued jobs and the results of the jobs, so they survive a restart.
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/algoexpert-jobs";
+    /**
+     * Number of worker threads executing the jobs.
+     */
+    private int workers = 2;
+    /**
+     * Maximum number of jobs waiting to be executed; further submissions are rejected.
+     */
+    private int maxQueued = 100;
+    /**
+     * Time for which a finished job and its result are kept before being deleted.
+     */
+    private Duration resultTtl = Duration.ofHours(1);
+}
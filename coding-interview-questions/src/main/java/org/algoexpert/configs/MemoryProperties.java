@@ -0,0 +1,28 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the memory used by algorithms whose working set grows faster than their input.
+ * <p>
+ * The properties are bound from the {@code algoexpert.memory} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.memory")
+public class MemoryProperties {
+
+    /**
+     * Heap that a single execution may use for its working set; larger working sets are spilled to disk.
+     */
+    private DataSize budget = DataSize.ofMegabytes(512);
+    /**
+     * Directory that working sets are spilled to.
+     */
+    private String spillDirectory = System.getProperty("java.io.tmpdir");
+}
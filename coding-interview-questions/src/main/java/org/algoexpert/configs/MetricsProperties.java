@@ -0,0 +1,33 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Configuration properties for the per-algorithm execution metrics.
+ * <p>
+ * The properties are bound from the {@code algoexpert.metrics} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.metrics")
+public class MetricsProperties {
+
+    /**
+     * Latency percentiles computed for every algorithm, between 0 and 1.
+     */
+    private List<Double> percentiles = List.of(0.5, 0.95, 0.99);
+    /**
+     * Whether the latency histogram buckets are published, so percentiles can be aggregated across instances.
+     */
+    private boolean percentileHistogram = true;
+    /**
+     * Whether the bytes allocated by every execution are measured.
+     */
+    private boolean allocationTracking = true;
+}
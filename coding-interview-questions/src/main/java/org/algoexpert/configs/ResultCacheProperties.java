@@ -0,0 +1,32 @@
+package org.algoexpert.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the cache of algorithm results.
+ * <p>
+ * The properties are bound from the {@code algoexpert.cache} prefix of the application configuration.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@ConfigurationProperties(prefix = "algoexpert.cache")
+public class ResultCacheProperties {
+
+    /**
+     * Whether the results of the JSON executions are cached.
+     */
+    private boolean enabled = true;
+    /**
+     * Maximum memory used by the cached results, measured as the size of their JSON representation.
+     */
+    private DataSize maximumMemory = DataSize.ofMegabytes(64);
+    /**
+     * Maximum size of the JSON representation of a single cached result; larger results are never cached.
+     */
+    private DataSize maximumEntrySize = DataSize.ofMegabytes(1);
+}
@@ -1,27 +1,49 @@
 package org.algoexpert.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 
-import org.algoexpert.services.ArraysService;
-import org.algoexpert.services.BinarySearchTreesService;
-import org.algoexpert.services.BinaryTreesService;
+import org.algoexpert.cache.CachedResult;
+import org.algoexpert.dtos.BulkheadStats;
+import org.algoexpert.dtos.JobStatus;
+import org.algoexpert.dtos.ResultCacheStats;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.services.AlgorithmExecutionService;
+import org.algoexpert.services.BatchExecutionService;
+import org.algoexpert.services.BinaryInputService;
+import org.algoexpert.services.JobService;
+import org.algoexpert.services.ResultCacheService;
 import org.algoexpert.utils.DataStructureCategories;
-import org.algoexpert.utils.JavaReflectionUtil;
+import org.algoexpert.utils.JsonInputHasher;
+import org.algoexpert.utils.LoggerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller class for handling algorithm execution requests.
@@ -40,132 +62,470 @@ import java.util.Objects;
         "specified data structure category and algorithm name")
 public class AlgorithmController {
 
-    private final JavaReflectionUtil javaReflectionUtil;
-    private final ArraysService arraysService;
-    private final BinarySearchTreesService binarySearchTreesService;
-    private final BinaryTreesService binaryTreesService;
-    private final Map<String, Method[]> dataStructureCategoriesAndMethods = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlgorithmController.class);
+    private final AlgorithmRegistry algorithmRegistry;
+    private final AlgorithmExecutionService algorithmExecutionService;
+    private final BatchExecutionService batchExecutionService;
+    private final BinaryInputService binaryInputService;
+    private final ResultCacheService resultCacheService;
+    private final JobService jobService;
+    private final LoggerUtil loggerUtil;
 
     /**
      * Constructs an instance of the AlgorithmController.
      * <p>
      * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
-     * injection to create an instance of the controller. It initializes the {@code javaReflectionUtil} and
-     * {@code arraysService} fields with the provided instances.
+     * injection to create an instance of the controller. It initializes the {@code algorithmRegistry},
+     * {@code algorithmExecutionService}, {@code batchExecutionService}, {@code binaryInputService},
+     * {@code resultCacheService}, {@code jobService} and {@code loggerUtil} fields with the provided instances.
      * </p>
      *
-     * @param javaReflectionUtil an instance of {@link JavaReflectionUtil} used for reflection operations
-     * @param arraysService an instance of {@link ArraysService} used to execute array-related algorithms
+     * @param algorithmRegistry the registry used to resolve the algorithm to execute
+     * @param algorithmExecutionService an instance of {@link AlgorithmExecutionService} used to execute algorithms
+     *                                  behind the bulkhead of their data structure category
+     * @param batchExecutionService an instance of {@link BatchExecutionService} used to execute batches of inputs
+     * @param binaryInputService an instance of {@link BinaryInputService} used to read binary integer arrays
+     * @param resultCacheService an instance of {@link ResultCacheService} used to cache the results of JSON inputs
+     * @param jobService an instance of {@link JobService} used to execute algorithms as asynchronous jobs
+     * @param loggerUtil an instance of {@link LoggerUtil} used for logging warnings
      */
     @Autowired
-    public AlgorithmController(JavaReflectionUtil javaReflectionUtil, ArraysService arraysService,
-                               BinarySearchTreesService binarySearchTreesService,
-                               BinaryTreesService binaryTreesService) {
-        this.javaReflectionUtil = javaReflectionUtil;
-        this.arraysService = arraysService;
-        this.binarySearchTreesService = binarySearchTreesService;
-        this.binaryTreesService = binaryTreesService;
+    public AlgorithmController(AlgorithmRegistry algorithmRegistry,
+                               AlgorithmExecutionService algorithmExecutionService,
+                               BatchExecutionService batchExecutionService,
+                               BinaryInputService binaryInputService, ResultCacheService resultCacheService,
+                               JobService jobService, LoggerUtil loggerUtil) {
+        this.algorithmRegistry = algorithmRegistry;
+        this.algorithmExecutionService = algorithmExecutionService;
+        this.batchExecutionService = batchExecutionService;
+        this.binaryInputService = binaryInputService;
+        this.resultCacheService = resultCacheService;
+        this.jobService = jobService;
+        this.loggerUtil = loggerUtil;
     }
 
     /**
-     * Initializes the data structure categories and methods map.
+     * Executes the specified algorithm for a given data structure category.
      * <p>
-     * This method is annotated with {@link PostConstruct}, indicating that it should be executed after the dependency
-     * injection is done to perform any initialization. It calls the
-     * {@link JavaReflectionUtil#populateDataStructureCategoriesAndMethodsMap(Map)} method to populate the
-     * {@code dataStructureCategoriesAndMethodsMap} with the relevant data.
+     * This method is mapped to a GET request with the specified data structure category and algorithm name as request
+     * parameters. It resolves the algorithm from the {@link AlgorithmRegistry}, reads its input from the console and
+     * executes it, returning the computed result as the response body. Like the JSON and binary executions, the
+     * algorithm runs off the request thread, behind the bulkhead of its data structure category, and is rejected with
+     * HttpStatus.SERVICE_UNAVAILABLE if that bulkhead is full. If the data structure category or algorithm does not
+     * exist, it returns a message indicating that the data structure category or algorithm is not available.
      * </p>
+     *
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @return a future completed with a ResponseEntity with the result computed by the algorithm
      */
-    @PostConstruct
-    public void init() {
-        javaReflectionUtil.populateDataStructureCategoriesAndMethodsMap(dataStructureCategoriesAndMethods);
+    @GetMapping("/executeAnyAlgorithm")
+    @Operation(summary = "Executes the specified algorithm for a given data structure category and returns the " +
+            "computed result")
+    public CompletableFuture<ResponseEntity<?>> executeAnyAlgorithm(
+            @RequestParam(value = "datastructureCategory", defaultValue = "arrays") String datastructureCategory,
+            @RequestParam(value = "algorithmName", defaultValue = "twoNumberSum") String algorithmName) {
+
+        if (DataStructureCategories.fromDisplayName(datastructureCategory) == null) {
+            return CompletableFuture.completedFuture(getInvalidDataStructureCategoryResponse());
+        }
+
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(datastructureCategory, algorithmName);
+        if (registration == null) {
+            return CompletableFuture.completedFuture(
+                    getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory));
+        }
+
+        return algorithmExecutionService.submit(registration.getCategory(), registration::executeFromConsole)
+                .handle((result, failure) -> {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    // The console is read by the server, so failing to read it is not an invalid request
+                    if (cause instanceof IOException e) {
+                        loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+                        return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
+                    }
+                    return getExecutionResponse(result, failure, algorithmName, datastructureCategory);
+                });
     }
 
     /**
-     * Executes the specified algorithm for a given data structure category.
+     * Executes the specified algorithm for a given data structure category on the provided JSON input.
      * <p>
-     * This method is mapped to a GET request with the specified data structure category and algorithm name as request
-     * parameters. It checks if the provided data structure category and algorithm name exist in the
-     * {@code dataStructureCategoriesAndMethods} map. If they exist, it calls the appropriate service to execute the
-     * algorithm. If they do not exist, it returns a message indicating that the data structure category or algorithm is
-     * not available.
+     * This method is mapped to a POST request with the data structure category and algorithm name as path variables
+     * and the typed input of the algorithm as the JSON request body. Unlike {@link #executeAnyAlgorithm(String,
+     * String)}, the algorithm is invoked directly without any console I/O, and the computed result is returned as the
+     * response body. The algorithm runs off the request thread, behind the bulkhead of its data structure category,
+     * and is rejected with HttpStatus.SERVICE_UNAVAILABLE if that bulkhead is full. Algorithms with potentially large
+     * outputs return a {@link org.algoexpert.registry.StreamedOutput}, which the bulkhead computes while the response
+     * is written, through a bounded pipe, so its work never runs on the request thread. Results are cached by the
+     * fingerprint of their input, and a cached result is returned straight away, without going through the bulkhead.
+     * If the data structure category or algorithm is not available, or the input is invalid, a message describing the
+     * problem is returned instead.
      * </p>
      *
      * @param datastructureCategory the category of the data structure
      * @param algorithmName the name of the algorithm to execute
-     * @return a ResponseEntity with a message indicating the result of the algorithm execution
+     * @param input the JSON input of the algorithm
+     * @return a future completed with a ResponseEntity with the result computed by the algorithm
      */
-    @GetMapping("/executeAnyAlgorithm")
-    @Operation(summary = "Executes the specified algorithm for a given data structure category")
-    public ResponseEntity<String> executeAnyAlgorithm(@RequestParam(value = "datastructureCategory",
-                                                               defaultValue = "arrays")
-                                       String datastructureCategory,
-                                                      @RequestParam(value = "algorithmName",
-                                                               defaultValue = "twoNumberSum")
-                                       String algorithmName) {
-
-        if (dataStructureCategoriesAndMethods.containsKey(datastructureCategory)) {
-
-            // Get the data structure category enum constant from the display name
-            DataStructureCategories dSCategory = DataStructureCategories.fromDisplayName(datastructureCategory);
-
-            switch (Objects.requireNonNull(dSCategory)) {
-                case ARRAYS -> {
-                    if(Arrays.stream(dataStructureCategoriesAndMethods.get(datastructureCategory))
-                            .anyMatch(method -> method.getName().equals(algorithmName))) {
-                        if (arraysService.executeAlgorithm(algorithmName)) {
-                            return getSuccessfulAlgorithmExecutionResponse(algorithmName, datastructureCategory);
-                        }
-                        return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
-                    }
-                    return getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory);
-                }
-                case BINARY_SEARCH_TREES -> {
-                    if(Arrays.stream(dataStructureCategoriesAndMethods.get(datastructureCategory))
-                            .anyMatch(method -> method.getName().equals(algorithmName))) {
-                        if (binarySearchTreesService.executeAlgorithm(algorithmName)) {
-                            return getSuccessfulAlgorithmExecutionResponse(algorithmName, datastructureCategory);
-                        }
-                        return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
-                    }
-                    return getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory);
-                }
-                case BINARY_TREES -> {
-                    if(Arrays.stream(dataStructureCategoriesAndMethods.get(datastructureCategory))
-                            .anyMatch(method -> method.getName().equals(algorithmName))) {
-                        if (binaryTreesService.executeAlgorithm(algorithmName)) {
-                            return getSuccessfulAlgorithmExecutionResponse(algorithmName, datastructureCategory);
-                        }
-                        return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
-                    }
-                    return getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory);
-                }
-                default -> ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Data structure category \"" + datastructureCategory + "\" not available");
-            }
+    @PostMapping("/execute/{datastructureCategory}/{algorithmName}")
+    @Operation(summary = "Executes the specified algorithm for a given data structure category on the provided JSON " +
+            "input and returns the computed result")
+    public CompletableFuture<ResponseEntity<?>> executeAlgorithm(
+            @PathVariable("datastructureCategory") String datastructureCategory,
+            @PathVariable("algorithmName") String algorithmName, @RequestBody JsonNode input) {
+
+        if (DataStructureCategories.fromDisplayName(datastructureCategory) == null) {
+            return CompletableFuture.completedFuture(getInvalidDataStructureCategoryResponse());
         }
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body("Invalid data structure category or algorithm name");
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(datastructureCategory, algorithmName);
+        if (registration == null) {
+            return CompletableFuture.completedFuture(
+                    getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory));
+        }
+
+        long inputHash = JsonInputHasher.hash(input);
+        CachedResult cachedResult = resultCacheService.get(registration, inputHash);
+        if (cachedResult != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(cachedResult));
+        }
+
+        return algorithmExecutionService.submit(registration.getCategory(),
+                        () -> resultCacheService.executeJson(registration, input, inputHash))
+                .handle((result, failure) -> getExecutionResponse(result, failure, algorithmName,
+                        datastructureCategory));
     }
 
     /**
-     * Returns a ResponseEntity indicating the successful execution of the specified algorithm under the given data
-     * structure category.
+     * Executes the specified algorithm for a given data structure category on a binary integer array given as the
+     * request body.
      * <p>
-     * This method constructs a ResponseEntity with a status of HttpStatus.OK and a message body indicating that the
-     * specified algorithm was successfully executed under the provided data structure category.
+     * This method is mapped to a POST request with an {@code application/octet-stream} body holding the array as
+     * little-endian int32 values, and the target sum, if the algorithm needs one, as a request parameter. The array is
+     * consumed by the algorithm without any text parsing, and bodies larger than the configured in-memory threshold
+     * are memory-mapped rather than read onto the heap. Only algorithms operating on a single integer array support
+     * binary inputs; for the others, HttpStatus.UNSUPPORTED_MEDIA_TYPE is returned.
      * </p>
      *
-     * @param algorithmName the name of the algorithm that was successfully executed
-     * @param datastructureCategory the category of the data structure under which the algorithm was executed
-     * @return a ResponseEntity with a status of HttpStatus.OK and a message indicating the successful execution of the
-     * algorithm
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @param targetSum the target sum, if the algorithm needs one
+     * @param request the HTTP request, whose body holds the binary integer array
+     * @return a future completed with a ResponseEntity with the result computed by the algorithm
      */
-    private ResponseEntity<String> getSuccessfulAlgorithmExecutionResponse(String algorithmName,
-                                                                           String datastructureCategory) {
-        return ResponseEntity.ok("Successfully executed algorithm \"" + algorithmName +
-                "\" under data structure category \"" + datastructureCategory + "\"");
+    @PostMapping(value = "/execute/{datastructureCategory}/{algorithmName}",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Executes the specified algorithm for a given data structure category on a binary array of " +
+            "little-endian int32 values and returns the computed result")
+    public CompletableFuture<ResponseEntity<?>> executeAlgorithmOnBinaryInput(
+            @PathVariable("datastructureCategory") String datastructureCategory,
+            @PathVariable("algorithmName") String algorithmName,
+            @RequestParam(value = "targetSum", required = false) Integer targetSum, HttpServletRequest request) {
+        return executeBinary(datastructureCategory, algorithmName, targetSum,
+                () -> binaryInputService.readBody(request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    /**
+     * Executes the specified algorithm for a given data structure category on a binary integer array read from a local
+     * file.
+     * <p>
+     * This method is mapped to a POST request with the path of the file, relative to the configured file directory,
+     * and the target sum, if the algorithm needs one, as request parameters. The file holds the array as little-endian
+     * int32 values and is memory-mapped, so the algorithm consumes it without copying it onto the heap where the
+     * algorithm allows. Local file inputs are rejected unless a file directory is configured.
+     * </p>
+     *
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @param path the path of the file, relative to the configured file directory
+     * @param targetSum the target sum, if the algorithm needs one
+     * @return a future completed with a ResponseEntity with the result computed by the algorithm
+     */
+    @PostMapping("/execute/{datastructureCategory}/{algorithmName}/file")
+    @Operation(summary = "Executes the specified algorithm for a given data structure category on a memory-mapped " +
+            "local file of little-endian int32 values and returns the computed result")
+    public CompletableFuture<ResponseEntity<?>> executeAlgorithmOnFileInput(
+            @PathVariable("datastructureCategory") String datastructureCategory,
+            @PathVariable("algorithmName") String algorithmName, @RequestParam("path") String path,
+            @RequestParam(value = "targetSum", required = false) Integer targetSum) {
+        return executeBinary(datastructureCategory, algorithmName, targetSum, () -> binaryInputService.mapFile(path));
+    }
+
+    /**
+     * Executes the specified algorithm for a given data structure category over a batch of independent inputs.
+     * <p>
+     * This method is mapped to a POST request with the data structure category and algorithm name as path variables
+     * and the batch of inputs as the request body, given either as a JSON array or as an NDJSON stream. The inputs
+     * are executed in parallel, and each result is streamed back as an NDJSON line as soon as it is computed, tagged
+     * with the index of its input.
+     * </p>
+     *
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @param request the HTTP request, whose body is read incrementally while the results are streamed
+     * @return a ResponseEntity streaming the NDJSON result lines
+     */
+    @PostMapping(value = "/execute/{datastructureCategory}/{algorithmName}/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Executes the specified algorithm for a given data structure category over a batch of " +
+            "inputs and streams the results as NDJSON")
+    public ResponseEntity<StreamingResponseBody> executeBatch(
+            @PathVariable("datastructureCategory") String datastructureCategory,
+            @PathVariable("algorithmName") String algorithmName, HttpServletRequest request) {
+
+        if (DataStructureCategories.fromDisplayName(datastructureCategory) == null) {
+            return asStreamingResponse(getInvalidDataStructureCategoryResponse());
+        }
+
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(datastructureCategory, algorithmName);
+        if (registration == null) {
+            return asStreamingResponse(getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory));
+        }
+
+        StreamingResponseBody results = outputStream ->
+                batchExecutionService.executeBatch(registration, request.getInputStream(), outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
+    }
+
+    /**
+     * Returns the state of the bulkhead of every data structure category.
+     * <p>
+     * This method is mapped to a GET request and reports, for every data structure category, its concurrency and queue
+     * limits, the number of executions currently running and queued, and how many executions completed or were
+     * rejected.
+     * </p>
+     *
+     * @return a ResponseEntity with the state of every bulkhead
+     */
+    @GetMapping("/bulkheads")
+    @Operation(summary = "Returns the queue depth and rejection counts of the bulkhead of every data structure " +
+            "category")
+    public ResponseEntity<List<BulkheadStats>> getBulkheadStats() {
+        return ResponseEntity.ok(algorithmExecutionService.getBulkheadStats());
+    }
+
+    /**
+     * Returns the state of the result cache.
+     * <p>
+     * This method is mapped to a GET request and reports the number of cached results, the memory they use, and how
+     * many lookups hit or missed the cache and how many results were evicted from it.
+     * </p>
+     *
+     * @return a ResponseEntity with the state of the result cache
+     */
+    @GetMapping("/cache")
+    @Operation(summary = "Returns the size and the hit, miss and eviction counts of the result cache")
+    public ResponseEntity<ResultCacheStats> getResultCacheStats() {
+        return ResponseEntity.ok(resultCacheService.getStats());
+    }
+
+    /**
+     * Submits the specified algorithm for a given data structure category as an asynchronous job.
+     * <p>
+     * This method is mapped to a POST request with the same JSON input as the synchronous execution endpoint. The job
+     * is persisted and queued, and its status, including the id used to poll, stream and cancel it, is returned with
+     * HttpStatus.ACCEPTED straight away. If the job queue is full, HttpStatus.SERVICE_UNAVAILABLE is returned.
+     * </p>
+     *
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @param input the JSON input of the algorithm
+     * @return a ResponseEntity with the status of the queued job
+     */
+    @PostMapping("/jobs/{datastructureCategory}/{algorithmName}")
+    @Operation(summary = "Submits the specified algorithm for a given data structure category on the provided JSON " +
+            "input as an asynchronous job")
+    public ResponseEntity<?> submitJob(@PathVariable("datastructureCategory") String datastructureCategory,
+                                       @PathVariable("algorithmName") String algorithmName,
+                                       @RequestBody JsonNode input) {
+
+        if (DataStructureCategories.fromDisplayName(datastructureCategory) == null) {
+            return getInvalidDataStructureCategoryResponse();
+        }
+
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(datastructureCategory, algorithmName);
+        if (registration == null) {
+            return getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory);
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit(registration, input));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IOException e) {
+            loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, algorithmName);
+            return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
+        }
+    }
+
+    /**
+     * Returns the status of an asynchronous job.
+     *
+     * @param id the id of the job
+     * @return a ResponseEntity with the status of the job, or with HttpStatus.NOT_FOUND if no such job exists
+     */
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Returns the status of an asynchronous job")
+    public ResponseEntity<?> getJobStatus(@PathVariable("id") String id) {
+        JobStatus status = jobService.getStatus(id);
+        return status == null ? getJobNotFoundResponse(id) : ResponseEntity.ok(status);
+    }
+
+    /**
+     * Streams the result of an asynchronous job.
+     * <p>
+     * This method is mapped to a GET request and streams the JSON result of the job as it is written. For a running
+     * job, the part of the result computed so far is returned straight away and the response stays open until the job
+     * finishes, so large results can be consumed while they are being computed. If the job has already failed or been
+     * cancelled, HttpStatus.CONFLICT is returned with the status of the job instead.
+     * </p>
+     *
+     * @param id the id of the job
+     * @return a ResponseEntity streaming the result of the job
+     */
+    @GetMapping("/jobs/{id}/result")
+    @Operation(summary = "Streams the result of an asynchronous job, including the partial result of a running job")
+    public ResponseEntity<StreamingResponseBody> getJobResult(@PathVariable("id") String id) {
+
+        JobStatus status = jobService.getStatus(id);
+        if (status == null) {
+            return asStreamingResponse(getJobNotFoundResponse(id));
+        }
+        if (status.getState() == JobStatus.State.FAILED || status.getState() == JobStatus.State.CANCELLED) {
+            return asStreamingResponse(getJobNotSucceededResponse(status));
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> jobService.streamResult(id, outputStream));
+    }
+
+    /**
+     * Cancels an asynchronous job.
+     * <p>
+     * A queued job is cancelled immediately, while a running job stops at the next cancellation checkpoint of its
+     * algorithm. If the job has already finished, HttpStatus.CONFLICT is returned.
+     * </p>
+     *
+     * @param id the id of the job
+     * @return a ResponseEntity with the status of the job after the cancellation request
+     */
+    @DeleteMapping("/jobs/{id}")
+    @Operation(summary = "Cancels a queued or running asynchronous job")
+    public ResponseEntity<?> cancelJob(@PathVariable("id") String id) {
+
+        JobStatus status = jobService.getStatus(id);
+        if (status == null) {
+            return getJobNotFoundResponse(id);
+        }
+        if (status.getState().isFinished()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status);
+        }
+
+        return ResponseEntity.ok(jobService.cancel(id));
+    }
+
+    /**
+     * Executes the specified algorithm on a binary integer array, behind the bulkhead of its data structure category.
+     * <p>
+     * The array is read once the bulkhead has admitted the execution, on the thread running it, so a burst of
+     * requests that the bulkhead rejects or queues never reads or spills their bodies: at most as many arrays as the
+     * bulkhead runs executions are read at the same time.
+     * </p>
+     *
+     * @param datastructureCategory the category of the data structure
+     * @param algorithmName the name of the algorithm to execute
+     * @param targetSum the target sum, or null if none was provided
+     * @param arrayReader the reader of the binary integer array, invoked on the thread of the execution
+     * @return a future completed with a ResponseEntity with the result computed by the algorithm
+     */
+    private CompletableFuture<ResponseEntity<?>> executeBinary(String datastructureCategory, String algorithmName,
+                                                               Integer targetSum, Callable<IntBuffer> arrayReader) {
+
+        if (DataStructureCategories.fromDisplayName(datastructureCategory) == null) {
+            return CompletableFuture.completedFuture(getInvalidDataStructureCategoryResponse());
+        }
+
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(datastructureCategory, algorithmName);
+        if (registration == null) {
+            return CompletableFuture.completedFuture(
+                    getAlgorithmNotAvailableResponse(algorithmName, datastructureCategory));
+        }
+        if (!registration.supportsBinaryInput()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body("Algorithm \"" + algorithmName + "\" does not support binary inputs"));
+        }
+
+        return algorithmExecutionService.submit(registration.getCategory(),
+                        () -> registration.executeBinary(arrayReader.call(), targetSum))
+                .handle((result, failure) -> getExecutionResponse(result, failure, algorithmName,
+                        datastructureCategory));
+    }
+
+    /**
+     * Converts the outcome of an algorithm execution into a ResponseEntity.
+     * <p>
+     * A rejection by the bulkhead is reported with HttpStatus.SERVICE_UNAVAILABLE, an invalid input with
+     * HttpStatus.BAD_REQUEST, and any other failure with HttpStatus.INTERNAL_SERVER_ERROR.
+     * </p>
+     *
+     * @param result the result computed by the algorithm, if it succeeded
+     * @param failure the failure of the execution, or null if it succeeded
+     * @param algorithmName the name of the executed algorithm
+     * @param datastructureCategory the category of the data structure
+     * @return a ResponseEntity with either the result or a message describing the failure
+     */
+    private ResponseEntity<?> getExecutionResponse(Object result, Throwable failure, String algorithmName,
+                                                   String datastructureCategory) {
+
+        if (failure == null) {
+            return ResponseEntity.ok(result);
+        }
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(cause.getMessage());
+        }
+        if (cause instanceof IOException || cause instanceof IllegalArgumentException) {
+            return getInvalidInputResponse(algorithmName, (Exception) cause);
+        }
+        loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, algorithmName);
+        return getErrorWhileExecutingAlgorithmResponse(algorithmName, datastructureCategory);
+    }
+
+    /**
+     * Converts a ResponseEntity with a message body into one streaming the same message as plain text.
+     *
+     * @param response the ResponseEntity with the message body
+     * @return a ResponseEntity with the same status, streaming the message
+     */
+    private static ResponseEntity<StreamingResponseBody> asStreamingResponse(ResponseEntity<String> response) {
+        byte[] message = Objects.requireNonNull(response.getBody()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(response.getStatusCode()).contentType(MediaType.TEXT_PLAIN)
+                .body(outputStream -> outputStream.write(message));
+    }
+
+    /**
+     * Returns a ResponseEntity indicating that the provided data structure category is not valid.
+     *
+     * @return a ResponseEntity with a status of HttpStatus.BAD_REQUEST and a message indicating the invalid data
+     * structure category or algorithm name
+     */
+    private ResponseEntity<String> getInvalidDataStructureCategoryResponse() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Invalid data structure category or algorithm name");
+    }
+
+    /**
+     * Returns a ResponseEntity indicating that the input provided for the specified algorithm is not valid.
+     *
+     * @param algorithmName the name of the algorithm the input was provided for
+     * @param e the exception describing why the input is not valid
+     * @return a ResponseEntity with a status of HttpStatus.BAD_REQUEST and a message describing the invalid input
+     */
+    private ResponseEntity<String> getInvalidInputResponse(String algorithmName, Exception e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Invalid input for algorithm \"" + algorithmName + "\": " + e.getMessage());
     }
 
     /**
@@ -208,4 +568,26 @@ public class AlgorithmController {
                 .body("Algorithm \"" + algorithmName + "\" not available under data structure category \"" +
                         datastructureCategory + "\"");
     }
+
+    /**
+     * Returns a ResponseEntity indicating that the specified job does not exist.
+     *
+     * @param id the id of the job
+     * @return a ResponseEntity with a status of HttpStatus.NOT_FOUND and a message indicating the unknown job
+     */
+    private ResponseEntity<String> getJobNotFoundResponse(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Job \"" + id + "\" not found");
+    }
+
+    /**
+     * Returns a ResponseEntity indicating that the specified job failed or was cancelled, so it has no result.
+     *
+     * @param status the status of the job
+     * @return a ResponseEntity with a status of HttpStatus.CONFLICT and a message describing the state of the job
+     */
+    private ResponseEntity<String> getJobNotSucceededResponse(JobStatus status) {
+        String message = "Job \"" + status.getId() + "\" " + status.getState().name().toLowerCase();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(status.getError() == null ? message : message + ": " + status.getError());
+    }
 }
@@ -0,0 +1,40 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for the grid variant of the "Apartment Hunting" algorithm.
+ * <p>
+ * Cells are numbered row by row, cell {@code row * columns + column} being at the provided row and column. The
+ * {@code facilities} list the cells holding each requirement, in the order of {@code reqs}, and the optional
+ * {@code weights} weigh each requirement, every requirement weighing 1 if they are omitted. Distances are Manhattan
+ * distances unless the road cells are listed in {@code roads}, in which case they are measured along the roads. The
+ * best {@code k} blocks are returned.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApartmentGridInput implements SizedInput {
+
+    private int rows;
+    private int columns;
+    private String[] reqs;
+    private int[] weights;
+    private int[][] facilities;
+    private int[] roads;
+    private int k;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return (long) rows * columns;
+    }
+}
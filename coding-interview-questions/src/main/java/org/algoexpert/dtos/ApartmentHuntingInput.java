@@ -0,0 +1,34 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body for the "Apartment Hunting" algorithm.
+ * <p>
+ * Each block maps a requirement name to whether that requirement is present at the block.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApartmentHuntingInput implements SizedInput {
+
+    private List<Map<String, Boolean>> blocks;
+    private String[] reqs;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return blocks == null ? 0 : blocks.size();
+    }
+}
@@ -0,0 +1,36 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body for the ranking mode of the "Apartment Hunting" algorithm.
+ * <p>
+ * The blocks and the requirements are those of the "Apartment Hunting" algorithm, and the best {@code k} blocks are
+ * returned.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApartmentRankingInput implements SizedInput {
+
+    private List<Map<String, Boolean>> blocks;
+    private String[] reqs;
+    private int k;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return blocks == null ? 0 : blocks.size();
+    }
+}
@@ -0,0 +1,53 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body for the "Apartment Hunting Updates" algorithm.
+ * <p>
+ * The blocks and the requirements are those of the "Apartment Hunting" algorithm, and the updates are applied in
+ * sequence to the facilities of the blocks.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApartmentUpdatesInput implements SizedInput {
+
+    private List<Map<String, Boolean>> blocks;
+    private String[] reqs;
+    private List<AmenityUpdate> updates;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return (blocks == null ? 0 : blocks.size()) + (updates == null ? 0 : updates.size());
+    }
+
+    /**
+     * A single update of the facilities of a block.
+     * <p>
+     * The {@code req} is one of the requirements, and {@code available} states whether the block at index
+     * {@code block} holds it after the update.
+     * </p>
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AmenityUpdate {
+
+        private int block;
+        private String req;
+        private boolean available;
+    }
+}
@@ -0,0 +1,30 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for the algorithms that operate on a single array of integers.
+ * <p>
+ * Used by the "Right Smaller Than" algorithm.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrayInput implements SizedInput {
+
+    private int[] array;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return array == null ? 0 : array.length;
+    }
+}
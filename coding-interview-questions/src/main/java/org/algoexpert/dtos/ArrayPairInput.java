@@ -0,0 +1,32 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for the algorithms that compare two arrays of integers.
+ * <p>
+ * Used by the "Same BSTs" and "Same BSTs Optimized" algorithms, where each array lists the values in the order they
+ * are inserted into a Binary Search Tree (BST).
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrayPairInput implements SizedInput {
+
+    private int[] arrayOne;
+    private int[] arrayTwo;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return (arrayOne == null ? 0 : arrayOne.length) + (arrayTwo == null ? 0 : arrayTwo.length);
+    }
+}
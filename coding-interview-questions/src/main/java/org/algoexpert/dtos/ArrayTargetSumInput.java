@@ -0,0 +1,34 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.algoexpert.algorithms.arrays.SumStrategy;
+
+/**
+ * Request body for the array algorithms that search for numbers summing up to a target sum.
+ * <p>
+ * Used by the "Two Number Sum", "Three Number Sum" and "Four Number Sum" algorithms. The optional {@code strategy}
+ * forces the strategy of the algorithms that choose one adaptively, and is ignored by the others.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrayTargetSumInput implements SizedInput {
+
+    private int[] array;
+    private int targetSum;
+    private SumStrategy strategy;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return array == null ? 0 : array.length;
+    }
+}
@@ -0,0 +1,26 @@
+package org.algoexpert.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A single line of the NDJSON response of a batch execution.
+ * <p>
+ * Each line is tagged with the index of the input it belongs to, and holds either the result computed for that input
+ * or the error that prevented computing it. A streamed result failing part way through is written with both the part of
+ * the result written before the failure and the error.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultLine {
+
+    private long index;
+    private Object result;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for the Binary Tree algorithms.
+ * <p>
+ * The {@code tree} array lists the node values in level order, so the children of the node at index {@code i} are at
+ * indices {@code 2 * i + 1} and {@code 2 * i + 2}. Used by the "Branch Sums" and "Invert Binary Tree" algorithms.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BinaryTreeInput implements SizedInput {
+
+    private int[] tree;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return tree == null ? 0 : tree.length;
+    }
+}
@@ -0,0 +1,48 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request body for the "Construct BST" algorithm.
+ * <p>
+ * The operations are applied in sequence to an initially empty Binary Search Tree (BST).
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BstOperationsInput implements SizedInput {
+
+    private List<BstOperation> operations;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return operations == null ? 0 : operations.size();
+    }
+
+    /**
+     * A single operation to perform on the BST.
+     * <p>
+     * The {@code operation} is one of "insert", "contains" or "remove", and {@code value} is the value to perform it
+     * on.
+     * </p>
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BstOperation {
+
+        private String operation;
+        private int value;
+    }
+}
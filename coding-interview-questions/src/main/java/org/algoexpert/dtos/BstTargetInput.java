@@ -0,0 +1,32 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for the Binary Search Tree (BST) algorithms that search for a target value.
+ * <p>
+ * The {@code tree} array lists the node values in the order they are inserted into the BST, so its first element
+ * becomes the root. Used by the "Find Closest Value In BST" algorithm.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BstTargetInput implements SizedInput {
+
+    private int[] tree;
+    private int target;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return tree == null ? 0 : tree.length;
+    }
+}
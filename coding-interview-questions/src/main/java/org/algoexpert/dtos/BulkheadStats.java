@@ -0,0 +1,23 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Snapshot of the state of the bulkhead of a data structure category.
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@AllArgsConstructor
+public class BulkheadStats {
+
+    private String datastructureCategory;
+    private int maxConcurrent;
+    private int maxQueued;
+    private int active;
+    private int queueDepth;
+    private long completed;
+    private long rejected;
+}
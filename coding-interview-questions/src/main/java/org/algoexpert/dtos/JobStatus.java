@@ -0,0 +1,51 @@
+package org.algoexpert.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data transfer object describing an asynchronous algorithm job.
+ * <p>
+ * The same representation is returned to the callers polling the job and persisted alongside the job, so that queued
+ * jobs and the results of finished jobs survive a restart.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatus {
+
+    private String id;
+    private String datastructureCategory;
+    private String algorithmName;
+    private State state;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    /**
+     * Lifecycle state of a job.
+     */
+    public enum State {
+
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        /**
+         * Checks whether the job has finished, successfully or not.
+         *
+         * @return true if the state is final, false otherwise
+         */
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+}
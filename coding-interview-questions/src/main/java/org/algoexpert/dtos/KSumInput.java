@@ -0,0 +1,35 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.algoexpert.algorithms.arrays.KSumPlan;
+
+/**
+ * Request body for the "K Sum" algorithm.
+ * <p>
+ * The target sum is a long, since the sum of {@code k} integers may exceed the range of an int. The optional
+ * {@code plan} forces the plan of the engine instead of letting it choose one from the input.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KSumInput implements SizedInput {
+
+    private int[] array;
+    private int k;
+    private long targetSum;
+    private KSumPlan plan;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long inputSize() {
+        return array == null ? 0 : array.length;
+    }
+}
@@ -0,0 +1,23 @@
+package org.algoexpert.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data transfer object describing the state of the cache of algorithm results.
+ *
+ * @author Jitesh Shaw
+ */
+
+@Data
+@AllArgsConstructor
+public class ResultCacheStats {
+
+    private boolean enabled;
+    private int entries;
+    private long usedBytes;
+    private long maximumBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+}
@@ -0,0 +1,22 @@
+package org.algoexpert.dtos;
+
+/**
+ * Interface implemented by the algorithm inputs to report their size.
+ * <p>
+ * The size is the number of elements the algorithm operates on, such as the length of an array or the number of
+ * blocks, and is recorded with the execution metrics of the algorithm so that latencies can be related to the size of
+ * the inputs they were measured on.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public interface SizedInput {
+
+    /**
+     * Returns the number of elements of the input.
+     *
+     * @return the number of elements of the input, or 0 if the input is incomplete
+     */
+    long inputSize();
+}
@@ -0,0 +1,249 @@
+package org.algoexpert.execution;
+
+import org.algoexpert.dtos.BulkheadStats;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulkhead isolating the executions of one data structure category from those of the others.
+ * <p>
+ * A bulkhead admits at most {@code maxConcurrent} executions at the same time and queues at most {@code maxQueued}
+ * more; any further execution is rejected immediately instead of waiting. With platform threads, the bulkhead owns a
+ * fixed pool of {@code maxConcurrent} threads, so a slow category can only ever occupy its own threads. With virtual
+ * threads, every execution gets its own virtual thread and a semaphore bounds how many of them run at once.
+ * </p>
+ * <p>
+ * Algorithms that split their work across threads must not do so on the common fork-join pool either, or a category
+ * saturating it would slow down every other one. Each bulkhead therefore also owns a compute pool, which it binds to
+ * the thread of every execution it runs, and algorithms fan out to {@link #computePool()}. The threads of a compute
+ * pool are only started when work is submitted to it, and stop once they have been idle for a while.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class Bulkhead {
+
+    private static final ThreadLocal<ForkJoinPool> COMPUTE_POOL = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ExecutorService executor;
+    private final Semaphore concurrencyLimit;
+    private final ForkJoinPool computePool;
+    private final Semaphore admission;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Constructs a bulkhead.
+     *
+     * @param name the name of the bulkhead
+     * @param maxConcurrent the maximum number of executions running at the same time
+     * @param maxQueued the maximum number of executions waiting to run
+     * @param executor the executor running the executions
+     * @param concurrencyLimit the semaphore bounding the running executions, or null if the executor already does
+     * @param computeParallelism the parallelism of the compute pool of the bulkhead
+     */
+    private Bulkhead(String name, int maxConcurrent, int maxQueued, ExecutorService executor,
+                     Semaphore concurrencyLimit, int computeParallelism) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.executor = executor;
+        this.concurrencyLimit = concurrencyLimit;
+        this.computePool = newComputePool(name, computeParallelism);
+        this.admission = new Semaphore(maxConcurrent + maxQueued);
+    }
+
+    /**
+     * Creates a bulkhead running its executions on its own fixed pool of platform threads.
+     *
+     * @param name the name of the bulkhead, also used to name its threads
+     * @param maxConcurrent the maximum number of executions running at the same time
+     * @param maxQueued the maximum number of executions waiting to run
+     * @param computeParallelism the parallelism of the compute pool the executions split their work across
+     * @return the bulkhead
+     */
+    public static Bulkhead ofPlatformThreads(String name, int maxConcurrent, int maxQueued, int computeParallelism) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-bulkhead-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return new Bulkhead(name, maxConcurrent, maxQueued, executor, null, computeParallelism);
+    }
+
+    /**
+     * Creates a bulkhead running each execution on its own virtual thread.
+     *
+     * @param name the name of the bulkhead
+     * @param maxConcurrent the maximum number of executions running at the same time
+     * @param maxQueued the maximum number of executions waiting to run
+     * @param computeParallelism the parallelism of the compute pool the executions split their work across
+     * @param virtualThreadExecutor the executor starting a new virtual thread per task
+     * @return the bulkhead
+     */
+    public static Bulkhead ofVirtualThreads(String name, int maxConcurrent, int maxQueued, int computeParallelism,
+                                            ExecutorService virtualThreadExecutor) {
+        return new Bulkhead(name, maxConcurrent, maxQueued, virtualThreadExecutor, new Semaphore(maxConcurrent, true),
+                computeParallelism);
+    }
+
+    /**
+     * Returns the fork-join pool the current execution splits its work across.
+     * <p>
+     * Outside of a bulkhead, such as in asynchronous jobs, no compute pool is bound to the thread, and the work is
+     * split across the common fork-join pool.
+     * </p>
+     *
+     * @return the compute pool of the bulkhead running the current thread, or the common pool if there is none
+     */
+    public static ForkJoinPool computePool() {
+        ForkJoinPool pool = COMPUTE_POOL.get();
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Submits a task for execution behind the bulkhead.
+     *
+     * @param task the task to execute
+     * @param <T> the type of the task result
+     * @return a future completed with the result of the task, or exceptionally with the exception thrown by the task,
+     * or with a {@link RejectedExecutionException} if the bulkhead is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+
+        if (!admission.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many executions of \"" + name +
+                    "\" are already running or queued"));
+        }
+        return execute(task);
+    }
+
+    /**
+     * Submits a task for execution behind the bulkhead, waiting for the bulkhead to admit it if it is full.
+     * <p>
+     * This is meant for callers producing many executions at their own pace, such as batches, which are throttled by
+     * the bulkhead rather than rejected by it.
+     * </p>
+     *
+     * @param task the task to execute
+     * @param <T> the type of the task result
+     * @return a future completed with the result of the task, or exceptionally with the exception thrown by the task
+     * @throws InterruptedException if the thread is interrupted while waiting for the bulkhead to admit the task
+     */
+    public <T> CompletableFuture<T> submitWhenAdmitted(Callable<T> task) throws InterruptedException {
+        admission.acquire();
+        return execute(task);
+    }
+
+    /**
+     * Hands an admitted task over to the executor of the bulkhead.
+     *
+     * @param task the task to execute
+     * @param <T> the type of the task result
+     * @return a future completed with the outcome of the task
+     */
+    private <T> CompletableFuture<T> execute(Callable<T> task) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(task, future));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            admission.release();
+            rejected.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a task once a concurrency slot is free, and completes its future.
+     *
+     * @param task the task to run
+     * @param future the future to complete with the outcome of the task
+     * @param <T> the type of the task result
+     */
+    private <T> void run(Callable<T> task, CompletableFuture<T> future) {
+
+        if (concurrencyLimit != null) {
+            concurrencyLimit.acquireUninterruptibly();
+        }
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        COMPUTE_POOL.set(computePool);
+        try {
+            future.complete(task.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            COMPUTE_POOL.remove();
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            if (concurrencyLimit != null) {
+                concurrencyLimit.release();
+            }
+            admission.release();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the state of the bulkhead.
+     *
+     * @return the limits, the number of running and queued executions, and the completion and rejection counts
+     */
+    public BulkheadStats getStats() {
+        return new BulkheadStats(name, maxConcurrent, maxQueued, active.get(), queued.get(), completed.get(),
+                rejected.get());
+    }
+
+    /**
+     * Stops the bulkhead from accepting executions, interrupts the running ones if it owns their threads, and stops
+     * its compute pool.
+     */
+    public void shutdown() {
+        if (concurrencyLimit == null) {
+            executor.shutdownNow();
+        }
+        computePool.shutdownNow();
+    }
+
+    /**
+     * Creates the compute pool of a bulkhead, whose daemon threads are named after the bulkhead.
+     *
+     * @param name the name of the bulkhead
+     * @param parallelism the parallelism of the pool
+     * @return the compute pool
+     */
+    private static ForkJoinPool newComputePool(String name, int parallelism) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-compute-" + threadCount.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+}
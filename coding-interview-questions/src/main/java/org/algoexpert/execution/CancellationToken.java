@@ -0,0 +1,87 @@
+package org.algoexpert.execution;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Token through which a running algorithm execution is cancelled cooperatively.
+ * <p>
+ * The executor of a cancellable execution binds a token to the executing thread for the duration of the execution.
+ * Long-running algorithms call {@link #checkpoint()} at the top of their outer loops, which throws a
+ * {@link CancellationException} once the bound token has been cancelled, so a cancelled execution stops consuming CPU
+ * within one iteration. Threads without a bound token are never cancelled, and a checkpoint costs them a single
+ * thread-local lookup.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Requests the cancellation of the execution the token is bound to.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the cancellation of the execution has been requested.
+     *
+     * @return true if the token has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Binds the token to the current thread, until {@link #unbind()} is called.
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Unbinds any token from the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the token bound to the current thread.
+     * <p>
+     * Algorithms that fan out to other threads capture the token of the calling thread with this method, and check it
+     * with {@link #checkpoint(CancellationToken)} on the threads they fan out to, which have no token bound.
+     * </p>
+     *
+     * @return the token bound to the current thread, or null if no token is bound
+     */
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Throws if the provided token has been cancelled.
+     *
+     * @param token the token to check, or null to never throw
+     * @throws CancellationException if the token has been cancelled
+     */
+    public static void checkpoint(CancellationToken token) {
+        if (token != null && token.cancelled) {
+            throw new CancellationException("Execution cancelled");
+        }
+    }
+
+    /**
+     * Throws if the token bound to the current thread has been cancelled.
+     *
+     * @throws CancellationException if the token bound to the current thread has been cancelled
+     */
+    public static void checkpoint() {
+        checkpoint(CURRENT.get());
+    }
+}
@@ -0,0 +1,231 @@
+package org.algoexpert.execution;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.algoexpert.registry.StreamedOutput;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pipe through which a {@link StreamedOutput} is computed on one thread while it is written to the response on
+ * another.
+ * <p>
+ * A streamed output does its work while it is serialized, so serializing it where the response is written would run
+ * the algorithm on the request thread, outside the bulkhead of its data structure category. Instead, the thread of the
+ * bulkhead serializes the output into the pipe with {@link #write(StreamedOutput, ObjectMapper)}, in chunks of JSON
+ * text, while the response is written from {@link #output()}, which only copies the chunks to the generator of the
+ * response. The pipe holds at most {@code CAPACITY} chunks, so an algorithm producing faster than the client reads
+ * blocks instead of buffering its output in memory.
+ * </p>
+ * <p>
+ * The writing thread gives up, failing the execution, as soon as the response stops being read: when writing the
+ * response fails, or when no chunk has been taken for the stall timeout, which covers a response that is never written
+ * at all. A failure of the execution while it is being written fails the response in turn.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class StreamedOutputPipe {
+
+    /**
+     * Number of characters of JSON text per chunk.
+     */
+    private static final int CHUNK_LENGTH = 8192;
+    /**
+     * Number of chunks the pipe holds, so about 256 KB of UTF-16 text.
+     */
+    private static final int CAPACITY = 16;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final char[] END = new char[0];
+
+    private final BlockingQueue<char[]> chunks = new ArrayBlockingQueue<>(CAPACITY);
+    private final Duration stallTimeout;
+    private volatile boolean closed;
+    private volatile boolean finished;
+    private volatile long elementCount;
+    private volatile Throwable failure;
+
+    /**
+     * Constructs an empty pipe.
+     *
+     * @param stallTimeout the time after which the writing thread gives up if no chunk has been taken
+     */
+    public StreamedOutputPipe(Duration stallTimeout) {
+        this.stallTimeout = stallTimeout;
+    }
+
+    /**
+     * Returns the output to write to the response, which copies the chunks of the pipe as they are written.
+     * <p>
+     * Unlike the streamed output written into the pipe, the returned output can only be serialized once.
+     * </p>
+     *
+     * @return the output reading the pipe
+     */
+    public StreamedOutput output() {
+        return new StreamedOutput(this::copyTo);
+    }
+
+    /**
+     * Computes a streamed output by serializing it into the pipe, blocking while the pipe is full.
+     *
+     * @param output the streamed output to compute
+     * @param objectMapper the ObjectMapper whose configuration the output is serialized with
+     * @throws IOException if the output fails, or if the response stops being read
+     */
+    public void write(StreamedOutput output, ObjectMapper objectMapper) throws IOException {
+
+        ChunkWriter writer = new ChunkWriter();
+        try {
+            JsonGenerator generator = objectMapper.createGenerator(writer);
+            long count = output.writeTo(generator);
+            generator.close();
+            writer.emit(true);
+            elementCount = count;
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            finished = true;
+            // The reader also stops on the finished flag, should the pipe be full
+            chunks.offer(END);
+        }
+    }
+
+    /**
+     * Copies the chunks of the pipe to a generator until the output has been fully written.
+     *
+     * @param generator the generator writing the response
+     * @return the number of elements of the output
+     * @throws IOException if the output fails, or if the chunks cannot be written
+     */
+    private long copyTo(JsonGenerator generator) throws IOException {
+
+        try {
+            boolean first = true;
+            for (char[] chunk = take(); chunk != END; chunk = take()) {
+                // The first chunk starts the value, so the generator writes any separator the value needs
+                if (first) {
+                    generator.writeRawValue(chunk, 0, chunk.length);
+                    first = false;
+                } else {
+                    generator.writeRaw(chunk, 0, chunk.length);
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Streamed output failed: " + failure.getMessage(), failure);
+            }
+            return elementCount;
+        } finally {
+            closed = true;
+            chunks.clear();
+        }
+    }
+
+    /**
+     * Takes the next chunk of the pipe, waiting for one to be written.
+     *
+     * @return the next chunk, or {@code END} once the output has been fully written
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    private char[] take() throws InterruptedIOException {
+
+        try {
+            char[] chunk;
+            while ((chunk = chunks.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                if (finished && chunks.isEmpty()) {
+                    return END;
+                }
+            }
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the streamed output");
+        }
+    }
+
+    /**
+     * Puts a chunk into the pipe, waiting for room while the response is still being read.
+     *
+     * @param chunk the chunk
+     * @throws IOException if the response is no longer read, or has not been read for the stall timeout
+     */
+    private void put(char[] chunk) throws IOException {
+
+        long stalledSince = System.nanoTime();
+        try {
+            while (!closed) {
+                if (chunks.offer(chunk, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                if (System.nanoTime() - stalledSince > stallTimeout.toNanos()) {
+                    throw new IOException("Streamed output not read for " + stallTimeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the streamed output");
+        }
+        throw new IOException("Streamed output no longer read");
+    }
+
+    /**
+     * Writer cutting the JSON text of the output into the chunks of the pipe.
+     */
+    private final class ChunkWriter extends Writer {
+
+        private final char[] chunk = new char[CHUNK_LENGTH];
+        private int length;
+
+        @Override
+        public void write(char[] buffer, int offset, int count) throws IOException {
+
+            while (count > 0) {
+                int copied = Math.min(count, CHUNK_LENGTH - length);
+                System.arraycopy(buffer, offset, chunk, length, copied);
+                length += copied;
+                offset += copied;
+                count -= copied;
+                if (length == CHUNK_LENGTH) {
+                    emit(false);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            emit(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            emit(true);
+        }
+
+        /**
+         * Puts the characters written so far into the pipe.
+         *
+         * @param last true if no more characters follow, false to hold back a trailing high surrogate, which the
+         *             generator of the response cannot write apart from its low surrogate
+         * @throws IOException if the response is no longer read
+         */
+        private void emit(boolean last) throws IOException {
+
+            int emitted = !last && length > 0 && Character.isHighSurrogate(chunk[length - 1]) ? length - 1 : length;
+            if (emitted == 0) {
+                return;
+            }
+            put(Arrays.copyOf(chunk, emitted));
+            System.arraycopy(chunk, emitted, chunk, 0, length - emitted);
+            length -= emitted;
+        }
+    }
+}
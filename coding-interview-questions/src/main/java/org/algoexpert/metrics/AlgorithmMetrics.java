@@ -0,0 +1,297 @@
+package org.algoexpert.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.algoexpert.configs.MetricsProperties;
+import org.algoexpert.dtos.SizedInput;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Component recording the execution metrics of every algorithm with Micrometer.
+ * <p>
+ * Every execution of an algorithm, whatever endpoint or service dispatched it, records its latency, the size of its
+ * input and of its output, and the bytes it allocated, all tagged with the data structure category and the name of
+ * the algorithm:
+ * </p>
+ * <ul>
+ *     <li>{@code algoexpert.algorithm.executions}: a timer with latency percentiles and histogram buckets, also tagged
+ *     with the {@code outcome} of the execution</li>
+ *     <li>{@code algoexpert.algorithm.input.size}: the number of elements of the inputs</li>
+ *     <li>{@code algoexpert.algorithm.output.size}: the number of elements of the outputs</li>
+ *     <li>{@code algoexpert.algorithm.allocated}: the bytes allocated per execution</li>
+ *     <li>{@code algoexpert.algorithm.strategy}: the number of executions of adaptive algorithms by the strategy they
+ *     chose for their input, also tagged with the {@code strategy} and whether the input was {@code presorted}</li>
+ * </ul>
+ * <p>
+ * Allocated bytes are read from the per-thread allocation counter of {@link com.sun.management.ThreadMXBean}, so they
+ * only cover the allocations of the executing thread. The output of an algorithm returning a {@link StreamedOutput}
+ * is computed while it is serialized, so the measurement of such executions is completed once the output has been
+ * written. Results served from the result cache are not executed, and are therefore not recorded.
+ * </p>
+ * <p>
+ * This class is annotated with {@link Component} to indicate that it is a Spring-managed component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Component
+public class AlgorithmMetrics {
+
+    private static final String EXECUTIONS = "algoexpert.algorithm.executions";
+    private static final String INPUT_SIZE = "algoexpert.algorithm.input.size";
+    private static final String OUTPUT_SIZE = "algoexpert.algorithm.output.size";
+    private static final String ALLOCATED = "algoexpert.algorithm.allocated";
+    private static final String STRATEGY = "algoexpert.algorithm.strategy";
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+    private final boolean percentileHistogram;
+    private final boolean allocationTracking;
+    private final Map<AlgorithmRegistration<?, ?>, Meters> metersByRegistration = new ConcurrentHashMap<>();
+
+    /**
+     * The meters of a single algorithm.
+     */
+    private static final class Meters {
+
+        private final Timer succeeded;
+        private final Timer failed;
+        private final DistributionSummary inputSize;
+        private final DistributionSummary outputSize;
+        private final DistributionSummary allocated;
+
+        /**
+         * Registers the meters of an algorithm.
+         *
+         * @param meterRegistry the registry to register the meters in
+         * @param tags the tags identifying the algorithm
+         * @param percentiles the latency percentiles to compute
+         * @param percentileHistogram whether the latency histogram buckets are published
+         */
+        private Meters(MeterRegistry meterRegistry, Tags tags, double[] percentiles, boolean percentileHistogram) {
+            this.succeeded = timer(meterRegistry, tags.and("outcome", "success"), percentiles, percentileHistogram);
+            this.failed = timer(meterRegistry, tags.and("outcome", "failure"), percentiles, percentileHistogram);
+            this.inputSize = DistributionSummary.builder(INPUT_SIZE).description("Number of elements of the inputs")
+                    .baseUnit("elements").tags(tags).register(meterRegistry);
+            this.outputSize = DistributionSummary.builder(OUTPUT_SIZE).description("Number of elements of the " +
+                    "outputs").baseUnit("elements").tags(tags).register(meterRegistry);
+            this.allocated = DistributionSummary.builder(ALLOCATED).description("Bytes allocated by the executing " +
+                    "thread per execution").baseUnit("bytes").tags(tags).register(meterRegistry);
+        }
+
+        /**
+         * Registers the execution timer of an algorithm for an outcome.
+         *
+         * @param meterRegistry the registry to register the timer in
+         * @param tags the tags identifying the algorithm and the outcome
+         * @param percentiles the latency percentiles to compute
+         * @param percentileHistogram whether the latency histogram buckets are published
+         * @return the timer
+         */
+        private static Timer timer(MeterRegistry meterRegistry, Tags tags, double[] percentiles,
+                                   boolean percentileHistogram) {
+            return Timer.builder(EXECUTIONS).description("Latency of the algorithm executions").tags(tags)
+                    .publishPercentiles(percentiles).publishPercentileHistogram(percentileHistogram)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Constructs an instance of the AlgorithmMetrics.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the component.
+     * </p>
+     *
+     * @param meterRegistry the registry to register the meters in
+     * @param metricsProperties the configuration properties of the metrics
+     */
+    @Autowired
+    public AlgorithmMetrics(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.percentiles = metricsProperties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        this.percentileHistogram = metricsProperties.isPercentileHistogram();
+        this.allocationTracking = metricsProperties.isAllocationTracking() && THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Executes an algorithm on a typed input and records its metrics.
+     *
+     * @param registration the registration of the algorithm
+     * @param input the typed input of the algorithm
+     * @param execution the execution of the algorithm, returning its encoded output
+     * @return the encoded output of the algorithm
+     */
+    public Object record(AlgorithmRegistration<?, ?> registration, Object input, Supplier<Object> execution) {
+        return record(registration, input instanceof SizedInput sizedInput ? sizedInput.inputSize() : 0, execution);
+    }
+
+    /**
+     * Executes an algorithm and records its metrics.
+     *
+     * @param registration the registration of the algorithm
+     * @param inputSize the number of elements of the input
+     * @param execution the execution of the algorithm, returning its encoded output
+     * @return the encoded output of the algorithm; a streamed output is wrapped so that its serialization is recorded
+     */
+    public Object record(AlgorithmRegistration<?, ?> registration, long inputSize, Supplier<Object> execution) {
+
+        Meters meters = metersByRegistration.computeIfAbsent(registration, this::registerMeters);
+        long startNanos = System.nanoTime();
+        long startBytes = allocatedBytes();
+        Object output;
+        try {
+            output = execution.get();
+        } catch (RuntimeException | Error e) {
+            recordExecution(meters, false, System.nanoTime() - startNanos, allocatedBytes() - startBytes,
+                    inputSize, 0);
+            throw e;
+        }
+
+        if (!(output instanceof StreamedOutput streamedOutput)) {
+            recordExecution(meters, true, System.nanoTime() - startNanos, allocatedBytes() - startBytes, inputSize,
+                    sizeOf(output));
+            return output;
+        }
+
+        // The streamed output is computed on the thread serializing it, which may not be this one. A write aborted by
+        // its destination, such as a client disconnecting or a result too large to be cached, is not recorded.
+        long invocationNanos = System.nanoTime() - startNanos;
+        long invocationBytes = allocatedBytes() - startBytes;
+        return new StreamedOutput(generator -> {
+            long writeStartNanos = System.nanoTime();
+            long writeStartBytes = allocatedBytes();
+            long outputSize;
+            try {
+                outputSize = streamedOutput.writeTo(generator);
+            } catch (RuntimeException | Error e) {
+                recordExecution(meters, false, invocationNanos + System.nanoTime() - writeStartNanos,
+                        invocationBytes + allocatedBytes() - writeStartBytes, inputSize, 0);
+                throw e;
+            }
+            recordExecution(meters, true, invocationNanos + System.nanoTime() - writeStartNanos,
+                    invocationBytes + allocatedBytes() - writeStartBytes, inputSize, outputSize);
+            return outputSize;
+        });
+    }
+
+    /**
+     * Records the strategy an adaptive algorithm chose for its input.
+     *
+     * @param category the data structure category of the algorithm
+     * @param algorithmName the name of the algorithm
+     * @param strategy the name of the chosen strategy
+     * @param presorted whether the input was already sorted
+     */
+    public void recordStrategy(DataStructureCategories category, String algorithmName, String strategy,
+                               boolean presorted) {
+        Counter.builder(STRATEGY).description("Executions by the strategy chosen for their input")
+                .tags("category", category.getDisplayName(), "algorithm", algorithmName, "strategy", strategy,
+                        "presorted", Boolean.toString(presorted))
+                .register(meterRegistry).increment();
+    }
+
+    /**
+     * Registers the meters of an algorithm, tagged with its data structure category and name.
+     *
+     * @param registration the registration of the algorithm
+     * @return the meters of the algorithm
+     */
+    private Meters registerMeters(AlgorithmRegistration<?, ?> registration) {
+        Tags tags = Tags.of("category", registration.getCategory().getDisplayName(), "algorithm",
+                registration.getAlgorithmName());
+        return new Meters(meterRegistry, tags, percentiles, percentileHistogram);
+    }
+
+    /**
+     * Records the measurements of a single execution.
+     *
+     * @param meters the meters of the algorithm
+     * @param succeeded whether the execution succeeded
+     * @param nanos the latency of the execution, in nanoseconds
+     * @param allocatedBytes the bytes allocated by the execution, or a negative value if they are not measured
+     * @param inputSize the number of elements of the input
+     * @param outputSize the number of elements of the output
+     */
+    private void recordExecution(Meters meters, boolean succeeded, long nanos, long allocatedBytes, long inputSize,
+                                 long outputSize) {
+
+        (succeeded ? meters.succeeded : meters.failed).record(nanos, TimeUnit.NANOSECONDS);
+        meters.inputSize.record(inputSize);
+        if (succeeded) {
+            meters.outputSize.record(outputSize);
+        }
+        if (allocationTracking && allocatedBytes >= 0) {
+            meters.allocated.record(allocatedBytes);
+        }
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     *
+     * @return the bytes allocated by the current thread, or 0 if allocations are not tracked
+     */
+    private long allocatedBytes() {
+        return allocationTracking ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Returns the number of elements of an encoded algorithm output: the size of a collection or an array, and 1 for
+     * any other value.
+     *
+     * @param output the encoded output
+     * @return the number of elements of the output
+     */
+    private static long sizeOf(Object output) {
+
+        if (output == null) {
+            return 0;
+        }
+        if (output instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (output instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (output.getClass().isArray()) {
+            return Array.getLength(output);
+        }
+
+        return 1;
+    }
+
+    /**
+     * Returns the thread management bean, if it supports measuring the bytes allocated per thread.
+     *
+     * @return the thread management bean, or null if allocations cannot be measured on this JVM
+     */
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported()) {
+            if (!threadMXBean.isThreadAllocatedMemoryEnabled()) {
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threadMXBean;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package org.algoexpert.registry;
+
+/**
+ * Interface for components that provide executable algorithms.
+ * <p>
+ * Every Spring bean implementing this interface is asked once at startup to register its algorithms with the
+ * {@link AlgorithmRegistry}. Adding a new algorithm therefore only requires registering it from the service that
+ * executes it.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public interface AlgorithmProvider {
+
+    /**
+     * Registers the algorithms provided by this component.
+     *
+     * @param registry the builder of the algorithm registry to register the algorithms with
+     */
+    void registerAlgorithms(AlgorithmRegistry.Builder registry);
+}
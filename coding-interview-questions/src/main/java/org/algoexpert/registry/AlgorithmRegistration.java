@@ -0,0 +1,144 @@
+package org.algoexpert.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.utils.DataStructureCategories;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.function.Function;
+
+/**
+ * An algorithm registered with the {@link AlgorithmRegistry}.
+ * <p>
+ * Each registration binds the algorithm name to a prebound invoker, together with the decoder that converts a JSON
+ * input into the typed input of the algorithm, the reader that prompts for the same input on the console, and the
+ * encoder that converts the algorithm output into the response representation. None of them uses reflection, so
+ * executing a registered algorithm costs no more than calling it directly.
+ * </p>
+ * <p>
+ * Algorithms operating on a single integer array may also bind a {@link BinaryArrayInvoker}, which executes them
+ * directly on a binary integer array.
+ * </p>
+ *
+ * @param <I> the type of the algorithm input
+ * @param <O> the type of the algorithm output
+ * @author Jitesh Shaw
+ */
+
+@Getter
+public final class AlgorithmRegistration<I, O> {
+
+    private final DataStructureCategories category;
+    private final String algorithmName;
+    private final Class<I> inputType;
+    private final ObjectReader inputDecoder;
+    private final ConsoleInputReader<I> consoleInputReader;
+    private final Function<I, O> invoker;
+    private final Function<O, ?> outputEncoder;
+    private final BinaryArrayInvoker binaryArrayInvoker;
+    @Getter(AccessLevel.NONE)
+    private final AlgorithmMetrics algorithmMetrics;
+
+    /**
+     * Constructs a registration for an algorithm.
+     *
+     * @param category the data structure category of the algorithm
+     * @param algorithmName the name of the algorithm
+     * @param inputType the type of the algorithm input
+     * @param inputDecoder the reader converting a JSON input into an instance of {@code inputType}
+     * @param consoleInputReader the reader prompting for the algorithm input on the console
+     * @param invoker the function executing the algorithm
+     * @param outputEncoder the function converting the algorithm output into the response representation
+     * @param binaryArrayInvoker the function executing the algorithm on a binary integer array, or null if binary
+     *                           inputs are not supported
+     * @param algorithmMetrics the metrics recording every execution of the algorithm
+     */
+    AlgorithmRegistration(DataStructureCategories category, String algorithmName, Class<I> inputType,
+                          ObjectReader inputDecoder, ConsoleInputReader<I> consoleInputReader,
+                          Function<I, O> invoker, Function<O, ?> outputEncoder,
+                          BinaryArrayInvoker binaryArrayInvoker, AlgorithmMetrics algorithmMetrics) {
+        this.category = category;
+        this.algorithmName = algorithmName;
+        this.inputType = inputType;
+        this.inputDecoder = inputDecoder;
+        this.consoleInputReader = consoleInputReader;
+        this.invoker = invoker;
+        this.outputEncoder = outputEncoder;
+        this.binaryArrayInvoker = binaryArrayInvoker;
+        this.algorithmMetrics = algorithmMetrics;
+    }
+
+    /**
+     * Returns a copy of this registration that also executes the algorithm on binary integer arrays.
+     *
+     * @param binaryArrayInvoker the function executing the algorithm on a binary integer array
+     * @return the copy of this registration
+     */
+    AlgorithmRegistration<I, O> withBinaryArrayInvoker(BinaryArrayInvoker binaryArrayInvoker) {
+        return new AlgorithmRegistration<>(category, algorithmName, inputType, inputDecoder, consoleInputReader,
+                invoker, outputEncoder, binaryArrayInvoker, algorithmMetrics);
+    }
+
+    /**
+     * Checks whether the algorithm can be executed on a binary integer array.
+     *
+     * @return true if a binary array invoker is bound to the algorithm, false otherwise
+     */
+    public boolean supportsBinaryInput() {
+        return binaryArrayInvoker != null;
+    }
+
+    /**
+     * Executes the algorithm on a typed input.
+     *
+     * @param input the typed input of the algorithm
+     * @return the encoded output of the algorithm
+     */
+    public Object execute(I input) {
+        return algorithmMetrics.record(this, input, () -> outputEncoder.apply(invoker.apply(input)));
+    }
+
+    /**
+     * Decodes a JSON input and executes the algorithm on it.
+     *
+     * @param input the JSON input of the algorithm
+     * @return the encoded output of the algorithm
+     * @throws IOException if the JSON input does not match the input expected by the algorithm
+     */
+    public Object executeJson(JsonNode input) throws IOException {
+        return execute(inputDecoder.readValue(input));
+    }
+
+    /**
+     * Reads the input of the algorithm from the console and executes the algorithm on it.
+     *
+     * @return the encoded output of the algorithm
+     * @throws IOException if an error occurs while reading the input
+     */
+    public Object executeFromConsole() throws IOException {
+        return execute(consoleInputReader.read());
+    }
+
+    /**
+     * Executes the algorithm on a binary integer array.
+     *
+     * @param array the integer array, from its current position to its limit
+     * @param targetSum the target sum, or null if none was provided
+     * @return the encoded output of the algorithm
+     * @throws IllegalArgumentException if the algorithm requires a target sum and none was provided
+     * @throws UnsupportedOperationException if the algorithm cannot be executed on a binary integer array
+     */
+    public Object executeBinary(IntBuffer array, Integer targetSum) {
+
+        if (binaryArrayInvoker == null) {
+            throw new UnsupportedOperationException("Algorithm \"" + algorithmName +
+                    "\" does not support binary inputs");
+        }
+
+        return algorithmMetrics.record(this, array.remaining(), () -> binaryArrayInvoker.invoke(array, targetSum));
+    }
+}
@@ -0,0 +1,161 @@
+package org.algoexpert.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.utils.DataStructureCategories;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable registry of all the executable algorithms, keyed by data structure category and algorithm name.
+ * <p>
+ * The registry is built once at startup from every {@link AlgorithmProvider} bean. Resolving an algorithm for a
+ * request is then a plain hash lookup on the category display name followed by one on the algorithm name, without any
+ * reflection, stream or intermediate key allocation.
+ * </p>
+ * <p>
+ * This class is annotated with {@link Component} to indicate that it is a Spring-managed component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Component
+public class AlgorithmRegistry {
+
+    private final Map<String, Map<String, AlgorithmRegistration<?, ?>>> registrationsByCategory;
+
+    /**
+     * Constructs the registry from the algorithms registered by the provided components.
+     *
+     * @param algorithmProviders the components providing the executable algorithms
+     * @param objectMapper the ObjectMapper instance used to prebind the JSON input decoders
+     * @param algorithmMetrics the metrics recording every execution of the registered algorithms
+     * @throws IllegalStateException if the same algorithm is registered twice under a data structure category
+     */
+    @Autowired
+    public AlgorithmRegistry(List<AlgorithmProvider> algorithmProviders, ObjectMapper objectMapper,
+                             AlgorithmMetrics algorithmMetrics) {
+
+        Builder builder = new Builder(objectMapper, algorithmMetrics);
+        algorithmProviders.forEach(algorithmProvider -> algorithmProvider.registerAlgorithms(builder));
+
+        Map<String, Map<String, AlgorithmRegistration<?, ?>>> registrations = new HashMap<>();
+        builder.registrations.forEach((category, algorithms) ->
+                registrations.put(category.getDisplayName(), Map.copyOf(algorithms)));
+        this.registrationsByCategory = Map.copyOf(registrations);
+    }
+
+    /**
+     * Finds the registration of an algorithm.
+     *
+     * @param datastructureCategory the display name of the data structure category
+     * @param algorithmName the name of the algorithm
+     * @return the registration of the algorithm, or null if no such algorithm is registered under the category
+     */
+    public AlgorithmRegistration<?, ?> find(String datastructureCategory, String algorithmName) {
+
+        Map<String, AlgorithmRegistration<?, ?>> algorithms = registrationsByCategory.get(datastructureCategory);
+        return algorithms == null ? null : algorithms.get(algorithmName);
+    }
+
+    /**
+     * Builder handed to each {@link AlgorithmProvider} to register its algorithms.
+     */
+    public static final class Builder {
+
+        private final ObjectMapper objectMapper;
+        private final AlgorithmMetrics algorithmMetrics;
+        private final Map<DataStructureCategories, Map<String, AlgorithmRegistration<?, ?>>> registrations =
+                new HashMap<>();
+
+        /**
+         * Constructs a builder.
+         *
+         * @param objectMapper the ObjectMapper instance used to prebind the JSON input decoders
+         * @param algorithmMetrics the metrics recording every execution of the registered algorithms
+         */
+        private Builder(ObjectMapper objectMapper, AlgorithmMetrics algorithmMetrics) {
+            this.objectMapper = objectMapper;
+            this.algorithmMetrics = algorithmMetrics;
+        }
+
+        /**
+         * Registers an algorithm whose output is returned as is.
+         *
+         * @param category the data structure category of the algorithm
+         * @param algorithmName the name of the algorithm
+         * @param inputType the type of the algorithm input
+         * @param consoleInputReader the reader prompting for the algorithm input on the console
+         * @param invoker the function executing the algorithm
+         * @param <I> the type of the algorithm input
+         * @param <O> the type of the algorithm output
+         * @return this builder
+         * @throws IllegalStateException if the algorithm is already registered under the category
+         */
+        public <I, O> Builder register(DataStructureCategories category, String algorithmName, Class<I> inputType,
+                                       ConsoleInputReader<I> consoleInputReader, Function<I, O> invoker) {
+            return register(category, algorithmName, inputType, consoleInputReader, invoker, Function.identity());
+        }
+
+        /**
+         * Registers an algorithm.
+         *
+         * @param category the data structure category of the algorithm
+         * @param algorithmName the name of the algorithm
+         * @param inputType the type of the algorithm input
+         * @param consoleInputReader the reader prompting for the algorithm input on the console
+         * @param invoker the function executing the algorithm
+         * @param outputEncoder the function converting the algorithm output into the response representation
+         * @param <I> the type of the algorithm input
+         * @param <O> the type of the algorithm output
+         * @return this builder
+         * @throws IllegalStateException if the algorithm is already registered under the category
+         */
+        public <I, O> Builder register(DataStructureCategories category, String algorithmName, Class<I> inputType,
+                                       ConsoleInputReader<I> consoleInputReader, Function<I, O> invoker,
+                                       Function<O, ?> outputEncoder) {
+
+            AlgorithmRegistration<I, O> registration = new AlgorithmRegistration<>(category, algorithmName,
+                    inputType, objectMapper.readerFor(inputType), consoleInputReader, invoker, outputEncoder, null,
+                    algorithmMetrics);
+            if (registrations.computeIfAbsent(category, key -> new HashMap<>())
+                    .putIfAbsent(algorithmName, registration) != null) {
+                throw new IllegalStateException("Algorithm \"" + algorithmName +
+                        "\" is already registered under data structure category \"" + category.getDisplayName() +
+                        "\"");
+            }
+            return this;
+        }
+
+        /**
+         * Binds a binary array invoker to an already registered algorithm, so that it can also be executed directly
+         * on a binary integer array.
+         *
+         * @param category the data structure category of the algorithm
+         * @param algorithmName the name of the algorithm
+         * @param binaryArrayInvoker the function executing the algorithm on a binary integer array
+         * @return this builder
+         * @throws IllegalStateException if the algorithm is not registered under the category, or already has a
+         * binary array invoker
+         */
+        public Builder registerBinaryInput(DataStructureCategories category, String algorithmName,
+                                           BinaryArrayInvoker binaryArrayInvoker) {
+
+            AlgorithmRegistration<?, ?> registration = registrations.getOrDefault(category, Map.of())
+                    .get(algorithmName);
+            if (registration == null || registration.supportsBinaryInput()) {
+                throw new IllegalStateException("Algorithm \"" + algorithmName + "\" under data structure " +
+                        "category \"" + category.getDisplayName() + "\" is not registered or already supports " +
+                        "binary inputs");
+            }
+            registrations.get(category).put(algorithmName, registration.withBinaryArrayInvoker(binaryArrayInvoker));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.algoexpert.registry;
+
+import java.nio.IntBuffer;
+
+/**
+ * Functional interface for executing an algorithm directly on a binary integer array.
+ * <p>
+ * Algorithms whose input is a single integer array, optionally with a target sum, may bind a binary array invoker in
+ * addition to their typed invoker. It receives the array as an {@link IntBuffer}, which may be a view over a
+ * memory-mapped file rather than a heap array, so the algorithm can consume it without any text parsing or copying.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@FunctionalInterface
+public interface BinaryArrayInvoker {
+
+    /**
+     * Executes the algorithm on a binary integer array.
+     *
+     * @param array the integer array, from its current position to its limit
+     * @param targetSum the target sum, or null if none was provided
+     * @return the encoded output of the algorithm
+     * @throws IllegalArgumentException if the algorithm requires a target sum and none was provided
+     */
+    Object invoke(IntBuffer array, Integer targetSum);
+}
@@ -0,0 +1,22 @@
+package org.algoexpert.registry;
+
+import java.io.IOException;
+
+/**
+ * Functional interface for reading the typed input of an algorithm from the console.
+ *
+ * @param <I> the type of the algorithm input
+ * @author Jitesh Shaw
+ */
+
+@FunctionalInterface
+public interface ConsoleInputReader<I> {
+
+    /**
+     * Prompts for and reads the input of an algorithm from the console.
+     *
+     * @return the typed input of the algorithm
+     * @throws IOException if an error occurs while reading the input
+     */
+    I read() throws IOException;
+}
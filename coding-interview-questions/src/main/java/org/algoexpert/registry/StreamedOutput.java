@@ -0,0 +1,88 @@
+package org.algoexpert.registry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * An algorithm output that is computed while it is being serialized.
+ * <p>
+ * Algorithms with potentially large outputs return a streamed output instead of collecting the output in memory.
+ * Jackson serializes it by invoking its writer with the generator that writes the response, so every part of the
+ * output is written as soon as the algorithm computes it. The algorithm runs again each time the output is serialized,
+ * on the serializing thread, so executions returning a streamed output serialize it on the thread they run on and hand
+ * the serialized output over through a {@link org.algoexpert.execution.StreamedOutputPipe}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class StreamedOutput extends JsonSerializable.Base {
+
+    private final Writer writer;
+
+    /**
+     * Functional interface for computing an algorithm output while writing it as a single JSON value.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        /**
+         * Computes the algorithm output and writes it as a single JSON value.
+         *
+         * @param generator the generator to write the output with
+         * @return the number of elements written
+         * @throws IOException if an error occurs while writing the output
+         */
+        long write(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Constructs a streamed output.
+     *
+     * @param writer the writer computing and writing the algorithm output
+     */
+    public StreamedOutput(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Computes the output with the writer and writes it as a single JSON value.
+     *
+     * @param generator the generator to write the output with
+     * @return the number of elements written
+     * @throws IOException if an error occurs while writing the output
+     */
+    public long writeTo(JsonGenerator generator) throws IOException {
+        return writer.write(generator);
+    }
+
+    /**
+     * Serializes the output by computing it with the writer.
+     *
+     * @param generator the generator to write the output with
+     * @param serializers the provider of the serializers in use
+     * @throws IOException if an error occurs while writing the output
+     */
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        writeTo(generator);
+    }
+
+    /**
+     * Serializes the output by computing it with the writer; no type information is written.
+     *
+     * @param generator the generator to write the output with
+     * @param serializers the provider of the serializers in use
+     * @param typeSerializer the type serializer, which is ignored
+     * @throws IOException if an error occurs while writing the output
+     */
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,190 @@
+package org.algoexpert.services;
+
+import jakarta.annotation.PreDestroy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.algoexpert.configs.ExecutionProperties;
+import org.algoexpert.dtos.BulkheadStats;
+import org.algoexpert.execution.Bulkhead;
+import org.algoexpert.execution.StreamedOutputPipe;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service class for executing algorithms off the request threads, behind a bulkhead per data structure category.
+ * <p>
+ * Depending on {@link ExecutionProperties#getMode()}, the algorithms run either on a fixed pool of platform threads
+ * owned by each bulkhead, or on a new virtual thread per execution. Virtual threads are only available on Java 21 and
+ * later runtimes, so the virtual mode falls back to platform threads on older ones. Algorithms splitting their work
+ * across threads do so on the compute pool of their bulkhead, sized by
+ * {@link ExecutionProperties.BulkheadProperties#getComputeParallelism()}, rather than on the common fork-join pool.
+ * </p>
+ * <p>
+ * An execution whose result is a {@link StreamedOutput}, which does its work while it is serialized, keeps its place
+ * in the bulkhead until its output has been written: the output is serialized on the thread of the bulkhead through a
+ * {@link StreamedOutputPipe}, and the response only copies the serialized chunks.
+ * </p>
+ * <p>
+ * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
+ * Spring service component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Service
+@Slf4j
+public class AlgorithmExecutionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlgorithmExecutionService.class);
+    private final Map<DataStructureCategories, Bulkhead> bulkheads = new EnumMap<>(DataStructureCategories.class);
+    private final ExecutorService virtualThreadExecutor;
+    private final ObjectMapper objectMapper;
+    private final Duration streamedOutputStallTimeout;
+
+    /**
+     * Constructs an instance of the AlgorithmExecutionService.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the service. It creates the bulkhead of every data structure category.
+     * </p>
+     *
+     * @param executionProperties the configuration properties of the algorithm execution
+     * @param objectMapper the ObjectMapper instance for serializing streamed outputs
+     */
+    @Autowired
+    public AlgorithmExecutionService(ExecutionProperties executionProperties, ObjectMapper objectMapper) {
+
+        this.objectMapper = objectMapper;
+        this.streamedOutputStallTimeout = executionProperties.getStreamedOutputStallTimeout();
+        this.virtualThreadExecutor = executionProperties.getMode() == ExecutionProperties.Mode.VIRTUAL
+                ? newVirtualThreadPerTaskExecutor() : null;
+
+        for (DataStructureCategories category : DataStructureCategories.values()) {
+            ExecutionProperties.BulkheadProperties limits = executionProperties.getBulkhead(category);
+            int maxConcurrent = Math.max(1, limits.getMaxConcurrent());
+            int maxQueued = Math.max(0, limits.getMaxQueued());
+            int computeParallelism = limits.getComputeParallelism() > 0 ? limits.getComputeParallelism()
+                    : Runtime.getRuntime().availableProcessors();
+            bulkheads.put(category, virtualThreadExecutor != null
+                    ? Bulkhead.ofVirtualThreads(category.getDisplayName(), maxConcurrent, maxQueued,
+                    computeParallelism, virtualThreadExecutor)
+                    : Bulkhead.ofPlatformThreads(category.getDisplayName(), maxConcurrent, maxQueued,
+                    computeParallelism));
+        }
+    }
+
+    /**
+     * Submits an algorithm execution to the bulkhead of its data structure category.
+     * <p>
+     * If the execution returns a {@link StreamedOutput}, the future is completed with an output reading a
+     * {@link StreamedOutputPipe} as soon as the execution returns, and the streamed output is then computed into the
+     * pipe without leaving the bulkhead.
+     * </p>
+     *
+     * @param category the data structure category of the algorithm
+     * @param execution the algorithm execution
+     * @return a future completed with the result of the execution, or exceptionally with the exception thrown by the
+     * execution, or with a {@link java.util.concurrent.RejectedExecutionException} if the bulkhead is full
+     */
+    public CompletableFuture<Object> submit(DataStructureCategories category, Callable<?> execution) {
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        bulkheads.get(category).submit(() -> {
+            Object output = execution.call();
+            if (output instanceof StreamedOutput streamedOutput) {
+                StreamedOutputPipe pipe = new StreamedOutputPipe(streamedOutputStallTimeout);
+                result.complete(pipe.output());
+                pipe.write(streamedOutput, objectMapper);
+            } else {
+                result.complete(output);
+            }
+            return null;
+        }).whenComplete((ignored, failure) -> {
+            // A streamed output failing once handed out is reported through its pipe instead
+            if (failure != null && !result.completeExceptionally(failure)) {
+                LOGGER.debug("Streamed output of a \"{}\" execution failed: {}", category.getDisplayName(),
+                        failure.getMessage());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Submits an algorithm execution to the bulkhead of its data structure category, waiting for the bulkhead to
+     * admit it if it is full.
+     * <p>
+     * Unlike {@link #submit(DataStructureCategories, Callable)}, the result is handed over as is, so an execution
+     * producing a {@link StreamedOutput} is expected to consume it before returning, keeping its place in the
+     * bulkhead until the output has been written.
+     * </p>
+     *
+     * @param category the data structure category of the algorithm
+     * @param execution the algorithm execution
+     * @param <T> the type of the execution result
+     * @return a future completed with the result of the execution, or exceptionally with the exception thrown by the
+     * execution
+     * @throws InterruptedException if the thread is interrupted while waiting for the bulkhead to admit the execution
+     */
+    public <T> CompletableFuture<T> submitWhenAdmitted(DataStructureCategories category, Callable<T> execution)
+            throws InterruptedException {
+        return bulkheads.get(category).submitWhenAdmitted(execution);
+    }
+
+    /**
+     * Returns a snapshot of the state of the bulkhead of every data structure category.
+     *
+     * @return the state of every bulkhead, in the declaration order of the data structure categories
+     */
+    public List<BulkheadStats> getBulkheadStats() {
+
+        List<BulkheadStats> bulkheadStats = new ArrayList<>(bulkheads.size());
+        bulkheads.values().forEach(bulkhead -> bulkheadStats.add(bulkhead.getStats()));
+        return bulkheadStats;
+    }
+
+    /**
+     * Shuts down the bulkheads and the virtual thread executor when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+
+        bulkheads.values().forEach(Bulkhead::shutdown);
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread per task, if the runtime supports virtual threads.
+     * <p>
+     * The executor is looked up reflectively, as the application is compiled for Java 17, which has no virtual threads.
+     * </p>
+     *
+     * @return the virtual thread executor, or null if the runtime does not support virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not supported by Java {}, falling back to platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+}
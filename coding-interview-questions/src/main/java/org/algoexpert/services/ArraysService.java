@@ -2,30 +2,56 @@ package org.algoexpert.services;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.algoexpert.algorithms.arrays.ArrayProfile;
+import org.algoexpert.algorithms.arrays.KSumEngine;
+import org.algoexpert.algorithms.arrays.KSumPlan;
+import org.algoexpert.algorithms.arrays.SumStrategy;
 import org.algoexpert.algorithms.arrays.easy.TwoNumberSum;
 import org.algoexpert.algorithms.arrays.hard.FourNumberSum;
 import org.algoexpert.algorithms.arrays.medium.ThreeNumberSum;
+import org.algoexpert.algorithms.arrays.veryhard.ApartmentBlocks;
+import org.algoexpert.algorithms.arrays.veryhard.ApartmentGrid;
 import org.algoexpert.algorithms.arrays.veryhard.ApartmentHunting;
+import org.algoexpert.algorithms.arrays.veryhard.GridApartmentHunting;
+import org.algoexpert.algorithms.arrays.veryhard.IncrementalApartmentHunting;
+import org.algoexpert.algorithms.arrays.veryhard.RankedBlocks;
+import org.algoexpert.dtos.ApartmentGridInput;
+import org.algoexpert.dtos.ApartmentHuntingInput;
+import org.algoexpert.dtos.ApartmentRankingInput;
+import org.algoexpert.dtos.ApartmentUpdatesInput;
+import org.algoexpert.configs.MemoryProperties;
+import org.algoexpert.dtos.ArrayTargetSumInput;
+import org.algoexpert.dtos.KSumInput;
+import org.algoexpert.execution.Bulkhead;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.registry.AlgorithmProvider;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.IntTokenizer;
 import org.algoexpert.utils.LoggerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.algoexpert.utils.AlgorithmNames.*;
+import static org.algoexpert.utils.DataStructureCategories.ARRAYS;
 
 /**
  * Service class for executing array-related algorithms.
  * <p>
- * This class provides methods to execute various algorithms related to arrays. It includes methods to execute the
- * different algorithms and a method to execute an algorithm based on the provided algorithm name.
+ * This class provides methods to execute various algorithms related to arrays, and registers each of them with the
+ * {@link AlgorithmRegistry} together with the reader that prompts for its input on the console.
  * </p>
  * <p>
  * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
@@ -37,252 +63,744 @@ import static org.algoexpert.utils.AlgorithmNames.*;
 
 @Service
 @Slf4j
-public class ArraysService {
+public class ArraysService implements AlgorithmProvider {
 
     private final LoggerUtil loggerUtil;
     private static final Logger LOGGER = LoggerFactory.getLogger(ArraysService.class);
-    private final BufferedReader bufferedReader;
+    private final IntTokenizer intTokenizer;
+    private final AlgorithmMetrics algorithmMetrics;
+    private final long memoryBudget;
+    private final Path spillDirectory;
 
     /**
      * Constructs an instance of the ArraysService.
      * <p>
      * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
-     * injection to create an instance of the service. It initializes the {@code loggerUtil} field with the provided
-     * instance.
+     * injection to create an instance of the service. It initializes the {@code loggerUtil}, {@code intTokenizer} and
+     * {@code algorithmMetrics} fields with the provided instances, and the memory budget and spill directory of the
+     * algorithms from the provided properties.
      * </p>
      *
      * @param loggerUtil an instance of {@link LoggerUtil} used for logging prompts and warnings
-     * @param bufferedReader the BufferedReader instance for reading input
+     * @param intTokenizer the IntTokenizer instance for reading input
+     * @param algorithmMetrics the metrics recording the strategies chosen by the adaptive algorithms
+     * @param memoryProperties the configuration properties of the memory used by the algorithms
      */
     @Autowired
-    public ArraysService(LoggerUtil loggerUtil, BufferedReader bufferedReader) {
+    public ArraysService(LoggerUtil loggerUtil, IntTokenizer intTokenizer, AlgorithmMetrics algorithmMetrics,
+                         MemoryProperties memoryProperties) {
         this.loggerUtil = loggerUtil;
-        this.bufferedReader = bufferedReader;
+        this.intTokenizer = intTokenizer;
+        this.algorithmMetrics = algorithmMetrics;
+        this.memoryBudget = memoryProperties.getBudget().toBytes();
+        this.spillDirectory = Path.of(memoryProperties.getSpillDirectory());
     }
 
     /**
-     * Executes the specified algorithm based on the provided algorithm name.
+     * Registers the array-related algorithms with the algorithm registry.
+     *
+     * @param registry the builder of the algorithm registry to register the algorithms with
+     */
+    @Override
+    public void registerAlgorithms(AlgorithmRegistry.Builder registry) {
+        registry.register(ARRAYS, TWO_NUMBER_SUM, ArrayTargetSumInput.class, this::readArrayTargetSumInput,
+                        this::twoNumberSum)
+                .register(ARRAYS, TWO_NUMBER_SUM_ALL_PAIRS, ArrayTargetSumInput.class,
+                        this::readArrayTargetSumInput, this::streamTwoNumberSumAllPairs)
+                .register(ARRAYS, TWO_NUMBER_SUM_COUNT, ArrayTargetSumInput.class, this::readArrayTargetSumInput,
+                        this::twoNumberSumCount)
+                .register(ARRAYS, THREE_NUMBER_SUM, ArrayTargetSumInput.class, this::readArrayTargetSumInput,
+                        this::threeNumberSum)
+                .register(ARRAYS, FOUR_NUMBER_SUM, ArrayTargetSumInput.class, this::readArrayTargetSumInput,
+                        this::streamFourNumberSum)
+                .register(ARRAYS, K_SUM, KSumInput.class, this::readKSumInput, this::streamKSum)
+                .register(ARRAYS, APARTMENT_HUNTING, ApartmentHuntingInput.class, this::readApartmentHuntingInput,
+                        this::apartmentHunting)
+                .register(ARRAYS, APARTMENT_HUNTING_RANKED, ApartmentRankingInput.class,
+                        this::readApartmentRankingInput, this::apartmentHuntingRanked)
+                .register(ARRAYS, APARTMENT_HUNTING_UPDATES, ApartmentUpdatesInput.class,
+                        this::readApartmentUpdatesInput, this::apartmentHuntingUpdates)
+                .register(ARRAYS, APARTMENT_HUNTING_GRID, ApartmentGridInput.class, this::readApartmentGridInput,
+                        this::apartmentHuntingGrid)
+                .registerBinaryInput(ARRAYS, TWO_NUMBER_SUM, this::twoNumberSum)
+                .registerBinaryInput(ARRAYS, TWO_NUMBER_SUM_ALL_PAIRS, this::streamTwoNumberSumAllPairs)
+                .registerBinaryInput(ARRAYS, TWO_NUMBER_SUM_COUNT, this::twoNumberSumCount)
+                .registerBinaryInput(ARRAYS, THREE_NUMBER_SUM, this::threeNumberSum)
+                .registerBinaryInput(ARRAYS, FOUR_NUMBER_SUM, this::streamFourNumberSum);
+    }
+
+    /**
+     * Finds a pair of numbers in the provided array that sum up to the provided target sum, with the strategy chosen
+     * for the array unless the input forces one.
+     *
+     * @param input the array, the target sum and optionally the strategy
+     * @return an array containing the pair of numbers, or an empty array if no such pair exists
+     * @throws IllegalArgumentException if the array is not provided, or if the forced strategy is not applicable
+     */
+    public int[] twoNumberSum(ArrayTargetSumInput input) {
+        return twoNumberSum(IntBuffer.wrap(requireArray(input.getArray())), input.getTargetSum(), input.getStrategy());
+    }
+
+    /**
+     * Finds a pair of numbers in the provided binary array that sum up to the provided target sum, reading the array
+     * in place.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @return an array containing the pair of numbers, or an empty array if no such pair exists
+     * @throws IllegalArgumentException if the target sum is not provided
+     */
+    public int[] twoNumberSum(IntBuffer array, Integer targetSum) {
+        return twoNumberSum(array, requireTargetSum(targetSum), SumStrategy.AUTO);
+    }
+
+    /**
+     * Finds a pair of numbers in the provided array that sum up to the provided target sum with the requested
+     * strategy, and records the strategy used.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @param strategy the requested strategy, or null or {@link SumStrategy#AUTO} to choose one for the array
+     * @return an array containing the pair of numbers, or an empty array if no such pair exists
+     * @throws IllegalArgumentException if the requested strategy is not applicable to the array
+     */
+    private int[] twoNumberSum(IntBuffer array, int targetSum, SumStrategy strategy) {
+
+        ArrayProfile profile = ArrayProfile.of(array);
+        SumStrategy chosenStrategy = TwoNumberSum.chooseStrategy(profile, strategy, memoryBudget);
+        algorithmMetrics.recordStrategy(ARRAYS, TWO_NUMBER_SUM, chosenStrategy.name(), profile.isSorted());
+
+        return new TwoNumberSum().twoNumberSum(array, targetSum, chosenStrategy, profile);
+    }
+
+    /**
+     * Finds every pair of positions in the provided array whose elements sum up to the provided target sum, while the
+     * pairs are written to the response.
+     *
+     * @param input the array and the target sum
+     * @return the pairs, computed when the output is serialized
+     * @throws IllegalArgumentException if the array is not provided
+     */
+    public StreamedOutput streamTwoNumberSumAllPairs(ArrayTargetSumInput input) {
+        return streamTwoNumberSumAllPairs(IntBuffer.wrap(requireArray(input.getArray())), input.getTargetSum());
+    }
+
+    /**
+     * Finds every pair of positions in the provided binary array whose elements sum up to the provided target sum,
+     * reading the array in place while the pairs are written to the response.
      * <p>
-     * This method uses a switch statement to determine which algorithm to execute based on the given algorithm name.
-     * If the algorithm name does not match any known algorithms, it logs that the algorithm is not available.
+     * The pairs are written as a JSON array of two-element arrays, each as soon as it is found. The sequential mode is
+     * used, since the pairs are written by a single generator and the output, not the search, bounds the throughput.
      * </p>
      *
-     * @param algorithmName the name of the algorithm to execute
+     * @param array the array
+     * @param targetSum the target sum
+     * @return the pairs, computed when the output is serialized
+     * @throws IllegalArgumentException if the target sum is not provided
      */
-    public boolean executeAlgorithm(String algorithmName) {
-
-        switch (algorithmName) {
-            case TWO_NUMBER_SUM:
-                try {
-                    executeTwoNumberSum();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, TWO_NUMBER_SUM);
-                    return false;
-                }
-                break;
-            case THREE_NUMBER_SUM:
-                try {
-                    executeThreeNumberSum();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, THREE_NUMBER_SUM);
-                    return false;
-                }
-                break;
-            case FOUR_NUMBER_SUM:
-                try {
-                    executeFourNumberSum();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, FOUR_NUMBER_SUM);
-                    return false;
-                }
-                break;
-            case APARTMENT_HUNTING:
-                try {
-                    executeApartmentHunting();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, APARTMENT_HUNTING);
-                    return false;
-                }
-                break;
-            default:
-                LOGGER.info("Algorithm not available");
-        }
+    public StreamedOutput streamTwoNumberSumAllPairs(IntBuffer array, Integer targetSum) {
+
+        int requiredTargetSum = requireTargetSum(targetSum);
+
+        return new StreamedOutput(generator -> {
+            int[] pair = new int[2];
+            long[] pairCount = new long[1];
+            generator.writeStartArray();
+            try {
+                new TwoNumberSum().allPairs(array, requiredTargetSum, (first, second) -> {
+                    pair[0] = first;
+                    pair[1] = second;
+                    try {
+                        generator.writeArray(pair, 0, pair.length);
+                        pairCount[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            return pairCount[0];
+        });
+    }
+
+    /**
+     * Counts the pairs of positions in the provided array whose elements sum up to the provided target sum.
+     *
+     * @param input the array and the target sum
+     * @return the number of pairs
+     * @throws IllegalArgumentException if the array is not provided
+     */
+    public long twoNumberSumCount(ArrayTargetSumInput input) {
+        return twoNumberSumCount(IntBuffer.wrap(requireArray(input.getArray())), input.getTargetSum());
+    }
+
+    /**
+     * Counts the pairs of positions in the provided binary array whose elements sum up to the provided target sum,
+     * partitioning the value space across the compute pool of the bulkhead.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @return the number of pairs
+     * @throws IllegalArgumentException if the target sum is not provided
+     */
+    public long twoNumberSumCount(IntBuffer array, Integer targetSum) {
+        return new TwoNumberSum().countPairsParallel(array, requireTargetSum(targetSum),
+                Bulkhead.computePool());
+    }
 
-        return true;
+    /**
+     * Finds all distinct triplets in the provided array that sum up to the provided target sum, sorting the array with
+     * the strategy chosen for it unless the input forces one.
+     *
+     * @param input the array, the target sum and optionally the strategy
+     * @return the triplets, or an empty array if no such triplet exists
+     * @throws IllegalArgumentException if the array is not provided, or if the forced strategy is not applicable
+     */
+    public int[][] threeNumberSum(ArrayTargetSumInput input) {
+        return threeNumberSum(IntBuffer.wrap(requireArray(input.getArray())), input.getTargetSum(),
+                input.getStrategy());
     }
 
     /**
-     * Executes the "Two Number Sum" algorithm.
+     * Finds all distinct triplets in the provided binary array that sum up to the provided target sum, reading the
+     * array in place.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @return the triplets, or an empty array if no such triplet exists
+     * @throws IllegalArgumentException if the target sum is not provided
+     */
+    public int[][] threeNumberSum(IntBuffer array, Integer targetSum) {
+        return threeNumberSum(array, requireTargetSum(targetSum), SumStrategy.AUTO);
+    }
+
+    /**
+     * Finds all distinct triplets in the provided array that sum up to the provided target sum with the requested
+     * strategy, sweeping the array on the compute pool of the bulkhead, and records the strategy used.
+     *
+     * @param array the array, which is left untouched
+     * @param targetSum the target sum
+     * @param strategy the requested strategy, or null or {@link SumStrategy#AUTO} to choose one for the array
+     * @return the triplets, or an empty array if no such triplet exists
+     * @throws IllegalArgumentException if the requested strategy is not applicable to the array
+     */
+    private int[][] threeNumberSum(IntBuffer array, int targetSum, SumStrategy strategy) {
+
+        ArrayProfile profile = ArrayProfile.of(array);
+        SumStrategy chosenStrategy = ThreeNumberSum.chooseStrategy(profile, strategy, memoryBudget);
+        algorithmMetrics.recordStrategy(ARRAYS, THREE_NUMBER_SUM, chosenStrategy.name(), profile.isSorted());
+
+        return toTuples(new ThreeNumberSum().threeNumberSumParallel(array, targetSum, chosenStrategy, profile,
+                Bulkhead.computePool()), 3);
+    }
+
+    /**
+     * Finds all quadruplets in the provided array that sum up to the provided target sum, while they are written to
+     * the response.
      * <p>
-     * This method reads the array size, array elements, and target sum from the standard input. It then uses the
-     * {@link TwoNumberSum#twoNumberSum(int[], int)} method to find a pair of numbers in the array that sum up to the
-     * target sum. If such a pair is found, it logs the pair; otherwise, it logs that no pair was found.
+     * The quadruplets are written as a JSON array of four-element arrays, in small batches as they are found, without
+     * collecting them into a list first. The memory used therefore does not grow with the number of quadruplets,
+     * which can be cubic in the length of the array. The pairs of the array, which are quadratic in its length, are
+     * held on the heap within the configured memory budget and probed across the compute pool of the bulkhead, and
+     * spilled to disk beyond it.
      * </p>
+     *
+     * @param input the array and the target sum
+     * @return the quadruplets, computed when the output is serialized
+     * @throws IllegalArgumentException if the array is not provided
+     */
+    public StreamedOutput streamFourNumberSum(ArrayTargetSumInput input) {
+        return streamFourNumberSum(IntBuffer.wrap(requireArray(input.getArray())), input.getTargetSum());
+    }
+
+    /**
+     * Finds all quadruplets in the provided binary array that sum up to the provided target sum, reading the array in
+     * place while the quadruplets are written to the response.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @return the quadruplets, computed when the output is serialized
+     * @throws IllegalArgumentException if the target sum is not provided
+     */
+    public StreamedOutput streamFourNumberSum(IntBuffer array, Integer targetSum) {
+
+        int requiredTargetSum = requireTargetSum(targetSum);
+
+        return new StreamedOutput(generator -> {
+            int[] quadruplet = new int[4];
+            long[] quadrupletCount = new long[1];
+            generator.writeStartArray();
+            try {
+                new FourNumberSum().fourNumberSum(array, requiredTargetSum, memoryBudget, spillDirectory,
+                        Bulkhead.computePool(), (first, second, third, fourth) -> {
+                            quadruplet[0] = first;
+                            quadruplet[1] = second;
+                            quadruplet[2] = third;
+                            quadruplet[3] = fourth;
+                            try {
+                                generator.writeArray(quadruplet, 0, quadruplet.length);
+                                quadrupletCount[0]++;
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            return quadrupletCount[0];
+        });
+    }
+
+    /**
+     * Finds every tuple of {@code k} numbers in the provided array that sums up to the provided target sum, with the
+     * plan chosen for the array unless the input forces one, while the tuples are written to the response.
      * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * The tuples are written as a JSON array of {@code k}-element arrays, each as soon as it is found. The
+     * meet-in-the-middle plan may index combinations on the heap up to the configured memory budget, and the plan used
+     * is recorded once the search completes.
      * </p>
+     *
+     * @param input the array, the number of numbers in each tuple, the target sum and optionally the plan
+     * @return the tuples, computed when the output is serialized
+     * @throws IllegalArgumentException if the array is not provided, if {@code k} is not supported, or if the forced
+     * plan is not applicable
      */
-    private void executeTwoNumberSum() {
+    public StreamedOutput streamKSum(KSumInput input) {
+
+        int[] array = requireArray(input.getArray());
+        KSumEngine.checkApplicable(IntBuffer.wrap(array), input.getK(), memoryBudget, input.getPlan());
+        ArrayProfile profile = ArrayProfile.of(IntBuffer.wrap(array));
+
+        return new StreamedOutput(generator -> {
+            long[] tupleCount = new long[1];
+            generator.writeStartArray();
+            KSumPlan plan;
+            try {
+                plan = new KSumEngine().kSum(IntBuffer.wrap(array), input.getK(), input.getTargetSum(),
+                        memoryBudget, input.getPlan(), tuple -> {
+                            try {
+                                generator.writeArray(tuple, 0, tuple.length);
+                                tupleCount[0]++;
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            algorithmMetrics.recordStrategy(ARRAYS, K_SUM, plan.name(), profile.isSorted());
+            return tupleCount[0];
+        });
+    }
 
-        try {
-            loggerUtil.promptToEnterArraySize(LOGGER);
-            int arraySize = Integer.parseInt(bufferedReader.readLine());
-            int[] array = new int[arraySize];
+    /**
+     * Splits tuples flattened into a single array into compact int arrays, which serialize without boxing.
+     *
+     * @param flatTuples the tuples returned by an algorithm, as consecutive groups of elements
+     * @param arity the number of elements of each tuple
+     * @return the same tuples as int arrays
+     */
+    private static int[][] toTuples(int[] flatTuples, int arity) {
 
-            loggerUtil.promptToEnterArrayElements(LOGGER);
-            for (int i = 0; i < arraySize; i++) {
-                array[i] = Integer.parseInt(bufferedReader.readLine());
-            }
+        int[][] result = new int[flatTuples.length / arity][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Arrays.copyOfRange(flatTuples, i * arity, (i + 1) * arity);
+        }
 
-            loggerUtil.promptToEnterTargetSum(LOGGER);
-            int targetSum = Integer.parseInt(bufferedReader.readLine());
+        return result;
+    }
 
-            int[] result = new TwoNumberSum().twoNumberSum(array, targetSum);
-            if (result.length == 0) {
-                LOGGER.info("No pair of numbers sum up to the target sum");
-                return;
-            }
+    /**
+     * Finds the index of the block that minimizes the farthest distance to any of the provided requirements, sweeping
+     * long streets in parallel on the compute pool of the bulkhead.
+     *
+     * @param input the blocks and the requirements
+     * @return the index of the most optimal block
+     * @throws IllegalArgumentException if the blocks or the requirements are not provided, or if a block does not
+     * state the availability of every requirement
+     */
+    public int apartmentHunting(ApartmentHuntingInput input) {
 
-            LOGGER.info("The pair of numbers that sum up to the target sum are: {} and {}", result[0], result[1]);
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
-        }
+        List<Map<String, Boolean>> blocks = input.getBlocks();
+        String[] reqs = input.getReqs();
+        requireBlocks(blocks, reqs);
+
+        return new ApartmentHunting().apartmentHunting(ApartmentBlocks.of(blocks, reqs), Bulkhead.computePool());
     }
 
     /**
-     * Executes the "Three Number Sum" algorithm.
-     * <p>
-     * This method reads the array size, array elements, and target sum from the standard input. It then uses the
-     * {@link ThreeNumberSum#threeNumberSum(int[], int)} method to find all unique triplets in the array that sum up to
-     * the target sum. If such triplets are found, it logs each triplet; otherwise, it logs that no triplet was found.
-     * </p>
+     * Ranks the blocks by their farthest distance to any of the provided requirements, keeping the best ones, sweeping
+     * long streets in parallel on the compute pool of the bulkhead.
+     *
+     * @param input the blocks, the requirements and the number of blocks to rank
+     * @return the best blocks, best first, with their farthest distances and their distances to each requirement
+     * @throws IllegalArgumentException if the blocks or the requirements are not provided, if a block does not state
+     * the availability of every requirement, or if {@code k} is not positive
+     */
+    public RankedBlocks apartmentHuntingRanked(ApartmentRankingInput input) {
+
+        List<Map<String, Boolean>> blocks = input.getBlocks();
+        String[] reqs = input.getReqs();
+        requireBlocks(blocks, reqs);
+
+        return new ApartmentHunting().rankBlocks(ApartmentBlocks.of(blocks, reqs), input.getK(),
+                Bulkhead.computePool());
+    }
+
+    /**
+     * Finds the most optimal block after each of the provided updates of the facilities of the blocks, updating the
+     * distances incrementally rather than recomputing them after each update.
      * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * An update only recomputes the distances of the blocks between the closest blocks holding the updated facility,
+     * which is not bounded by a logarithm: adding the first or removing the last facility of a requirement costs as
+     * much as recomputing every distance.
      * </p>
+     *
+     * @param input the blocks, the requirements and the updates
+     * @return the index of the most optimal block before any update, followed by its index after each update
+     * @throws IllegalArgumentException if the blocks, the requirements or the updates are not provided, if a block
+     * does not state the availability of every requirement, or if an update refers to an unknown block or requirement
      */
-    private void executeThreeNumberSum() throws RuntimeException {
+    public int[] apartmentHuntingUpdates(ApartmentUpdatesInput input) {
 
-        try {
-            loggerUtil.promptToEnterArraySize(LOGGER);
-            int arraySize = Integer.parseInt(bufferedReader.readLine());
-            int[] array = new int[arraySize];
+        List<Map<String, Boolean>> blocks = input.getBlocks();
+        String[] reqs = input.getReqs();
+        requireBlocks(blocks, reqs);
+        if (input.getUpdates() == null) {
+            throw new IllegalArgumentException("\"updates\" must be provided");
+        }
 
-            loggerUtil.promptToEnterArrayElements(LOGGER);
-            for (int i = 0; i < arraySize; i++) {
-                array[i] = Integer.parseInt(bufferedReader.readLine());
+        Map<String, Integer> reqIndices = new HashMap<>();
+        for (int req = 0; req < reqs.length; req++) {
+            reqIndices.putIfAbsent(reqs[req], req);
+        }
+        IncrementalApartmentHunting apartmentHunting = new IncrementalApartmentHunting(ApartmentBlocks.of(blocks,
+                reqs));
+        int[] bestBlocks = new int[input.getUpdates().size() + 1];
+        bestBlocks[0] = apartmentHunting.bestBlock();
+        int i = 1;
+        for (ApartmentUpdatesInput.AmenityUpdate update : input.getUpdates()) {
+            Integer req = reqIndices.get(update.getReq());
+            if (req == null || update.getBlock() < 0 || update.getBlock() >= blocks.size()) {
+                throw new IllegalArgumentException("Every update must refer to a block and a requirement: " + update);
             }
+            apartmentHunting.setAvailable(req, update.getBlock(), update.isAvailable());
+            bestBlocks[i++] = apartmentHunting.bestBlock();
+        }
 
-            loggerUtil.promptToEnterTargetSum(LOGGER);
-            int targetSum = Integer.parseInt(bufferedReader.readLine());
+        return bestBlocks;
+    }
 
-            List<Integer[]> result = new ThreeNumberSum().threeNumberSum(array, targetSum);
-            if (result.isEmpty()) {
-                LOGGER.info("No triplet of numbers sum up to the target sum");
-                return;
+    /**
+     * Ranks the blocks of a city grid by the largest of their weighted distances to the closest block holding each
+     * requirement, within the memory budget of the algorithms.
+     *
+     * @param input the grid, the cells holding each requirement, the weights, the roads and the number of blocks
+     * @return the best blocks, best first, with their scores and their distances to each requirement
+     * @throws IllegalArgumentException if the grid, the requirements or the facilities of a requirement are not
+     * provided, if a cell is out of the grid, if a weight is not positive, if {@code k} is not positive, or if the
+     * grid exceeds the memory budget
+     */
+    public RankedBlocks apartmentHuntingGrid(ApartmentGridInput input) {
+
+        String[] reqs = input.getReqs();
+        int[][] facilities = input.getFacilities();
+        long cellCount = (long) input.getRows() * input.getColumns();
+        if (reqs == null || facilities == null || facilities.length != reqs.length) {
+            throw new IllegalArgumentException("Both \"reqs\" and the \"facilities\" of each requirement must be " +
+                    "provided");
+        }
+        for (int req = 0; req < reqs.length; req++) {
+            if (facilities[req] == null) {
+                throw new IllegalArgumentException("The \"facilities\" of \"" + reqs[req] + "\" must be provided");
             }
+        }
+        if (input.getRows() < 0 || input.getColumns() < 0 || cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The grid must have at most " + Integer.MAX_VALUE + " cells");
+        }
+        // The bitsets of the grid are counted by the budget, so it is checked before they are allocated
+        GridApartmentHunting.checkApplicable(cellCount, reqs.length, input.getK(), memoryBudget);
+
+        long[][] columns = new long[reqs.length][];
+        for (int req = 0; req < reqs.length; req++) {
+            columns[req] = toCellBitset(facilities[req], (int) cellCount);
+        }
+        int[] weights = input.getWeights();
+        if (weights == null) {
+            weights = new int[reqs.length];
+            Arrays.fill(weights, 1);
+        }
+        long[] roads = input.getRoads() == null ? null : toCellBitset(input.getRoads(), (int) cellCount);
+        ApartmentGrid grid = ApartmentGrid.overRoads(input.getRows(), input.getColumns(),
+                ApartmentBlocks.ofColumns((int) cellCount, columns), weights, roads);
+
+        return new GridApartmentHunting().rankBlocks(grid, input.getK(), memoryBudget);
+    }
+
+    /**
+     * Sets the bit of each of the provided cells in a bitset of the cells of a grid.
+     *
+     * @param cells the indices of the cells
+     * @param cellCount the number of cells of the grid
+     * @return the bitset of the cells
+     * @throws IllegalArgumentException if a cell is out of the grid
+     */
+    private static long[] toCellBitset(int[] cells, int cellCount) {
 
-            for (Integer[] triplet : result) {
-                LOGGER.info("The triplet of numbers that sum up to the target sum are: {}, {}, and {}", triplet[0],
-                        triplet[1], triplet[2]);
+        long[] bits = new long[(int) ((cellCount + 63L) >>> 6)];
+        for (int cell : cells) {
+            if (cell < 0 || cell >= cellCount) {
+                throw new IllegalArgumentException("Every cell must be in the grid of " + cellCount + " cells: " +
+                        cell);
             }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
-            throw new RuntimeException("Error while reading input", e.getCause());
+            bits[cell >>> 6] |= 1L << cell;
         }
+
+        return bits;
     }
 
     /**
-     * Executes the "Four Number Sum" algorithm.
+     * Validates that the blocks and the requirements of the "Apartment Hunting" algorithm were provided, and that
+     * every block states the availability of every requirement.
+     *
+     * @param blocks the blocks
+     * @param reqs the requirements
+     * @throws IllegalArgumentException if the blocks or the requirements are not provided, or if a block does not
+     * state the availability of every requirement
+     */
+    private static void requireBlocks(List<Map<String, Boolean>> blocks, String[] reqs) {
+
+        if (blocks == null || blocks.isEmpty() || reqs == null) {
+            throw new IllegalArgumentException("Both \"blocks\" and \"reqs\" must be provided");
+        }
+        for (Map<String, Boolean> block : blocks) {
+            for (String req : reqs) {
+                if (block == null || block.get(req) == null) {
+                    throw new IllegalArgumentException("Every block must state the availability of \"" + req + "\"");
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates that an input array was provided.
+     *
+     * @param array the input array
+     * @return the same input array
+     * @throws IllegalArgumentException if the array is null
+     */
+    private static int[] requireArray(int[] array) {
+        if (array == null) {
+            throw new IllegalArgumentException("\"array\" must be provided");
+        }
+        return array;
+    }
+
+    /**
+     * Validates that a target sum was provided along with a binary array.
+     *
+     * @param targetSum the target sum
+     * @return the same target sum
+     * @throws IllegalArgumentException if the target sum is null
+     */
+    private static int requireTargetSum(Integer targetSum) {
+
+        if (targetSum == null) {
+            throw new IllegalArgumentException("\"targetSum\" must be provided");
+        }
+        return targetSum;
+    }
+
+    /**
+     * Reads the input of the "Two Number Sum", "Three Number Sum" and "Four Number Sum" algorithms from the standard
+     * input.
      * <p>
-     * This method reads the array size, array elements, and target sum from the standard input. It then uses the
-     * {@link FourNumberSum#fourNumberSum(int[], int)} method to find all unique quadruplets in the array that sum up to
-     * the target sum. If such quadruplets are found, it logs each quadruplet; otherwise, it logs that no quadruplet
-     * was found.
+     * This method reads the array size, the array elements, and the target sum, separated by whitespace or commas.
      * </p>
+     *
+     * @return the array and the target sum
+     * @throws IOException if an error occurs while reading the input
+     */
+    private ArrayTargetSumInput readArrayTargetSumInput() throws IOException {
+
+        loggerUtil.promptToEnterArraySize(LOGGER);
+        int arraySize = intTokenizer.nextInt();
+        int[] array = new int[arraySize];
+
+        loggerUtil.promptToEnterArrayElements(LOGGER);
+        for (int i = 0; i < arraySize; i++) {
+            array[i] = intTokenizer.nextInt();
+        }
+
+        loggerUtil.promptToEnterTargetSum(LOGGER);
+        int targetSum = intTokenizer.nextInt();
+
+        return new ArrayTargetSumInput(array, targetSum, SumStrategy.AUTO);
+    }
+
+    /**
+     * Reads the input of the "K Sum" algorithm from the standard input.
      * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method reads the array size, the array elements, the number of numbers in each tuple and the target sum,
+     * separated by whitespace or commas.
      * </p>
+     *
+     * @return the array, the number of numbers in each tuple and the target sum
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeFourNumberSum() {
+    private KSumInput readKSumInput() throws IOException {
 
-        try {
-            loggerUtil.promptToEnterArraySize(LOGGER);
-            int arraySize = Integer.parseInt(bufferedReader.readLine());
-            int[] array = new int[arraySize];
+        loggerUtil.promptToEnterArraySize(LOGGER);
+        int arraySize = intTokenizer.nextInt();
+        int[] array = new int[arraySize];
 
-            loggerUtil.promptToEnterArrayElements(LOGGER);
-            for (int i = 0; i < arraySize; i++) {
-                array[i] = Integer.parseInt(bufferedReader.readLine());
-            }
+        loggerUtil.promptToEnterArrayElements(LOGGER);
+        for (int i = 0; i < arraySize; i++) {
+            array[i] = intTokenizer.nextInt();
+        }
 
-            loggerUtil.promptToEnterTargetSum(LOGGER);
-            int targetSum = Integer.parseInt(bufferedReader.readLine());
+        LOGGER.info("Enter the number of numbers in each tuple: ");
+        int k = intTokenizer.nextInt();
 
-            List<Integer[]> result = new FourNumberSum().fourNumberSum(array, targetSum);
-            if (result.isEmpty()) {
-                LOGGER.info("No quadruplet of numbers sum up to the target sum");
-                return;
-            }
+        loggerUtil.promptToEnterTargetSum(LOGGER);
+        long targetSum = intTokenizer.nextLong();
+
+        return new KSumInput(array, k, targetSum, KSumPlan.AUTO);
+    }
 
-            for (Integer[] quadruplet : result) {
-                LOGGER.info("The quadruplet of numbers that sum up to the target sum are: {}, {}, {}, and {}",
-                        quadruplet[0], quadruplet[1], quadruplet[2], quadruplet[3]);
+    /**
+     * Reads the input of the "Apartment Hunting" algorithm from the standard input.
+     * <p>
+     * This method reads the number of blocks, the number of requirements, and the requirements themselves. It then
+     * reads the availability of each requirement for each block and stores this information in a list of maps.
+     * </p>
+     *
+     * @return the blocks and the requirements
+     * @throws IOException if an error occurs while reading the input
+     */
+    private ApartmentHuntingInput readApartmentHuntingInput() throws IOException {
+
+        LOGGER.info("Enter the number of blocks: ");
+        int numBlocks = intTokenizer.nextInt();
+
+        LOGGER.info("Enter the number of requirements: ");
+        int numReqs = intTokenizer.nextInt();
+
+        String[] reqs = new String[numReqs];
+        LOGGER.info("Enter the requirements: ");
+        for (int i = 0; i < numReqs; i++) {
+            reqs[i] = intTokenizer.nextToken();
+        }
+
+        List<Map<String, Boolean>> blockDetails = new ArrayList<>();
+        for (int i = 0; i < numBlocks; i++) {
+            Map<String, Boolean> block = new HashMap<>();
+            LOGGER.info("Enter the availability of requirements for block {}: ", i + 1);
+            for (int j = 0; j < numReqs; j++) {
+                LOGGER.info("Enter the availability of requirement {} in block {}: ", reqs[j], i + 1);
+                block.put(reqs[j], intTokenizer.nextBoolean());
             }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
-            throw new RuntimeException("Error while reading input", e.getCause());
+            blockDetails.add(block);
         }
+
+        return new ApartmentHuntingInput(blockDetails, reqs);
     }
 
     /**
-     * Executes the "Apartment Hunting" algorithm.
+     * Reads the input of the ranking mode of the "Apartment Hunting" algorithm from the standard input.
      * <p>
-     * This method reads the number of blocks, the number of requirements, and the requirements themselves from the
-     * standard input. It then reads the availability of each requirement for each block and stores this information in
-     * a list of maps. The method uses the {@link ApartmentHunting#apartmentHunting(List, String[])} method to find the
-     * best block to live in based on the minimum distance to all required facilities.
-     * If a block satisfies all requirements, it logs the index of that block; otherwise, it logs that no block
-     * satisfies all requirements.
+     * This method reads the blocks and the requirements as for the "Apartment Hunting" algorithm, then the number of
+     * blocks to rank.
      * </p>
+     *
+     * @return the blocks, the requirements and the number of blocks to rank
+     * @throws IOException if an error occurs while reading the input
+     */
+    private ApartmentRankingInput readApartmentRankingInput() throws IOException {
+
+        ApartmentHuntingInput apartmentHuntingInput = readApartmentHuntingInput();
+
+        LOGGER.info("Enter the number of blocks to rank: ");
+        int k = intTokenizer.nextInt();
+
+        return new ApartmentRankingInput(apartmentHuntingInput.getBlocks(), apartmentHuntingInput.getReqs(), k);
+    }
+
+    /**
+     * Reads the input of the "Apartment Hunting Updates" algorithm from the standard input.
      * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method reads the blocks and the requirements as for the "Apartment Hunting" algorithm, then the number of
+     * updates and, for each update, the index of the block, the requirement and its new availability.
      * </p>
+     *
+     * @return the blocks, the requirements and the updates
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeApartmentHunting() {
+    private ApartmentUpdatesInput readApartmentUpdatesInput() throws IOException {
 
-        try {
-            LOGGER.info("Enter the number of blocks: ");
-            int numBlocks = Integer.parseInt(bufferedReader.readLine());
+        ApartmentHuntingInput apartmentHuntingInput = readApartmentHuntingInput();
 
-            LOGGER.info("Enter the number of requirements: ");
-            int numReqs = Integer.parseInt(bufferedReader.readLine());
+        LOGGER.info("Enter the number of updates: ");
+        int numUpdates = intTokenizer.nextInt();
 
-            String[] reqs = new String[numReqs];
-            LOGGER.info("Enter the requirements: ");
-            for (int i = 0; i < numReqs; i++) {
-                reqs[i] = bufferedReader.readLine();
-            }
+        List<ApartmentUpdatesInput.AmenityUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < numUpdates; i++) {
+            LOGGER.info("Enter the block, the requirement and its availability for update {}: ", i + 1);
+            updates.add(new ApartmentUpdatesInput.AmenityUpdate(intTokenizer.nextInt(), intTokenizer.nextToken(),
+                    intTokenizer.nextBoolean()));
+        }
 
-            List<Map<String, Boolean>> blockDetails = new ArrayList<>();
-            for (int i = 0; i < numBlocks; i++) {
-                Map<String, Boolean> block = new HashMap<>();
-                LOGGER.info("Enter the availability of requirements for block {}: ", i + 1);
-                for (int j = 0; j < numReqs; j++) {
-                    LOGGER.info("Enter the availability of requirement {} in block {}: ", reqs[j], i + 1);
-                    block.put(reqs[j], Boolean.parseBoolean(bufferedReader.readLine()));
-                }
-                blockDetails.add(block);
-            }
+        return new ApartmentUpdatesInput(apartmentHuntingInput.getBlocks(), apartmentHuntingInput.getReqs(), updates);
+    }
 
-            int result = new ApartmentHunting().apartmentHunting(blockDetails, reqs);
-            if (result == -1) {
-                LOGGER.info("No block satisfies all requirements");
-            } else {
-                LOGGER.info("The block that satisfies all requirements is: {}", result);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
-            throw new RuntimeException("Error while reading input", e.getCause());
+    /**
+     * Reads the input of the grid variant of the "Apartment Hunting" algorithm from the standard input.
+     * <p>
+     * This method reads the number of rows and columns of the grid and the number of requirements, then, for each
+     * requirement, its name, its weight and the cells holding it. It then reads the road cells, or -1 if every cell is
+     * walked through, and the number of blocks to rank. Cells are numbered row by row.
+     * </p>
+     *
+     * @return the grid, the requirements, the weights, the roads and the number of blocks to rank
+     * @throws IOException if an error occurs while reading the input
+     */
+    private ApartmentGridInput readApartmentGridInput() throws IOException {
+
+        LOGGER.info("Enter the number of rows and columns of the grid: ");
+        int rows = intTokenizer.nextInt();
+        int columns = intTokenizer.nextInt();
+
+        LOGGER.info("Enter the number of requirements: ");
+        int numReqs = intTokenizer.nextInt();
+
+        String[] reqs = new String[numReqs];
+        int[] weights = new int[numReqs];
+        int[][] facilities = new int[numReqs][];
+        for (int i = 0; i < numReqs; i++) {
+            LOGGER.info("Enter requirement {}, its weight and the number of cells holding it: ", i + 1);
+            reqs[i] = intTokenizer.nextToken();
+            weights[i] = intTokenizer.nextInt();
+            facilities[i] = new int[intTokenizer.nextInt()];
+            LOGGER.info("Enter the cells holding requirement {}: ", reqs[i]);
+            intTokenizer.nextInts(facilities[i]);
+        }
+
+        LOGGER.info("Enter the number of road cells, or -1 to walk through every cell: ");
+        int numRoads = intTokenizer.nextInt();
+        int[] roads = null;
+        if (numRoads >= 0) {
+            roads = new int[numRoads];
+            LOGGER.info("Enter the road cells: ");
+            intTokenizer.nextInts(roads);
         }
+
+        LOGGER.info("Enter the number of blocks to rank: ");
+        int k = intTokenizer.nextInt();
+
+        return new ApartmentGridInput(rows, columns, reqs, weights, facilities, roads, k);
     }
 }
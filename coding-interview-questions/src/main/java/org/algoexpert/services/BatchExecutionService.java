@@ -0,0 +1,458 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.algoexpert.configs.BatchExecutionProperties;
+import org.algoexpert.dtos.BatchResultLine;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.algoexpert.utils.LoggerUtil;
+import org.algoexpert.utils.TemporaryFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class for executing an algorithm over a batch of independent inputs.
+ * <p>
+ * The inputs are read one at a time from either a JSON array or an NDJSON stream, and executed in parallel behind
+ * the bulkhead of the data structure category of the algorithm, through the {@link AlgorithmExecutionService}, so
+ * they take the permits, the threads and the compute pool of their category like any other execution, and a batch of
+ * a slow category cannot hold up the batches of the others. When the bulkhead is full, the batch waits for it to admit
+ * further inputs instead of being rejected. Each result is written back as an NDJSON line as soon as it is computed,
+ * tagged with the index of its input, so the results are not necessarily written in input order. At most
+ * {@link BatchExecutionProperties#getMaxInFlight()} inputs are held in memory at any time, which keeps the peak
+ * memory of a batch flat regardless of its size.
+ * </p>
+ * <p>
+ * Every line is serialized into a buffer of its own, and only copied to the response once complete, so the lock
+ * serializing the lines is never held while a result, in particular a {@link StreamedOutput}, is being computed.
+ * Lines up to {@link BatchExecutionProperties#getInMemoryLineThreshold()} are buffered in the heap, and longer ones
+ * are spilled to a temporary file, so the memory of a line stays bounded however large its output. If a streamed
+ * output fails once part of it has been computed, its line is completed with the part computed so far and the error.
+ * </p>
+ * <p>
+ * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
+ * Spring service component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Service
+@Slf4j
+public class BatchExecutionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchExecutionService.class);
+    private static final byte LINE_SEPARATOR = '\n';
+    private final LoggerUtil loggerUtil;
+    private final ObjectMapper objectMapper;
+    private final AlgorithmExecutionService algorithmExecutionService;
+    private final int maxInFlight;
+    private final long inMemoryLineThreshold;
+
+    /**
+     * Constructs an instance of the BatchExecutionService.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the service. It initializes the {@code loggerUtil}, {@code objectMapper},
+     * {@code algorithmExecutionService}, {@code maxInFlight} and {@code inMemoryLineThreshold} fields.
+     * </p>
+     *
+     * @param loggerUtil an instance of {@link LoggerUtil} used for logging warnings
+     * @param objectMapper the ObjectMapper instance for reading the inputs and writing the results
+     * @param algorithmExecutionService an instance of {@link AlgorithmExecutionService} used to execute the inputs
+     *                                  behind the bulkhead of their data structure category
+     * @param batchExecutionProperties the configuration properties of the batch execution
+     */
+    @Autowired
+    public BatchExecutionService(LoggerUtil loggerUtil, ObjectMapper objectMapper,
+                                 AlgorithmExecutionService algorithmExecutionService,
+                                 BatchExecutionProperties batchExecutionProperties) {
+        this.loggerUtil = loggerUtil;
+        this.objectMapper = objectMapper;
+        this.algorithmExecutionService = algorithmExecutionService;
+        this.maxInFlight = Math.max(1, batchExecutionProperties.getMaxInFlight());
+        this.inMemoryLineThreshold = batchExecutionProperties.getInMemoryLineThreshold().toBytes();
+    }
+
+    /**
+     * Executes an algorithm over every input of a batch and streams the results as NDJSON lines.
+     * <p>
+     * This method returns only after the result of every input read from the batch has been written. If the batch is
+     * malformed, an error line tagged with the index of the malformed input is written and no further input is read.
+     * </p>
+     *
+     * @param registration the registration of the algorithm to execute
+     * @param inputs the stream of the batch inputs, either a JSON array or NDJSON
+     * @param results the stream to write the NDJSON result lines to
+     * @throws IOException if an error occurs while reading the inputs or writing the results
+     */
+    public void executeBatch(AlgorithmRegistration<?, ?> registration, InputStream inputs, OutputStream results)
+            throws IOException {
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        long index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputs)) {
+            JsonToken token = parser.nextToken();
+            boolean isJsonArray = token == JsonToken.START_ARRAY;
+            if (isJsonArray) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && !(isJsonArray && token == JsonToken.END_ARRAY) && writeFailure.get() == null) {
+                JsonNode input;
+                try {
+                    input = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    writeLine(results, new BatchResultLine(index, null, "Malformed input: " +
+                            e.getOriginalMessage()));
+                    break;
+                }
+
+                long inputIndex = index++;
+                submit(inFlight, registration.getCategory(), () -> {
+                    execute(registration, inputIndex, input, results);
+                    return null;
+                }).whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        writeFailure.compareAndSet(null, failure instanceof IOException e ? e
+                                : new IOException("Batch input " + inputIndex + " could not be executed", failure));
+                    }
+                    inFlight.release();
+                });
+                token = parser.nextToken();
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+    }
+
+    /**
+     * Executes an algorithm on a single input of a batch and writes its result line.
+     * <p>
+     * A failure of the algorithm, including one while its streamed output is computed, is written as the error of the
+     * line, whereas a failure to write the line aborts the batch.
+     * </p>
+     *
+     * @param registration the registration of the algorithm to execute
+     * @param index the index of the input in the batch
+     * @param input the JSON input of the algorithm
+     * @param results the stream to write the result line to
+     * @throws IOException if an error occurs while writing the result line
+     */
+    private void execute(AlgorithmRegistration<?, ?> registration, long index, JsonNode input,
+                         OutputStream results) throws IOException {
+
+        Object output;
+        try {
+            output = registration.executeJson(input);
+        } catch (IOException | RuntimeException e) {
+            writeLine(results, new BatchResultLine(index, null, getErrorMessage(registration, e)));
+            return;
+        }
+
+        if (output instanceof StreamedOutput streamedOutput) {
+            writeStreamedLine(results, registration, index, streamedOutput);
+        } else {
+            writeLine(results, new BatchResultLine(index, output, null));
+        }
+    }
+
+    /**
+     * Returns the error of the line of an input whose execution failed.
+     *
+     * @param registration the registration of the executed algorithm
+     * @param e the exception thrown by the execution
+     * @return the error describing the failure
+     */
+    private String getErrorMessage(AlgorithmRegistration<?, ?> registration, Exception e) {
+
+        if (e instanceof IOException || e instanceof IllegalArgumentException) {
+            return "Invalid input: " + e.getMessage();
+        }
+        loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, registration.getAlgorithmName());
+        return "Error while executing algorithm \"" + registration.getAlgorithmName() + "\"";
+    }
+
+    /**
+     * Serializes a result line into its own buffer, then writes it followed by a line separator, and flushes it to the
+     * client.
+     *
+     * @param results the stream to write the result line to
+     * @param line the result line
+     * @throws IOException if an error occurs while serializing or writing the result line
+     */
+    private void writeLine(OutputStream results, BatchResultLine line) throws IOException {
+
+        LineBuffer buffer = new LineBuffer(inMemoryLineThreshold);
+        try {
+            try (JsonGenerator generator = objectMapper.createGenerator(buffer)) {
+                objectMapper.writeValue(generator, line);
+            }
+            copyLine(results, buffer);
+        } finally {
+            buffer.discard();
+        }
+    }
+
+    /**
+     * Computes a streamed output into the buffer of its result line, then writes the line followed by a line
+     * separator, and flushes it to the client.
+     * <p>
+     * If the output fails, the arrays it left open are closed and the line ends with the error, so the line stays
+     * valid JSON holding the part of the result computed before the failure.
+     * </p>
+     *
+     * @param results the stream to write the result line to
+     * @param registration the registration of the executed algorithm
+     * @param index the index of the input in the batch
+     * @param output the streamed output to compute
+     * @throws IOException if an error occurs while buffering or writing the result line
+     */
+    private void writeStreamedLine(OutputStream results, AlgorithmRegistration<?, ?> registration, long index,
+                                   StreamedOutput output) throws IOException {
+
+        LineBuffer buffer = new LineBuffer(inMemoryLineThreshold);
+        try {
+            JsonGenerator generator = objectMapper.createGenerator(buffer);
+            generator.writeStartObject();
+            generator.writeNumberField("index", index);
+            generator.writeFieldName("result");
+            JsonStreamContext lineContext = generator.getOutputContext();
+            try {
+                output.writeTo(generator);
+            } catch (IOException | RuntimeException e) {
+                buffer.rethrowFailure();
+                // Streamed outputs only write arrays, and the index is the only entry of a line whose output wrote
+                // nothing
+                while (generator.getOutputContext() != lineContext) {
+                    generator.writeEndArray();
+                }
+                if (lineContext.getEntryCount() == 1) {
+                    generator.writeNull();
+                }
+                generator.writeStringField("error", getErrorMessage(registration, e));
+            }
+            generator.writeEndObject();
+            generator.close();
+            copyLine(results, buffer);
+        } finally {
+            buffer.discard();
+        }
+    }
+
+    /**
+     * Writes a complete result line followed by a line separator, and flushes it to the client.
+     * <p>
+     * Writes are serialized on the results stream, as the lines are completed concurrently by the bulkhead threads,
+     * and only ever copy lines that are already complete.
+     * </p>
+     *
+     * @param results the stream to write the result line to
+     * @param line the buffer of the complete result line
+     * @throws IOException if an error occurs while writing the result line
+     */
+    private static void copyLine(OutputStream results, LineBuffer line) throws IOException {
+
+        synchronized (results) {
+            line.writeTo(results);
+            results.write(LINE_SEPARATOR);
+            results.flush();
+        }
+    }
+
+    /**
+     * Acquires an in-flight permit and submits the execution of an input to the bulkhead of its data structure
+     * category, waiting for a running input to complete if no permit is available, and for the bulkhead to admit the
+     * execution if it is full.
+     * <p>
+     * The permit is handed over to the submitted execution, which must release it once complete.
+     * </p>
+     *
+     * @param inFlight the semaphore bounding the inputs in flight
+     * @param category the data structure category of the algorithm
+     * @param execution the execution of the input
+     * @return a future completed once the execution is complete
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    private CompletableFuture<Object> submit(Semaphore inFlight, DataStructureCategories category,
+                                             Callable<Object> execution) throws InterruptedIOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a batch input to complete");
+        }
+        try {
+            return algorithmExecutionService.submitWhenAdmitted(category, execution);
+        } catch (InterruptedException e) {
+            inFlight.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the bulkhead to admit a batch input");
+        }
+    }
+
+    /**
+     * Buffer of a single result line, which holds the line in the heap up to a threshold and spills it to a temporary
+     * file beyond it, and remembers the first failure to spill, so that it can be told apart from a failure of a
+     * streamed output.
+     * <p>
+     * Closing the buffer, as the generator of the line does, only flushes it, so that the line can then be copied;
+     * {@link #discard()} releases its temporary file.
+     * </p>
+     */
+    private static final class LineBuffer extends OutputStream {
+
+        private final long inMemoryThreshold;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private FileChannel spillChannel;
+        private OutputStream spill;
+        private IOException failure;
+
+        /**
+         * Constructs an empty line buffer.
+         *
+         * @param inMemoryThreshold the largest line held in the heap
+         */
+        private LineBuffer(long inMemoryThreshold) {
+            this.inMemoryThreshold = inMemoryThreshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                target(1).write(b);
+            } catch (IOException e) {
+                throw fail(e);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                target(length).write(bytes, offset, length);
+            } catch (IOException e) {
+                throw fail(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (spill != null) {
+                try {
+                    spill.flush();
+                } catch (IOException e) {
+                    throw fail(e);
+                }
+            }
+        }
+
+        /**
+         * Flushes the buffer, leaving it readable by {@link #writeTo(OutputStream)}.
+         *
+         * @throws IOException if an error occurs while flushing the buffer
+         */
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        /**
+         * Writes the buffered line to a stream.
+         *
+         * @param out the stream to write the line to
+         * @throws IOException if an error occurs while reading the spilled line or writing it
+         */
+        private void writeTo(OutputStream out) throws IOException {
+            if (spill == null) {
+                memory.writeTo(out);
+            } else {
+                spill.flush();
+                // The stream reads the channel without closing it, which discard() does
+                Channels.newInputStream(spillChannel.position(0)).transferTo(out);
+            }
+        }
+
+        /**
+         * Releases the temporary file of the buffer, if the line was spilled.
+         *
+         * @throws IOException if an error occurs while closing the temporary file
+         */
+        private void discard() throws IOException {
+            memory = null;
+            if (spillChannel != null) {
+                spillChannel.close();
+            }
+        }
+
+        /**
+         * Rethrows the failure to spill the line, if spilling has failed.
+         *
+         * @throws IOException the failure to spill the line
+         */
+        private void rethrowFailure() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Returns the stream to write the next bytes of the line to, spilling the line to a temporary file first if
+         * they would take it past the threshold.
+         *
+         * @param length the number of bytes about to be written
+         * @return the stream to write the bytes to
+         * @throws IOException if the temporary file cannot be created or written
+         */
+        private OutputStream target(int length) throws IOException {
+            if (spill == null && memory.size() + (long) length > inMemoryThreshold) {
+                spillChannel = TemporaryFiles.open(null, "algoexpert-batch-line-");
+                spill = new BufferedOutputStream(Channels.newOutputStream(spillChannel));
+                memory.writeTo(spill);
+                memory = null;
+            }
+            return spill != null ? spill : memory;
+        }
+
+        /**
+         * Records a failure to spill the line.
+         *
+         * @param e the failure
+         * @return the first failure recorded
+         */
+        private IOException fail(IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            return failure;
+        }
+    }
+}
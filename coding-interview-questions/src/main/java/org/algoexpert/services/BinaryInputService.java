@@ -0,0 +1,190 @@
+package org.algoexpert.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.algoexpert.configs.BinaryInputProperties;
+import org.algoexpert.utils.TemporaryFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Service class for reading binary integer arrays, given as little-endian int32 values.
+ * <p>
+ * Binary arrays are returned as {@link IntBuffer} views, so the algorithms can consume them without any text parsing.
+ * Local files are memory-mapped through {@link FileChannel#map}, and so are request bodies larger than
+ * {@link BinaryInputProperties#getInMemoryThreshold()}, after being spilled to a temporary file. Mapped arrays live
+ * outside the heap, which makes inputs of up to 2 GiB practical without sizing the heap for them.
+ * </p>
+ * <p>
+ * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
+ * Spring service component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Service
+@Slf4j
+public class BinaryInputService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryInputService.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private final Path fileDirectory;
+    private final long inMemoryThreshold;
+
+    /**
+     * Constructs an instance of the BinaryInputService.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the service.
+     * </p>
+     *
+     * @param binaryInputProperties the configuration properties of the binary inputs
+     * @throws IOException if the configured file directory does not exist
+     */
+    @Autowired
+    public BinaryInputService(BinaryInputProperties binaryInputProperties) throws IOException {
+        String directory = binaryInputProperties.getFileDirectory();
+        this.fileDirectory = directory == null || directory.isBlank() ? null : Path.of(directory).toRealPath();
+        this.inMemoryThreshold = binaryInputProperties.getInMemoryThreshold().toBytes();
+    }
+
+    /**
+     * Reads a binary integer array from a request body.
+     *
+     * @param body the request body
+     * @param contentLength the length of the request body in bytes, or -1 if it is not known in advance
+     * @return the integer array
+     * @throws IOException if an error occurs while reading the request body
+     * @throws IllegalArgumentException if the length of the request body is not a multiple of four bytes, or exceeds
+     * 2 GiB
+     */
+    public IntBuffer readBody(InputStream body, long contentLength) throws IOException {
+
+        // A declared length is checked before anything is read or written
+        if (contentLength >= 0) {
+            requireWholeInts(contentLength);
+        }
+        if (contentLength >= 0 && contentLength <= inMemoryThreshold) {
+            byte[] bytes = body.readAllBytes();
+            requireWholeInts(bytes.length);
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+
+        // The file is deleted once the array is no longer mapped, and its pages are released once it is unreachable
+        try (FileChannel channel = TemporaryFiles.open(null, "algoexpert-input-")) {
+            copyAtMostMaxSize(body, channel);
+            return map(channel);
+        }
+    }
+
+    /**
+     * Copies a request body to a file, failing as soon as it exceeds the largest binary input.
+     * <p>
+     * The length of a chunked request body is only known once it has been read, so the body is never written past
+     * 2 GiB, whatever its declared length.
+     * </p>
+     *
+     * @param body the request body
+     * @param channel the channel of the file to copy the body to, which is left open
+     * @throws IOException if an error occurs while reading the request body or writing the file
+     * @throws IllegalArgumentException if the request body exceeds 2 GiB
+     */
+    private static void copyAtMostMaxSize(InputStream body, FileChannel channel) throws IOException {
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long copied = 0;
+        for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+            copied += read;
+            if (copied > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Binary input of more than " + Integer.MAX_VALUE +
+                        " bytes exceeds the 2 GiB limit");
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a binary integer array from a local file.
+     *
+     * @param path the path of the file, relative to the configured file directory
+     * @return the integer array
+     * @throws IOException if the file does not exist or cannot be mapped
+     * @throws IllegalArgumentException if local file inputs are disabled, the file is outside the configured file
+     * directory, or its length is not a multiple of four bytes or exceeds 2 GiB
+     */
+    public IntBuffer mapFile(String path) throws IOException {
+
+        if (fileDirectory == null) {
+            throw new IllegalArgumentException("Local file inputs are disabled");
+        }
+
+        Path file = fileDirectory.resolve(path).toRealPath();
+        if (!file.startsWith(fileDirectory)) {
+            LOGGER.warn("Rejected local file input outside of the file directory: {}", path);
+            throw new IllegalArgumentException("\"" + path + "\" is outside of the file directory");
+        }
+
+        return map(file);
+    }
+
+    /**
+     * Memory-maps a file of little-endian int32 values as a read-only integer array.
+     *
+     * @param file the file to map
+     * @return the integer array
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the length of the file is not a multiple of four bytes, or exceeds 2 GiB
+     */
+    private static IntBuffer map(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return map(channel);
+        }
+    }
+
+    /**
+     * Memory-maps the file of an open channel, of little-endian int32 values, as a read-only integer array.
+     *
+     * @param channel the channel of the file to map, which is left open
+     * @return the integer array
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the length of the file is not a multiple of four bytes, or exceeds 2 GiB
+     */
+    private static IntBuffer map(FileChannel channel) throws IOException {
+
+        long size = channel.size();
+        requireWholeInts(size);
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Validates that a binary input holds a whole number of int32 values and fits in a single buffer.
+     *
+     * @param size the size of the binary input in bytes
+     * @throws IllegalArgumentException if the size is not a multiple of four bytes, or exceeds 2 GiB
+     */
+    private static void requireWholeInts(long size) {
+
+        if (size % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("Binary input of " + size + " bytes is not a whole number of int32 " +
+                    "values");
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Binary input of " + size + " bytes exceeds the 2 GiB limit");
+        }
+    }
+}
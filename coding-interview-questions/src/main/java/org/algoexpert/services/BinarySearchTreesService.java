@@ -1,30 +1,38 @@
 package org.algoexpert.services;
 
 import lombok.extern.slf4j.Slf4j;
-import org.algoexpert.algorithms.binarysearchtrees.easy.FindClosestValueInBST;
+import org.algoexpert.algorithms.binarysearchtrees.easy.FrozenBST;
 import org.algoexpert.algorithms.binarysearchtrees.hard.SameBSTs;
 import org.algoexpert.algorithms.binarysearchtrees.medium.ConstructBST;
 import org.algoexpert.algorithms.binarysearchtrees.veryhard.RightSmallerThan;
 import org.algoexpert.algorithms.binarysearchtrees.veryhard.SameBSTsOptimized;
+import org.algoexpert.dtos.ArrayInput;
+import org.algoexpert.dtos.ArrayPairInput;
+import org.algoexpert.dtos.BstOperationsInput;
+import org.algoexpert.dtos.BstTargetInput;
+import org.algoexpert.registry.AlgorithmProvider;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.utils.BinaryTreeSerializer;
+import org.algoexpert.utils.IntTokenizer;
 import org.algoexpert.utils.LoggerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.algoexpert.utils.AlgorithmNames.*;
+import static org.algoexpert.utils.DataStructureCategories.BINARY_SEARCH_TREES;
 
 /**
  * Service class for executing binarySearchTree-related algorithms.
  * <p>
- * This class provides methods to execute various algorithms related to binarySearchTrees. It includes methods to
- * execute the different algorithms and a method to execute an algorithm based on the provided algorithm name.
+ * This class provides methods to execute various algorithms related to binarySearchTrees, and registers each of them
+ * with the {@link AlgorithmRegistry} together with the reader that prompts for its input on the console.
  * </p>
  * <p>
  * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
@@ -36,11 +44,11 @@ import static org.algoexpert.utils.AlgorithmNames.*;
 
 @Service
 @Slf4j
-public class BinarySearchTreesService {
+public class BinarySearchTreesService implements AlgorithmProvider {
 
     private final LoggerUtil loggerUtil;
     private static final Logger LOGGER = LoggerFactory.getLogger(BinarySearchTreesService.class);
-    private final BufferedReader bufferedReader;
+    private final IntTokenizer intTokenizer;
 
     /**
      * Constructs an instance of the BinarySearchTreesService.
@@ -51,306 +59,255 @@ public class BinarySearchTreesService {
      * </p>
      *
      * @param loggerUtil an instance of {@link LoggerUtil} used for logging prompts and warnings
-     * @param bufferedReader the BufferedReader instance for reading input
+     * @param intTokenizer the IntTokenizer instance for reading input
      */
     @Autowired
-    public BinarySearchTreesService(LoggerUtil loggerUtil, BufferedReader bufferedReader) {
+    public BinarySearchTreesService(LoggerUtil loggerUtil, IntTokenizer intTokenizer) {
         this.loggerUtil = loggerUtil;
-        this.bufferedReader = bufferedReader;
+        this.intTokenizer = intTokenizer;
     }
 
     /**
-     * Constructs a Binary Search Tree (BST) from an array of node values.
-     * <p>
-     * This method takes an array of integers representing the node values and constructs a BST by inserting each value
-     * into its appropriate position in the tree. The first value in the array is used as the root of the BST.
-     * </p>
+     * Registers the binarySearchTree-related algorithms with the algorithm registry.
      *
-     * @param bstNodes an array of integers representing the node values to be inserted into the BST
-     * @return the root node of the constructed BST
+     * @param registry the builder of the algorithm registry to register the algorithms with
      */
-    private FindClosestValueInBST.BST getBST(int[] bstNodes) {
-
-        FindClosestValueInBST.BST root = new FindClosestValueInBST.BST(bstNodes[0]);
-
-        for (int i = 1; i < bstNodes.length; i++) {
-            FindClosestValueInBST.BST currentNode = root;
-            FindClosestValueInBST.BST previousNode = null;
-
-            while (currentNode != null) {
-                previousNode = currentNode;
-                if (bstNodes[i] < currentNode.value) {
-                    currentNode = currentNode.left;
-                } else {
-                    currentNode = currentNode.right;
-                }
-            }
-
-            if (bstNodes[i] < previousNode.value) {
-                previousNode.left = new FindClosestValueInBST.BST(bstNodes[i]);
-            } else {
-                previousNode.right = new FindClosestValueInBST.BST(bstNodes[i]);
-            }
-        }
-
-        return root;
+    @Override
+    public void registerAlgorithms(AlgorithmRegistry.Builder registry) {
+        registry.register(BINARY_SEARCH_TREES, FIND_CLOSEST_VALUE_IN_BST, BstTargetInput.class,
+                        this::readBstTargetInput, this::findClosestValueInBst)
+                .register(BINARY_SEARCH_TREES, CONSTRUCT_BST, BstOperationsInput.class,
+                        this::readBstOperationsInput, this::constructBst,
+                        bst -> BinaryTreeSerializer.toLevelOrder(bst, node -> node.value, node -> node.left,
+                                node -> node.right))
+                .register(BINARY_SEARCH_TREES, SAME_BSTS, ArrayPairInput.class, this::readArrayPairInput,
+                        this::sameBsts)
+                .register(BINARY_SEARCH_TREES, SAME_BSTS_OPTIMIZED, ArrayPairInput.class, this::readArrayPairInput,
+                        this::sameBstsOptimized)
+                .register(BINARY_SEARCH_TREES, RIGHT_SMALLER_THAN, ArrayInput.class, this::readArrayInput,
+                        this::rightSmallerThan)
+                .registerBinaryInput(BINARY_SEARCH_TREES, RIGHT_SMALLER_THAN,
+                        (array, targetSum) -> rightSmallerThan(array));
     }
 
     /**
-     * Executes the specified algorithm based on the provided algorithm name.
+     * Finds the value in the BST built from the provided node values that is closest to the provided target value.
      * <p>
-     * This method uses a switch statement to determine which algorithm to execute based on the given algorithm name.
-     * If the algorithm name does not match any known algorithms, it logs that the algorithm is not available.
+     * The BST is frozen straight from the node values into a {@link FrozenBST}, without linking a node per value, so
+     * it is built in linear time and searched in logarithmic time whatever the order the values are inserted in.
      * </p>
      *
-     * @param algorithmName the name of the algorithm to execute
+     * @param input the node values, in insertion order, and the target value
+     * @return the value in the BST that is closest to the target value, the smaller one if two values are as close
+     * @throws IllegalArgumentException if no node values are provided
      */
-    public boolean executeAlgorithm(String algorithmName) {
-
-        switch (algorithmName) {
-            case FIND_CLOSEST_VALUE_IN_BST:
-                try {
-                    executeFindClosestValueInBst();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, FIND_CLOSEST_VALUE_IN_BST);
-                    return false;
-                }
-                break;
-            case CONSTRUCT_BST:
-                try {
-                    executeConstructBst();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, CONSTRUCT_BST);
-                    return false;
-                }
-                break;
-            case SAME_BSTS:
-                try {
-                    executeSameBsts();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, SAME_BSTS);
-                    return false;
-                }
-                break;
-            case SAME_BSTS_OPTIMIZED:
-                try {
-                    executeSameBstsOptimized();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, SAME_BSTS_OPTIMIZED);
-                    return false;
-                }
-                break;
-            case RIGHT_SMALLER_THAN:
-                try {
-                    executeRightSmallerThan();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, RIGHT_SMALLER_THAN);
-                    return false;
-                }
-                break;
-            default:
-                LOGGER.info("Algorithm not available");
+    public int findClosestValueInBst(BstTargetInput input) {
+
+        if (input.getTree() == null || input.getTree().length == 0) {
+            throw new IllegalArgumentException("\"tree\" must contain at least one node");
         }
 
-        return true;
+        return FrozenBST.of(input.getTree()).findClosestValue(input.getTarget());
     }
 
     /**
-     * Executes the "Find Closest Value in BST" algorithm.
-     * <p>
-     * This method reads the number of nodes, the values of the nodes, and the target value from the standard input.
-     * It constructs a Binary Search Tree (BST) from the node values and then finds the value in the BST that is closest
-     * to the target value using the {@link FindClosestValueInBST#findClosestValueInBst(FindClosestValueInBST.BST, int)}
-     * method. The result is logged to the console.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
-     * </p>
+     * Constructs a BST by performing the provided operations in sequence.
+     *
+     * @param input the operations to perform on the BST
+     * @return the constructed BST, or null if it has no nodes after applying all the operations
+     * @throws IllegalArgumentException if the operations are not provided or an invalid operation is encountered
      */
-    private void executeFindClosestValueInBst() {
-
-        try {
-            LOGGER.info("Enter the number of nodes in the BST");
-            int n = Integer.parseInt(bufferedReader.readLine());
-
-            int[] bstNodes = new int[n];
-            LOGGER.info("Enter the values of the nodes in the BST");
-            for (int i = 0; i < n; i++) {
-                LOGGER.info("Enter the value of node {}", i + 1);
-                bstNodes[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            FindClosestValueInBST.BST tree = getBST(bstNodes);
-            LOGGER.info("Enter the target value");
-            int target = Integer.parseInt(bufferedReader.readLine());
-
-            int closestValue = new FindClosestValueInBST().findClosestValueInBst(tree, target);
-            LOGGER.info("The value in the BST that is closest to the target value is: {}", closestValue);
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+    public ConstructBST.BST constructBst(BstOperationsInput input) {
+
+        if (input.getOperations() == null) {
+            throw new IllegalArgumentException("\"operations\" must be provided");
+        }
+
+        List<String[]> bstOperations = new ArrayList<>(input.getOperations().size());
+        for (BstOperationsInput.BstOperation operation : input.getOperations()) {
+            bstOperations.add(new String[]{operation.getOperation(), String.valueOf(operation.getValue())});
         }
+
+        return new ConstructBST().constructBst(bstOperations);
     }
 
     /**
-     * Executes the "Construct BST" algorithm.
-     * <p>
-     * This method reads the number of operations to perform on the Binary Search Tree (BST) and the details of each
-     * operation from the standard input. It constructs a BST by performing the specified operations in sequence.
-     * The operations can be "insert", "contains", or "remove". After performing all the operations, it logs the
-     * constructed BST.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
-     * </p>
+     * Determines if the two provided arrays represent the same BST.
+     *
+     * @param input the two arrays
+     * @return true if the two arrays represent the same BST, false otherwise
+     * @throws IllegalArgumentException if either array is not provided
      */
-    private void executeConstructBst() {
+    public boolean sameBsts(ArrayPairInput input) {
+        return new SameBSTs().sameBsts(toList(input.getArrayOne(), "arrayOne"),
+                toList(input.getArrayTwo(), "arrayTwo"));
+    }
 
-        try {
-            LOGGER.info("Enter the number of operations to perform on the BST");
-            int n = Integer.parseInt(bufferedReader.readLine());
+    /**
+     * Determines if the two provided arrays represent the same BST in optimized approach.
+     *
+     * @param input the two arrays
+     * @return true if the two arrays represent the same BST, false otherwise
+     * @throws IllegalArgumentException if either array is not provided
+     */
+    public boolean sameBstsOptimized(ArrayPairInput input) {
+        return new SameBSTsOptimized().sameBstsOptimized(toList(input.getArrayOne(), "arrayOne"),
+                toList(input.getArrayTwo(), "arrayTwo"));
+    }
 
-            LOGGER.info("Enter the {} operations to perform on the BST", n);
-            List<String[]> bstOperations = new ArrayList<>();
+    /**
+     * Finds the number of elements to the right of each element in the provided array that are smaller than it.
+     *
+     * @param input the array
+     * @return the count of smaller elements to the right for each element of the array
+     * @throws IllegalArgumentException if the array is not provided
+     */
+    public List<Integer> rightSmallerThan(ArrayInput input) {
+        return new RightSmallerThan().rightSmallerThan(toList(input.getArray(), "array"));
+    }
 
-            for (int i = 0; i < n; i++) {
-                LOGGER.info("Enter the operation to perform (insert, contains, or remove)");
-                String operation = bufferedReader.readLine();
+    /**
+     * Finds the number of elements to the right of each element in the provided binary array that are smaller than
+     * it, reading the array in place.
+     *
+     * @param array the array
+     * @return the count of smaller elements to the right for each element of the array
+     */
+    public List<Integer> rightSmallerThan(IntBuffer array) {
+        return new RightSmallerThan().rightSmallerThan(array);
+    }
 
-                LOGGER.info("Enter the value to perform the operation on");
-                String value = bufferedReader.readLine();
+    /**
+     * Converts an input array into a list of boxed integers, as expected by the BST algorithms.
+     *
+     * @param array the input array
+     * @param fieldName the name of the JSON field holding the array, used in the error message
+     * @return a list with the elements of the array
+     * @throws IllegalArgumentException if the array is null
+     */
+    private static List<Integer> toList(int[] array, String fieldName) {
 
-                bstOperations.add(new String[]{operation, value});
-            }
+        if (array == null) {
+            throw new IllegalArgumentException("\"" + fieldName + "\" must be provided");
+        }
 
-            ConstructBST.BST bst = new ConstructBST().constructBst(bstOperations);
-            if (bst != null) {
-                LOGGER.info("BST constructed successfully: {}", bst);
-            } else {
-                LOGGER.info("The Constructed BST has no nodes to display, after applying all the operations");
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+        List<Integer> list = new ArrayList<>(array.length);
+        for (int element : array) {
+            list.add(element);
         }
+        return list;
     }
 
     /**
-     * Executes the "Same BSTs" algorithm.
+     * Reads the input of the "Find Closest Value in BST" algorithm from the standard input.
      * <p>
-     * This method reads the sizes and elements of two arrays from the standard input. It then checks if the two arrays
-     * represent the same Binary Search Tree (BST) using the {@link SameBSTs#sameBsts(List, List)} method. The result is
-     * logged to the console.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method reads the number of nodes, the values of the nodes in insertion order, and the target value.
      * </p>
+     *
+     * @return the node values and the target value
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeSameBsts() {
-
-        try {
-            loggerUtil.promptToEnterFirstArraySize(LOGGER);
-            int n = Integer.parseInt(bufferedReader.readLine());
-
-            Integer[] arrayOne = new Integer[n];
-            loggerUtil.promptToEnterFirstArrayElements(LOGGER);
-            for (int i = 0; i < n; i++) {
-                arrayOne[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            loggerUtil.promptToEnterSecondArraySize(LOGGER);
-            int m = Integer.parseInt(bufferedReader.readLine());
-
-            Integer[] arrayTwo = new Integer[m];
-            loggerUtil.promptToEnterSecondArrayElements(LOGGER);
-            for (int i = 0; i < m; i++) {
-                arrayTwo[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            boolean result = new SameBSTs().sameBsts(List.of(arrayOne), List.of(arrayTwo));
-            if (result) {
-                loggerUtil.infoConfirmBST(LOGGER);
-            } else {
-                loggerUtil.infoConfirmNotBST(LOGGER);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+    private BstTargetInput readBstTargetInput() throws IOException {
+
+        LOGGER.info("Enter the number of nodes in the BST");
+        int n = intTokenizer.nextInt();
+
+        int[] bstNodes = new int[n];
+        LOGGER.info("Enter the values of the nodes in the BST");
+        for (int i = 0; i < n; i++) {
+            LOGGER.info("Enter the value of node {}", i + 1);
+            bstNodes[i] = intTokenizer.nextInt();
         }
+
+        LOGGER.info("Enter the target value");
+        int target = intTokenizer.nextInt();
+
+        return new BstTargetInput(bstNodes, target);
     }
 
     /**
-     * Executes the "Same BSTs Optimized" algorithm.
+     * Reads the input of the "Construct BST" algorithm from the standard input.
      * <p>
-     * This method reads the sizes and elements of two arrays from the standard input. It then checks if the two arrays
-     * represent the same Binary Search Tree (BST) using the {@link SameBSTsOptimized#sameBstsOptimized(List, List)}
-     * method. The result is logged to the console.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method reads the number of operations to perform on the BST and the details of each operation. The
+     * operations can be "insert", "contains", or "remove".
      * </p>
+     *
+     * @return the operations to perform on the BST
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeSameBstsOptimized() {
-
-        try {
-            loggerUtil.promptToEnterFirstArraySize(LOGGER);
-            int n = Integer.parseInt(bufferedReader.readLine());
-
-            Integer[] arrayOne = new Integer[n];
-            loggerUtil.promptToEnterFirstArrayElements(LOGGER);
-            for (int i = 0; i < n; i++) {
-                arrayOne[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            loggerUtil.promptToEnterSecondArraySize(LOGGER);
-            int m = Integer.parseInt(bufferedReader.readLine());
-
-            Integer[] arrayTwo = new Integer[m];
-            loggerUtil.promptToEnterSecondArrayElements(LOGGER);
-            for (int i = 0; i < m; i++) {
-                arrayTwo[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            boolean result = new SameBSTsOptimized().sameBstsOptimized(List.of(arrayOne), List.of(arrayTwo));
-            if (result) {
-                loggerUtil.infoConfirmBST(LOGGER);
-            } else {
-                loggerUtil.infoConfirmNotBST(LOGGER);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+    private BstOperationsInput readBstOperationsInput() throws IOException {
+
+        LOGGER.info("Enter the number of operations to perform on the BST");
+        int n = intTokenizer.nextInt();
+
+        LOGGER.info("Enter the {} operations to perform on the BST", n);
+        List<BstOperationsInput.BstOperation> bstOperations = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            LOGGER.info("Enter the operation to perform (insert, contains, or remove)");
+            String operation = intTokenizer.nextToken();
+
+            LOGGER.info("Enter the value to perform the operation on");
+            int value = intTokenizer.nextInt();
+
+            bstOperations.add(new BstOperationsInput.BstOperation(operation, value));
         }
+
+        return new BstOperationsInput(bstOperations);
     }
 
     /**
-     * Executes the "Right Smaller Than" algorithm.
+     * Reads the input of the "Same BSTs" and "Same BSTs Optimized" algorithms from the standard input.
      * <p>
-     * This method reads the size and elements of an array from the standard input. It then finds the number of elements
-     * to the right of each element in the array that are smaller than the element itself using the
-     * {@link RightSmallerThan#rightSmallerThan(List)} method. The result is logged to the console.
+     * This method reads the size and the elements of the first array, followed by those of the second array.
      * </p>
+     *
+     * @return the two arrays
+     * @throws IOException if an error occurs while reading the input
+     */
+    private ArrayPairInput readArrayPairInput() throws IOException {
+
+        loggerUtil.promptToEnterFirstArraySize(LOGGER);
+        int n = intTokenizer.nextInt();
+
+        int[] arrayOne = new int[n];
+        loggerUtil.promptToEnterFirstArrayElements(LOGGER);
+        for (int i = 0; i < n; i++) {
+            arrayOne[i] = intTokenizer.nextInt();
+        }
+
+        loggerUtil.promptToEnterSecondArraySize(LOGGER);
+        int m = intTokenizer.nextInt();
+
+        int[] arrayTwo = new int[m];
+        loggerUtil.promptToEnterSecondArrayElements(LOGGER);
+        for (int i = 0; i < m; i++) {
+            arrayTwo[i] = intTokenizer.nextInt();
+        }
+
+        return new ArrayPairInput(arrayOne, arrayTwo);
+    }
+
+    /**
+     * Reads the input of the "Right Smaller Than" algorithm from the standard input.
      * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method reads the size and the elements of an array.
      * </p>
+     *
+     * @return the array
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeRightSmallerThan() {
-
-        try {
-            loggerUtil.promptToEnterArraySize(LOGGER);
-            int n = Integer.parseInt(bufferedReader.readLine());
-
-            Integer[] array = new Integer[n];
-            loggerUtil.promptToEnterArrayElements(LOGGER);
-
-            for (int i = 0; i < n; i++) {
-                array[i] = Integer.parseInt(bufferedReader.readLine());
-            }
-
-            List<Integer> result = new RightSmallerThan().rightSmallerThan(Arrays.asList(array));
-            if (result.isEmpty()) {
-                LOGGER.info("No such elements present, as the input array is sorted in ascending order");
-            } else {
-                LOGGER.info("Right Smaller Counts: {}", result);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+    private ArrayInput readArrayInput() throws IOException {
+
+        loggerUtil.promptToEnterArraySize(LOGGER);
+        int n = intTokenizer.nextInt();
+
+        int[] array = new int[n];
+        loggerUtil.promptToEnterArrayElements(LOGGER);
+        for (int i = 0; i < n; i++) {
+            array[i] = intTokenizer.nextInt();
         }
+
+        return new ArrayInput(array);
     }
 }
@@ -4,24 +4,30 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.algoexpert.algorithms.binarytrees.easy.BranchSums;
 import org.algoexpert.algorithms.binarytrees.medium.InvertBinaryTree;
+import org.algoexpert.dtos.BinaryTreeInput;
+import org.algoexpert.registry.AlgorithmProvider;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.utils.BinaryTreeSerializer;
+import org.algoexpert.utils.IntTokenizer;
 import org.algoexpert.utils.LoggerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.algoexpert.utils.AlgorithmNames.BRANCH_SUMS;
 import static org.algoexpert.utils.AlgorithmNames.INVERT_BINARY_TREE;
+import static org.algoexpert.utils.DataStructureCategories.BINARY_TREES;
 
 /**
  * Service class for executing binaryTree-related algorithms.
  * <p>
- * This class provides methods to execute various algorithms related to binaryTrees. It includes methods to
- * execute the different algorithms and a method to execute an algorithm based on the provided algorithm name.
+ * This class provides methods to execute various algorithms related to binaryTrees, and registers each of them with
+ * the {@link AlgorithmRegistry} together with the reader that prompts for its input on the console.
  * </p>
  * <p>
  * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
@@ -33,11 +39,11 @@ import static org.algoexpert.utils.AlgorithmNames.INVERT_BINARY_TREE;
 
 @Service
 @Slf4j
-public class BinaryTreesService {
+public class BinaryTreesService implements AlgorithmProvider {
 
     private final LoggerUtil loggerUtil;
     private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTreesService.class);
-    private final BufferedReader bufferedReader;
+    private final IntTokenizer intTokenizer;
 
     /**
      * Constructs an instance of the BinaryTreesService.
@@ -48,12 +54,12 @@ public class BinaryTreesService {
      * </p>
      *
      * @param loggerUtil an instance of {@link LoggerUtil} used for logging prompts and warnings
-     * @param bufferedReader the BufferedReader instance for reading input
+     * @param intTokenizer the IntTokenizer instance for reading input
      */
     @Autowired
-    public BinaryTreesService(LoggerUtil loggerUtil, BufferedReader bufferedReader) {
+    public BinaryTreesService(LoggerUtil loggerUtil, IntTokenizer intTokenizer) {
         this.loggerUtil = loggerUtil;
-        this.bufferedReader = bufferedReader;
+        this.intTokenizer = intTokenizer;
     }
 
     /**
@@ -137,115 +143,89 @@ public class BinaryTreesService {
     }
 
     /**
-     * Executes the specified algorithm based on the provided algorithm name.
-     * <p>
-     * This method uses a switch statement to determine which algorithm to execute based on the given algorithm name.
-     * If the algorithm name does not match any known algorithms, it logs that the algorithm is not available.
-     * </p>
+     * Registers the binaryTree-related algorithms with the algorithm registry.
      *
-     * @param algorithmName the name of the algorithm to execute
+     * @param registry the builder of the algorithm registry to register the algorithms with
      */
-    public boolean executeAlgorithm(String algorithmName) {
-
-        switch (algorithmName) {
-            case BRANCH_SUMS:
-                try {
-                    executeBranchSums();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, BRANCH_SUMS);
-                    return false;
-                }
-                break;
-            case INVERT_BINARY_TREE:
-                try {
-                    executeInvertBinaryTree();
-                } catch (RuntimeException e) {
-                    loggerUtil.warnErrorWhileExecutingAlgorithm(LOGGER, INVERT_BINARY_TREE);
-                    return false;
-                }
-                break;
-            default:
-                LOGGER.info("Algorithm not available");
+    @Override
+    public void registerAlgorithms(AlgorithmRegistry.Builder registry) {
+        registry.register(BINARY_TREES, BRANCH_SUMS, BinaryTreeInput.class, this::readBinaryTreeInput,
+                        this::branchSums)
+                .register(BINARY_TREES, INVERT_BINARY_TREE, BinaryTreeInput.class, this::readBinaryTreeInput,
+                        this::invertBinaryTree, tree -> BinaryTreeSerializer.toLevelOrder(tree, node -> node.value,
+                                node -> node.left, node -> node.right));
+    }
+
+    /**
+     * Calculates the branch sums of the binary tree built from the provided level-order node values.
+     *
+     * @param input the node values in level order
+     * @return the branch sums ordered from the leftmost to the rightmost branch, or an empty list for an empty tree
+     * @throws IllegalArgumentException if the node values are not provided
+     */
+    public List<Integer> branchSums(BinaryTreeInput input) {
+
+        BranchSums.BinaryTree binaryTree = getBinaryTreeForBranchSums(requireTree(input.getTree()));
+        if (binaryTree == null) {
+            loggerUtil.warnEmptyBinaryTree(LOGGER);
+            return new ArrayList<>();
         }
 
-        return true;
+        return new BranchSums().branchSums(binaryTree);
     }
 
     /**
-     * Executes the Branch Sums algorithm on a binary tree.
-     * <p>
-     * This method prompts the user to enter the number of nodes in the binary tree and their values. It then constructs
-     * the binary tree using the provided values and calculates the branch sums. The branch sums are logged as output.
-     * </p>
-     * <p>
-     * If an empty binary tree is provided, a warning is logged. If an error occurs while reading input, a warning is
-     * logged with the error details.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
-     * </p>
+     * Inverts the binary tree built from the provided level-order node values.
+     *
+     * @param input the node values in level order
+     * @return the root of the inverted binary tree, or null for an empty tree
+     * @throws IllegalArgumentException if the node values are not provided
      */
-    private void executeBranchSums() {
+    public InvertBinaryTree.BinaryTree invertBinaryTree(BinaryTreeInput input) {
 
-        try {
-            loggerUtil.promptToEnterNumberOfNodesInBinaryTree(LOGGER);
-            int n = Integer.parseInt(bufferedReader.readLine());
+        InvertBinaryTree.BinaryTree binaryTree = getBinaryTreeForInvertBinaryTree(requireTree(input.getTree()));
+        if (binaryTree == null) {
+            loggerUtil.warnEmptyBinaryTree(LOGGER);
+            return null;
+        }
 
-            int[] binaryTreeNodes = new int[n];
-            loggerUtil.promptToEnterValuesOfNodesInBinaryTree(LOGGER, n);
-            for (int i = 0; i < n; i++) {
-                binaryTreeNodes[i] = Integer.parseInt(bufferedReader.readLine());
-            }
+        return new InvertBinaryTree().invertBinaryTree(binaryTree);
+    }
 
-            BranchSums.BinaryTree binaryTree = getBinaryTreeForBranchSums(binaryTreeNodes);
-            if (binaryTree != null) {
-                List<Integer> branchSums = new BranchSums().branchSums(binaryTree);
-                LOGGER.info("The branch sums for the provided Binary Tree are {}", branchSums);
-            } else {
-                loggerUtil.warnEmptyBinaryTree(LOGGER);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+    /**
+     * Validates that the node values of a binary tree were provided.
+     *
+     * @param binaryTreeNodes the node values in level order
+     * @return the same node values
+     * @throws IllegalArgumentException if the node values are null
+     */
+    private static int[] requireTree(int[] binaryTreeNodes) {
+        if (binaryTreeNodes == null) {
+            throw new IllegalArgumentException("\"tree\" must be provided");
         }
+        return binaryTreeNodes;
     }
 
     /**
-     * Executes the Invert Binary Tree algorithm on a binary tree.
-     * <p>
-     * This method prompts the user to enter the number of nodes in the binary tree and their values. It then constructs
-     * the binary tree using the provided values and inverts the binary tree. The original and inverted binary trees are
-     * logged as output.
-     * </p>
+     * Reads the input of the "Branch Sums" and "Invert Binary Tree" algorithms from the standard input.
      * <p>
-     * If an empty binary tree is provided, a warning is logged. If an error occurs while reading input, a warning is
-     * logged with the error details.
-     * </p>
-     * <p>
-     * The method handles any {@link IOException} that may occur during input reading and logs an error message.
+     * This method prompts the user to enter the number of nodes in the binary tree and their values in level order.
      * </p>
+     *
+     * @return the node values in level order
+     * @throws IOException if an error occurs while reading the input
      */
-    private void executeInvertBinaryTree() {
-
-        try {
-            loggerUtil.promptToEnterNumberOfNodesInBinaryTree(LOGGER);
-            int n = Integer.parseInt(bufferedReader.readLine());
+    private BinaryTreeInput readBinaryTreeInput() throws IOException {
 
-            int[] binaryTreeNodes = new int[n];
-            loggerUtil.promptToEnterValuesOfNodesInBinaryTree(LOGGER, n);
-            for (int i = 0; i < n; i++) {
-                binaryTreeNodes[i] = Integer.parseInt(bufferedReader.readLine());
-            }
+        loggerUtil.promptToEnterNumberOfNodesInBinaryTree(LOGGER);
+        int n = intTokenizer.nextInt();
 
-            InvertBinaryTree.BinaryTree binaryTree = getBinaryTreeForInvertBinaryTree(binaryTreeNodes);
-            if (binaryTree != null) {
-                LOGGER.info("Provided Binary Tree: {}", binaryTree);
-                InvertBinaryTree.BinaryTree invertedBinaryTree = new InvertBinaryTree().invertBinaryTree(binaryTree);
-                LOGGER.info("The inverted Binary Tree is: {}", invertedBinaryTree);
-            } else {
-                loggerUtil.warnEmptyBinaryTree(LOGGER);
-            }
-        } catch (IOException e) {
-            loggerUtil.warnErrorWhileReadingInput(LOGGER, e);
+        int[] binaryTreeNodes = new int[n];
+        loggerUtil.promptToEnterValuesOfNodesInBinaryTree(LOGGER, n);
+        for (int i = 0; i < n; i++) {
+            binaryTreeNodes[i] = intTokenizer.nextInt();
         }
+
+        return new BinaryTreeInput(binaryTreeNodes);
     }
 }
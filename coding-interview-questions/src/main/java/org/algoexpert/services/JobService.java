@@ -0,0 +1,507 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.algoexpert.configs.JobProperties;
+import org.algoexpert.dtos.JobStatus;
+import org.algoexpert.execution.CancellationToken;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class executing long-running algorithms as asynchronous jobs.
+ * <p>
+ * Submitting a job persists its JSON input and its status to the configured job directory and queues it, so the
+ * caller gets a job id back straight away instead of holding a connection open for the whole execution. A fixed pool
+ * of workers executes the queued jobs in submission order, writing each result to a file in the job directory as it
+ * is computed, which lets callers stream the partial result of a running job. Queued and running jobs are recovered
+ * from the job directory and queued again on startup, and finished jobs are deleted once their result TTL expires.
+ * </p>
+ * <p>
+ * Cancelling a running job cancels the {@link CancellationToken} bound to its worker, and the algorithm stops at its
+ * next checkpoint.
+ * </p>
+ * <p>
+ * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
+ * Spring service component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Service
+@Slf4j
+public class JobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobService.class);
+    private static final String STATUS_SUFFIX = ".status.json";
+    private static final String INPUT_SUFFIX = ".input.json";
+    private static final String RESULT_SUFFIX = ".result.json";
+    private static final long RESULT_POLL_INTERVAL_MILLIS = 100;
+    private static final Duration MAX_SWEEP_INTERVAL = Duration.ofMinutes(1);
+    private final AlgorithmRegistry algorithmRegistry;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int maxQueued;
+    private final Duration resultTtl;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * A job known to the service, with the token cancelling its execution.
+     */
+    private static final class Job {
+
+        private final JobStatus status;
+        private final CancellationToken cancellationToken = new CancellationToken();
+
+        /**
+         * Constructs a job.
+         *
+         * @param status the status of the job, guarded by the job itself
+         */
+        private Job(JobStatus status) {
+            this.status = status;
+        }
+
+        /**
+         * Returns a snapshot of the status of the job.
+         *
+         * @return a copy of the status of the job
+         */
+        private synchronized JobStatus snapshot() {
+            return new JobStatus(status.getId(), status.getDatastructureCategory(), status.getAlgorithmName(),
+                    status.getState(), status.getSubmittedAt(), status.getStartedAt(), status.getFinishedAt(),
+                    status.getError());
+        }
+    }
+
+    /**
+     * Constructs an instance of the JobService.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the service. It recovers the jobs persisted in the job directory, and starts
+     * the workers and the sweeper of expired jobs.
+     * </p>
+     *
+     * @param algorithmRegistry the registry used to resolve the algorithm of each job
+     * @param objectMapper the ObjectMapper instance for persisting the jobs and writing their results
+     * @param jobProperties the configuration properties of the jobs
+     * @throws IOException if the job directory cannot be created or read
+     */
+    @Autowired
+    public JobService(AlgorithmRegistry algorithmRegistry, ObjectMapper objectMapper, JobProperties jobProperties)
+            throws IOException {
+
+        this.algorithmRegistry = algorithmRegistry;
+        this.objectMapper = objectMapper;
+        this.directory = Files.createDirectories(Path.of(jobProperties.getDirectory()));
+        this.maxQueued = Math.max(1, jobProperties.getMaxQueued());
+        this.resultTtl = jobProperties.getResultTtl();
+
+        recoverJobs();
+
+        int workerCount = Math.max(1, jobProperties.getWorkers());
+        AtomicInteger workerIdx = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + workerIdx.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepIntervalMillis = Math.max(1, Math.min(resultTtl.toMillis(), MAX_SWEEP_INTERVAL.toMillis()));
+        sweeper.scheduleWithFixedDelay(this::deleteExpiredJobs, sweepIntervalMillis, sweepIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the workers and the sweeper when the application context is closed.
+     * <p>
+     * Running jobs are left in the running state, so they are queued again when the application restarts.
+     * </p>
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Submits an algorithm execution on a JSON input as a job.
+     *
+     * @param registration the registration of the algorithm
+     * @param input the JSON input of the algorithm
+     * @return the status of the queued job
+     * @throws IOException if the job cannot be persisted
+     * @throws RejectedExecutionException if the maximum number of jobs are already queued
+     */
+    public JobStatus submit(AlgorithmRegistration<?, ?> registration, JsonNode input) throws IOException {
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Job queue is full (" + maxQueued + " jobs queued)");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Job job = new Job(new JobStatus(id, registration.getCategory().getDisplayName(),
+                registration.getAlgorithmName(), JobStatus.State.QUEUED, Instant.now(), null, null, null));
+        try {
+            objectMapper.writeValue(getPath(id, INPUT_SUFFIX).toFile(), input);
+            persist(job.status);
+        } catch (IOException e) {
+            queued.decrementAndGet();
+            deleteFiles(id);
+            throw e;
+        }
+
+        jobs.put(id, job);
+        queue.add(id);
+
+        return job.snapshot();
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id the id of the job
+     * @return the status of the job, or null if no such job exists
+     */
+    public JobStatus getStatus(String id) {
+        Job job = jobs.get(id);
+        return job == null ? null : job.snapshot();
+    }
+
+    /**
+     * Cancels a job.
+     * <p>
+     * A queued job is cancelled immediately, and stops counting against the maximum number of queued jobs. A running
+     * job is cancelled through its cancellation token, and reaches the cancelled state once its algorithm reaches its
+     * next checkpoint. Finished jobs are left unchanged.
+     * </p>
+     *
+     * @param id the id of the job
+     * @return the status of the job after the cancellation request, or null if no such job exists
+     */
+    public JobStatus cancel(String id) {
+
+        Job job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+
+        synchronized (job) {
+            if (job.status.getState() == JobStatus.State.QUEUED) {
+                // The job no longer counts against the queue limit, even while its id waits for a busy worker
+                queued.decrementAndGet();
+                queue.remove(id);
+                finish(job, JobStatus.State.CANCELLED, null);
+            } else if (job.status.getState() == JobStatus.State.RUNNING) {
+                job.cancellationToken.cancel();
+            }
+        }
+
+        return job.snapshot();
+    }
+
+    /**
+     * Streams the result of a job as it is written, until the job finishes.
+     * <p>
+     * For a queued job, this waits until the job starts. For a running job, the part of the result written so far is
+     * streamed straight away, followed by the rest of the result as the job writes it. If the job fails or is
+     * cancelled while streaming, the stream ends with the partial result written until then.
+     * </p>
+     *
+     * @param id the id of the job
+     * @param outputStream the stream to write the result to
+     * @throws IOException if an error occurs while reading or writing the result
+     */
+    public void streamResult(String id, OutputStream outputStream) throws IOException {
+
+        Job job = jobs.get(id);
+        if (job == null) {
+            return;
+        }
+
+        Path resultPath = getPath(id, RESULT_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        FileChannel channel = null;
+        try {
+            while (true) {
+                // The state is read first, so that nothing written before the job finished is missed
+                JobStatus.State state = job.snapshot().getState();
+                if (channel == null && state != JobStatus.State.QUEUED && Files.exists(resultPath)) {
+                    channel = FileChannel.open(resultPath, StandardOpenOption.READ);
+                }
+                if (channel != null) {
+                    while (channel.read(buffer) > 0) {
+                        outputStream.write(buffer.array(), 0, buffer.position());
+                        buffer.clear();
+                    }
+                    outputStream.flush();
+                }
+                if (state.isFinished()) {
+                    return;
+                }
+                Thread.sleep(RESULT_POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while streaming the result of job " + id);
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Executes queued jobs one at a time, until the worker is interrupted.
+     * <p>
+     * The queued job count is decremented when a job leaves the queued state, by {@link #execute(Job)} or
+     * {@link #cancel(String)}, so the id of a job cancelled after being taken from the queue is simply skipped.
+     * </p>
+     */
+    private void runWorker() {
+
+        while (!Thread.currentThread().isInterrupted()) {
+            String id;
+            try {
+                id = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Job job = jobs.get(id);
+            if (job != null) {
+                execute(job);
+            }
+        }
+    }
+
+    /**
+     * Executes a job, unless it was cancelled while queued, and writes its result to its result file.
+     *
+     * @param job the job to execute
+     */
+    private void execute(Job job) {
+
+        String id;
+        synchronized (job) {
+            if (job.status.getState() != JobStatus.State.QUEUED) {
+                return;
+            }
+            queued.decrementAndGet();
+            job.status.setState(JobStatus.State.RUNNING);
+            job.status.setStartedAt(Instant.now());
+            persist(job.status);
+            id = job.status.getId();
+        }
+
+        job.cancellationToken.bind();
+        try (OutputStream outputStream = Files.newOutputStream(getPath(id, RESULT_SUFFIX))) {
+            AlgorithmRegistration<?, ?> registration = algorithmRegistry.find(job.status.getDatastructureCategory(),
+                    job.status.getAlgorithmName());
+            if (registration == null) {
+                throw new IllegalArgumentException("Algorithm \"" + job.status.getAlgorithmName() +
+                        "\" is no longer available");
+            }
+            JsonNode input = objectMapper.readTree(getPath(id, INPUT_SUFFIX).toFile());
+            // Results computed while they are serialized are also cancelled while being written
+            objectMapper.writeValue(outputStream, registration.executeJson(input));
+            finish(job, JobStatus.State.SUCCEEDED, null);
+        } catch (Exception e) {
+            if (job.cancellationToken.isCancelled()) {
+                finish(job, JobStatus.State.CANCELLED, null);
+            } else if (e instanceof IOException || e instanceof IllegalArgumentException) {
+                finish(job, JobStatus.State.FAILED, e.getMessage());
+            } else {
+                LOGGER.warn("Error while executing job {}", id, e);
+                finish(job, JobStatus.State.FAILED, "Error while executing algorithm \"" +
+                        job.status.getAlgorithmName() + "\"");
+            }
+        } finally {
+            CancellationToken.unbind();
+        }
+    }
+
+    /**
+     * Moves a job to a final state, persists it, and deletes its input, which is no longer needed. The partial result
+     * of a job that did not succeed is deleted as well, since it is never served.
+     *
+     * @param job the job
+     * @param state the final state of the job
+     * @param error the error that made the job fail, or null
+     */
+    private void finish(Job job, JobStatus.State state, String error) {
+
+        synchronized (job) {
+            job.status.setState(state);
+            job.status.setFinishedAt(Instant.now());
+            job.status.setError(error);
+            persist(job.status);
+        }
+
+        deleteFile(getPath(job.status.getId(), INPUT_SUFFIX));
+        if (state != JobStatus.State.SUCCEEDED) {
+            deleteFile(getPath(job.status.getId(), RESULT_SUFFIX));
+        }
+    }
+
+    /**
+     * Recovers the jobs persisted in the job directory.
+     * <p>
+     * Finished jobs are kept until their result TTL expires. Queued jobs, and jobs that were running when the
+     * application stopped, are queued again in their original submission order.
+     * </p>
+     *
+     * @throws IOException if the job directory cannot be read
+     */
+    private void recoverJobs() throws IOException {
+
+        List<Job> unfinishedJobs = new ArrayList<>();
+        try (DirectoryStream<Path> statusPaths = Files.newDirectoryStream(directory, "*" + STATUS_SUFFIX)) {
+            for (Path statusPath : statusPaths) {
+                JobStatus status;
+                try {
+                    status = objectMapper.readValue(statusPath.toFile(), JobStatus.class);
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping unreadable job status {}", statusPath, e);
+                    continue;
+                }
+                Job job = new Job(status);
+                jobs.put(status.getId(), job);
+                if (!status.getState().isFinished()) {
+                    status.setState(JobStatus.State.QUEUED);
+                    status.setStartedAt(null);
+                    unfinishedJobs.add(job);
+                }
+            }
+        }
+
+        unfinishedJobs.sort(Comparator.comparing(job -> job.status.getSubmittedAt()));
+        for (Job job : unfinishedJobs) {
+            if (Files.exists(getPath(job.status.getId(), INPUT_SUFFIX))) {
+                persist(job.status);
+                queued.incrementAndGet();
+                queue.add(job.status.getId());
+            } else {
+                finish(job, JobStatus.State.FAILED, "Input of the job was lost");
+            }
+        }
+        if (!jobs.isEmpty()) {
+            LOGGER.info("Recovered {} jobs, {} of them queued again", jobs.size(), queued.get());
+        }
+    }
+
+    /**
+     * Deletes the finished jobs whose result TTL has expired.
+     */
+    private void deleteExpiredJobs() {
+
+        Instant expiry = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            JobStatus status = job.snapshot();
+            if (status.getState().isFinished() && status.getFinishedAt().isBefore(expiry)) {
+                deleteFiles(status.getId());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Persists the status of a job, replacing its previous status atomically.
+     *
+     * @param status the status of the job
+     */
+    private void persist(JobStatus status) {
+
+        Path statusPath = getPath(status.getId(), STATUS_SUFFIX);
+        Path temporaryPath = statusPath.resolveSibling(statusPath.getFileName() + ".tmp");
+        try {
+            objectMapper.writeValue(temporaryPath.toFile(), status);
+            Files.move(temporaryPath, statusPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to persist the status of job {}", status.getId(), e);
+        }
+    }
+
+    /**
+     * Deletes every file of a job.
+     *
+     * @param id the id of the job
+     */
+    private void deleteFiles(String id) {
+        deleteFile(getPath(id, INPUT_SUFFIX));
+        deleteFile(getPath(id, RESULT_SUFFIX));
+        deleteFile(getPath(id, STATUS_SUFFIX));
+    }
+
+    /**
+     * Deletes a file, logging rather than failing if it cannot be deleted.
+     *
+     * @param path the path of the file
+     */
+    private static void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    /**
+     * Returns the path of a file of a job.
+     *
+     * @param id the id of the job
+     * @param suffix the suffix identifying the file
+     * @return the path of the file in the job directory
+     */
+    private Path getPath(String id, String suffix) {
+        return directory.resolve(id + suffix);
+    }
+}
@@ -0,0 +1,363 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.algoexpert.cache.CachedResult;
+import org.algoexpert.cache.ResultCacheKey;
+import org.algoexpert.cache.SegmentedLruCache;
+import org.algoexpert.configs.ResultCacheProperties;
+import org.algoexpert.dtos.ResultCacheStats;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.StreamedOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Service class caching the results of algorithm executions on JSON inputs.
+ * <p>
+ * Results are keyed by the data structure category and name of the algorithm, and the 64-bit fingerprint of the JSON
+ * input computed by {@link org.algoexpert.utils.JsonInputHasher}. They are held in a {@link SegmentedLruCache} in
+ * their serialized JSON form, weighted by its length, so the configured maximum memory bounds what the cache holds
+ * rather than the number of entries.
+ * </p>
+ * <p>
+ * Results too large to be cached are detected while serializing them, as soon as they exceed the maximum entry size,
+ * and are then returned uncached. A {@link StreamedOutput} is computed while it is serialized, so it is cached as it is
+ * written instead: its JSON text is copied aside while it is streamed to the response, and the copy is cached once the
+ * output is complete. The copy is dropped as soon as it exceeds the maximum entry size, without interrupting the
+ * output, and an output failing part way through is not cached.
+ * </p>
+ * <p>
+ * The counters of the cache are published with Micrometer, read from the cache whenever the meters are scraped:
+ * </p>
+ * <ul>
+ *     <li>{@code algoexpert.result.cache.gets}: the number of lookups, tagged with their {@code result}, a
+ *     {@code hit} or a {@code miss}</li>
+ *     <li>{@code algoexpert.result.cache.evictions}: the number of entries evicted to make room for others</li>
+ *     <li>{@code algoexpert.result.cache.size}: the number of cached results</li>
+ *     <li>{@code algoexpert.result.cache.weight}: the memory used by the cached results, and its maximum as
+ *     {@code algoexpert.result.cache.max.weight}</li>
+ * </ul>
+ * <p>
+ * The class uses the {@link Slf4j} annotation for logging and the {@link Service} annotation to indicate that it is a
+ * Spring service component.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@Service
+@Slf4j
+public class ResultCacheService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultCacheService.class);
+    // Approximate memory held by an entry besides its JSON: the key, the cached result and the map node
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final String GETS = "algoexpert.result.cache.gets";
+    private static final String EVICTIONS = "algoexpert.result.cache.evictions";
+    private static final String SIZE = "algoexpert.result.cache.size";
+    private static final String WEIGHT = "algoexpert.result.cache.weight";
+    private static final String MAX_WEIGHT = "algoexpert.result.cache.max.weight";
+    private final ObjectMapper objectMapper;
+    private final SegmentedLruCache<ResultCacheKey, CachedResult> cache;
+    private final long maximumEntrySize;
+
+    /**
+     * Constructs an instance of the ResultCacheService.
+     * <p>
+     * This constructor is annotated with {@link Autowired}, indicating that it should be used by Spring's dependency
+     * injection to create an instance of the service. The meters of the cache are registered only if the cache is
+     * enabled.
+     * </p>
+     *
+     * @param objectMapper the ObjectMapper instance for serializing the results
+     * @param resultCacheProperties the configuration properties of the result cache
+     * @param meterRegistry the registry to register the meters of the cache in
+     */
+    @Autowired
+    public ResultCacheService(ObjectMapper objectMapper, ResultCacheProperties resultCacheProperties,
+                              MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.maximumEntrySize = resultCacheProperties.getMaximumEntrySize().toBytes();
+        this.cache = resultCacheProperties.isEnabled()
+                ? new SegmentedLruCache<>(resultCacheProperties.getMaximumMemory().toBytes(),
+                maximumEntrySize + ENTRY_OVERHEAD_BYTES)
+                : null;
+        if (cache != null) {
+            registerMeters(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the cached result of an algorithm for an input.
+     *
+     * @param registration the registration of the algorithm
+     * @param inputHash the fingerprint of the JSON input
+     * @return the cached result, or null if the result is not cached or the cache is disabled
+     */
+    public CachedResult get(AlgorithmRegistration<?, ?> registration, long inputHash) {
+        return cache == null ? null : cache.get(new ResultCacheKey(registration.getCategory(),
+                registration.getAlgorithmName(), inputHash));
+    }
+
+    /**
+     * Executes an algorithm on a JSON input and caches its result.
+     *
+     * @param registration the registration of the algorithm
+     * @param input the JSON input of the algorithm
+     * @param inputHash the fingerprint of the JSON input
+     * @return the cached result, a streamed output caching its JSON text once it has been written if the algorithm
+     * streams its result, or the result as computed by the algorithm if it is too large to be cached or if the cache
+     * is disabled
+     * @throws IOException if the JSON input does not match the input expected by the algorithm, or the result cannot
+     * be serialized
+     */
+    public Object executeJson(AlgorithmRegistration<?, ?> registration, JsonNode input, long inputHash)
+            throws IOException {
+
+        Object result = registration.executeJson(input);
+        if (cache == null) {
+            return result;
+        }
+        ResultCacheKey key = new ResultCacheKey(registration.getCategory(), registration.getAlgorithmName(),
+                inputHash);
+        if (result instanceof StreamedOutput streamedOutput) {
+            return new StreamedOutput(generator -> writeAndCache(streamedOutput, generator, key));
+        }
+
+        BoundedStringWriter json = new BoundedStringWriter(maximumEntrySize);
+        try {
+            objectMapper.writeValue(json, result);
+        } catch (EntryTooLargeException e) {
+            LOGGER.debug("Result of algorithm \"{}\" exceeds {} bytes and is not cached",
+                    registration.getAlgorithmName(), maximumEntrySize);
+            return result;
+        }
+
+        CachedResult cachedResult = new CachedResult(json.toString());
+        cache.put(key, cachedResult, cachedResult.length() + ENTRY_OVERHEAD_BYTES);
+        return cachedResult;
+    }
+
+    /**
+     * Computes a streamed output into a generator, caching a copy of its JSON text once it is complete.
+     *
+     * @param output the streamed output to compute
+     * @param generator the generator to write the output with
+     * @param key the key to cache the output under
+     * @return the number of elements written
+     * @throws IOException if the output fails, or an error occurs while writing it
+     */
+    private long writeAndCache(StreamedOutput output, JsonGenerator generator, ResultCacheKey key)
+            throws IOException {
+
+        TeeWriter tee = new TeeWriter(generator, new BoundedStringWriter(maximumEntrySize));
+        JsonGenerator teeGenerator = objectMapper.createGenerator(tee);
+        long count = output.writeTo(teeGenerator);
+        teeGenerator.close();
+
+        if (tee.copy == null) {
+            LOGGER.debug("Streamed result of algorithm \"{}\" exceeds {} bytes and is not cached",
+                    key.getAlgorithmName(), maximumEntrySize);
+        } else {
+            CachedResult cachedResult = new CachedResult(tee.copy.toString());
+            cache.put(key, cachedResult, cachedResult.length() + ENTRY_OVERHEAD_BYTES);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the state of the result cache.
+     *
+     * @return the size, memory use, and hit, miss and eviction counts of the cache
+     */
+    public ResultCacheStats getStats() {
+
+        if (cache == null) {
+            return new ResultCacheStats(false, 0, 0, 0, 0, 0, 0);
+        }
+        return new ResultCacheStats(true, cache.size(), cache.weight(), cache.maxWeight(), cache.hits(),
+                cache.misses(), cache.evictions());
+    }
+
+    /**
+     * Registers the meters reading the counters of the cache.
+     *
+     * @param meterRegistry the registry to register the meters in
+     */
+    private void registerMeters(MeterRegistry meterRegistry) {
+
+        FunctionCounter.builder(GETS, cache, SegmentedLruCache::hits).description("Lookups of the result cache")
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder(GETS, cache, SegmentedLruCache::misses).description("Lookups of the result cache")
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder(EVICTIONS, cache, SegmentedLruCache::evictions).description("Results evicted " +
+                "from the result cache").register(meterRegistry);
+        Gauge.builder(SIZE, cache, SegmentedLruCache::size).description("Number of cached results")
+                .baseUnit("entries").register(meterRegistry);
+        Gauge.builder(WEIGHT, cache, SegmentedLruCache::weight).description("Memory used by the cached results")
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(MAX_WEIGHT, cache, SegmentedLruCache::maxWeight).description("Maximum memory used by the " +
+                "cached results").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Writer collecting characters into a string, which fails as soon as they exceed a maximum length.
+     */
+    private static final class BoundedStringWriter extends Writer {
+
+        private final StringBuilder characters = new StringBuilder();
+        private final long maximumLength;
+
+        /**
+         * Constructs a bounded string writer.
+         *
+         * @param maximumLength the maximum number of characters
+         */
+        private BoundedStringWriter(long maximumLength) {
+            this.maximumLength = maximumLength;
+        }
+
+        /**
+         * Appends characters to the string.
+         *
+         * @param buffer the characters to append
+         * @param offset the offset of the first character to append
+         * @param length the number of characters to append
+         * @throws EntryTooLargeException if the string would exceed the maximum length
+         */
+        @Override
+        public void write(char[] buffer, int offset, int length) throws EntryTooLargeException {
+            if (characters.length() + length > maximumLength) {
+                throw new EntryTooLargeException();
+            }
+            characters.append(buffer, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return characters.toString();
+        }
+    }
+
+    /**
+     * Writer forwarding the JSON text of a streamed output to the generator of the response as a raw value, while
+     * copying it into a bounded string until it exceeds the maximum entry size.
+     */
+    private static final class TeeWriter extends Writer {
+
+        private final JsonGenerator target;
+        private BoundedStringWriter copy;
+        private boolean first = true;
+        private char heldBackSurrogate;
+
+        /**
+         * Constructs a tee writer.
+         *
+         * @param target the generator writing the response
+         * @param copy the writer copying the JSON text, dropped once it is full
+         */
+        private TeeWriter(JsonGenerator target, BoundedStringWriter copy) {
+            this.target = target;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+
+            if (copy != null) {
+                try {
+                    copy.write(buffer, offset, length);
+                } catch (EntryTooLargeException e) {
+                    copy = null;
+                }
+            }
+            if (heldBackSurrogate != 0) {
+                char[] joined = new char[length + 1];
+                joined[0] = heldBackSurrogate;
+                System.arraycopy(buffer, offset, joined, 1, length);
+                heldBackSurrogate = 0;
+                buffer = joined;
+                offset = 0;
+                length++;
+            }
+            // The generator of the response cannot write a high surrogate apart from its low surrogate
+            if (length > 0 && Character.isHighSurrogate(buffer[offset + length - 1])) {
+                heldBackSurrogate = buffer[offset + length - 1];
+                length--;
+            }
+            forward(buffer, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (heldBackSurrogate != 0) {
+                forward(new char[]{heldBackSurrogate}, 0, 1);
+                heldBackSurrogate = 0;
+            }
+        }
+
+        /**
+         * Writes characters to the generator of the response.
+         *
+         * @param buffer the characters to write
+         * @param offset the offset of the first character to write
+         * @param length the number of characters to write
+         * @throws IOException if an error occurs while writing the characters
+         */
+        private void forward(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            // The first characters start the value, so the generator writes any separator the value needs
+            if (first) {
+                target.writeRawValue(buffer, offset, length);
+                first = false;
+            } else {
+                target.writeRaw(buffer, offset, length);
+            }
+        }
+    }
+
+    /**
+     * Exception aborting the serialization of a result too large to be cached.
+     */
+    private static final class EntryTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs the exception without a stack trace, as it is used for control flow only.
+         */
+        private EntryTooLargeException() {
+            super("Result too large to be cached", null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
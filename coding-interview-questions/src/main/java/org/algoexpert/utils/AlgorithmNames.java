@@ -3,7 +3,8 @@ package org.algoexpert.utils;
 /**
  * Utility class for storing algorithm names as constants.
  * <p>
- * This class contains constants representing the names of various algorithms.
+ * This class contains constants representing the names under which the various algorithms are registered with the
+ * {@link org.algoexpert.registry.AlgorithmRegistry}.
  * </p>
  *
  * @author Jitesh Shaw
@@ -14,6 +15,14 @@ public final class AlgorithmNames {
      * Constant representing the name of the "Two Number Sum" algorithm.
      */
     public static final String TWO_NUMBER_SUM = "twoNumberSum";
+    /**
+     * Constant representing the name of the mode of the "Two Number Sum" algorithm reporting every matching pair.
+     */
+    public static final String TWO_NUMBER_SUM_ALL_PAIRS = "twoNumberSumAllPairs";
+    /**
+     * Constant representing the name of the mode of the "Two Number Sum" algorithm counting the matching pairs.
+     */
+    public static final String TWO_NUMBER_SUM_COUNT = "twoNumberSumCount";
     /**
      * Constant representing the name of the "Three Number Sum" algorithm.
      */
@@ -22,10 +31,29 @@ public final class AlgorithmNames {
      * Constant representing the name of the "Four Number Sum" algorithm.
      */
     public static final String FOUR_NUMBER_SUM = "fourNumberSum";
+    /**
+     * Constant representing the name of the "K Sum" algorithm, generalizing the number sum algorithms to any number of
+     * numbers.
+     */
+    public static final String K_SUM = "kSum";
     /**
      * Constant representing the name of the "Apartment Hunting" algorithm.
      */
     public static final String APARTMENT_HUNTING = "apartmentHunting";
+    /**
+     * Constant representing the name of the mode of the "Apartment Hunting" algorithm keeping the best block up to date
+     * while the facilities of the blocks change.
+     */
+    public static final String APARTMENT_HUNTING_UPDATES = "apartmentHuntingUpdates";
+    /**
+     * Constant representing the name of the mode of the "Apartment Hunting" algorithm ranking the best blocks.
+     */
+    public static final String APARTMENT_HUNTING_RANKED = "apartmentHuntingRanked";
+    /**
+     * Constant representing the name of the variant of the "Apartment Hunting" algorithm ranking the blocks of a city
+     * grid.
+     */
+    public static final String APARTMENT_HUNTING_GRID = "apartmentHuntingGrid";
     /**
      * Constant representing the name of the "Find Closest Value In BST" algorithm.
      */
@@ -0,0 +1,84 @@
+package org.algoexpert.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Utility class for serializing binary trees into a compact, JSON-friendly representation.
+ * <p>
+ * The algorithm classes each declare their own binary tree node type, so the serializer accesses the nodes through
+ * functions rather than a shared node interface. Trees are serialized in level order, with a null entry for every
+ * missing child that precedes a present node, which is the same representation used by most online judges.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class BinaryTreeSerializer {
+
+    private BinaryTreeSerializer() {
+    }
+
+    /**
+     * Serializes a binary tree in level order.
+     * <p>
+     * For example, a root 1 with only a right child 3 is serialized as {@code [1, null, 3]}. Trailing null entries
+     * are trimmed, so a leaf is serialized as a single-element list and an empty tree as an empty list.
+     * </p>
+     *
+     * @param root the root of the binary tree, or null for an empty tree
+     * @param valueFunction the function returning the value of a node
+     * @param leftFunction the function returning the left child of a node
+     * @param rightFunction the function returning the right child of a node
+     * @param <T> the type of the binary tree nodes
+     * @return the node values in level order, with null entries for missing children
+     */
+    public static <T> List<Integer> toLevelOrder(T root, ToIntFunction<T> valueFunction, Function<T, T> leftFunction,
+                                                 Function<T, T> rightFunction) {
+
+        List<Integer> levelOrder = new ArrayList<>();
+        if (root == null) {
+            return levelOrder;
+        }
+
+        ArrayDeque<T> queue = new ArrayDeque<>();
+        queue.add(root);
+        levelOrder.add(valueFunction.applyAsInt(root));
+
+        while (!queue.isEmpty()) {
+            T node = queue.poll();
+            appendChild(leftFunction.apply(node), valueFunction, levelOrder, queue);
+            appendChild(rightFunction.apply(node), valueFunction, levelOrder, queue);
+        }
+
+        int size = levelOrder.size();
+        while (levelOrder.get(size - 1) == null) {
+            levelOrder.remove(--size);
+        }
+
+        return levelOrder;
+    }
+
+    /**
+     * Appends a child to the level-order serialization, and enqueues it for visiting its own children.
+     *
+     * @param child the child node, or null if it is missing
+     * @param valueFunction the function returning the value of a node
+     * @param levelOrder the node values serialized so far
+     * @param queue the nodes whose children are yet to be serialized
+     * @param <T> the type of the binary tree nodes
+     */
+    private static <T> void appendChild(T child, ToIntFunction<T> valueFunction, List<Integer> levelOrder,
+                                        ArrayDeque<T> queue) {
+
+        if (child == null) {
+            levelOrder.add(null);
+        } else {
+            levelOrder.add(valueFunction.applyAsInt(child));
+            queue.add(child);
+        }
+    }
+}
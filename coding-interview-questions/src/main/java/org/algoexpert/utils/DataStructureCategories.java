@@ -2,6 +2,9 @@ package org.algoexpert.utils;
 
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Enum representing various categories of data structures.
  * <p>
@@ -51,6 +54,14 @@ public enum DataStructureCategories {
     STRINGS("strings"),
     TRIES("tries");
 
+    private static final Map<String, DataStructureCategories> CATEGORIES_BY_DISPLAY_NAME = new HashMap<>();
+
+    static {
+        for (DataStructureCategories category : values()) {
+            CATEGORIES_BY_DISPLAY_NAME.put(category.displayName, category);
+        }
+    }
+
     private final String displayName;
 
     /**
@@ -72,11 +83,6 @@ public enum DataStructureCategories {
      * @return the enum constant with the specified display name, or null if no such constant exists
      */
     public static DataStructureCategories fromDisplayName(String displayName) {
-        for (DataStructureCategories category : DataStructureCategories.values()) {
-            if (category.getDisplayName().equals(displayName)) {
-                return category;
-            }
-        }
-        return null;
+        return CATEGORIES_BY_DISPLAY_NAME.get(displayName);
     }
 }
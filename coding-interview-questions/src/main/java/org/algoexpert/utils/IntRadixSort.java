@@ -0,0 +1,364 @@
+package org.algoexpert.utils;
+
+import org.algoexpert.execution.CancellationToken;
+
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Utility class for sorting int arrays with a least-significant-digit radix sort, without modifying them.
+ * <p>
+ * The elements of the source are copied into a scratch buffer and sorted there in four stable counting passes, one
+ * per byte of their value, from the least to the most significant one, so an array of {@code n} elements is sorted in
+ * {@code O(n)} time whatever its value range. The sign bit is flipped for the most significant byte, so negative
+ * values are ordered before positive ones. A pass is skipped when every element has the same byte at its position,
+ * which makes arrays of small values take a single pass or two. The source itself is only read, so arrays that are
+ * cached or shared between concurrent requests can be sorted without being copied defensively first.
+ * </p>
+ * <p>
+ * The scratch buffers are drawn from a single pool shared by every thread, and returned to it when the
+ * {@link Scratch} holding them is closed, so sorting arrays of similar lengths allocates no new array per sort. As the
+ * pool does not belong to any thread, executions running on virtual threads, which start on a new thread every time,
+ * reuse the buffers just as the workers of a fixed pool do. The pool is bounded globally: it holds at most
+ * {@value #MAX_POOLED_SCRATCHES} scratches, whose buffers hold at most {@value #MAX_POOLED_CAPACITY} elements in total,
+ * that is 32 MB for the pair of buffers, and buffers longer than that are never retained, so an occasional huge sort
+ * does not pin its memory forever. Once the pool is full, the scratches returned least recently are dropped first.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class IntRadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int PASSES = Integer.SIZE / RADIX_BITS;
+    private static final int SMALL_ARRAY_THRESHOLD = 256;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MAX_POOLED_CAPACITY = 1 << 22;
+    private static final int MAX_POOLED_SCRATCHES = 16;
+    /**
+     * Pooled scratches, from the most to the least recently returned one, guarded by the pool itself.
+     */
+    private static final ArrayDeque<Scratch> POOL = new ArrayDeque<>();
+    private static long pooledCapacity;
+
+    private IntRadixSort() {
+    }
+
+    /**
+     * Scratch buffers drawn from the shared pool, holding the result of a sort.
+     * <p>
+     * The sorted elements are held by the first {@link #length()} elements of {@link #array()}, which may be longer.
+     * The scratch must be closed once its content is no longer needed, ideally with a try-with-resources statement;
+     * its buffers must not be used once it is closed, since the next sort on any thread may reuse them.
+     * </p>
+     */
+    public static final class Scratch implements AutoCloseable {
+
+        private final int[] counts = new int[PASSES * RADIX];
+        private int[] array;
+        private int[] spare;
+        private int length;
+        private boolean open;
+
+        /**
+         * Constructs a scratch with buffers of the provided length.
+         *
+         * @param capacity the length of the buffers
+         */
+        private Scratch(int capacity) {
+            this.array = new int[capacity];
+            this.spare = new int[capacity];
+        }
+
+        /**
+         * Returns the buffer holding the sorted elements.
+         *
+         * @return the buffer, whose first {@link #length()} elements are the sorted elements
+         */
+        public int[] array() {
+            return array;
+        }
+
+        /**
+         * Returns a second buffer of the same length, free for any temporary use by the holder of the scratch.
+         *
+         * @return the spare buffer, whose content is undefined
+         */
+        public int[] spare() {
+            return spare;
+        }
+
+        /**
+         * Returns the number of sorted elements.
+         *
+         * @return the number of sorted elements
+         */
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Returns the buffers to the shared pool, unless they are too long to be retained, dropping the scratches
+         * returned least recently if the pool is then over its bounds.
+         */
+        @Override
+        public void close() {
+
+            if (!open) {
+                return;
+            }
+
+            open = false;
+            if (array.length > MAX_POOLED_CAPACITY) {
+                return;
+            }
+            synchronized (POOL) {
+                POOL.push(this);
+                pooledCapacity += array.length;
+                while (POOL.size() > MAX_POOLED_SCRATCHES || pooledCapacity > MAX_POOLED_CAPACITY) {
+                    pooledCapacity -= POOL.removeLast().array.length;
+                }
+            }
+        }
+
+        /**
+         * Exchanges the buffer holding the sorted elements with the spare one.
+         */
+        private void swap() {
+            int[] previousArray = array;
+            array = spare;
+            spare = previousArray;
+        }
+    }
+
+    /**
+     * Acquires scratch buffers of at least the provided length from the shared pool, allocating them only if the pool
+     * has none long enough.
+     * <p>
+     * The shortest pooled scratch long enough is taken, so the longer ones remain available to longer sorts.
+     * </p>
+     *
+     * @param length the number of elements the buffers must hold
+     * @return the open scratch, whose buffers have undefined content
+     */
+    public static Scratch acquire(int length) {
+
+        Scratch scratch = null;
+        synchronized (POOL) {
+            for (Scratch pooled : POOL) {
+                if (pooled.array.length >= length && (scratch == null || pooled.array.length < scratch.array.length)) {
+                    scratch = pooled;
+                }
+            }
+            if (scratch != null) {
+                POOL.remove(scratch);
+                pooledCapacity -= scratch.array.length;
+            }
+        }
+        if (scratch == null) {
+            scratch = new Scratch(length);
+        }
+        scratch.length = length;
+        scratch.open = true;
+
+        return scratch;
+    }
+
+    /**
+     * Sorts the elements of a buffer, from its current position to its limit, into scratch buffers.
+     *
+     * @param source the buffer holding the elements to sort, which is left unchanged
+     * @return the scratch holding the sorted elements, to be closed once they are no longer needed
+     */
+    public static Scratch sortedCopy(IntBuffer source) {
+
+        Scratch scratch = acquire(source.remaining());
+        try {
+            source.get(source.position(), scratch.array, 0, scratch.length);
+            sort(scratch);
+        } catch (RuntimeException | Error e) {
+            scratch.close();
+            throw e;
+        }
+
+        return scratch;
+    }
+
+    /**
+     * Sorts the elements of a buffer into scratch buffers exactly as {@link #sortedCopy(IntBuffer)}, but splits every
+     * pass across a fork-join pool.
+     * <p>
+     * The elements are split into contiguous chunks, one per unit of parallelism. Every pass counts the bytes of each
+     * chunk in parallel, derives from the counts the position where each chunk writes the elements with each byte
+     * value, so the pass remains stable, and scatters the chunks in parallel. Buffers too small to benefit from
+     * splitting are sorted sequentially.
+     * </p>
+     *
+     * @param source the buffer holding the elements to sort, which is left unchanged
+     * @param pool the fork-join pool to split the passes across, whose parallelism is the number of chunks
+     * @return the scratch holding the sorted elements, to be closed once they are no longer needed
+     */
+    public static Scratch sortedCopyParallel(IntBuffer source, ForkJoinPool pool) {
+
+        if (pool.getParallelism() <= 1 || source.remaining() < PARALLEL_THRESHOLD) {
+            return sortedCopy(source);
+        }
+
+        Scratch scratch = acquire(source.remaining());
+        try {
+            sortParallel(source, scratch, pool, CancellationToken.current());
+        } catch (RuntimeException | Error e) {
+            scratch.close();
+            throw e;
+        }
+
+        return scratch;
+    }
+
+    /**
+     * Sorts the elements held by a scratch.
+     *
+     * @param scratch the scratch whose array holds the elements to sort
+     */
+    private static void sort(Scratch scratch) {
+
+        int[] array = scratch.array;
+        int n = scratch.length;
+        if (n < SMALL_ARRAY_THRESHOLD) {
+            Arrays.sort(array, 0, n);
+            return;
+        }
+
+        int[] counts = scratch.counts;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < n; i++) {
+            int element = array[i];
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass * RADIX + digit(element, pass)]++;
+            }
+        }
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            CancellationToken.checkpoint();
+            int base = pass * RADIX;
+            if (counts[base + digit(scratch.array[0], pass)] == n) {
+                continue;
+            }
+            int offset = 0;
+            for (int value = 0; value < RADIX; value++) {
+                int count = counts[base + value];
+                counts[base + value] = offset;
+                offset += count;
+            }
+            int[] from = scratch.array;
+            int[] to = scratch.spare;
+            for (int i = 0; i < n; i++) {
+                int element = from[i];
+                to[counts[base + digit(element, pass)]++] = element;
+            }
+            scratch.swap();
+        }
+    }
+
+    /**
+     * Copies the elements of a buffer into a scratch and sorts them, splitting every pass into chunks processed in
+     * parallel.
+     *
+     * @param source the buffer holding the elements to sort
+     * @param scratch the scratch to sort the elements into
+     * @param pool the fork-join pool to split the passes across, whose parallelism is the number of chunks
+     * @param token the cancellation token of the calling execution, or null
+     */
+    private static void sortParallel(IntBuffer source, Scratch scratch, ForkJoinPool pool, CancellationToken token) {
+
+        int parallelism = pool.getParallelism();
+        int offset = source.position();
+        int n = scratch.length;
+        int chunkSize = (n + parallelism - 1) / parallelism;
+        int chunkCount = (n + chunkSize - 1) / chunkSize;
+
+        // The copy also counts every byte of every chunk, which provides the chunk counts of the first pass and the
+        // total counts that decide which passes can be skipped. A parallel stream runs on the pool of the task it is
+        // started from, so each step is submitted to the pool.
+        int[][] chunkCounts = new int[chunkCount][PASSES * RADIX];
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            CancellationToken.checkpoint(token);
+            int start = chunk * chunkSize;
+            int end = Math.min(n, start + chunkSize);
+            int[] array = scratch.array;
+            int[] counts = chunkCounts[chunk];
+            source.get(offset + start, array, start, end - start);
+            for (int i = start; i < end; i++) {
+                int element = array[i];
+                for (int pass = 0; pass < PASSES; pass++) {
+                    counts[pass * RADIX + digit(element, pass)]++;
+                }
+            }
+        })).join();
+
+        int[] totals = scratch.counts;
+        Arrays.fill(totals, 0);
+        for (int[] counts : chunkCounts) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+        }
+
+        boolean countsCurrent = true;
+        for (int pass = 0; pass < PASSES; pass++) {
+            CancellationToken.checkpoint(token);
+            int base = pass * RADIX;
+            if (totals[base + digit(scratch.array[0], pass)] == n) {
+                continue;
+            }
+
+            int currentPass = pass;
+            int[] from = scratch.array;
+            int[] to = scratch.spare;
+            if (!countsCurrent) {
+                pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                    int[] counts = chunkCounts[chunk];
+                    Arrays.fill(counts, base, base + RADIX, 0);
+                    for (int i = chunk * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++) {
+                        counts[base + digit(from[i], currentPass)]++;
+                    }
+                })).join();
+            }
+
+            int position = 0;
+            for (int value = 0; value < RADIX; value++) {
+                for (int[] counts : chunkCounts) {
+                    int count = counts[base + value];
+                    counts[base + value] = position;
+                    position += count;
+                }
+            }
+
+            pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int[] positions = chunkCounts[chunk];
+                for (int i = chunk * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++) {
+                    int element = from[i];
+                    to[positions[base + digit(element, currentPass)]++] = element;
+                }
+            })).join();
+            scratch.swap();
+            countsCurrent = false;
+        }
+    }
+
+    /**
+     * Returns the byte of an element sorted by a pass, with the sign bit flipped for the most significant byte.
+     *
+     * @param element the element
+     * @param pass the pass, from 0 for the least significant byte to 3 for the most significant one
+     * @return the byte of the element, from 0 to 255
+     */
+    private static int digit(int element, int pass) {
+        return ((element ^ Integer.MIN_VALUE) >>> (pass * RADIX_BITS)) & (RADIX - 1);
+    }
+}
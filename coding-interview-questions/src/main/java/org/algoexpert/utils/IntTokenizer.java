@@ -0,0 +1,225 @@
+package org.algoexpert.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level tokenizer for reading integers from an input stream.
+ * <p>
+ * Tokens are separated by any run of whitespace or commas, so the same input can be given one value per line, on a
+ * single line separated by spaces, or as a comma-separated list. Integers are parsed directly from the bytes of an
+ * internal buffer, without creating a {@link String} per token as {@code Integer.parseInt(reader.readLine())} does,
+ * which keeps reading arrays of millions of elements from being dominated by allocation.
+ * </p>
+ * <p>
+ * The tokenizer only reads from the underlying stream when its buffer is exhausted, and never reads past the
+ * separator that ends a token, so it does not block waiting for input that follows the last requested value on an
+ * interactive console. It is not thread-safe.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public class IntTokenizer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final InputStream inputStream;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private byte[] tokenBytes = new byte[16];
+
+    /**
+     * Constructs a tokenizer reading from the provided input stream.
+     *
+     * @param inputStream the input stream to read the tokens from
+     */
+    public IntTokenizer(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a tokenizer reading from the provided input stream with a buffer of the provided size.
+     *
+     * @param inputStream the input stream to read the tokens from
+     * @param bufferSize the size of the buffer, in bytes
+     */
+    public IntTokenizer(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Reads the next token as an int.
+     *
+     * @return the int value of the next token
+     * @throws EOFException if the end of the stream is reached before the next token
+     * @throws NumberFormatException if the next token is not a valid int
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    public int nextInt() throws IOException {
+
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of int range: " + value);
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Reads the next tokens as ints into the provided array, filling it completely.
+     *
+     * @param values the array to read the values into
+     * @return the same array
+     * @throws EOFException if the end of the stream is reached before the array is filled
+     * @throws NumberFormatException if one of the tokens is not a valid int
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    public int[] nextInts(int[] values) throws IOException {
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = nextInt();
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads the next token as a long.
+     * <p>
+     * The token is an optional sign followed by decimal digits. Its value is accumulated as a negative number, so that
+     * {@link Long#MIN_VALUE} can be parsed without overflowing.
+     * </p>
+     *
+     * @return the long value of the next token
+     * @throws EOFException if the end of the stream is reached before the next token
+     * @throws NumberFormatException if the next token is not a valid long
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    public long nextLong() throws IOException {
+
+        int b = skipSeparators();
+        boolean negative = b == '-';
+        if (negative || b == '+') {
+            b = read();
+        }
+        if (b < '0' || b > '9') {
+            throw new NumberFormatException("Expected a digit but found " + describe(b));
+        }
+
+        long limitValue = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limitValue / 10;
+        long value = 0;
+        while (b >= '0' && b <= '9') {
+            int digit = b - '0';
+            if (value < multiplyMin || value * 10 < limitValue + digit) {
+                throw new NumberFormatException("Value out of long range");
+            }
+            value = value * 10 - digit;
+            b = read();
+        }
+        if (!isSeparator(b)) {
+            throw new NumberFormatException("Expected a separator but found " + describe(b));
+        }
+
+        return negative ? value : -value;
+    }
+
+    /**
+     * Reads the next token as a string.
+     *
+     * @return the next token
+     * @throws EOFException if the end of the stream is reached before the next token
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    public String nextToken() throws IOException {
+
+        int b = skipSeparators();
+        int length = 0;
+        while (!isSeparator(b)) {
+            if (length == tokenBytes.length) {
+                tokenBytes = Arrays.copyOf(tokenBytes, length * 2);
+            }
+            tokenBytes[length++] = (byte) b;
+            b = read();
+        }
+
+        return new String(tokenBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next token as a boolean, following the same rules as {@link Boolean#parseBoolean(String)}.
+     *
+     * @return true if the next token is "true", ignoring case, false otherwise
+     * @throws EOFException if the end of the stream is reached before the next token
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    public boolean nextBoolean() throws IOException {
+        return Boolean.parseBoolean(nextToken());
+    }
+
+    /**
+     * Skips any separators and returns the first byte of the next token.
+     *
+     * @return the first byte of the next token
+     * @throws EOFException if the end of the stream is reached before the next token
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    private int skipSeparators() throws IOException {
+
+        int b = read();
+        while (isSeparator(b)) {
+            if (b < 0) {
+                throw new EOFException("Unexpected end of input");
+            }
+            b = read();
+        }
+
+        return b;
+    }
+
+    /**
+     * Reads the next byte, refilling the buffer from the stream when it is exhausted.
+     *
+     * @return the next byte, or -1 if the end of the stream is reached
+     * @throws IOException if an error occurs while reading from the stream
+     */
+    private int read() throws IOException {
+
+        if (position == limit) {
+            limit = inputStream.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Checks whether a byte ends a token. The end of the stream also ends a token.
+     *
+     * @param b the byte to check, or -1 for the end of the stream
+     * @return true if the byte is whitespace, a comma or the end of the stream, false otherwise
+     */
+    private static boolean isSeparator(int b) {
+        return b <= ' ' || b == ',';
+    }
+
+    /**
+     * Describes a byte for an error message.
+     *
+     * @param b the byte to describe, or -1 for the end of the stream
+     * @return a description of the byte
+     */
+    private static String describe(int b) {
+        return b < 0 ? "end of input" : "'" + (char) b + "'";
+    }
+}
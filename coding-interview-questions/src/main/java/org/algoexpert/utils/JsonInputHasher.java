@@ -0,0 +1,132 @@
+package org.algoexpert.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Utility class for computing a 64-bit fingerprint of a JSON input.
+ * <p>
+ * The fingerprint is computed by walking the tree of the parsed input once, mixing in every field name, value and
+ * container boundary. The input is parsed into that tree anyway before it is bound to the input of the algorithm, so
+ * the walk only revisits nodes already in memory and costs a fraction of the parsing. Two inputs with the same
+ * values have the same fingerprint regardless of their formatting and of the order of their object fields, while the
+ * order of array elements is significant. Numbers are hashed by kind and value, so {@code 1} and {@code 1.0} have
+ * different fingerprints.
+ * </p>
+ * <p>
+ * Fingerprints are not cryptographic: two different inputs collide with a probability of about 2<sup>-64</sup>,
+ * which is negligible for cache keys but unsuitable for anything security-sensitive.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class JsonInputHasher {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xFF51AFD7ED558CCDL;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long OBJECT_START = 1;
+    private static final long ARRAY_START = 2;
+    private static final long CONTAINER_END = 3;
+    private static final long NULL = 4;
+    private static final long FALSE = 5;
+    private static final long TRUE = 6;
+    private static final long INTEGRAL = 7;
+    private static final long FLOATING_POINT = 8;
+    private static final long STRING = 9;
+
+    private JsonInputHasher() {
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a JSON input.
+     *
+     * @param input the JSON input
+     * @return the fingerprint of the input
+     */
+    public static long hash(JsonNode input) {
+        return finish(hash(SEED, input));
+    }
+
+    /**
+     * Mixes a JSON value, and every value nested in it, into a hash.
+     *
+     * @param hash the hash so far
+     * @param node the JSON value
+     * @return the updated hash
+     */
+    private static long hash(long hash, JsonNode node) {
+
+        switch (node.getNodeType()) {
+            case OBJECT -> {
+                // Fields are hashed independently and summed, so their order does not affect the fingerprint
+                long fieldsHash = 0;
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    fieldsHash += finish(hash(mix(SEED, hashString(field.getKey())), field.getValue()));
+                }
+                hash = mix(mix(mix(hash, OBJECT_START), fieldsHash), CONTAINER_END);
+            }
+            case ARRAY -> {
+                hash = mix(hash, ARRAY_START);
+                for (int i = 0; i < node.size(); i++) {
+                    hash = hash(hash, node.get(i));
+                }
+                hash = mix(hash, CONTAINER_END);
+            }
+            case NUMBER -> hash = node.isIntegralNumber() && node.canConvertToLong()
+                    ? mix(mix(hash, INTEGRAL), node.longValue())
+                    : mix(mix(hash, FLOATING_POINT), Double.doubleToLongBits(node.doubleValue()));
+            case BOOLEAN -> hash = mix(hash, node.booleanValue() ? TRUE : FALSE);
+            case STRING -> hash = mix(mix(hash, STRING), hashString(node.textValue()));
+            default -> hash = mix(hash, NULL);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of the characters of a string.
+     *
+     * @param value the string
+     * @return the hash of the string
+     */
+    private static long hashString(String value) {
+
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+
+        return hash ^ value.length();
+    }
+
+    /**
+     * Mixes a 64-bit value into a hash.
+     *
+     * @param hash the hash so far
+     * @param value the value to mix in
+     * @return the updated hash
+     */
+    private static long mix(long hash, long value) {
+        hash = Long.rotateLeft(hash ^ value, 27) * MULTIPLIER;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Applies the final avalanche to a hash, so that every input bit affects every output bit.
+     *
+     * @param hash the hash
+     * @return the final fingerprint
+     */
+    private static long finish(long hash) {
+        hash = (hash ^ (hash >>> 33)) * MULTIPLIER;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -91,22 +91,6 @@ public class LoggerUtil {
     public void promptToEnterSecondArrayElements(Logger LOGGER) {
         LOGGER.info("Enter the elements of the second array");
     }
-    /**
-     * Logs a message indicating that the two arrays represent the same Binary Search Tree (BST).
-     *
-     * @param LOGGER the {@link Logger} instance used to log the message
-     */
-    public void infoConfirmBST(Logger LOGGER) {
-        LOGGER.info("The two arrays represent the same Binary Search Tree (BST)");
-    }
-    /**
-     * Logs a message indicating that the two arrays do not represent the same Binary Search Tree (BST).
-     *
-     * @param LOGGER the {@link Logger} instance used to log the message
-     */
-    public void infoConfirmNotBST(Logger LOGGER) {
-        LOGGER.info("The two arrays do not represent the same Binary Search Tree (BST)");
-    }
     /**
      * Logs a prompt message to enter the number of nodes in the binary tree.
      *
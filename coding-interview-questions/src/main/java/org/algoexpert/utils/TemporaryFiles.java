@@ -0,0 +1,52 @@
+package org.algoexpert.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility class for the temporary files that large inputs and working sets are spilled to.
+ * <p>
+ * Spilled files are only read through memory mappings, which outlive the channel they are created from, so a file
+ * cannot simply be deleted once it is mapped: Windows refuses to delete a file that is still mapped. The files are
+ * therefore opened with {@link StandardOpenOption#DELETE_ON_CLOSE} and left for the platform to delete. On POSIX
+ * systems, the file is unlinked as soon as its channel is closed, while its mapped pages remain until the mappings are
+ * unreachable; on Windows, it is deleted once its channel and every mapping of it have been released.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+public final class TemporaryFiles {
+
+    private TemporaryFiles() {
+    }
+
+    /**
+     * Creates a temporary file and opens it for reading and writing, to be deleted once it is no longer in use.
+     *
+     * @param directory the directory to create the file in, or null for the default temporary directory
+     * @param prefix the prefix of the name of the file
+     * @return the channel of the file, whose closing deletes the file once it is no longer mapped
+     * @throws IOException if the file cannot be created or opened
+     */
+    public static FileChannel open(Path directory, String prefix) throws IOException {
+
+        Path file = directory == null ? Files.createTempFile(prefix, ".bin")
+                : Files.createTempFile(directory, prefix, ".bin");
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            // Nothing maps the file yet, so it can be deleted right away
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException deletionFailure) {
+                e.addSuppressed(deletionFailure);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.algoexpert.algorithms.arrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link KSumEngine}, its plans and their choice.
+ * <p>
+ * The recursive plan must report every distinct tuple of values once, in lexicographic order, even when values are
+ * repeated; the meet-in-the-middle plan must report the same tuples, in any order, on arrays of distinct values.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class KSumEngineTest {
+
+    private static final long MEMORY_BUDGET = 1L << 26;
+
+    /**
+     * The recursive plan reports each distinct tuple of values once, in lexicographic order, however often the array
+     * repeats its values.
+     */
+    @Test
+    void recursivePlanCollapsesRepeatedValues() {
+
+        int[] array = {1, 1, 2, 1, 0, 2, 1};
+
+        assertThat(kSum(array, 4, 4, KSumPlan.RECURSIVE)).containsExactly("[0, 1, 1, 2]", "[1, 1, 1, 1]");
+        assertThat(kSum(array, 3, 3, KSumPlan.RECURSIVE)).containsExactly("[0, 1, 2]", "[1, 1, 1]");
+        assertThat(kSum(array, 1, 2, KSumPlan.RECURSIVE)).containsExactly("[2]");
+        assertThat(kSum(array, 7, 8, KSumPlan.RECURSIVE)).containsExactly("[0, 1, 1, 1, 1, 2, 2]");
+    }
+
+    /**
+     * An empty array has no tuple, and neither has an array shorter than {@code k}.
+     */
+    @Test
+    void recursivePlanFindsNoTupleLongerThanTheArray() {
+
+        assertThat(kSum(new int[0], 1, 0, KSumPlan.RECURSIVE)).isEmpty();
+        assertThat(kSum(new int[]{1, 2}, 3, 3, KSumPlan.RECURSIVE)).isEmpty();
+        assertThat(kSum(new int[]{0, 0, 0}, 4, 0, KSumPlan.RECURSIVE)).isEmpty();
+    }
+
+    /**
+     * The meet-in-the-middle plan finds the tuples of the recursive plan on arrays of distinct values, for {@code k}
+     * from 4 up to the length of the array.
+     */
+    @Test
+    void meetInTheMiddlePlanMatchesRecursivePlan() {
+
+        int[] array = {7, 6, 4, -1, 1, 2};
+
+        assertThat(sorted(kSum(array, 4, 16, KSumPlan.MEET_IN_THE_MIDDLE)))
+                .containsExactly("[-1, 4, 6, 7]", "[1, 2, 6, 7]");
+        assertThat(kSum(array, 5, 18, KSumPlan.MEET_IN_THE_MIDDLE)).containsExactly("[-1, 2, 4, 6, 7]");
+        assertThat(kSum(array, 6, 19, KSumPlan.MEET_IN_THE_MIDDLE)).containsExactly("[-1, 1, 2, 4, 6, 7]");
+        assertThat(kSum(array, 6, 20, KSumPlan.MEET_IN_THE_MIDDLE)).isEmpty();
+
+        int[] mixed = {3, -2, 0, 5, -7, 9, 1, -4};
+        assertThat(kSum(mixed, 5, 0, KSumPlan.RECURSIVE)).containsExactly("[-7, -2, 1, 3, 5]", "[-4, -2, 0, 1, 5]");
+        assertThat(sorted(kSum(mixed, 5, 0, KSumPlan.MEET_IN_THE_MIDDLE)))
+                .isEqualTo(kSum(mixed, 5, 0, KSumPlan.RECURSIVE));
+    }
+
+    /**
+     * Sums of numbers near the bounds of the int range, and target sums beyond it, are computed without overflow by
+     * both plans, which find exactly the tuples of a brute-force search.
+     */
+    @Test
+    void plansMatchBruteForceNearIntegerOverflow() {
+
+        int[] array = {Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 2, Integer.MIN_VALUE,
+                Integer.MIN_VALUE + 1, Integer.MIN_VALUE + 2, 0, 1, -1};
+        for (int k = 4; k <= 6; k++) {
+            for (long targetSum : new long[]{4L * Integer.MAX_VALUE - 6, 3L * Integer.MIN_VALUE + 3, -1, 0,
+                    Integer.MAX_VALUE, (long) Integer.MAX_VALUE + Integer.MIN_VALUE}) {
+                List<String> expected = bruteForce(array, k, targetSum);
+                assertThat(kSum(array, k, targetSum, KSumPlan.RECURSIVE)).isEqualTo(expected);
+                assertThat(sorted(kSum(array, k, targetSum, KSumPlan.MEET_IN_THE_MIDDLE)))
+                        .as("k %d, target sum %d", k, targetSum).isEqualTo(expected);
+            }
+        }
+    }
+
+    /**
+     * The plan is chosen from the length of the array, {@code k} and the memory budget, and a requested plan that
+     * does not apply to the array is rejected.
+     */
+    @Test
+    void choosesThePlanFromTheInput() {
+
+        assertThat(KSumEngine.choosePlan(1000, 4, true, MEMORY_BUDGET, KSumPlan.AUTO))
+                .isEqualTo(KSumPlan.MEET_IN_THE_MIDDLE);
+        assertThat(KSumEngine.choosePlan(1000, 4, false, MEMORY_BUDGET, KSumPlan.AUTO)).isEqualTo(KSumPlan.RECURSIVE);
+        assertThat(KSumEngine.choosePlan(1000, 4, true, 1024, null)).isEqualTo(KSumPlan.RECURSIVE);
+        assertThat(KSumEngine.choosePlan(1000, 3, true, MEMORY_BUDGET, KSumPlan.AUTO)).isEqualTo(KSumPlan.RECURSIVE);
+        assertThat(KSumEngine.choosePlan(10, 4, false, MEMORY_BUDGET, KSumPlan.RECURSIVE))
+                .isEqualTo(KSumPlan.RECURSIVE);
+
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                KSumEngine.choosePlan(10, 4, false, MEMORY_BUDGET, KSumPlan.MEET_IN_THE_MIDDLE));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                KSumEngine.choosePlan(1000, 4, true, 1024, KSumPlan.MEET_IN_THE_MIDDLE));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                KSumEngine.checkApplicable(IntBuffer.wrap(new int[]{1, 2}), 0, MEMORY_BUDGET, KSumPlan.AUTO));
+        assertThatIllegalArgumentException().isThrownBy(() -> KSumEngine.checkApplicable(
+                IntBuffer.wrap(new int[]{1, 2}), KSumEngine.MAX_K + 1, MEMORY_BUDGET, KSumPlan.AUTO));
+    }
+
+    /**
+     * Finds the tuples of an array with the requested plan, in the order they are reported.
+     *
+     * @param array the array
+     * @param k the number of numbers in each tuple
+     * @param targetSum the target sum
+     * @param plan the plan
+     * @return the tuples, in the order they are reported
+     */
+    private static List<String> kSum(int[] array, int k, long targetSum, KSumPlan plan) {
+
+        List<String> tuples = new ArrayList<>();
+        KSumPlan chosenPlan = new KSumEngine().kSum(IntBuffer.wrap(array), k, targetSum, MEMORY_BUDGET, plan,
+                tuple -> tuples.add(Arrays.toString(tuple)));
+        assertThat(chosenPlan).isEqualTo(plan);
+        return tuples;
+    }
+
+    /**
+     * Finds the distinct tuples of values of an array by trying every combination of {@code k} positions of the
+     * sorted array, summing with long arithmetic.
+     *
+     * @param array the array
+     * @param k the number of numbers in each tuple
+     * @param targetSum the target sum
+     * @return the distinct tuples, in lexicographic order
+     */
+    private static List<String> bruteForce(int[] array, int k, long targetSum) {
+
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        TreeSet<int[]> tuples = new TreeSet<>(Arrays::compare);
+        combine(sorted, 0, new int[k], 0, targetSum, tuples);
+        List<String> strings = new ArrayList<>();
+        tuples.forEach(tuple -> strings.add(Arrays.toString(tuple)));
+        return strings;
+    }
+
+    /**
+     * Extends a combination with every position from the provided one, adding it to the tuples once complete.
+     */
+    private static void combine(int[] sorted, int start, int[] tuple, int size, long targetSum, TreeSet<int[]> tuples) {
+
+        if (size == tuple.length) {
+            if (Arrays.stream(tuple).asLongStream().sum() == targetSum) {
+                tuples.add(tuple.clone());
+            }
+            return;
+        }
+        for (int i = start; i < sorted.length; i++) {
+            tuple[size] = sorted[i];
+            combine(sorted, i + 1, tuple, size + 1, targetSum, tuples);
+        }
+    }
+
+    /**
+     * Returns tuples in the lexicographic order of their values, which is the order the recursive plan reports them in.
+     */
+    private static List<String> sorted(List<String> tuples) {
+        return tuples.stream().sorted(Comparator.comparing(tuple -> Arrays.stream(tuple.substring(1,
+                tuple.length() - 1).split(", ")).mapToInt(Integer::parseInt).toArray(), Arrays::compare)).toList();
+    }
+}
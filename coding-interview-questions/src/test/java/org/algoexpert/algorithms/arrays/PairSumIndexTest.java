@@ -0,0 +1,159 @@
+package org.algoexpert.algorithms.arrays;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link PairSumIndex}, built sequentially and in parallel.
+ * <p>
+ * Pairs are compared packed as their second index in the high 16 bits and their first one in the low 16 bits, so
+ * {@code 3 << 16 | 1} is the pair of the positions 1 and 3.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class PairSumIndexTest {
+
+    /**
+     * Empty and single-element arrays have no pair, so their index has no group.
+     */
+    @Test
+    void emptyAndSingleElementArraysHaveNoGroup() {
+
+        for (int[] values : new int[][]{{}, {5}}) {
+            PairSumIndex index = PairSumIndex.build(IntBuffer.wrap(values), values.length, null);
+
+            assertThat(index.size()).isZero();
+            assertThat(index.groupOf(5)).isEqualTo(-1);
+            assertThat(index.groupOf(10)).isEqualTo(-1);
+        }
+    }
+
+    /**
+     * Every pair of positions is grouped by its sum, repeated values included, and the pairs of a group are ordered by
+     * their second index and then by their first.
+     */
+    @Test
+    void groupsHoldThePairsOfTheirSumInOrder() {
+
+        PairSumIndex index = PairSumIndex.build(IntBuffer.wrap(new int[]{1, 2, 1, 2}), 4, null);
+
+        assertThat(index.size()).isEqualTo(6);
+        assertThat(groupPairs(index, 3)).containsExactly(1 << 16, 2 << 16 | 1, 3 << 16, 3 << 16 | 2);
+        assertThat(groupPairs(index, 2)).containsExactly(2 << 16);
+        assertThat(groupPairs(index, 4)).containsExactly(3 << 16 | 1);
+        assertThat(index.groupOf(5)).isEqualTo(-1);
+    }
+
+    /**
+     * Groups are keyed by the sum truncated to an int, so the sum of the extreme ints shares its group with its
+     * truncation, and sums differing by {@code 2^32} share their group.
+     */
+    @Test
+    void groupsAreKeyedByTruncatedSums() {
+
+        PairSumIndex index = PairSumIndex.build(IntBuffer.wrap(new int[]{Integer.MAX_VALUE, 1, Integer.MIN_VALUE}), 3,
+                null);
+
+        assertThat(groupPairs(index, Integer.MIN_VALUE)).containsExactly(1 << 16);
+        assertThat(index.groupOf(Integer.MAX_VALUE + 1L)).isEqualTo(index.groupOf(Integer.MIN_VALUE));
+        assertThat(groupPairs(index, -1)).containsExactly(2 << 16);
+        assertThat(index.groupOf(-1 + (1L << 32))).isEqualTo(index.groupOf(-1));
+        assertThat(groupPairs(index, Integer.MIN_VALUE + 1)).containsExactly(2 << 16 | 1);
+    }
+
+    /**
+     * Only the elements from the position of a buffer are indexed, only second indices below the second limit are
+     * indexed, and the position of the buffer is left unchanged.
+     */
+    @Test
+    void indexesFromThePositionUpToTheSecondLimit() {
+
+        IntBuffer array = IntBuffer.wrap(new int[]{100, 200, 1, 2, 3, 4}).position(2);
+
+        PairSumIndex index = PairSumIndex.build(array, 3, null);
+
+        assertThat(index.size()).isEqualTo(PairSumIndex.pairCount(3));
+        assertThat(groupPairs(index, 3)).containsExactly(1 << 16);
+        assertThat(groupPairs(index, 4)).containsExactly(2 << 16);
+        assertThat(groupPairs(index, 5)).containsExactly(2 << 16 | 1);
+        assertThat(index.groupOf(7)).isEqualTo(-1);
+        assertThat(index.groupOf(300)).isEqualTo(-1);
+        assertThat(array.position()).isEqualTo(2);
+    }
+
+    /**
+     * An index built in parallel holds the same groups as one built sequentially, on arrays with enough pairs to be
+     * partitioned, of a narrow value range and spanning the whole int range, on a pool of several threads whatever the
+     * number of processors.
+     */
+    @Test
+    void buildParallelMatchesBuild() {
+
+        int[] narrow = new int[1600];
+        int[] wide = new int[1600];
+        for (int i = 0; i < narrow.length; i++) {
+            narrow[i] = i * 37 % 401 - 200;
+            // Multiplying by an odd constant spreads the values over the whole int range
+            wide[i] = i * 0x9E37_79B9;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int[] values : new int[][]{narrow, wide}) {
+                IntBuffer array = IntBuffer.wrap(values);
+                PairSumIndex expected = PairSumIndex.build(array, values.length, null);
+
+                PairSumIndex index = PairSumIndex.buildParallel(array, values.length, pool, null);
+
+                assertThat(index.size()).isEqualTo(expected.size());
+                // Every group is compared once, from its first pair
+                for (int position = 0; position < expected.size(); ) {
+                    int pair = expected.pairAt(position);
+                    long sum = (long) values[PairSumIndex.first(pair)] + values[PairSumIndex.second(pair)];
+                    assertThat(groupPairs(index, sum)).as("sum %d", sum).isEqualTo(groupPairs(expected, sum));
+                    position = expected.groupEnd(expected.groupOf(sum));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Arrays whose pairs would not fit in an index are rejected before anything is allocated.
+     */
+    @Test
+    void rejectsArraysTooLongToIndex() {
+
+        assertThat(PairSumIndex.fits(PairSumIndex.MAX_LENGTH)).isTrue();
+        assertThat(PairSumIndex.fits(PairSumIndex.MAX_LENGTH + 1)).isFalse();
+        assertThatIllegalArgumentException().isThrownBy(() -> PairSumIndex.build(
+                IntBuffer.allocate(PairSumIndex.MAX_LENGTH + 1), PairSumIndex.MAX_LENGTH + 1, null));
+    }
+
+    /**
+     * Returns the pairs of the group of a sum, packed as the second index in the high 16 bits and the first one in the
+     * low 16 bits.
+     */
+    private static List<Integer> groupPairs(PairSumIndex index, long sum) {
+
+        List<Integer> pairs = new ArrayList<>();
+        int group = index.groupOf(sum);
+        if (group >= 0) {
+            for (int position = index.groupStart(group); position < index.groupEnd(group); position++) {
+                int pair = index.pairAt(position);
+                pairs.add(PairSumIndex.second(pair) << 16 | PairSumIndex.first(pair));
+            }
+        }
+        return pairs;
+    }
+}
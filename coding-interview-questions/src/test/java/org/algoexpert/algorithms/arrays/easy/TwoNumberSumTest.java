@@ -0,0 +1,209 @@
+package org.algoexpert.algorithms.arrays.easy;
+
+import org.algoexpert.algorithms.arrays.ArrayProfile;
+import org.algoexpert.algorithms.arrays.SumStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link TwoNumberSum}, its strategies and their choice.
+ *
+ * @author Jitesh Shaw
+ */
+
+class TwoNumberSumTest {
+
+    private static final long MEMORY_BUDGET = 512L << 20;
+
+    /**
+     * Every strategy finds the pair of the sample input, and leaves the array untouched.
+     */
+    @Test
+    void everyStrategyFindsThePairOfTheSample() {
+
+        int[] array = {3, 5, -4, 8, 11, 1, -1, 6};
+        for (SumStrategy strategy : SumStrategy.values()) {
+            assertThat(twoNumberSum(array, 10, strategy)).as("strategy %s", strategy).containsExactlyInAnyOrder(-1, 11);
+        }
+        assertThat(array).containsExactly(3, 5, -4, 8, 11, 1, -1, 6);
+    }
+
+    /**
+     * An empty array has no pair, and neither has a single element, which cannot be added to itself.
+     */
+    @Test
+    void emptyAndSingleElementArraysHaveNoPair() {
+
+        for (SumStrategy strategy : SumStrategy.values()) {
+            assertThat(twoNumberSum(new int[0], 10, strategy)).as("strategy %s", strategy).isEmpty();
+            assertThat(twoNumberSum(new int[]{5}, 10, strategy)).as("strategy %s", strategy).isEmpty();
+            assertThat(twoNumberSum(new int[]{0}, 0, strategy)).as("strategy %s", strategy).isEmpty();
+        }
+    }
+
+    /**
+     * Sums of the extreme ints are compared without overflowing: {@code MAX_VALUE + 1} does not match
+     * {@code MIN_VALUE}, while {@code MAX_VALUE + MIN_VALUE} does match {@code -1}.
+     */
+    @Test
+    void sumsOfExtremesDoNotOverflow() {
+
+        for (SumStrategy strategy : new SumStrategy[]{SumStrategy.HASHING, SumStrategy.TWO_POINTER}) {
+            assertThat(twoNumberSum(new int[]{Integer.MAX_VALUE, 1}, Integer.MIN_VALUE, strategy))
+                    .as("strategy %s", strategy).isEmpty();
+            assertThat(twoNumberSum(new int[]{Integer.MIN_VALUE, -1}, Integer.MAX_VALUE, strategy))
+                    .as("strategy %s", strategy).isEmpty();
+            assertThat(twoNumberSum(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE}, -1, strategy))
+                    .as("strategy %s", strategy).containsExactlyInAnyOrder(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Only the elements between the position and the limit of a buffer are searched.
+     */
+    @Test
+    void elementsOutsideTheBufferAreIgnored() {
+
+        int[] array = {7, 1, 2, 9, 3};
+        for (SumStrategy strategy : SumStrategy.values()) {
+            IntBuffer buffer = IntBuffer.wrap(array, 1, 3).slice();
+            ArrayProfile profile = ArrayProfile.of(buffer);
+            SumStrategy chosen = TwoNumberSum.chooseStrategy(profile, strategy, MEMORY_BUDGET);
+
+            assertThat(new TwoNumberSum().twoNumberSum(buffer, 10, chosen, profile)).as("strategy %s", strategy)
+                    .containsExactlyInAnyOrder(1, 9);
+            assertThat(new TwoNumberSum().twoNumberSum(buffer, 12, chosen, profile)).as("strategy %s", strategy)
+                    .isEmpty();
+        }
+    }
+
+    /**
+     * Presorted arrays are swept with two pointers, arrays of a small value range use a bitset and others a hash set,
+     * unless a strategy is forced, and a bitset is never forced over a value range too large for it.
+     */
+    @Test
+    void choosesTheStrategyFromTheProfile() {
+
+        ArrayProfile sorted = ArrayProfile.of(IntBuffer.wrap(new int[]{-5, 1, 2, 9}));
+        ArrayProfile dense = ArrayProfile.of(IntBuffer.wrap(new int[]{3, 1, 2, 0}));
+        ArrayProfile sparse = ArrayProfile.of(IntBuffer.wrap(new int[]{Integer.MAX_VALUE, 0, Integer.MIN_VALUE}));
+
+        assertThat(TwoNumberSum.chooseStrategy(sorted, null, MEMORY_BUDGET)).isEqualTo(SumStrategy.TWO_POINTER);
+        assertThat(TwoNumberSum.chooseStrategy(dense, SumStrategy.AUTO, MEMORY_BUDGET))
+                .isEqualTo(SumStrategy.BITSET);
+        assertThat(TwoNumberSum.chooseStrategy(sparse, SumStrategy.AUTO, MEMORY_BUDGET))
+                .isEqualTo(SumStrategy.HASHING);
+        assertThat(TwoNumberSum.chooseStrategy(dense, SumStrategy.HASHING, MEMORY_BUDGET))
+                .isEqualTo(SumStrategy.HASHING);
+        assertThatIllegalArgumentException().isThrownBy(() -> TwoNumberSum.chooseStrategy(sparse,
+                SumStrategy.BITSET, MEMORY_BUDGET));
+    }
+
+    /**
+     * A bitset larger than the memory budget is never chosen, and forcing one is rejected before it is allocated.
+     */
+    @Test
+    void bitsetIsBoundedByTheMemoryBudget() {
+
+        // A bitset of 2^30 bits, which takes 128 MB
+        ArrayProfile wide = ArrayProfile.of(IntBuffer.wrap(new int[]{0, (1 << 30) - 1}));
+        ArrayProfile dense = ArrayProfile.of(IntBuffer.wrap(new int[]{3, 1, 2, 0}));
+
+        assertThat(wide.bitsetBytes()).isEqualTo(128L << 20);
+        assertThat(TwoNumberSum.chooseStrategy(wide, SumStrategy.BITSET, 128L << 20)).isEqualTo(SumStrategy.BITSET);
+        assertThatIllegalArgumentException().isThrownBy(() -> TwoNumberSum.chooseStrategy(wide,
+                SumStrategy.BITSET, 64L << 20)).withMessageContaining("memory budget");
+        assertThat(TwoNumberSum.chooseStrategy(dense, SumStrategy.AUTO, 0)).isEqualTo(SumStrategy.HASHING);
+    }
+
+    /**
+     * Every pair of positions of repeated values is reported, with the earlier element first, in the order of the
+     * later position, and counted.
+     */
+    @Test
+    void allPairsReportsEveryPairOfPositions() {
+
+        int[] array = {2, 2, 5, -1, 2, 5};
+
+        assertThat(allPairs(array, 4)).containsExactly("2,2", "5,-1", "2,2", "2,2", "-1,5");
+        assertThat(allPairs(array, 7)).containsExactly("2,5", "2,5", "5,2", "2,5", "2,5", "2,5");
+        assertThat(allPairs(array, 14)).isEmpty();
+        assertThat(new TwoNumberSum().countPairs(IntBuffer.wrap(array), 7)).isEqualTo(6);
+    }
+
+    /**
+     * Empty and single-element arrays have no pair, and sums of the extreme ints are compared without overflowing.
+     */
+    @Test
+    void allPairsEdgeCases() {
+
+        assertThat(allPairs(new int[0], 0)).isEmpty();
+        assertThat(allPairs(new int[]{0}, 0)).isEmpty();
+        assertThat(allPairs(new int[]{Integer.MAX_VALUE, 1, Integer.MAX_VALUE}, Integer.MIN_VALUE)).isEmpty();
+        assertThat(allPairs(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE}, -1))
+                .containsExactly(Integer.MIN_VALUE + "," + Integer.MAX_VALUE,
+                        Integer.MAX_VALUE + "," + Integer.MIN_VALUE);
+        assertThat(new TwoNumberSum().countPairs(IntBuffer.wrap(new int[]{0, 0, 0, 0}), 0)).isEqualTo(6);
+    }
+
+    /**
+     * The parallel modes report and count the same pairs as the sequential mode, on an array long enough to be
+     * partitioned, holding the extreme ints and many repeated values, on a pool of several threads whatever the number
+     * of processors.
+     */
+    @Test
+    void parallelModesMatchSequentialMode() {
+
+        int[] array = new int[200_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (int) ((i * 2_654_435_761L) % 20_011) - 10_005;
+        }
+        array[1] = Integer.MAX_VALUE;
+        array[2] = Integer.MIN_VALUE;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int targetSum : new int[]{0, 17, -1, Integer.MIN_VALUE}) {
+                List<String> expected = allPairs(array, targetSum);
+                Collections.sort(expected);
+
+                List<String> pairs = Collections.synchronizedList(new ArrayList<>());
+                new TwoNumberSum().allPairsParallel(IntBuffer.wrap(array), targetSum,
+                        (first, second) -> pairs.add(first + "," + second), pool);
+                Collections.sort(pairs);
+
+                assertThat(pairs).as("target sum %d", targetSum).isEqualTo(expected);
+                assertThat(new TwoNumberSum().countPairsParallel(IntBuffer.wrap(array), targetSum, pool))
+                        .isEqualTo(expected.size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Lists the pairs reported by the sequential all-pairs mode, in the order they are reported.
+     */
+    private static List<String> allPairs(int[] array, int targetSum) {
+        List<String> pairs = new ArrayList<>();
+        new TwoNumberSum().allPairs(IntBuffer.wrap(array), targetSum, (first, second) -> pairs.add(first + "," +
+                second));
+        return pairs;
+    }
+
+    /**
+     * Finds a pair in an array with a strategy, as the service does.
+     */
+    private static int[] twoNumberSum(int[] array, int targetSum, SumStrategy strategy) {
+        ArrayProfile profile = ArrayProfile.of(IntBuffer.wrap(array));
+        SumStrategy chosen = TwoNumberSum.chooseStrategy(profile, strategy, MEMORY_BUDGET);
+        return new TwoNumberSum().twoNumberSum(IntBuffer.wrap(array), targetSum, chosen, profile);
+    }
+}
@@ -0,0 +1,91 @@
+package org.algoexpert.algorithms.arrays.hard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link FourNumberSum#fourNumberSumParallel(IntBuffer, int, ForkJoinPool,
+ * org.algoexpert.algorithms.arrays.QuadrupletSink)} on pools of increasing parallelism, giving its scaling curve over
+ * the number of cores.
+ * <p>
+ * The array holds distinct values drawn from a range four times as wide as the array on either side of zero, and the
+ * target sum is zero, so the quadruplets are numerous and found all over the index. The sink only counts them. A pool
+ * with a parallelism of 1 runs the sequential mode, which is the baseline of the curve; parallelisms beyond the
+ * number of available processors only measure the overhead of splitting. Run it with
+ * {@code mvn -Pbenchmark test -Djmh.args=FourNumberSumBenchmark}, or for given parallelisms with
+ * {@code -Djmh.args="FourNumberSumBenchmark -p parallelism=1,16"}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FourNumberSumBenchmark {
+
+    /**
+     * Number of elements of the array.
+     */
+    @Param({"1000", "3000"})
+    public int length;
+
+    /**
+     * Parallelism of the fork-join pool the pairs are indexed and probed on.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private IntBuffer array;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(length);
+        int[] values = new int[8 * length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i - 4 * length;
+        }
+        for (int i = 0; i < length; i++) {
+            int swapped = i + random.nextInt(values.length - i);
+            int value = values[swapped];
+            values[swapped] = values[i];
+            values[i] = value;
+        }
+        array = IntBuffer.wrap(values, 0, length).slice();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long fourNumberSumParallel() {
+
+        long[] quadrupletCount = new long[1];
+        new FourNumberSum().fourNumberSumParallel(array, 0, pool,
+                (first, second, third, fourth) -> quadrupletCount[0]++);
+        return quadrupletCount[0];
+    }
+}
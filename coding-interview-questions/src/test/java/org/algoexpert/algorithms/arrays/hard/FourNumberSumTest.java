@@ -0,0 +1,268 @@
+package org.algoexpert.algorithms.arrays.hard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link FourNumberSum}, its in-memory, external and parallel modes.
+ * <p>
+ * The memory budgets of the external mode are small enough for the pairs to be spread over many buckets, each joined
+ * in several chunks, so every quadruplet has to be matched across chunks exactly once. Quadruplets are compared as
+ * sorted lists of sorted values, since every mode reports them in its own order.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class FourNumberSumTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    /**
+     * Every mode finds the quadruplets of the sample input, read from a position other than zero.
+     */
+    @Test
+    void everyModeFindsTheQuadrupletsOfTheSample() throws IOException {
+        assertEveryModeFinds(new int[]{7, 6, 4, -1, 1, 2}, 16, "[-1, 4, 6, 7]", "[1, 2, 6, 7]");
+    }
+
+    /**
+     * Arrays of fewer than four elements have no quadruplet, and four elements are a quadruplet only if they sum up
+     * to the target sum.
+     */
+    @Test
+    void shortArraysHaveNoQuadruplet() throws IOException {
+
+        assertEveryModeFinds(new int[0], 0);
+        assertEveryModeFinds(new int[]{1, 2, 3}, 6);
+        assertEveryModeFinds(new int[]{4, 1, 3, 2}, 10, "[1, 2, 3, 4]");
+        assertEveryModeFinds(new int[]{4, 1, 3, 2}, 9);
+    }
+
+    /**
+     * Sums beyond the int range are neither wrapped nor mixed up with their truncation: the quadruplet of
+     * {@code MAX_VALUE}, {@code MAX_VALUE - 1}, 1 and 2 sums up to {@code 2^32}, which does not match 0.
+     */
+    @Test
+    void sumsOfExtremesDoNotOverflow() throws IOException {
+
+        int max = Integer.MAX_VALUE;
+        int min = Integer.MIN_VALUE;
+        int[] array = {max, max - 1, 1, 2, min, 0, -1};
+
+        assertEveryModeFinds(array, 0, "[" + min + ", -1, 2, " + max + "]", "[" + min + ", 0, 1, " + max + "]",
+                "[" + min + ", 0, 2, " + (max - 1) + "]");
+        assertEveryModeFinds(array, -2, "[" + min + ", -1, 0, " + max + "]", "[" + min + ", -1, 1, " + (max - 1) +
+                "]");
+        assertEveryModeFinds(array, min, "[" + min + ", -1, 0, 1]");
+    }
+
+    /**
+     * The external mode finds the same quadruplets as the in-memory mode whatever the memory budget, from one spreading
+     * the pairs over many small chunks to one holding them all.
+     */
+    @Test
+    void externalModeMatchesInMemoryModeWhateverTheBudget() throws IOException {
+
+        // 37 and 211 are coprime, so the 60 values are distinct
+        int[] array = IntStream.range(0, 60).map(i -> i * 37 % 211 - 105).toArray();
+        for (int targetSum : new int[]{0, 1, -150, array[0] + array[1] + array[2] + array[59]}) {
+            List<String> expected = inMemory(array, targetSum);
+            assertThat(expected).isNotEmpty();
+            for (long memoryBudget = 48; memoryBudget <= 48 * 40; memoryBudget += 48 * 3) {
+                assertThat(external(array, targetSum, memoryBudget)).as("target sum %d, budget %d", targetSum,
+                        memoryBudget).isEqualTo(expected);
+            }
+        }
+    }
+
+    /**
+     * The external mode finds the same quadruplets as the in-memory mode on arithmetic progressions, where many pairs
+     * share their sum, so the pairs of a single sum span several chunks.
+     */
+    @Test
+    void externalModeMatchesInMemoryModeOnArithmeticProgressions() throws IOException {
+
+        for (int step : new int[]{1, 7, 64, 1 << 20}) {
+            int[] array = IntStream.range(-40, 40).map(i -> i * step).toArray();
+            for (int targetSum : new int[]{0, step, 10 * step, -77 * step}) {
+                assertThat(external(array, targetSum, 48 * 5)).as("step %d, target sum %d", step, targetSum)
+                        .isEqualTo(inMemory(array, targetSum));
+            }
+        }
+    }
+
+    /**
+     * The parallel mode finds the same quadruplets as the sequential mode on arrays long enough for the index to be
+     * partitioned and for the probes to be split across tasks, on a pool of several threads whatever the number of
+     * processors, and calls the sink from one thread at a time.
+     */
+    @Test
+    void parallelModeMatchesSequentialModeOnLongArrays() {
+
+        int[] narrow = IntStream.range(0, 4000).map(i -> mix(i) >> 10).distinct().limit(2000).toArray();
+        int[] wide = IntStream.range(0, 4000).map(i -> mix(i) >> 3).distinct().limit(2000).toArray();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int[] array : new int[][]{narrow, wide}) {
+                int targetSum = array[10] + array[500] + array[1000] + array[1999];
+                int[] padded = new int[array.length + 1];
+                System.arraycopy(array, 0, padded, 1, array.length);
+
+                List<String> quadruplets = parallel(IntBuffer.wrap(padded).position(1), targetSum, pool);
+
+                assertThat(quadruplets).isNotEmpty().isEqualTo(inMemory(array, targetSum));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The mode chosen from the memory budget finds the same quadruplets whether the pairs fit in it or are spilled,
+     * and no spilled file is left behind.
+     */
+    @Test
+    void budgetedModeMatchesInMemoryModeAndCleansUp() throws IOException {
+
+        // 37 and 1000 are coprime, so the 120 values are distinct
+        int[] array = IntStream.range(0, 120).map(i -> i * 37 % 1000 - 500).toArray();
+        int targetSum = array[3] + array[30] + array[60] + array[90];
+        List<String> expected = inMemory(array, targetSum);
+
+        for (long memoryBudget : new long[]{1024, 1L << 30}) {
+            List<String> quadruplets = new ArrayList<>();
+            new FourNumberSum().fourNumberSum(IntBuffer.wrap(array), targetSum, memoryBudget, spillDirectory,
+                    ForkJoinPool.commonPool(), (first, second, third, fourth) ->
+                            quadruplets.add(normalize(first, second, third, fourth)));
+            quadruplets.sort(null);
+            assertThat(quadruplets).isEqualTo(expected);
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    /**
+     * Asserts that the in-memory, external and parallel modes all find exactly the expected quadruplets in an array,
+     * read from a position other than zero.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @param expected the sorted quadruplets, each as the string of its sorted values
+     */
+    private void assertEveryModeFinds(int[] array, int targetSum, String... expected) throws IOException {
+
+        int[] padded = new int[array.length + 2];
+        System.arraycopy(array, 0, padded, 2, array.length);
+
+        List<String> inMemory = new ArrayList<>();
+        new FourNumberSum().fourNumberSum(IntBuffer.wrap(padded).position(2), targetSum,
+                (first, second, third, fourth) -> inMemory.add(normalize(first, second, third, fourth)));
+        inMemory.sort(null);
+        List<String> external = new ArrayList<>();
+        new FourNumberSum().fourNumberSumExternal(IntBuffer.wrap(padded).position(2), targetSum, 48, spillDirectory,
+                (first, second, third, fourth) -> external.add(normalize(first, second, third, fourth)));
+        external.sort(null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThat(parallel(IntBuffer.wrap(padded).position(2), targetSum, pool)).as("parallel mode")
+                    .containsExactly(expected);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(inMemory).as("in-memory mode").containsExactly(expected);
+        assertThat(external).as("external mode").containsExactly(expected);
+    }
+
+    /**
+     * Finds the quadruplets of an array with the external mode.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @param memoryBudget the memory budget of a chunk
+     * @return the sorted quadruplets
+     */
+    private List<String> external(int[] array, int targetSum, long memoryBudget) throws IOException {
+
+        List<String> quadruplets = new ArrayList<>();
+        new FourNumberSum().fourNumberSumExternal(IntBuffer.wrap(array), targetSum, memoryBudget, spillDirectory,
+                (first, second, third, fourth) -> quadruplets.add(normalize(first, second, third, fourth)));
+        quadruplets.sort(null);
+        return quadruplets;
+    }
+
+    /**
+     * Finds the quadruplets of an array with the serial in-memory mode.
+     *
+     * @param array the array
+     * @param targetSum the target sum
+     * @return the sorted quadruplets
+     */
+    private static List<String> inMemory(int[] array, int targetSum) {
+
+        List<String> quadruplets = new ArrayList<>();
+        new FourNumberSum().fourNumberSum(IntBuffer.wrap(array), targetSum,
+                (first, second, third, fourth) -> quadruplets.add(normalize(first, second, third, fourth)));
+        quadruplets.sort(null);
+        return quadruplets;
+    }
+
+    /**
+     * Finds the quadruplets of an array with the parallel mode, checking that the sink is never called concurrently.
+     *
+     * @param buffer the buffer holding the array
+     * @param targetSum the target sum
+     * @param pool the fork-join pool
+     * @return the sorted quadruplets
+     */
+    private static List<String> parallel(IntBuffer buffer, int targetSum, ForkJoinPool pool) {
+
+        List<String> quadruplets = new ArrayList<>();
+        AtomicInteger callers = new AtomicInteger();
+        new FourNumberSum().fourNumberSumParallel(buffer, targetSum, pool, (first, second, third, fourth) -> {
+            assertThat(callers.incrementAndGet()).isEqualTo(1);
+            quadruplets.add(normalize(first, second, third, fourth));
+            callers.decrementAndGet();
+        });
+        quadruplets.sort(null);
+        return quadruplets;
+    }
+
+    /**
+     * Returns a quadruplet as the string of its sorted values, so quadruplets compare whatever their order.
+     */
+    private static String normalize(int first, int second, int third, int fourth) {
+        int[] quadruplet = {first, second, third, fourth};
+        Arrays.sort(quadruplet);
+        return Arrays.toString(quadruplet);
+    }
+
+    /**
+     * Scrambles an int with the finalizer of MurmurHash3, so consecutive ints give values with no linear relation,
+     * which would make many quadruplets share their sum.
+     */
+    private static int mix(int value) {
+        int hash = value * 0x9E37_79B9;
+        hash = (hash ^ hash >>> 16) * 0x85EB_CA6B;
+        hash = (hash ^ hash >>> 13) * 0xC2B2_AE35;
+        return hash ^ hash >>> 16;
+    }
+}
@@ -0,0 +1,186 @@
+package org.algoexpert.algorithms.arrays.medium;
+
+import org.algoexpert.algorithms.arrays.ArrayProfile;
+import org.algoexpert.algorithms.arrays.SumStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link ThreeNumberSum}, its strategies and their choice.
+ *
+ * @author Jitesh Shaw
+ */
+
+class ThreeNumberSumTest {
+
+    private static final long MEMORY_BUDGET = 512L << 20;
+    private static final SumStrategy[] STRATEGIES = {SumStrategy.AUTO, SumStrategy.TWO_POINTER, SumStrategy.BITSET};
+
+    /**
+     * Every strategy finds the triplets of the sample input, in ascending order, and leaves the array untouched.
+     */
+    @Test
+    void everyStrategyFindsTheTripletsOfTheSample() {
+
+        int[] array = {12, 3, 1, 2, -6, 5, -8, 6};
+        for (SumStrategy strategy : STRATEGIES) {
+            assertThat(threeNumberSum(array, 0, strategy)).as("strategy %s", strategy)
+                    .containsExactly("[-8, 2, 6]", "[-8, 3, 5]", "[-6, 1, 5]");
+        }
+        assertThat(array).containsExactly(12, 3, 1, 2, -6, 5, -8, 6);
+    }
+
+    /**
+     * Arrays of fewer than three elements have no triplet, and three elements are a triplet only if they sum up to
+     * the target sum.
+     */
+    @Test
+    void shortArraysHaveNoTriplet() {
+
+        for (SumStrategy strategy : STRATEGIES) {
+            assertThat(threeNumberSum(new int[0], 0, strategy)).as("strategy %s", strategy).isEmpty();
+            assertThat(threeNumberSum(new int[]{1}, 1, strategy)).as("strategy %s", strategy).isEmpty();
+            assertThat(threeNumberSum(new int[]{1, 2}, 3, strategy)).as("strategy %s", strategy).isEmpty();
+            assertThat(threeNumberSum(new int[]{2, 0, 1}, 3, strategy)).as("strategy %s", strategy)
+                    .containsExactly("[0, 1, 2]");
+            assertThat(threeNumberSum(new int[]{2, 0, 1}, 4, strategy)).as("strategy %s", strategy).isEmpty();
+        }
+    }
+
+    /**
+     * Sums of the extreme ints are compared without overflowing: {@code MAX_VALUE + 1 + 2} does not match its
+     * truncation, while {@code MIN_VALUE + 0 + MAX_VALUE} does match {@code -1}.
+     */
+    @Test
+    void sumsOfExtremesDoNotOverflow() {
+
+        for (SumStrategy strategy : new SumStrategy[]{SumStrategy.AUTO, SumStrategy.TWO_POINTER}) {
+            assertThat(threeNumberSum(new int[]{Integer.MAX_VALUE, 1, 2}, Integer.MIN_VALUE + 2, strategy))
+                    .as("strategy %s", strategy).isEmpty();
+            assertThat(threeNumberSum(new int[]{Integer.MIN_VALUE, -1, -2}, Integer.MAX_VALUE - 2, strategy))
+                    .as("strategy %s", strategy).isEmpty();
+            assertThat(threeNumberSum(new int[]{Integer.MAX_VALUE, -1, 0, Integer.MIN_VALUE}, -1, strategy))
+                    .as("strategy %s", strategy).containsExactly("[" + Integer.MIN_VALUE + ", 0, " +
+                            Integer.MAX_VALUE + "]");
+        }
+    }
+
+    /**
+     * The parallel mode returns each distinct triplet of values once, in ascending order, however often the array
+     * repeats its values.
+     */
+    @Test
+    void parallelModeCollapsesRepeatedValues() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] array = {1, 0, 2, -2, 0, 1, 2, 0, -2, 1};
+            for (SumStrategy strategy : STRATEGIES) {
+                assertThat(threeNumberSumParallel(array, 0, strategy, pool)).as("strategy %s", strategy)
+                        .containsExactly("[-2, 0, 2]", "[-2, 1, 1]", "[0, 0, 0]");
+                assertThat(threeNumberSumParallel(new int[0], 0, strategy, pool)).isEmpty();
+                assertThat(threeNumberSumParallel(new int[]{0, 0}, 0, strategy, pool)).isEmpty();
+            }
+            assertThat(array).containsExactly(1, 0, 2, -2, 0, 1, 2, 0, -2, 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The parallel mode finds the same triplets as the sequential mode on arrays of distinct values long enough to be
+     * split into many tasks, of a narrow value range, and holding the extreme ints, on a pool of several threads
+     * whatever the number of processors.
+     */
+    @Test
+    void parallelModeMatchesSequentialModeOnLongArrays() {
+
+        // 7919 and 10007 are coprime, so the 3000 values are distinct
+        int[] narrow = new int[3000];
+        for (int i = 0; i < narrow.length; i++) {
+            narrow[i] = i * 7919 % 10_007 - 5003;
+        }
+        int[] wide = narrow.clone();
+        wide[0] = Integer.MAX_VALUE;
+        wide[1] = Integer.MIN_VALUE;
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int[] array : new int[][]{narrow, wide}) {
+                for (int targetSum : new int[]{0, 17, -1}) {
+                    List<String> expected = threeNumberSum(array, targetSum, SumStrategy.TWO_POINTER);
+                    assertThat(expected).isNotEmpty();
+                    for (SumStrategy strategy : STRATEGIES) {
+                        if (strategy == SumStrategy.BITSET && array == wide) {
+                            continue;
+                        }
+                        assertThat(threeNumberSumParallel(array, targetSum, strategy, pool))
+                                .as("target sum %d, strategy %s", targetSum, strategy).isEqualTo(expected);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Presorted arrays are swept straight away, unsorted arrays of a small value range are sorted with a bitset within
+     * the memory budget, and hashing is never applicable.
+     */
+    @Test
+    void choosesTheStrategyFromTheProfile() {
+
+        ArrayProfile sorted = ArrayProfile.of(IntBuffer.wrap(new int[]{0, 1, 2, 3}));
+        ArrayProfile dense = ArrayProfile.of(IntBuffer.wrap(new int[]{3, 1, 2, 0}));
+        ArrayProfile sparse = ArrayProfile.of(IntBuffer.wrap(new int[]{Integer.MAX_VALUE, 0, Integer.MIN_VALUE}));
+
+        assertThat(ThreeNumberSum.chooseStrategy(sorted, SumStrategy.AUTO, MEMORY_BUDGET))
+                .isEqualTo(SumStrategy.TWO_POINTER);
+        assertThat(ThreeNumberSum.chooseStrategy(dense, null, MEMORY_BUDGET)).isEqualTo(SumStrategy.BITSET);
+        assertThat(ThreeNumberSum.chooseStrategy(sparse, SumStrategy.AUTO, MEMORY_BUDGET))
+                .isEqualTo(SumStrategy.TWO_POINTER);
+        assertThat(ThreeNumberSum.chooseStrategy(dense, SumStrategy.AUTO, 0)).isEqualTo(SumStrategy.TWO_POINTER);
+        assertThatIllegalArgumentException().isThrownBy(() -> ThreeNumberSum.chooseStrategy(dense,
+                SumStrategy.HASHING, MEMORY_BUDGET));
+        assertThatIllegalArgumentException().isThrownBy(() -> ThreeNumberSum.chooseStrategy(sparse,
+                SumStrategy.BITSET, MEMORY_BUDGET));
+        assertThatIllegalArgumentException().isThrownBy(() -> ThreeNumberSum.chooseStrategy(dense,
+                SumStrategy.BITSET, Long.BYTES - 1));
+    }
+
+    /**
+     * Finds the triplets of an array with a strategy, as the service does, as the strings of their values.
+     */
+    private static List<String> threeNumberSum(int[] array, int targetSum, SumStrategy strategy) {
+        ArrayProfile profile = ArrayProfile.of(IntBuffer.wrap(array));
+        SumStrategy chosen = ThreeNumberSum.chooseStrategy(profile, strategy, MEMORY_BUDGET);
+        return new ThreeNumberSum().threeNumberSum(IntBuffer.wrap(array), targetSum, chosen, profile).stream()
+                .map(Arrays::toString).toList();
+    }
+
+    /**
+     * Finds the triplets of an array with a strategy in parallel, as the strings of their values.
+     */
+    private static List<String> threeNumberSumParallel(int[] array, int targetSum, SumStrategy strategy,
+                                                       ForkJoinPool pool) {
+
+        ArrayProfile profile = ArrayProfile.of(IntBuffer.wrap(array));
+        SumStrategy chosen = ThreeNumberSum.chooseStrategy(profile, strategy, MEMORY_BUDGET);
+        int[] triplets = new ThreeNumberSum().threeNumberSumParallel(IntBuffer.wrap(array), targetSum, chosen, profile,
+                pool);
+        List<String> found = new ArrayList<>();
+        for (int i = 0; i < triplets.length; i += 3) {
+            found.add(Arrays.toString(Arrays.copyOfRange(triplets, i, i + 3)));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,85 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ApartmentHunting#apartmentHunting(ApartmentBlocks, ForkJoinPool)} by the number of requirements
+ * and the parallelism of the pool, giving its scaling with both.
+ * <p>
+ * Every requirement is held by about one block in eight, drawn at random. A pool with a parallelism of 1 sweeps the
+ * street on the calling thread, which is the baseline; parallelisms beyond the number of available processors only
+ * measure the overhead of splitting. Run it with {@code mvn -Pbenchmark test -Djmh.args=ApartmentHuntingBenchmark}, or
+ * for given parameters with {@code -Djmh.args="ApartmentHuntingBenchmark -p requirementCount=50 -p parallelism=1,16"}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ApartmentHuntingBenchmark {
+
+    /**
+     * Number of blocks of the street.
+     */
+    @Param({"1000000", "10000000"})
+    public int blockCount;
+
+    /**
+     * Number of requirements.
+     */
+    @Param({"5", "20", "50"})
+    public int requirementCount;
+
+    /**
+     * Parallelism of the fork-join pool sweeping the street.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ApartmentBlocks blocks;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(blockCount + requirementCount);
+        long[][] columns = new long[requirementCount][(blockCount + Long.SIZE - 1) / Long.SIZE];
+        for (long[] column : columns) {
+            for (int word = 0; word < column.length; word++) {
+                column[word] = random.nextLong() & random.nextLong() & random.nextLong();
+            }
+        }
+        blocks = ApartmentBlocks.ofColumns(blockCount, columns);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int apartmentHunting() {
+        return new ApartmentHunting().apartmentHunting(blocks, pool);
+    }
+}
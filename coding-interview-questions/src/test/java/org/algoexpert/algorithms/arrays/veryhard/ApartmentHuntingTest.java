@@ -0,0 +1,277 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link ApartmentHunting}, on the sample street, on streets built to exercise its edge cases, and on long
+ * periodic streets swept in parallel.
+ *
+ * @author Jitesh Shaw
+ */
+
+class ApartmentHuntingTest {
+
+    private static final String[] REQS = {"gym", "school", "store"};
+
+    /**
+     * The sample street, whose gyms are at blocks 1 and 2, schools at blocks 0, 2, 3 and 4, and store at block 4.
+     */
+    private static final ApartmentBlocks SAMPLE = ApartmentBlocks.ofColumns(5, new long[]{0b00110},
+            new long[]{0b11101}, new long[]{0b10000});
+
+    /**
+     * Block 3 is the best block of the sample, whether the blocks are given as maps or as columns, and swept
+     * sequentially or in parallel.
+     */
+    @Test
+    void findsTheBlockOfTheSample() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThat(new ApartmentHunting().apartmentHunting(toMaps(SAMPLE, REQS), REQS)).isEqualTo(3);
+            assertThat(new ApartmentHunting().apartmentHunting(SAMPLE)).isEqualTo(3);
+            assertThat(new ApartmentHunting().apartmentHunting(SAMPLE, pool)).isEqualTo(3);
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(ApartmentHunting.getMaxDistanceForEachBlock(SAMPLE)).containsExactly(4, 3, 2, 1, 2);
+    }
+
+    /**
+     * A street without blocks has no best block, and every block of a street without requirements is at distance 0,
+     * so the first one wins.
+     */
+    @Test
+    void streetsWithoutBlocksOrRequirements() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThat(new ApartmentHunting().apartmentHunting(ApartmentBlocks.ofColumns(0, new long[0])))
+                    .isEqualTo(-1);
+            assertThat(new ApartmentHunting().apartmentHunting(ApartmentBlocks.ofColumns(0), pool)).isEqualTo(-1);
+            assertThat(new ApartmentHunting().apartmentHunting(ApartmentBlocks.ofColumns(3))).isZero();
+            assertThat(ApartmentHunting.getMaxDistanceForEachBlock(ApartmentBlocks.ofColumns(3)))
+                    .containsExactly(0, 0, 0);
+            assertThat(new ApartmentHunting().apartmentHunting(ApartmentBlocks.ofColumns(1, new long[]{1}))).isZero();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A requirement held by no block puts block {@code i} at {@code Integer.MAX_VALUE - i}, so the last block wins.
+     */
+    @Test
+    void requirementHeldByNoBlock() {
+
+        ApartmentBlocks blocks = ApartmentBlocks.ofColumns(3, new long[]{0b010}, new long[1]);
+
+        assertThat(ApartmentHunting.getMaxDistanceForEachBlock(blocks)).containsExactly(Integer.MAX_VALUE,
+                Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 2);
+        assertThat(new ApartmentHunting().apartmentHunting(blocks)).isEqualTo(2);
+    }
+
+    /**
+     * Of several blocks at the same smallest maximum distance, the lowest one wins.
+     */
+    @Test
+    void tiesGoToTheLowestBlock() {
+
+        ApartmentBlocks ends = ApartmentBlocks.ofColumns(5, new long[]{0b10001});
+        ApartmentBlocks alternate = ApartmentBlocks.ofColumns(5, new long[]{0b01010});
+
+        assertThat(ApartmentHunting.getMaxDistanceForEachBlock(ends)).containsExactly(0, 1, 2, 1, 0);
+        assertThat(new ApartmentHunting().apartmentHunting(ends)).isZero();
+        assertThat(ApartmentHunting.getMaxDistanceForEachBlock(alternate)).containsExactly(1, 0, 1, 0, 1);
+        assertThat(new ApartmentHunting().apartmentHunting(alternate)).isEqualTo(1);
+    }
+
+    /**
+     * Requirements held by few blocks, swept gap by gap, and by many, swept block by block, give the distances of a
+     * brute-force search, across the words of their bitsets.
+     */
+    @Test
+    void sparseAndDenseRequirementsMatchBruteForce() {
+
+        int n = 1000;
+        ApartmentBlocks blocks = ApartmentBlocks.ofColumns(n, periodicColumn(n, 97, 13), periodicColumn(n, 3, 1),
+                periodicColumn(n, 400, 399));
+
+        assertThat(ApartmentHunting.getMaxDistanceForEachBlock(blocks)).containsExactly(bruteForceScores(blocks));
+    }
+
+    /**
+     * The parallel mode finds the best block of the sequential mode on streets long enough to be cut into several
+     * ranges, on a pool of several threads whatever the number of processors, including streets where the best
+     * maximum distance is reached in every range, so the lowest block must win across ranges.
+     */
+    @Test
+    void parallelModeMatchesSequentialMode() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int n : new int[]{1 << 17, 300_001, 1 << 20}) {
+                ApartmentBlocks periodic = ApartmentBlocks.ofColumns(n, periodicColumn(n, 1000, 7),
+                        periodicColumn(n, 1000, 500), periodicColumn(n, 250, 0));
+                assertThat(new ApartmentHunting().apartmentHunting(periodic, pool)).isEqualTo(253);
+                assertThat(new ApartmentHunting().apartmentHunting(periodic)).isEqualTo(253);
+
+                ApartmentBlocks mixed = ApartmentBlocks.ofColumns(n, periodicColumn(n, 3, 1),
+                        periodicColumn(n, 4099, 2000), periodicColumn(n, n, n - 1));
+                assertThat(new ApartmentHunting().apartmentHunting(mixed, pool)).as("%d blocks", n)
+                        .isEqualTo(new ApartmentHunting().apartmentHunting(mixed));
+            }
+
+            // The best block follows the middle of the street, where two ranges meet, and is closest to a facility
+            // held by the block before it, in the other range
+            int n = 1 << 20;
+            int middle = n / 2;
+            long[] around = new long[n >>> 6];
+            around[(middle - 1) >>> 6] |= 1L << (middle - 1);
+            around[(middle + 1000) >>> 6] |= 1L << (middle + 1000);
+            long[] within = new long[n >>> 6];
+            within[(middle + 10) >>> 6] |= 1L << (middle + 10);
+            ApartmentBlocks boundary = ApartmentBlocks.ofColumns(n, around, within);
+            assertThat(new ApartmentHunting().apartmentHunting(boundary, pool)).isEqualTo(middle + 4);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The blocks of the sample are ranked by their maximum distance, ties going to the lowest block, with their
+     * distance to each requirement, and ranking more blocks than the street holds ranks them all.
+     */
+    @Test
+    void ranksTheBlocksOfTheSample() {
+
+        RankedBlocks ranked = new ApartmentHunting().rankBlocks(SAMPLE, 3);
+
+        assertThat(ranked.getBlocks()).containsExactly(3, 2, 4);
+        assertThat(ranked.getScores()).containsExactly(1, 2, 2);
+        assertThat(ranked.getDistances()).isDeepEqualTo(new int[][]{{1, 0, 1}, {0, 0, 2}, {2, 0, 0}});
+        assertThat(new ApartmentHunting().rankBlocks(SAMPLE, 10).getBlocks()).containsExactly(3, 2, 4, 1, 0);
+        assertThatIllegalArgumentException().isThrownBy(() -> new ApartmentHunting().rankBlocks(SAMPLE, 0));
+    }
+
+    /**
+     * The distance of a block to a requirement held by no block is reported as -1, and the block at
+     * {@code Integer.MAX_VALUE} is not ranked.
+     */
+    @Test
+    void ranksBlocksOutOfReachOfARequirement() {
+
+        RankedBlocks ranked = new ApartmentHunting().rankBlocks(ApartmentBlocks.ofColumns(3, new long[]{0b010},
+                new long[1]), 3);
+
+        assertThat(ranked.getBlocks()).containsExactly(2, 1);
+        assertThat(ranked.getScores()).containsExactly(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1);
+        assertThat(ranked.getDistances()).isDeepEqualTo(new int[][]{{1, -1}, {0, -1}});
+    }
+
+    /**
+     * The parallel mode ranks the blocks as the sequential mode does on streets long enough to be cut into several
+     * ranges, whose heaps are merged, on a pool of several threads whatever the number of processors.
+     */
+    @Test
+    void parallelRankBlocksMatchesSequentialRankBlocks() {
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int n : new int[]{1 << 17, 300_001}) {
+                ApartmentBlocks blocks = ApartmentBlocks.ofColumns(n, periodicColumn(n, 3, 1),
+                        periodicColumn(n, 1000, 7), periodicColumn(n, 4099, 2000));
+                for (int k : new int[]{1, 37, 1000}) {
+                    RankedBlocks expected = new ApartmentHunting().rankBlocks(blocks, k);
+                    RankedBlocks ranked = new ApartmentHunting().rankBlocks(blocks, k, pool);
+
+                    assertThat(ranked.getBlocks()).as("%d blocks, k %d", n, k).containsExactly(expected.getBlocks());
+                    assertThat(ranked.getScores()).containsExactly(expected.getScores());
+                    assertThat(ranked.getDistances()).isDeepEqualTo(expected.getDistances());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Columns too short for the number of blocks are rejected.
+     */
+    @Test
+    void rejectsColumnsTooShort() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ApartmentBlocks.ofColumns(65, new long[1]));
+    }
+
+    /**
+     * Returns the bitset of a requirement held by every block at a given offset from a multiple of a period.
+     */
+    static long[] periodicColumn(int n, int period, int offset) {
+
+        long[] column = new long[(n + 63) >>> 6];
+        for (int block = offset; block < n; block += period) {
+            column[block >>> 6] |= 1L << block;
+        }
+        return column;
+    }
+
+    /**
+     * Measures the maximum distance of every block to the closest block holding each requirement, by measuring its
+     * distance to every block holding it; a block is at {@code Integer.MAX_VALUE - i} from a requirement held by none.
+     *
+     * @param blocks the columnar view of the blocks
+     * @return the maximum distance of each block
+     */
+    static int[] bruteForceScores(ApartmentBlocks blocks) {
+
+        int n = blocks.blockCount();
+        int[] scores = new int[n];
+        for (int block = 0; block < n; block++) {
+            for (int req = 0; req < blocks.requirementCount(); req++) {
+                scores[block] = Math.max(scores[block], bruteForceDistance(blocks, req, block));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Measures the distance of a block to the closest block holding a requirement, by trying every block.
+     *
+     * @return the distance, or {@code Integer.MAX_VALUE - block} if no block holds the requirement
+     */
+    static int bruteForceDistance(ApartmentBlocks blocks, int req, int block) {
+
+        int distance = Integer.MAX_VALUE - block;
+        for (int other = 0; other < blocks.blockCount(); other++) {
+            if (blocks.has(req, other)) {
+                distance = Math.min(distance, Math.abs(block - other));
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the blocks as maps from the name of each requirement to its availability.
+     */
+    private static List<Map<String, Boolean>> toMaps(ApartmentBlocks blocks, String[] reqs) {
+
+        List<Map<String, Boolean>> maps = new ArrayList<>();
+        for (int block = 0; block < blocks.blockCount(); block++) {
+            Map<String, Boolean> map = new HashMap<>();
+            for (int req = 0; req < reqs.length; req++) {
+                map.put(reqs[req], blocks.has(req, block));
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+}
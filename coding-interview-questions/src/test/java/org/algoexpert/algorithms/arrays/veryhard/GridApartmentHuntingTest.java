@@ -0,0 +1,261 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link GridApartmentHunting}, on small grids whose rankings are spelled out, and on larger grids whose
+ * rankings are compared with a brute-force ranking that measures the distance of every block to every cell holding
+ * each requirement.
+ * <p>
+ * Over a grid without roads, the distances are measured as Manhattan distances; over roads, by a breadth-first search
+ * from every block on its own. The whole ranking is compared, down to the scores, the distances and the lowest block
+ * winning a tie.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class GridApartmentHuntingTest {
+
+    private static final long MEMORY_BUDGET = 1L << 20;
+
+    /**
+     * On a 3 by 3 grid with facilities in opposite corners, the blocks of the other diagonal are the best ones, and
+     * weighting the first requirement moves the best blocks towards it.
+     */
+    @Test
+    void ranksTheBlocksOfAManhattanGrid() {
+
+        ApartmentBlocks cells = ApartmentBlocks.ofColumns(9, new long[]{1}, new long[]{1 << 8});
+
+        RankedBlocks ranked = new GridApartmentHunting().rankBlocks(ApartmentGrid.manhattan(3, 3, cells,
+                new int[]{1, 1}), 3, MEMORY_BUDGET);
+        assertThat(ranked.getBlocks()).containsExactly(2, 4, 6);
+        assertThat(ranked.getScores()).containsExactly(2, 2, 2);
+        assertThat(ranked.getDistances()).isDeepEqualTo(new int[][]{{2, 2}, {2, 2}, {2, 2}});
+
+        RankedBlocks weighted = new GridApartmentHunting().rankBlocks(ApartmentGrid.manhattan(3, 3, cells,
+                new int[]{3, 1}), 3, MEMORY_BUDGET);
+        assertThat(weighted.getBlocks()).containsExactly(1, 3, 0);
+        assertThat(weighted.getScores()).containsExactly(3, 3, 4);
+        assertThat(weighted.getDistances()).isDeepEqualTo(new int[][]{{1, 3}, {1, 3}, {0, 4}});
+    }
+
+    /**
+     * An empty grid ranks no block, and neither does a grid with a requirement held by no cell.
+     */
+    @Test
+    void ranksNoBlockOutOfReach() {
+
+        ApartmentGrid empty = ApartmentGrid.manhattan(0, 4, ApartmentBlocks.ofColumns(0, new long[0]), new int[]{1});
+        ApartmentGrid unheld = ApartmentGrid.manhattan(2, 2, ApartmentBlocks.ofColumns(4, new long[]{1}, new long[1]),
+                new int[]{1, 1});
+
+        assertThat(new GridApartmentHunting().rankBlocks(empty, 3, MEMORY_BUDGET).getBlocks()).isEmpty();
+        assertThat(new GridApartmentHunting().rankBlocks(unheld, 3, MEMORY_BUDGET).getBlocks()).isEmpty();
+    }
+
+    /**
+     * Over a street whose middle cell is not a road, only the road cells are ranked, and those cut off from the only
+     * facility are not.
+     */
+    @Test
+    void ranksOnlyTheRoadsWithinReach() {
+
+        ApartmentBlocks cells = ApartmentBlocks.ofColumns(5, new long[]{1 << 4});
+
+        RankedBlocks ranked = new GridApartmentHunting().rankBlocks(ApartmentGrid.overRoads(1, 5, cells,
+                new int[]{2}, new long[]{0b11011}), 5, MEMORY_BUDGET);
+
+        assertThat(ranked.getBlocks()).containsExactly(4, 3);
+        assertThat(ranked.getScores()).containsExactly(0, 2);
+        assertThat(ranked.getDistances()).isDeepEqualTo(new int[][]{{0}, {1}});
+    }
+
+    /**
+     * The blocks ranked over a larger grid without roads are those of a brute-force ranking by Manhattan distance,
+     * for any number of blocks to rank, requirements being held by few and by many cells.
+     */
+    @Test
+    void manhattanRankingMatchesBruteForce() {
+
+        int rows = 11;
+        int columns = 13;
+        int n = rows * columns;
+        ApartmentBlocks cells = ApartmentBlocks.ofColumns(n, ApartmentHuntingTest.periodicColumn(n, 37, 5),
+                ApartmentHuntingTest.periodicColumn(n, 3, 1), ApartmentHuntingTest.periodicColumn(n, n, 70));
+        int[] weights = {1, 3, 5};
+
+        for (int k : new int[]{1, 10, n, n + 3}) {
+            RankedBlocks ranked = new GridApartmentHunting().rankBlocks(ApartmentGrid.manhattan(rows, columns, cells,
+                    weights), k, MEMORY_BUDGET);
+
+            assertThat(ranked.getBlocks()).isNotEmpty();
+            assertRanking(ranked, bruteForce(rows, columns, cells, weights, null, k));
+        }
+    }
+
+    /**
+     * The blocks ranked over the roads of a larger grid are those of a brute-force ranking by the lengths of the
+     * shortest walks along the roads, over a winding road where walks are much longer than Manhattan distances, and
+     * over roads split into parts cut off from each other.
+     */
+    @Test
+    void roadRankingMatchesBruteForce() {
+
+        int rows = 9;
+        int columns = 11;
+        int n = rows * columns;
+        ApartmentBlocks cells = ApartmentBlocks.ofColumns(n, ApartmentHuntingTest.periodicColumn(n, 23, 4),
+                ApartmentHuntingTest.periodicColumn(n, 2, 0));
+        int[] weights = {2, 1};
+
+        // Every even row, joined to the next one at alternate ends
+        long[] winding = new long[(n + 63) >>> 6];
+        // Every column but the middle one, which cuts the grid in two
+        long[] split = new long[(n + 63) >>> 6];
+        for (int cell = 0; cell < n; cell++) {
+            int row = cell / columns;
+            int column = cell % columns;
+            if (row % 2 == 0 || column == (row % 4 == 1 ? columns - 1 : 0)) {
+                winding[cell >>> 6] |= 1L << cell;
+            }
+            if (column != columns / 2) {
+                split[cell >>> 6] |= 1L << cell;
+            }
+        }
+
+        for (long[] roads : new long[][]{winding, split}) {
+            RankedBlocks ranked = new GridApartmentHunting().rankBlocks(ApartmentGrid.overRoads(rows, columns, cells,
+                    weights, roads), n, MEMORY_BUDGET);
+
+            assertThat(ranked.getBlocks()).isNotEmpty();
+            assertRanking(ranked, bruteForce(rows, columns, cells, weights, roads, n));
+        }
+    }
+
+    /**
+     * Invalid grids and rankings that would exceed the memory budget are rejected.
+     */
+    @Test
+    void rejectsInvalidGridsAndBudgets() {
+
+        ApartmentBlocks cells = ApartmentBlocks.ofColumns(6, new long[]{0b1});
+        assertThatIllegalArgumentException().isThrownBy(() -> ApartmentGrid.manhattan(2, 2, cells, new int[]{1}));
+        assertThatIllegalArgumentException().isThrownBy(() -> ApartmentGrid.manhattan(2, 3, cells, new int[0]));
+        assertThatIllegalArgumentException().isThrownBy(() -> ApartmentGrid.manhattan(2, 3, cells, new int[]{0}));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                ApartmentGrid.overRoads(2, 3, cells, new int[]{1}, new long[0]));
+
+        ApartmentGrid grid = ApartmentGrid.manhattan(2, 3, cells, new int[]{1});
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                new GridApartmentHunting().rankBlocks(grid, 0, MEMORY_BUDGET));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GridApartmentHunting().rankBlocks(grid, 1, 64));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                GridApartmentHunting.checkApplicable(10_000_000, 50, 10, 1L << 27));
+    }
+
+    /**
+     * Asserts that a ranking holds the blocks of a brute-force ranking, in the same order, with the same scores and
+     * distances.
+     */
+    private static void assertRanking(RankedBlocks ranked, List<long[]> expected) {
+
+        assertThat(ranked.getBlocks()).containsExactly(expected.stream().mapToInt(block -> (int) block[0]).toArray());
+        assertThat(ranked.getScores()).containsExactly(expected.stream().mapToLong(block -> block[1]).toArray());
+        for (int i = 0; i < expected.size(); i++) {
+            long[] distances = Arrays.copyOfRange(expected.get(i), 2, expected.get(i).length);
+            assertThat(Arrays.stream(ranked.getDistances()[i]).asLongStream().toArray()).containsExactly(distances);
+        }
+    }
+
+    /**
+     * Ranks the blocks of a grid by measuring the distance of every block to every cell holding each requirement.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param cells the requirements held by each cell
+     * @param weights the weight of each requirement
+     * @param roads the bitset of the road cells, or null for Manhattan distances
+     * @param k the number of blocks to rank
+     * @return the best {@code k} blocks, best first, each as its index, its score and its distance to each requirement
+     */
+    private static List<long[]> bruteForce(int rows, int columns, ApartmentBlocks cells, int[] weights, long[] roads,
+                                           int k) {
+
+        int n = rows * columns;
+        List<long[]> blocks = new ArrayList<>();
+        search:
+        for (int block = 0; block < n; block++) {
+            if (roads != null && !isSet(roads, block)) {
+                continue;
+            }
+            int[] walks = roads == null ? null : walkingDistances(rows, columns, roads, block);
+            long[] ranked = new long[2 + weights.length];
+            ranked[0] = block;
+            for (int req = 0; req < weights.length; req++) {
+                int distance = Integer.MAX_VALUE;
+                for (int cell = 0; cell < n; cell++) {
+                    if (!cells.has(req, cell)) {
+                        continue;
+                    }
+                    int cellDistance = roads == null
+                            ? Math.abs(cell / columns - block / columns) + Math.abs(cell % columns - block % columns)
+                            : walks[cell];
+                    distance = Math.min(distance, cellDistance);
+                }
+                if (distance == Integer.MAX_VALUE) {
+                    continue search;
+                }
+                ranked[1] = Math.max(ranked[1], (long) weights[req] * distance);
+                ranked[2 + req] = distance;
+            }
+            blocks.add(ranked);
+        }
+
+        blocks.sort(Comparator.<long[]>comparingLong(block -> block[1]).thenComparingLong(block -> block[0]));
+        return blocks.subList(0, Math.min(k, blocks.size()));
+    }
+
+    /**
+     * Measures the length of the shortest walk along the roads from a road cell to every cell, by a breadth-first
+     * search.
+     *
+     * @return the distance of each cell, or {@code Integer.MAX_VALUE} for the cells out of reach
+     */
+    private static int[] walkingDistances(int rows, int columns, long[] roads, int from) {
+
+        int[] distances = new int[rows * columns];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[from] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int row = cell / columns;
+            int column = cell % columns;
+            int[][] neighbours = {{row - 1, column}, {row + 1, column}, {row, column - 1}, {row, column + 1}};
+            for (int[] neighbour : neighbours) {
+                int next = neighbour[0] * columns + neighbour[1];
+                if (neighbour[0] >= 0 && neighbour[0] < rows && neighbour[1] >= 0 && neighbour[1] < columns &&
+                        isSet(roads, next) && distances[next] == Integer.MAX_VALUE) {
+                    distances[next] = distances[cell] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+}
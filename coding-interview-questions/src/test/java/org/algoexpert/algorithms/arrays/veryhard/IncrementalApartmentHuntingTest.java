@@ -0,0 +1,163 @@
+package org.algoexpert.algorithms.arrays.veryhard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests of {@link IncrementalApartmentHunting}, comparing its state after every update with the distances and the
+ * best block of {@link ApartmentHunting} recomputed from scratch.
+ *
+ * @author Jitesh Shaw
+ */
+
+class IncrementalApartmentHuntingTest {
+
+    /**
+     * Adding the first facility of a requirement brings every block within reach of it, and removing its last one
+     * puts block {@code i} back at {@code Integer.MAX_VALUE - i}, so the last block wins again.
+     */
+    @Test
+    void firstFacilityAddedAndLastOneRemoved() {
+
+        IncrementalApartmentHunting incremental = new IncrementalApartmentHunting(ApartmentBlocks.ofColumns(5,
+                new long[1]));
+        assertThat(maxDistances(incremental, 5)).containsExactly(IntStream.range(0, 5)
+                .map(block -> Integer.MAX_VALUE - block).toArray());
+        assertThat(incremental.bestBlock()).isEqualTo(4);
+
+        incremental.setAvailable(0, 2, true);
+        assertThat(maxDistances(incremental, 5)).containsExactly(2, 1, 0, 1, 2);
+        assertThat(incremental.bestBlock()).isEqualTo(2);
+
+        incremental.setAvailable(0, 4, true);
+        assertThat(maxDistances(incremental, 5)).containsExactly(2, 1, 0, 1, 0);
+        assertThat(incremental.bestBlock()).isEqualTo(2);
+
+        incremental.setAvailable(0, 2, false);
+        assertThat(maxDistances(incremental, 5)).containsExactly(4, 3, 2, 1, 0);
+        assertThat(incremental.bestBlock()).isEqualTo(4);
+
+        incremental.setAvailable(0, 4, false);
+        assertThat(maxDistances(incremental, 5)).containsExactly(IntStream.range(0, 5)
+                .map(block -> Integer.MAX_VALUE - block).toArray());
+        assertThat(incremental.bestBlock()).isEqualTo(4);
+    }
+
+    /**
+     * Moving the store of the sample street from block 4 to block 0 makes block 0 the best block, within a block of
+     * everything like block 1, and moving it back makes block 3 the best one again.
+     */
+    @Test
+    void updatesOfTheSample() {
+
+        long[][] columns = {{0b00110}, {0b11101}, {0b10000}};
+        IncrementalApartmentHunting incremental = new IncrementalApartmentHunting(ApartmentBlocks.ofColumns(5,
+                columns));
+
+        setAvailable(columns, incremental, 2, 0, true);
+        assertMatchesRecomputation(incremental, columns, 5);
+        assertThat(incremental.bestBlock()).isZero();
+
+        setAvailable(columns, incremental, 2, 4, false);
+        assertMatchesRecomputation(incremental, columns, 5);
+        assertThat(incremental.bestBlock()).isZero();
+
+        setAvailable(columns, incremental, 2, 4, true);
+        setAvailable(columns, incremental, 2, 0, false);
+        assertMatchesRecomputation(incremental, columns, 5);
+        assertThat(incremental.bestBlock()).isEqualTo(3);
+    }
+
+    /**
+     * After every update of streets whose bitsets span two and three levels, the maximum distances and the best block
+     * are those recomputed from scratch, as facilities spread along the street are added and then removed, so that a
+     * requirement held by a single block loses it and gets it back.
+     */
+    @Test
+    void updatesMatchRecomputationOnLongStreets() {
+
+        for (int n : new int[]{4097, 70_000}) {
+            long[][] columns = {new long[(n + 63) >>> 6], ApartmentHuntingTest.periodicColumn(n, 3, 1),
+                    ApartmentHuntingTest.periodicColumn(n, 4099, 2000)};
+            // A requirement held by a single block, so its gaps are as long as the street
+            columns[0][n >>> 7] = 1;
+            IncrementalApartmentHunting incremental = new IncrementalApartmentHunting(ApartmentBlocks.ofColumns(n,
+                    columns));
+
+            int[] updated = IntStream.range(0, 60).map(update -> (int) (update * 7919L % n)).toArray();
+            for (boolean available : new boolean[]{true, false}) {
+                for (int update = 0; update < updated.length; update++) {
+                    int req = update % 3;
+                    int block = updated[update];
+                    if (has(columns, req, block) != available) {
+                        setAvailable(columns, incremental, req, block, available);
+                        assertMatchesRecomputation(incremental, columns, n);
+                    }
+                }
+            }
+            setAvailable(columns, incremental, 0, n >>> 1 & ~63, false);
+            assertMatchesRecomputation(incremental, columns, n);
+            setAvailable(columns, incremental, 0, n - 1, true);
+            assertMatchesRecomputation(incremental, columns, n);
+        }
+    }
+
+    /**
+     * The state is a copy of the blocks it was constructed from, updates that change nothing are ignored, and updates
+     * out of bounds are rejected.
+     */
+    @Test
+    void copiesTheBlocksAndChecksTheUpdates() {
+
+        long[] column = {0b101};
+        IncrementalApartmentHunting incremental = new IncrementalApartmentHunting(ApartmentBlocks.ofColumns(3, column));
+        column[0] = 0;
+        incremental.setAvailable(0, 0, true);
+
+        assertThat(incremental.bestBlock()).isEqualTo(0);
+        assertThat(incremental.maxDistance(1)).isEqualTo(1);
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() ->
+                incremental.setAvailable(1, 0, true));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() ->
+                incremental.setAvailable(0, 3, true));
+    }
+
+    /**
+     * Asserts that the maximum distance of every block and the best block are those recomputed from the columns.
+     */
+    private static void assertMatchesRecomputation(IncrementalApartmentHunting incremental, long[][] columns, int n) {
+
+        ApartmentBlocks blocks = ApartmentBlocks.ofColumns(n, columns);
+        assertThat(maxDistances(incremental, n)).isEqualTo(ApartmentHunting.getMaxDistanceForEachBlock(blocks));
+        assertThat(incremental.bestBlock()).isEqualTo(new ApartmentHunting().apartmentHunting(blocks));
+    }
+
+    /**
+     * Returns the maximum distance of every block of the state.
+     */
+    private static int[] maxDistances(IncrementalApartmentHunting incremental, int n) {
+        return IntStream.range(0, n).map(incremental::maxDistance).toArray();
+    }
+
+    /**
+     * Updates the availability of a facility at a block, in the state and in the columns.
+     */
+    private static void setAvailable(long[][] columns, IncrementalApartmentHunting incremental, int req, int block,
+                                     boolean available) {
+
+        if (available) {
+            columns[req][block >>> 6] |= 1L << block;
+        } else {
+            columns[req][block >>> 6] &= ~(1L << block);
+        }
+        incremental.setAvailable(req, block, available);
+    }
+
+    private static boolean has(long[][] columns, int req, int block) {
+        return (columns[req][block >>> 6] & 1L << block) != 0;
+    }
+}
@@ -0,0 +1,115 @@
+package org.algoexpert.algorithms.binarysearchtrees.easy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the closest-value lookup of a {@link FrozenBST} against
+ * {@link FindClosestValueInBST#findClosestValueInBst(FindClosestValueInBST.BST, int)} on the linked BST it is frozen
+ * from, giving the latency of a single lookup.
+ * <p>
+ * The linked BST is built by inserting random values in the order they are drawn, as the trees of the requests are,
+ * so its nodes are scattered over the heap and its depth is about {@code 2 ln n}. Every invocation looks up
+ * {@value #LOOKUPS} random targets in turn. At 10^8 keys the linked BST alone takes about 2.4 GB, so the forked JVM is
+ * given a 6 GB heap, and building it takes minutes. Run it with
+ * {@code mvn -Pbenchmark test -Djmh.args=FrozenBSTBenchmark}, or for given sizes with
+ * {@code -Djmh.args="FrozenBSTBenchmark -p size=1000,1000000"}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FrozenBSTBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    /**
+     * Number of keys of the tree.
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    private FindClosestValueInBST.BST linked;
+    private FrozenBST frozen;
+    private final int[] targets = new int[LOOKUPS];
+
+    @Setup
+    public void buildTrees() {
+
+        Random random = new Random(size);
+        int[] values = random.ints(size).toArray();
+        linked = new FindClosestValueInBST.BST(values[0]);
+        for (int i = 1; i < size; i++) {
+            insert(linked, values[i]);
+        }
+        frozen = FrozenBST.of(values);
+        for (int i = 0; i < LOOKUPS; i++) {
+            targets[i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int linkedBst() {
+
+        FindClosestValueInBST algorithm = new FindClosestValueInBST();
+        int checksum = 0;
+        for (int target : targets) {
+            checksum += algorithm.findClosestValueInBst(linked, target);
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int frozenBst() {
+
+        int checksum = 0;
+        for (int target : targets) {
+            checksum += frozen.findClosestValue(target);
+        }
+        return checksum;
+    }
+
+    /**
+     * Inserts a value into a linked BST, larger or equal values going right.
+     */
+    private static void insert(FindClosestValueInBST.BST root, int value) {
+
+        FindClosestValueInBST.BST node = root;
+        while (true) {
+            if (value < node.value) {
+                if (node.left == null) {
+                    node.left = new FindClosestValueInBST.BST(value);
+                    return;
+                }
+                node = node.left;
+            } else {
+                if (node.right == null) {
+                    node.right = new FindClosestValueInBST.BST(value);
+                    return;
+                }
+                node = node.right;
+            }
+        }
+    }
+}
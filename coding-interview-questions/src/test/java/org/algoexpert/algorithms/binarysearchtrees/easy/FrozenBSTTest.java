@@ -0,0 +1,139 @@
+package org.algoexpert.algorithms.binarysearchtrees.easy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link FrozenBST}, frozen from values and from linked BSTs.
+ *
+ * @author Jitesh Shaw
+ */
+
+class FrozenBSTTest {
+
+    private static final int[] SAMPLE = {10, 5, 15, 2, 5, 13, 22, 1, 14};
+
+    /**
+     * 13 is the value of the sample tree closest to 12, whether the tree is frozen from its values or from the linked
+     * BST they build, which is left unchanged.
+     */
+    @Test
+    void findsTheClosestValueOfTheSample() {
+
+        FindClosestValueInBST.BST linked = insertAll(SAMPLE);
+
+        assertThat(FrozenBST.of(SAMPLE).findClosestValue(12)).isEqualTo(13);
+        assertThat(FrozenBST.freeze(linked).findClosestValue(12)).isEqualTo(13);
+        assertThat(FrozenBST.of(SAMPLE).size()).isEqualTo(SAMPLE.length);
+        assertThat(SAMPLE).containsExactly(10, 5, 15, 2, 5, 13, 22, 1, 14);
+        assertThat(new FindClosestValueInBST().findClosestValueInBst(linked, 12)).isEqualTo(13);
+    }
+
+    /**
+     * The only value of a tree is the closest to every target, and repeated values are found as any other.
+     */
+    @Test
+    void singleAndRepeatedValues() {
+
+        FrozenBST single = FrozenBST.of(new int[]{7});
+        for (int target : new int[]{Integer.MIN_VALUE, 6, 7, 8, Integer.MAX_VALUE}) {
+            assertThat(single.findClosestValue(target)).as("target %d", target).isEqualTo(7);
+        }
+
+        FrozenBST repeated = FrozenBST.of(new int[]{5, 5, 1, 5});
+        assertThat(repeated.size()).isEqualTo(4);
+        assertThat(repeated.findClosestValue(4)).isEqualTo(5);
+        assertThat(repeated.findClosestValue(2)).isEqualTo(1);
+    }
+
+    /**
+     * Of a value below and a value above the target at the same distance, the smaller one is the closest, and
+     * distances across the whole int range are compared without overflowing.
+     */
+    @Test
+    void tiesGoToTheSmallerValueAndExtremesDoNotOverflow() {
+
+        assertThat(FrozenBST.of(new int[]{20, 10}).findClosestValue(15)).isEqualTo(10);
+        assertThat(FrozenBST.of(new int[]{1, -1}).findClosestValue(0)).isEqualTo(-1);
+
+        FrozenBST extremes = FrozenBST.of(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE});
+        assertThat(extremes.findClosestValue(0)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(extremes.findClosestValue(-1)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(extremes.findClosestValue(Integer.MIN_VALUE)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(extremes.findClosestValue(Integer.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Trees of every size up to a few full levels, so every shape of the last level of the complete tree is laid out,
+     * find the closest multiple of 3 to every target from below their smallest value to above their largest one.
+     */
+    @Test
+    void everyShapeOfTheLastLevel() {
+
+        for (int size = 1; size <= 70; size++) {
+            int largest = 3 * (size - 1);
+            FrozenBST tree = FrozenBST.of(IntStream.range(0, size).map(i -> largest - 3 * i).toArray());
+
+            for (int target = -2; target <= largest + 2; target++) {
+                int expected = Math.min(largest, Math.max(0, Math.floorDiv(target + 1, 3) * 3));
+                assertThat(tree.findClosestValue(target)).as("size %d, target %d", size, target).isEqualTo(expected);
+            }
+        }
+    }
+
+    /**
+     * A degenerate linked BST, as deep as it has nodes, is frozen without overflowing the call stack, into a balanced
+     * tree.
+     */
+    @Test
+    void freezesDegenerateTrees() {
+
+        int[] sorted = IntStream.range(0, 30_000).map(i -> 3 * i).toArray();
+        FrozenBST tree = FrozenBST.freeze(insertAll(sorted));
+
+        assertThat(tree.size()).isEqualTo(sorted.length);
+        for (int target = -1; target <= 3 * sorted.length; target += 7) {
+            int expected = Math.min(3 * (sorted.length - 1), Math.max(0, Math.floorDiv(target + 1, 3) * 3));
+            assertThat(tree.findClosestValue(target)).as("target %d", target).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * A tree without a value cannot be frozen.
+     */
+    @Test
+    void rejectsEmptyTrees() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FrozenBST.of(new int[0]));
+    }
+
+    /**
+     * Builds a linked BST by inserting the values in order, smaller values to the left.
+     */
+    private static FindClosestValueInBST.BST insertAll(int[] values) {
+
+        FindClosestValueInBST.BST root = new FindClosestValueInBST.BST(values[0]);
+        for (int i = 1; i < values.length; i++) {
+            FindClosestValueInBST.BST node = root;
+            while (true) {
+                if (values[i] < node.value) {
+                    if (node.left == null) {
+                        node.left = new FindClosestValueInBST.BST(values[i]);
+                        break;
+                    }
+                    node = node.left;
+                } else {
+                    if (node.right == null) {
+                        node.right = new FindClosestValueInBST.BST(values[i]);
+                        break;
+                    }
+                    node = node.right;
+                }
+            }
+        }
+        return root;
+    }
+}
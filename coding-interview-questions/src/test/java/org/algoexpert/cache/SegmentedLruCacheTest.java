@@ -0,0 +1,86 @@
+package org.algoexpert.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link SegmentedLruCache}, on a cache of a maximum weight of 100, whose protected segment holds up to 80.
+ *
+ * @author Jitesh Shaw
+ */
+
+class SegmentedLruCacheTest {
+
+    private final SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(100, 50);
+
+    /**
+     * An entry hit once is promoted to the protected segment, so a burst of entries that are never hit evicts each
+     * other instead of it.
+     */
+    @Test
+    void hitEntryIsPromotedAndSurvivesScans() {
+
+        cache.put("hot", "hot", 30);
+        assertThat(cache.get("hot")).isEqualTo("hot");
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("cold" + i, "cold" + i, 30);
+        }
+
+        assertThat(cache.get("hot")).isEqualTo("hot");
+        assertThat(cache.get("cold7")).isNull();
+        assertThat(cache.get("cold8")).isEqualTo("cold8");
+        assertThat(cache.get("cold9")).isEqualTo("cold9");
+        assertThat(cache.evictions()).isEqualTo(8);
+    }
+
+    /**
+     * Promoting an entry beyond the share of the protected segment demotes its least recently used entry to the
+     * probation segment, from which it is evicted before the entries still protected.
+     */
+    @Test
+    void leastRecentlyUsedProtectedEntryIsDemoted() {
+
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.put(key, key, 30);
+            cache.get(key);
+        }
+        // Protecting "c" took the protected segment to 90, so "a" was demoted
+        cache.put("d", "d", 30);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo("b");
+        assertThat(cache.get("c")).isEqualTo("c");
+        assertThat(cache.get("d")).isEqualTo("d");
+        assertThat(cache.weight()).isEqualTo(90);
+    }
+
+    /**
+     * Entries are evicted by weight until the total weight fits, an entry heavier than the maximum entry weight is
+     * never admitted, and caching a key again replaces its weight.
+     */
+    @Test
+    void entriesAreEvictedByWeight() {
+
+        assertThat(cache.put("light", "light", 10)).isTrue();
+        assertThat(cache.put("heavy", "heavy", 50)).isTrue();
+        assertThat(cache.put("medium", "medium", 40)).isTrue();
+        assertThat(cache.weight()).isEqualTo(100);
+        assertThat(cache.put("huge", "huge", 51)).isFalse();
+
+        // Only the least recently used entry needs to go to make room for 5
+        cache.put("tiny", "tiny", 5);
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.weight()).isEqualTo(95);
+        assertThat(cache.get("light")).isNull();
+
+        // The replaced entry weighs 45 instead of 50, so nothing is evicted
+        cache.put("heavy", "heavier", 45);
+        assertThat(cache.get("heavy")).isEqualTo("heavier");
+        assertThat(cache.weight()).isEqualTo(90);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,89 @@
+package org.algoexpert.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IntHashSet} against the {@code HashMap<Integer, Boolean>} it replaced in the twoNumberSum scan.
+ * <p>
+ * Both benchmarks run the same scan over an array of distinct values: look up the difference of each element with the
+ * target sum, then add the element. The values are even and the target sum odd, so no pair ever matches and the scan
+ * always goes through the whole array, which is the worst case. Run it with
+ * {@code mvn -Pbenchmark test -Djmh.args=IntHashSetBenchmark}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IntHashSetBenchmark {
+
+    private static final int TARGET_SUM = 1;
+
+    /**
+     * Number of elements of the array.
+     */
+    @Param({"1000", "100000", "5000000"})
+    public int length;
+
+    private int[] array;
+
+    @Setup
+    public void generateArray() {
+
+        Random random = new Random(length);
+        IntHashSet drawn = new IntHashSet(length);
+        array = new int[length];
+        for (int i = 0; i < length; ) {
+            int value = random.nextInt() & ~1;
+            if (drawn.add(value)) {
+                array[i++] = value;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean intHashSet() {
+
+        IntHashSet seen = new IntHashSet(array.length);
+        for (int element : array) {
+            if (seen.contains(TARGET_SUM - element)) {
+                return true;
+            }
+            seen.add(element);
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean hashMap() {
+
+        Map<Integer, Boolean> seen = new HashMap<>();
+        for (int element : array) {
+            if (seen.containsKey(TARGET_SUM - element)) {
+                return true;
+            }
+            seen.put(element, true);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package org.algoexpert.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests of {@link IntHashSet}.
+ *
+ * @author Jitesh Shaw
+ */
+
+class IntHashSetTest {
+
+    /**
+     * A new set contains nothing, not even {@code 0}, which is what its empty slots hold.
+     */
+    @Test
+    void newSetIsEmpty() {
+
+        IntHashSet set = new IntHashSet();
+
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(1)).isFalse();
+    }
+
+    /**
+     * {@code 0} and the extreme ints are added once each, and adding them again leaves the set unchanged.
+     */
+    @Test
+    void zeroAndExtremesAreAddedOnce() {
+
+        IntHashSet set = new IntHashSet(0);
+        for (int element : new int[]{0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1}) {
+            assertThat(set.add(element)).as("add %d", element).isTrue();
+            assertThat(set.add(element)).as("add %d again", element).isFalse();
+        }
+
+        assertThat(set.size()).isEqualTo(4);
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.contains(Integer.MIN_VALUE)).isTrue();
+        assertThat(set.contains(Integer.MAX_VALUE)).isTrue();
+        assertThat(set.contains(1)).isFalse();
+    }
+
+    /**
+     * Elements that differ only in their high bits, which would share a slot under a plain mask, are all kept across
+     * every growth of the table.
+     */
+    @Test
+    void collidingElementsSurviveGrowth() {
+
+        IntHashSet set = new IntHashSet();
+        for (int i = 1; i <= 10_000; i++) {
+            assertThat(set.add(i << 16)).isTrue();
+        }
+
+        assertThat(set.size()).isEqualTo(10_000);
+        for (int i = 1; i <= 10_000; i++) {
+            assertThat(set.contains(i << 16)).as("contains %d", i << 16).isTrue();
+            assertThat(set.contains((i << 16) + 1)).isFalse();
+        }
+    }
+
+    /**
+     * A cleared set is empty, including of {@code 0}, and can be filled again.
+     */
+    @Test
+    void clearEmptiesTheSet() {
+
+        IntHashSet set = new IntHashSet();
+        for (int i = -100; i <= 100; i++) {
+            set.add(i);
+        }
+
+        set.clear();
+
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(42)).isFalse();
+        assertThat(set.add(42)).isTrue();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    /**
+     * A negative expected size is rejected.
+     */
+    @Test
+    void negativeExpectedSizeIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new IntHashSet(-1));
+    }
+}
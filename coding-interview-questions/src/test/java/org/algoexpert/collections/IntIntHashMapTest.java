@@ -0,0 +1,90 @@
+package org.algoexpert.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link IntIntHashMap}.
+ *
+ * @author Jitesh Shaw
+ */
+
+class IntIntHashMapTest {
+
+    /**
+     * An absent key maps to {@code 0}, and is told apart from a key mapped to {@code 0} by
+     * {@link IntIntHashMap#containsKey(int)}.
+     */
+    @Test
+    void absentKeysMapToZero() {
+
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(7, 0);
+
+        assertThat(map.get(8)).isZero();
+        assertThat(map.get(0)).isZero();
+        assertThat(map.containsKey(7)).isTrue();
+        assertThat(map.containsKey(8)).isFalse();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    /**
+     * {@code 0} and the extreme ints are keys like any other: put returns their previous value, and addTo their new
+     * value.
+     */
+    @Test
+    void zeroAndExtremeKeys() {
+
+        IntIntHashMap map = new IntIntHashMap(0);
+        for (int key : new int[]{0, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertThat(map.put(key, 5)).as("put %d", key).isZero();
+            assertThat(map.put(key, 6)).as("put %d again", key).isEqualTo(5);
+            assertThat(map.addTo(key, -2)).as("addTo %d", key).isEqualTo(4);
+            assertThat(map.get(key)).as("get %d", key).isEqualTo(4);
+        }
+
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    /**
+     * Adding to an absent key inserts it with the delta, and counting duplicates accumulates one per occurrence.
+     */
+    @Test
+    void addToCountsOccurrences() {
+
+        IntIntHashMap map = new IntIntHashMap();
+        for (int element : new int[]{3, 3, -1, 3, 0, -1}) {
+            map.addTo(element, 1);
+        }
+
+        assertThat(map.get(3)).isEqualTo(3);
+        assertThat(map.get(-1)).isEqualTo(2);
+        assertThat(map.get(0)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    /**
+     * Keys that differ only in their high bits are all kept, with their values, across every growth of the table,
+     * and every entry, including that of the key {@code 0}, is visited once.
+     */
+    @Test
+    void collidingKeysSurviveGrowth() {
+
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i << 16, i);
+            expected.put(i << 16, i);
+        }
+
+        Map<Integer, Integer> entries = new HashMap<>();
+        map.forEach((key, value) -> assertThat(entries.put(key, value)).as("entry %d", key).isNull());
+        assertThat(entries).isEqualTo(expected);
+        assertThat(map.get(9_999 << 16)).isEqualTo(9_999);
+    }
+}
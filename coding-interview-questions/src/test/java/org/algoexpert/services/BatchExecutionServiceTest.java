@@ -0,0 +1,328 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.algoexpert.configs.BatchExecutionProperties;
+import org.algoexpert.configs.ExecutionProperties;
+import org.algoexpert.configs.MetricsProperties;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.algoexpert.utils.LoggerUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests of {@link BatchExecutionService}, executing batches of a test algorithm whose output is streamed.
+ * <p>
+ * The algorithm writes as many elements as its input asks for, then blocks or fails if the input also asks for it,
+ * so every line can be checked against its input. Two more algorithms of other categories, one blocking until released and one
+ * echoing its input, check that the batches of a category are isolated from those of the others.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class BatchExecutionServiceTest {
+
+    private static final String STREAMED = "streamed";
+    private static final String BLOCKING = "blocking";
+    private static final String ECHO = "echo";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountDownLatch blockingStarted = new CountDownLatch(1);
+    private final CountDownLatch blockingReleased = new CountDownLatch(1);
+    private final AlgorithmRegistry algorithmRegistry = new AlgorithmRegistry(List.of(registry -> {
+        registry.register(DataStructureCategories.ARRAYS, STREAMED, JsonNode.class, () -> null,
+                this::stream);
+        registry.register(DataStructureCategories.GRAPHS, BLOCKING, JsonNode.class, () -> null, this::block);
+        registry.register(DataStructureCategories.STRINGS, ECHO, JsonNode.class, () -> null, input -> input);
+    }), objectMapper, new AlgorithmMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+    private final AlgorithmExecutionService algorithmExecutionService = new AlgorithmExecutionService(
+            singleThreadedBulkheads(), objectMapper);
+    private final BatchExecutionService batchExecutionService = newBatchExecutionService(
+            new BatchExecutionProperties());
+
+    @AfterEach
+    void shutdown() {
+        blockingReleased.countDown();
+        algorithmExecutionService.shutdown();
+    }
+
+    /**
+     * A streamed output failing part way through, or before writing anything, ends its own line with the elements
+     * written so far and the error, while the other lines of the batch are written in full.
+     */
+    @Test
+    void failingStreamedOutputEndsItsOwnLine() throws IOException {
+
+        Map<Long, JsonNode> lines = executeBatch("""
+                {"count": 3}
+                {"count": 2, "fail": true}
+                {"count": 0, "fail": true}
+                {"count": -1}
+                {"count": 10000}
+                """);
+
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0L).get("result")).hasSize(3);
+        assertThat(lines.get(0L).has("error")).isFalse();
+        assertThat(lines.get(1L).get("result")).hasSize(2);
+        assertThat(lines.get(1L).get("error").asText()).isEqualTo("Invalid input: count exhausted");
+        assertThat(lines.get(2L).get("result")).isEmpty();
+        assertThat(lines.get(2L).get("error").asText()).isEqualTo("Invalid input: count exhausted");
+        assertThat(lines.get(3L).get("result").isNull()).isTrue();
+        assertThat(lines.get(3L).get("error").asText()).isEqualTo("Invalid input: negative count");
+        assertThat(lines.get(4L).get("result")).hasSize(10000);
+    }
+
+    /**
+     * Lines longer than the in-memory threshold are spilled while they are computed, and written in full, including
+     * the part of a failing streamed output computed before it failed.
+     */
+    @Test
+    void longLinesAreSpilled() throws IOException {
+
+        BatchExecutionProperties batchExecutionProperties = new BatchExecutionProperties();
+        batchExecutionProperties.setInMemoryLineThreshold(DataSize.ofKilobytes(1));
+        BatchExecutionService spillingBatchExecutionService = newBatchExecutionService(batchExecutionProperties);
+
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        spillingBatchExecutionService.executeBatch(algorithmRegistry.find("arrays", STREAMED),
+                inputStream("{\"count\": 10000}\n{\"count\": 5000, \"fail\": true}\n{\"count\": 1}"), results);
+        Map<Long, JsonNode> lines = parseLines(results);
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0L).get("result")).hasSize(10000);
+        assertThat(lines.get(1L).get("result")).hasSize(5000);
+        assertThat(lines.get(1L).get("error").asText()).isEqualTo("Invalid input: count exhausted");
+        assertThat(lines.get(2L).get("result")).hasSize(1);
+    }
+
+    /**
+     * A streamed output blocked part way through does not hold up the lines of the other inputs of its batch, which
+     * are written while it is still being computed.
+     */
+    @Test
+    void blockedStreamedOutputDoesNotHoldUpOtherLines() throws Exception {
+
+        CountDownLatch lineWritten = new CountDownLatch(1);
+        ByteArrayOutputStream results = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                super.write(b);
+                if (b == '\n') {
+                    lineWritten.countDown();
+                }
+            }
+        };
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> {
+            try {
+                batchExecutionService.executeBatch(algorithmRegistry.find("arrays", STREAMED),
+                        inputStream("{\"count\": 2, \"block\": true}\n{\"count\": 1, \"afterBlocking\": true}"),
+                        results);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(lineWritten.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(batch).isNotDone();
+
+        blockingReleased.countDown();
+        batch.get(10, TimeUnit.SECONDS);
+        Map<Long, JsonNode> lines = parseLines(results);
+        assertThat(lines.get(0L).get("result")).hasSize(2);
+        assertThat(lines.get(1L).get("result")).hasSize(1);
+    }
+
+    /**
+     * Malformed JSON ends the batch with an error line tagged with the index of the malformed input.
+     */
+    @Test
+    void malformedInputEndsBatch() throws IOException {
+
+        Map<Long, JsonNode> lines = executeBatch("[{\"count\": 1}, {\"count\": ]");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0L).get("result")).hasSize(1);
+        assertThat(lines.get(1L).get("error").asText()).startsWith("Malformed input");
+    }
+
+    /**
+     * A failure to write to the client aborts the batch instead of being reported as the error of a line.
+     */
+    @Test
+    void writeFailureAbortsBatch() {
+
+        OutputStream brokenResults = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatIOException().isThrownBy(() -> batchExecutionService.executeBatch(
+                        algorithmRegistry.find("arrays", STREAMED), inputStream("{\"count\": 1}"), brokenResults))
+                .withMessage("Broken pipe");
+    }
+
+    /**
+     * A batch whose inputs block every thread of its category, and more than there are processors, does not hold up a
+     * batch of another category, which completes while the first one is still blocked.
+     */
+    @Test
+    void blockedBatchDoesNotHoldUpOtherCategories() throws Exception {
+
+        String blockingInputs = IntStream.range(0, Runtime.getRuntime().availableProcessors() + 1)
+                .mapToObj(i -> "{}").collect(Collectors.joining("\n"));
+        CompletableFuture<Map<Long, JsonNode>> blockingBatch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeBatch("graphs", BLOCKING, blockingInputs);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(blockingStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Map<Long, JsonNode> lines = CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeBatch("strings", ECHO, "{\"value\": 1}\n{\"value\": 2}");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(1L).get("result").get("value").asInt()).isEqualTo(2);
+        assertThat(blockingBatch).isNotDone();
+
+        blockingReleased.countDown();
+        assertThat(blockingBatch.get(10, TimeUnit.SECONDS)).hasSize(Runtime.getRuntime().availableProcessors() + 1);
+    }
+
+    /**
+     * Executes a batch of the streamed test algorithm and parses its result lines.
+     */
+    private Map<Long, JsonNode> executeBatch(String inputs) throws IOException {
+        return executeBatch("arrays", STREAMED, inputs);
+    }
+
+    /**
+     * Executes a batch of a test algorithm and parses its result lines.
+     */
+    private Map<Long, JsonNode> executeBatch(String category, String algorithmName, String inputs)
+            throws IOException {
+
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        batchExecutionService.executeBatch(algorithmRegistry.find(category, algorithmName), inputStream(inputs),
+                results);
+        return parseLines(results);
+    }
+
+    /**
+     * Parses the result lines of a batch by the index of their input.
+     */
+    private Map<Long, JsonNode> parseLines(ByteArrayOutputStream results) throws IOException {
+
+        Map<Long, JsonNode> lines = new TreeMap<>();
+        for (String line : results.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            assertThat(lines.put(node.get("index").asLong(), node)).isNull();
+        }
+        return lines;
+    }
+
+    private BatchExecutionService newBatchExecutionService(BatchExecutionProperties batchExecutionProperties) {
+        return new BatchExecutionService(new LoggerUtil(), objectMapper, algorithmExecutionService,
+                batchExecutionProperties);
+    }
+
+    /**
+     * Limits every bulkhead to a single running execution, without any queue, except that of the streamed algorithm,
+     * which runs two executions at the same time.
+     */
+    private static ExecutionProperties singleThreadedBulkheads() {
+
+        ExecutionProperties executionProperties = new ExecutionProperties();
+        executionProperties.getDefaultBulkhead().setMaxConcurrent(1);
+        executionProperties.getDefaultBulkhead().setMaxQueued(0);
+        executionProperties.getDefaultBulkhead().setComputeParallelism(1);
+        ExecutionProperties.BulkheadProperties arraysBulkhead = new ExecutionProperties.BulkheadProperties();
+        arraysBulkhead.setMaxConcurrent(2);
+        arraysBulkhead.setMaxQueued(0);
+        arraysBulkhead.setComputeParallelism(1);
+        executionProperties.getBulkheads().put(DataStructureCategories.ARRAYS, arraysBulkhead);
+        return executionProperties;
+    }
+
+    private static ByteArrayInputStream inputStream(String inputs) {
+        return new ByteArrayInputStream(inputs.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes {@code count} elements, then blocks until released if {@code block} is set, and fails if {@code fail} is
+     * set; fails before writing anything if {@code count} is negative. If {@code afterBlocking} is set, waits for
+     * another input to block before writing anything.
+     */
+    private StreamedOutput stream(JsonNode input) {
+        return new StreamedOutput(generator -> {
+            int count = input.get("count").asInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("negative count");
+            }
+            if (input.path("afterBlocking").asBoolean()) {
+                await(blockingStarted);
+            }
+            generator.writeStartArray();
+            for (int i = 0; i < count; i++) {
+                generator.writeArray(new int[]{i, -i}, 0, 2);
+            }
+            if (input.path("block").asBoolean()) {
+                block(input);
+            }
+            if (input.path("fail").asBoolean()) {
+                throw new IllegalArgumentException("count exhausted");
+            }
+            generator.writeEndArray();
+            return count;
+        });
+    }
+
+    /**
+     * Blocks until the test releases it, then returns its input.
+     */
+    private JsonNode block(JsonNode input) {
+        blockingStarted.countDown();
+        await(blockingReleased);
+        return input;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
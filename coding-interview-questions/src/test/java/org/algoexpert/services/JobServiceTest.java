@@ -0,0 +1,269 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.algoexpert.configs.JobProperties;
+import org.algoexpert.configs.MetricsProperties;
+import org.algoexpert.dtos.JobStatus;
+import org.algoexpert.execution.CancellationToken;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests of {@link JobService}, executing jobs of a test algorithm held part way through its output until released.
+ * <p>
+ * The algorithm writes and flushes the first element of its output, then waits at cancellation checkpoints until the
+ * test releases it, so the state of every job is known when it is checked.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class JobServiceTest {
+
+    private static final String GATED = "gated";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Semaphore started = new Semaphore(0);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final AlgorithmRegistry algorithmRegistry = new AlgorithmRegistry(List.of(registry -> registry
+            .register(DataStructureCategories.ARRAYS, GATED, JsonNode.class, () -> null, this::stream)),
+            objectMapper, new AlgorithmMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+    private final List<JobService> jobServices = new ArrayList<>();
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void shutdown() {
+        released.countDown();
+        jobServices.forEach(JobService::shutdown);
+    }
+
+    /**
+     * Cancelling queued jobs while the only worker is busy frees their places in the queue, so new jobs are accepted
+     * again and executed once the worker is free.
+     */
+    @Test
+    void cancellingQueuedJobsFreesTheQueue() throws Exception {
+
+        JobService jobService = jobService(2, Duration.ofHours(1));
+        JobStatus running = submit(jobService, 3);
+        awaitStarted();
+        JobStatus first = submit(jobService, 1);
+        JobStatus second = submit(jobService, 1);
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> submit(jobService, 1));
+
+        assertThat(jobService.cancel(first.getId()).getState()).isEqualTo(JobStatus.State.CANCELLED);
+        assertThat(jobService.cancel(second.getId()).getState()).isEqualTo(JobStatus.State.CANCELLED);
+        JobStatus third = submit(jobService, 1);
+        JobStatus fourth = submit(jobService, 1);
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> submit(jobService, 1));
+
+        released.countDown();
+        awaitState(jobService, running.getId(), JobStatus.State.SUCCEEDED);
+        awaitState(jobService, third.getId(), JobStatus.State.SUCCEEDED);
+        awaitState(jobService, fourth.getId(), JobStatus.State.SUCCEEDED);
+        assertThat(jobService.getStatus(first.getId()).getState()).isEqualTo(JobStatus.State.CANCELLED);
+        assertThat(Files.exists(directory.resolve(first.getId() + ".input.json"))).isFalse();
+    }
+
+    /**
+     * Cancelling a running job stops it at its next checkpoint, and deletes its partial result.
+     */
+    @Test
+    void cancellingRunningJobStopsIt() throws Exception {
+
+        JobService jobService = jobService(10, Duration.ofHours(1));
+        JobStatus job = submit(jobService, 3);
+        awaitStarted();
+
+        jobService.cancel(job.getId());
+
+        awaitState(jobService, job.getId(), JobStatus.State.CANCELLED);
+        assertThat(Files.exists(directory.resolve(job.getId() + ".result.json"))).isFalse();
+        // The freed worker executes the next job
+        released.countDown();
+        awaitState(jobService, submit(jobService, 1).getId(), JobStatus.State.SUCCEEDED);
+    }
+
+    /**
+     * Streaming the result of a running job writes the part computed so far straight away, then the rest of it once
+     * the job finishes.
+     */
+    @Test
+    void streamingRunningJobWritesPartialResult() throws Exception {
+
+        JobService jobService = jobService(10, Duration.ofHours(1));
+        JobStatus job = submit(jobService, 3);
+        awaitStarted();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        CompletableFuture<Void> streamed = CompletableFuture.runAsync(() -> {
+            try {
+                jobService.streamResult(job.getId(), result);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().atMost(TIMEOUT).until(() -> text(result).equals("[[0,0]"));
+        assertThat(streamed).isNotDone();
+
+        released.countDown();
+        streamed.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(text(result)).isEqualTo("[[0,0],[1,-1],[2,-2]]");
+    }
+
+    /**
+     * A new service on the same directory queues the jobs left queued or running again in submission order, fails the
+     * jobs whose input was lost, and keeps the finished jobs.
+     */
+    @Test
+    void unfinishedJobsAreRecovered() throws Exception {
+
+        Instant submittedAt = Instant.now().minusSeconds(60);
+        persist(status("running", JobStatus.State.RUNNING, submittedAt), "{\"count\": 2}");
+        persist(status("queued", JobStatus.State.QUEUED, submittedAt.plusSeconds(1)), "{\"count\": 1}");
+        persist(status("lost", JobStatus.State.RUNNING, submittedAt.plusSeconds(2)), null);
+        JobStatus succeeded = status("succeeded", JobStatus.State.SUCCEEDED, submittedAt);
+        succeeded.setFinishedAt(submittedAt.plusSeconds(5));
+        persist(succeeded, null);
+        Files.writeString(directory.resolve("succeeded.result.json"), "[]");
+
+        released.countDown();
+        JobService jobService = jobService(10, Duration.ofHours(1));
+
+        awaitState(jobService, "running", JobStatus.State.SUCCEEDED);
+        awaitState(jobService, "queued", JobStatus.State.SUCCEEDED);
+        JobStatus lost = jobService.getStatus("lost");
+        assertThat(lost.getState()).isEqualTo(JobStatus.State.FAILED);
+        assertThat(lost.getError()).isEqualTo("Input of the job was lost");
+        assertThat(jobService.getStatus("succeeded").getFinishedAt()).isEqualTo(succeeded.getFinishedAt());
+        assertThat(jobService.getStatus("running").getStartedAt())
+                .isBefore(jobService.getStatus("queued").getStartedAt());
+        assertThat(Files.readString(directory.resolve("running.result.json"))).isEqualTo("[[0,0],[1,-1]]");
+    }
+
+    /**
+     * Finished jobs are deleted, with their files, once their result TTL expires, while running jobs are kept.
+     */
+    @Test
+    void expiredJobsAreDeleted() throws Exception {
+
+        JobService jobService = jobService(10, Duration.ofMillis(200));
+        JobStatus running = submit(jobService, 3);
+        awaitStarted();
+        JobStatus cancelled = submit(jobService, 1);
+        jobService.cancel(cancelled.getId());
+
+        await().atMost(TIMEOUT).until(() -> jobService.getStatus(cancelled.getId()) == null);
+        assertThat(jobService.getStatus(running.getId()).getState()).isEqualTo(JobStatus.State.RUNNING);
+
+        released.countDown();
+        awaitState(jobService, running.getId(), JobStatus.State.SUCCEEDED);
+        await().atMost(TIMEOUT).until(() -> jobService.getStatus(running.getId()) == null);
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    /**
+     * Creates a job service with a single worker on the temporary directory.
+     */
+    private JobService jobService(int maxQueued, Duration resultTtl) throws IOException {
+
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.setDirectory(directory.toString());
+        jobProperties.setWorkers(1);
+        jobProperties.setMaxQueued(maxQueued);
+        jobProperties.setResultTtl(resultTtl);
+        JobService jobService = new JobService(algorithmRegistry, objectMapper, jobProperties);
+        jobServices.add(jobService);
+        return jobService;
+    }
+
+    private JobStatus submit(JobService jobService, int count) throws IOException {
+        AlgorithmRegistration<?, ?> registration = algorithmRegistry.find("arrays", GATED);
+        return jobService.submit(registration, objectMapper.createObjectNode().put("count", count));
+    }
+
+    private void awaitStarted() throws InterruptedException {
+        assertThat(started.tryAcquire(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    private static void awaitState(JobService jobService, String id, JobStatus.State state) {
+        await().atMost(TIMEOUT).until(() -> jobService.getStatus(id).getState() == state);
+    }
+
+    private static JobStatus status(String id, JobStatus.State state, Instant submittedAt) {
+        return new JobStatus(id, DataStructureCategories.ARRAYS.getDisplayName(), GATED, state, submittedAt,
+                state == JobStatus.State.QUEUED ? null : submittedAt, null, null);
+    }
+
+    /**
+     * Writes the status of a job, and its input unless it is null, as a stopped service would have left them.
+     */
+    private void persist(JobStatus status, String input) throws IOException {
+        objectMapper.writeValue(directory.resolve(status.getId() + ".status.json").toFile(), status);
+        if (input != null) {
+            Files.writeString(directory.resolve(status.getId() + ".input.json"), input);
+        }
+    }
+
+    private static String text(ByteArrayOutputStream result) {
+        return result.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes {@code count} elements, flushing the first one and holding at cancellation checkpoints until released.
+     */
+    private StreamedOutput stream(JsonNode input) {
+        return new StreamedOutput(generator -> {
+            int count = input.get("count").asInt();
+            generator.writeStartArray();
+            for (int i = 0; i < count; i++) {
+                generator.writeArray(new int[]{i, -i}, 0, 2);
+                if (i == 0) {
+                    generator.flush();
+                    started.release();
+                    try {
+                        while (!released.await(10, TimeUnit.MILLISECONDS)) {
+                            CancellationToken.checkpoint();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            generator.writeEndArray();
+            return count;
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package org.algoexpert.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.algoexpert.cache.CachedResult;
+import org.algoexpert.configs.MemoryProperties;
+import org.algoexpert.configs.MetricsProperties;
+import org.algoexpert.configs.ResultCacheProperties;
+import org.algoexpert.metrics.AlgorithmMetrics;
+import org.algoexpert.registry.AlgorithmRegistration;
+import org.algoexpert.registry.AlgorithmRegistry;
+import org.algoexpert.registry.StreamedOutput;
+import org.algoexpert.utils.DataStructureCategories;
+import org.algoexpert.utils.IntTokenizer;
+import org.algoexpert.utils.JsonInputHasher;
+import org.algoexpert.utils.LoggerUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link ResultCacheService}, caching the results of a test algorithm echoing its input, and the streamed
+ * results of fourNumberSum.
+ *
+ * @author Jitesh Shaw
+ */
+
+class ResultCacheServiceTest {
+
+    private static final String ECHO = "echo";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AlgorithmMetrics algorithmMetrics = new AlgorithmMetrics(new SimpleMeterRegistry(),
+            new MetricsProperties());
+    private final AlgorithmRegistry algorithmRegistry = new AlgorithmRegistry(List.of(registry -> registry
+                    .register(DataStructureCategories.ARRAYS, ECHO, JsonNode.class, () -> null, input -> input),
+            new ArraysService(new LoggerUtil(), new IntTokenizer(InputStream.nullInputStream()), algorithmMetrics,
+                    new MemoryProperties())), objectMapper, algorithmMetrics);
+
+    /**
+     * The hits, misses, evictions, size and weight of the cache are published as meters, which follow the cache as
+     * results are looked up and cached.
+     */
+    @Test
+    void countersOfTheCacheArePublished() throws IOException {
+
+        ResultCacheProperties resultCacheProperties = new ResultCacheProperties();
+        resultCacheProperties.setMaximumMemory(DataSize.ofBytes(400));
+        ResultCacheService resultCacheService = new ResultCacheService(objectMapper, resultCacheProperties,
+                meterRegistry);
+        AlgorithmRegistration<?, ?> echo = algorithmRegistry.find("arrays", ECHO);
+
+        assertThat(resultCacheService.get(echo, 1)).isNull();
+        resultCacheService.executeJson(echo, objectMapper.readTree("[1, 2, 3]"), 1);
+        assertThat(resultCacheService.get(echo, 1)).isNotNull();
+        assertThat(resultCacheService.get(echo, 1)).isNotNull();
+
+        assertThat(meterRegistry.get("algoexpert.result.cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("algoexpert.result.cache.gets").tag("result", "miss").functionCounter()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("algoexpert.result.cache.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("algoexpert.result.cache.weight").gauge().value()).isEqualTo(128 + 7);
+        assertThat(meterRegistry.get("algoexpert.result.cache.max.weight").gauge().value()).isEqualTo(400);
+
+        // Every entry weighs 135 bytes, so only two of them fit
+        for (long inputHash = 2; inputHash <= 4; inputHash++) {
+            resultCacheService.executeJson(echo, objectMapper.readTree("[1, 2, 3]"), inputHash);
+        }
+        assertThat(meterRegistry.get("algoexpert.result.cache.evictions").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("algoexpert.result.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    /**
+     * The streamed result of fourNumberSum is cached once it has been written, so a repeated input is a cache hit
+     * holding the same JSON as the streamed result.
+     */
+    @Test
+    void repeatedFourNumberSumInputIsACacheHit() throws IOException {
+
+        ResultCacheService resultCacheService = new ResultCacheService(objectMapper, new ResultCacheProperties(),
+                meterRegistry);
+        AlgorithmRegistration<?, ?> fourNumberSum = algorithmRegistry.find("arrays", "fourNumberSum");
+        JsonNode input = objectMapper.readTree("{\"array\": [7, 6, 4, -1, 1, 2], \"targetSum\": 16}");
+        long inputHash = JsonInputHasher.hash(input);
+
+        Object result = resultCacheService.executeJson(fourNumberSum, input, inputHash);
+        assertThat(result).isInstanceOf(StreamedOutput.class);
+        assertThat(resultCacheService.get(fourNumberSum, inputHash)).isNull();
+        String streamedJson = objectMapper.writeValueAsString(result);
+
+        CachedResult cachedResult = resultCacheService.get(fourNumberSum, inputHash);
+        assertThat(cachedResult).isNotNull();
+        assertThat(objectMapper.writeValueAsString(cachedResult)).isEqualTo(streamedJson);
+        assertThat(objectMapper.readTree(streamedJson)).hasSize(2);
+        assertThat(meterRegistry.get("algoexpert.result.cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    /**
+     * A streamed result larger than the maximum entry size is still written in full, but is not cached.
+     */
+    @Test
+    void streamedResultTooLargeIsNotCached() throws IOException {
+
+        ResultCacheProperties resultCacheProperties = new ResultCacheProperties();
+        resultCacheProperties.setMaximumEntrySize(DataSize.ofBytes(16));
+        ResultCacheService resultCacheService = new ResultCacheService(objectMapper, resultCacheProperties,
+                meterRegistry);
+        AlgorithmRegistration<?, ?> fourNumberSum = algorithmRegistry.find("arrays", "fourNumberSum");
+        JsonNode input = objectMapper.readTree("{\"array\": [7, 6, 4, -1, 1, 2], \"targetSum\": 16}");
+
+        String streamedJson = objectMapper.writeValueAsString(resultCacheService.executeJson(fourNumberSum, input,
+                1));
+
+        assertThat(streamedJson).isEqualTo(objectMapper.writeValueAsString(fourNumberSum.executeJson(input)));
+        assertThat(resultCacheService.get(fourNumberSum, 1)).isNull();
+    }
+
+    /**
+     * A disabled cache registers no meters.
+     */
+    @Test
+    void disabledCacheRegistersNoMeters() {
+
+        ResultCacheProperties resultCacheProperties = new ResultCacheProperties();
+        resultCacheProperties.setEnabled(false);
+        new ResultCacheService(objectMapper, resultCacheProperties, meterRegistry);
+
+        assertThat(meterRegistry.find("algoexpert.result.cache.gets").meters()).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package org.algoexpert.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IntRadixSort} against {@link Arrays#sort(int[])} and {@link Arrays#parallelSort(int[])}, sorting
+ * a copy of an array of random ints spanning the whole int range.
+ * <p>
+ * Every benchmark leaves the array untouched, as ThreeNumberSum requires, so the JDK sorts include copying the array.
+ * The parallel sorts run on the common pool. Arrays of up to 4M elements sort into pooled scratch buffers, while
+ * longer ones allocate theirs on every sort. At 10^8 elements, every sort holds about 1.2 GB, so the forked JVM is
+ * given a 4 GB heap. Run it with {@code mvn -Pbenchmark test -Djmh.args=IntRadixSortBenchmark}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IntRadixSortBenchmark {
+
+    /**
+     * Number of elements of the array.
+     */
+    @Param({"100000", "1000000", "10000000", "100000000"})
+    public int length;
+
+    private int[] array;
+
+    @Setup
+    public void generateArray() {
+        array = new Random(length).ints(length).toArray();
+    }
+
+    @Benchmark
+    public void radixSort(Blackhole blackhole) {
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(IntBuffer.wrap(array))) {
+            blackhole.consume(sorted.array());
+        }
+    }
+
+    @Benchmark
+    public void radixSortParallel(Blackhole blackhole) {
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopyParallel(IntBuffer.wrap(array),
+                ForkJoinPool.commonPool())) {
+            blackhole.consume(sorted.array());
+        }
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        int[] sorted = array.clone();
+        Arrays.parallelSort(sorted);
+        return sorted;
+    }
+}
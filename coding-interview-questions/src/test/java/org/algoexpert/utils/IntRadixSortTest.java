@@ -0,0 +1,166 @@
+package org.algoexpert.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link IntRadixSort}, and of the pool of its scratch buffers.
+ *
+ * @author Jitesh Shaw
+ */
+
+class IntRadixSortTest {
+
+    /**
+     * Empty and single-element buffers are copied as they are.
+     */
+    @Test
+    void emptyAndSingleElementBuffers() {
+
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(IntBuffer.allocate(0))) {
+            assertThat(sorted.length()).isZero();
+        }
+        assertSorted(new int[]{-7});
+    }
+
+    /**
+     * Negative values are ordered before positive ones, although their sign bit makes them the largest unsigned
+     * values, and the extreme ints and repeated values are kept, in arrays short enough to be sorted by comparisons
+     * and long enough to be radix sorted.
+     */
+    @Test
+    void signsAndExtremesAreOrdered() {
+
+        int[] extremes = {Integer.MAX_VALUE, -1, 0, Integer.MIN_VALUE, 1, Integer.MIN_VALUE, 256, -256};
+        assertSorted(extremes);
+        assertSorted(spread(1000, i -> extremes[i % extremes.length] + i % 3 - 1));
+    }
+
+    /**
+     * Arrays whose elements share some of their bytes, whose passes are skipped, are radix sorted all the same: small
+     * values, negative values only, values differing in their low byte only, and a single repeated value.
+     */
+    @Test
+    void skippedPassesKeepTheOrder() {
+
+        assertSorted(spread(1000, i -> i * 37 % 1000));
+        assertSorted(spread(1000, i -> -1 - i * 37 % 1000 * 65_536));
+        assertSorted(spread(1000, i -> 0x1200_0000 | i * 37 % 256));
+        assertSorted(spread(1000, i -> 42));
+    }
+
+    /**
+     * Only the elements between the position and the limit of a buffer are sorted, from heap and direct buffers
+     * alike, and the buffer is left unchanged.
+     */
+    @Test
+    void elementsOutsideTheBufferAreIgnored() {
+
+        for (boolean direct : new boolean[]{false, true}) {
+            IntBuffer buffer = direct
+                    ? ByteBuffer.allocateDirect(7 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+                    : IntBuffer.allocate(7);
+            buffer.put(new int[]{-100, 9, -3, 5, 0, 100, -200}).position(1).limit(5);
+
+            try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(buffer)) {
+                assertThat(Arrays.copyOf(sorted.array(), sorted.length())).as("direct %s", direct)
+                        .containsExactly(-3, 0, 5, 9);
+            }
+            assertThat(buffer.position()).isEqualTo(1);
+            assertThat(buffer.get(1)).isEqualTo(9);
+        }
+    }
+
+    /**
+     * Splitting the passes across a pool gives the same elements as {@link Arrays#sort(int[])}, on an array long
+     * enough to be split, and on a pool of a single thread, which sorts sequentially.
+     */
+    @Test
+    void sortedCopyParallelMatchesArraysSort() {
+
+        // Multiplying by an odd constant spreads the values over every byte, the sign bit included
+        int[] array = new int[300_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i * 0x9E37_79B9;
+        }
+        array[7] = Integer.MIN_VALUE;
+        int[] expected = array.clone();
+        Arrays.sort(expected);
+
+        for (int parallelism : new int[]{1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopyParallel(IntBuffer.wrap(array), pool)) {
+                assertThat(Arrays.copyOf(sorted.array(), sorted.length())).as("parallelism %d", parallelism)
+                        .isEqualTo(expected);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * A scratch closed on one thread is reused by a sort of no greater length on another thread, as when every
+     * execution runs on a new virtual thread.
+     */
+    @Test
+    void scratchIsSharedAcrossThreads() throws Exception {
+
+        // Longer than any scratch the other tests may have pooled, so the pool has no better fit
+        IntRadixSort.Scratch closed = IntRadixSort.acquire(3_000_000);
+        int[] buffer = closed.array();
+        closed.close();
+
+        CompletableFuture<int[]> reused = CompletableFuture.supplyAsync(() -> {
+            try (IntRadixSort.Scratch scratch = IntRadixSort.acquire(2_900_000)) {
+                return scratch.array();
+            }
+        }, runnable -> new Thread(runnable).start());
+        assertThat(reused.get()).isSameAs(buffer);
+    }
+
+    /**
+     * A scratch longer than the whole pool may hold is not retained once closed.
+     */
+    @Test
+    void hugeScratchIsNotRetained() {
+
+        int[] buffer;
+        try (IntRadixSort.Scratch scratch = IntRadixSort.acquire((1 << 22) + 1)) {
+            buffer = scratch.array();
+        }
+        try (IntRadixSort.Scratch scratch = IntRadixSort.acquire((1 << 22) + 1)) {
+            assertThat(scratch.array()).isNotSameAs(buffer);
+        }
+    }
+
+    /**
+     * Asserts that sorting an array gives the same elements as {@link Arrays#sort(int[])}, and leaves it unchanged.
+     */
+    private static void assertSorted(int[] array) {
+
+        int[] original = array.clone();
+        int[] expected = array.clone();
+        Arrays.sort(expected);
+        try (IntRadixSort.Scratch sorted = IntRadixSort.sortedCopy(IntBuffer.wrap(array))) {
+            assertThat(Arrays.copyOf(sorted.array(), sorted.length())).isEqualTo(expected);
+        }
+        assertThat(array).isEqualTo(original);
+    }
+
+    /**
+     * Returns an array of the provided length, holding the values of the provided function of their index.
+     */
+    private static int[] spread(int length, IntUnaryOperator value) {
+        return IntStream.range(0, length).map(value).toArray();
+    }
+}
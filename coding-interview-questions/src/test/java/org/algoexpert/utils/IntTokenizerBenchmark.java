@@ -0,0 +1,105 @@
+package org.algoexpert.utils;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IntTokenizer} against {@code Integer.parseInt(reader.readLine())}, reading an array of ints
+ * given one value per line, as the console input readers do.
+ * <p>
+ * Besides the arrays read per second, the {@code bytes} counter reports the bytes of input read per second, so the
+ * MB/s of both readers can be compared directly. Run it with
+ * {@code mvn -Pbenchmark test -Djmh.args=IntTokenizerBenchmark}.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntTokenizerBenchmark {
+
+    /**
+     * Number of values of the array.
+     */
+    @Param({"1000", "1000000"})
+    public int length;
+
+    /**
+     * Range of the values: "small" values of at most three digits, or "full" values spanning the whole int range.
+     */
+    @Param({"small", "full"})
+    public String range;
+
+    private byte[] input;
+
+    /**
+     * Counts the bytes of input read, which JMH reports per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void generateInput() {
+
+        Random random = new Random(length);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            lines.append(range.equals("small") ? random.nextInt(2000) - 1000 : random.nextInt()).append('\n');
+        }
+        input = lines.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public int[] intTokenizer(Throughput throughput) throws IOException {
+
+        int[] values = new IntTokenizer(new ByteArrayInputStream(input)).nextInts(new int[length]);
+        throughput.bytes += input.length;
+        return values;
+    }
+
+    @Benchmark
+    public int[] parseIntReadLine(Throughput throughput) throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(input),
+                StandardCharsets.US_ASCII), 1 << 16);
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = Integer.parseInt(reader.readLine());
+        }
+        throughput.bytes += input.length;
+        return values;
+    }
+}
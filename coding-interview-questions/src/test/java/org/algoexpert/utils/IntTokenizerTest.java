@@ -0,0 +1,157 @@
+package org.algoexpert.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link IntTokenizer}: the extremes of the int and long ranges and the values just past them, the
+ * separators between tokens, and the end of the input.
+ * <p>
+ * Every input is also read with a one-byte buffer, so each token spans several refills.
+ * </p>
+ *
+ * @author Jitesh Shaw
+ */
+
+class IntTokenizerTest {
+
+    /**
+     * The extremes of the long range are parsed, with or without a sign, and so are zeros.
+     */
+    @Test
+    void parsesLongExtremes() throws IOException {
+
+        for (int bufferSize : new int[]{1, 64}) {
+            IntTokenizer tokenizer = tokenizer("9223372036854775807 -9223372036854775808 +9223372036854775807 " +
+                    "-0 +0 0000000000000000000000042", bufferSize);
+
+            assertThat(tokenizer.nextLong()).isEqualTo(Long.MAX_VALUE);
+            assertThat(tokenizer.nextLong()).isEqualTo(Long.MIN_VALUE);
+            assertThat(tokenizer.nextLong()).isEqualTo(Long.MAX_VALUE);
+            assertThat(tokenizer.nextLong()).isZero();
+            assertThat(tokenizer.nextLong()).isZero();
+            assertThat(tokenizer.nextLong()).isEqualTo(42);
+        }
+    }
+
+    /**
+     * Values one past either end of the long range, and values with more digits than a long holds, are rejected, like
+     * {@link Long#parseLong(String)} rejects them.
+     */
+    @Test
+    void rejectsLongOverflow() {
+
+        for (String token : new String[]{"9223372036854775808", "-9223372036854775809", "9223372036854775810",
+                "-9223372036854775810", "18446744073709551615", "99999999999999999999"}) {
+            assertThatThrownBy(() -> Long.parseLong(token)).isInstanceOf(NumberFormatException.class);
+            for (int bufferSize : new int[]{1, 64}) {
+                assertThatThrownBy(() -> tokenizer(token, bufferSize).nextLong()).as(token)
+                        .isInstanceOf(NumberFormatException.class).hasMessage("Value out of long range");
+            }
+        }
+    }
+
+    /**
+     * The extremes of the int range are parsed, and the values one past them, though valid longs, are rejected.
+     */
+    @Test
+    void parsesIntExtremes() throws IOException {
+
+        IntTokenizer tokenizer = tokenizer("2147483647 -2147483648 2147483648 -2147483649", 1);
+
+        assertThat(tokenizer.nextInt()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(tokenizer.nextInt()).isEqualTo(Integer.MIN_VALUE);
+        assertThatThrownBy(tokenizer::nextInt).isInstanceOf(NumberFormatException.class)
+                .hasMessage("Value out of int range: 2147483648");
+        assertThatThrownBy(tokenizer::nextInt).isInstanceOf(NumberFormatException.class)
+                .hasMessage("Value out of int range: -2147483649");
+    }
+
+    /**
+     * Runs of whitespace and commas of any length separate tokens, and the end of the input ends the last one.
+     */
+    @Test
+    void splitsOnWhitespaceAndCommas() throws IOException {
+
+        for (int bufferSize : new int[]{1, 64}) {
+            IntTokenizer tokenizer = tokenizer("  1,2 ,, 3\r\n\t4\n\n,-5,true\fFALSE\u000b7", bufferSize);
+
+            assertThat(tokenizer.nextInts(new int[5])).containsExactly(1, 2, 3, 4, -5);
+            assertThat(tokenizer.nextBoolean()).isTrue();
+            assertThat(tokenizer.nextToken()).isEqualTo("FALSE");
+            assertThat(tokenizer.nextInt()).isEqualTo(7);
+        }
+    }
+
+    /**
+     * Tokens that are not numbers, or are glued to other characters, are rejected rather than parsed in part.
+     */
+    @Test
+    void rejectsMalformedNumbers() {
+
+        for (String token : new String[]{"-", "+", "--1", "+-1", "1-", "12a", "0x10", "1.5", "a1", "١"}) {
+            assertThatThrownBy(() -> tokenizer(token, 1).nextLong()).as(token)
+                    .isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    /**
+     * An empty input, or one holding only separators, ends before its first token, and so does any input once its
+     * last token has been read.
+     */
+    @Test
+    void reportsEndOfInput() throws IOException {
+
+        assertThatExceptionOfType(EOFException.class).isThrownBy(() -> tokenizer("", 1).nextInt());
+        assertThatExceptionOfType(EOFException.class).isThrownBy(() -> tokenizer(" ,\n\t,", 1).nextLong());
+        assertThatExceptionOfType(EOFException.class).isThrownBy(() -> tokenizer("", 1).nextToken());
+
+        IntTokenizer tokenizer = tokenizer("1 2\n", 1);
+        assertThat(tokenizer.nextInts(new int[2])).containsExactly(1, 2);
+        assertThatExceptionOfType(EOFException.class).isThrownBy(tokenizer::nextInt);
+        assertThatExceptionOfType(EOFException.class).isThrownBy(() -> tokenizer.nextInts(new int[1]));
+    }
+
+    /**
+     * Reading a token never reads past the separator ending it, so a console reader does not block on input that
+     * follows the last requested value.
+     */
+    @Test
+    void doesNotReadPastSeparator() throws IOException {
+
+        InputStream console = new InputStream() {
+            private final byte[] line = "42\n".getBytes(StandardCharsets.US_ASCII);
+            private boolean read;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (read) {
+                    throw new AssertionError("Read past the separator");
+                }
+                read = true;
+                System.arraycopy(line, 0, bytes, offset, line.length);
+                return line.length;
+            }
+        };
+
+        assertThat(new IntTokenizer(console).nextInt()).isEqualTo(42);
+    }
+
+    private static IntTokenizer tokenizer(String input, int bufferSize) {
+        return new IntTokenizer(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+}